@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.analise;
+
+import org.jspecify.annotations.NullMarked;
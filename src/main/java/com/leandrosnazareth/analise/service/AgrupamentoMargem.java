@@ -0,0 +1,20 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Agrupamento das linhas do relatório de margem.
+ */
+public enum AgrupamentoMargem {
+    DIA("Dia"),
+    CATEGORIA("Categoria"),
+    PRODUTO("Produto");
+
+    private final String descricao;
+
+    AgrupamentoMargem(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,189 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.security.AppRoles;
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Responde consultas dinâmicas sobre as vendas a partir do {@link CuboVendas}, sem
+ * agregações no banco: a soma é feita pela varredura do cubo e aqui só são montados
+ * os rótulos e a tabela.
+ */
+@Service
+@PreAuthorize("hasAnyRole('" + AppRoles.ADMIN + "', '" + AppRoles.PRODUCT_MANAGER + "')")
+public class AnaliseVendasService {
+
+    // Limites para que a tabela continue legível e leve para a tela
+    static final int LIMITE_LINHAS = 500;
+    static final int LIMITE_COLUNAS = 60;
+
+    private static final Locale PORTUGUES = new Locale("pt", "BR");
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final CuboVendas cubo;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    AnaliseVendasService(CuboVendas cubo, NamedParameterJdbcTemplate jdbcTemplate) {
+        this.cubo = cubo;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Agrupa as vendas do período pelas dimensões da consulta.
+     * <p>
+     * Linhas e colunas de dimensões temporais ficam em ordem cronológica; as demais, da
+     * maior para a menor soma. A tabela é limitada a {@value #LIMITE_LINHAS} linhas e
+     * {@value #LIMITE_COLUNAS} colunas, mantendo os períodos mais recentes ou as maiores
+     * somas; os totais consideram também o que ficou de fora.
+     * </p>
+     */
+    public ResultadoPivo pivotar(ConsultaPivo consulta) {
+        Instant inicio = Instant.now();
+        CuboVendas.Agregacao agregacao = cubo.agregar(consulta);
+
+        Map<Integer, Long> totaisLinhas = new HashMap<>();
+        Map<Integer, Long> totaisColunas = new HashMap<>();
+        long[] total = new long[1];
+        agregacao.somas().visitar((chave, quantidade, centavos, itens) -> {
+            long valor = medir(consulta.medida(), quantidade, centavos, itens);
+            totaisLinhas.merge(CuboVendas.linhaDaChave(chave), valor, Long::sum);
+            totaisColunas.merge(CuboVendas.colunaDaChave(chave), valor, Long::sum);
+            total[0] += valor;
+        });
+
+        List<Integer> linhas = ordenar(totaisLinhas, consulta.linhas(), LIMITE_LINHAS);
+        List<Integer> colunas = consulta.colunas() == null ? List.of()
+                : ordenar(totaisColunas, consulta.colunas(), LIMITE_COLUNAS);
+        Map<Integer, Integer> posicaoLinha = posicoes(linhas);
+        Map<Integer, Integer> posicaoColuna = posicoes(colunas);
+
+        long[][] valores = new long[linhas.size()][colunas.size()];
+        if (!colunas.isEmpty()) {
+            agregacao.somas().visitar((chave, quantidade, centavos, itens) -> {
+                Integer linha = posicaoLinha.get(CuboVendas.linhaDaChave(chave));
+                Integer coluna = posicaoColuna.get(CuboVendas.colunaDaChave(chave));
+                if (linha != null && coluna != null) {
+                    valores[linha][coluna] = medir(consulta.medida(), quantidade, centavos, itens);
+                }
+            });
+        }
+
+        IntFunction<String> rotuloLinha = rotulos(consulta.linhas(), linhas, agregacao.dicionario());
+        List<ResultadoPivo.Linha> resultado = new ArrayList<>(linhas.size());
+        for (int i = 0; i < linhas.size(); i++) {
+            resultado.add(new ResultadoPivo.Linha(rotuloLinha.apply(linhas.get(i)), valores[i],
+                    totaisLinhas.get(linhas.get(i))));
+        }
+        List<String> rotulosColunas = List.of();
+        if (consulta.colunas() != null) {
+            IntFunction<String> rotuloColuna = rotulos(consulta.colunas(), colunas, agregacao.dicionario());
+            rotulosColunas = colunas.stream().map(rotuloColuna::apply).toList();
+        }
+        return new ResultadoPivo(rotulosColunas, resultado,
+                colunas.stream().mapToLong(totaisColunas::get).toArray(), total[0],
+                totaisLinhas.size() - linhas.size(), agregacao.registrosVarridos(),
+                Duration.between(inicio, Instant.now()));
+    }
+
+    /**
+     * Categorias presentes nas vendas do cubo, para os filtros da consulta.
+     */
+    public List<String> listarCategorias() {
+        return cubo.listarCategorias();
+    }
+
+    /**
+     * Dia da venda mais recente do cubo, ou {@code null} se ainda não houver vendas.
+     */
+    public @Nullable LocalDate buscarUltimoDia() {
+        return cubo.buscarUltimoDia();
+    }
+
+    /**
+     * Dia da venda mais antiga do cubo, ou {@code null} se ainda não houver vendas.
+     */
+    public @Nullable LocalDate buscarPrimeiroDia() {
+        return cubo.buscarPrimeiroDia();
+    }
+
+    private static long medir(MedidaAnalise medida, long quantidade, long centavos, long itens) {
+        return switch (medida) {
+            case VALOR -> centavos;
+            case QUANTIDADE -> quantidade;
+            case ITENS -> itens;
+        };
+    }
+
+    private static List<Integer> ordenar(Map<Integer, Long> totais, DimensaoAnalise dimensao, int limite) {
+        if (dimensao.isTemporal()) {
+            // Os mais recentes, em ordem cronológica
+            return totais.keySet().stream()
+                    .sorted()
+                    .skip(Math.max(0, totais.size() - limite))
+                    .toList();
+        }
+        return totais.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static Map<Integer, Integer> posicoes(List<Integer> valores) {
+        Map<Integer, Integer> posicoes = new HashMap<>();
+        for (int i = 0; i < valores.size(); i++) {
+            posicoes.put(valores.get(i), i);
+        }
+        return posicoes;
+    }
+
+    private IntFunction<String> rotulos(DimensaoAnalise dimensao, List<Integer> valores, String[] dicionario) {
+        return switch (dimensao) {
+            case DIA -> valor -> LocalDate.ofEpochDay(valor).format(FORMATO_DIA);
+            case MES -> valor -> "%02d/%d".formatted(valor % 12 + 1, valor / 12);
+            case DIA_SEMANA -> valor -> DayOfWeek.of(valor + 1).getDisplayName(TextStyle.FULL, PORTUGUES);
+            case CATEGORIA -> valor -> valor == CuboVendas.SEM_CATEGORIA ? "Sem categoria" : dicionario[valor];
+            case FORMA_PAGAMENTO -> valor -> FormaPagamento.values()[valor].getDescricao();
+            case PRODUTO -> {
+                Map<Integer, String> nomes = buscarProdutos(valores);
+                yield valor -> nomes.getOrDefault(valor, "Produto " + valor);
+            }
+        };
+    }
+
+    /**
+     * Busca código e nome só dos produtos que aparecem na tabela.
+     */
+    private Map<Integer, String> buscarProdutos(List<Integer> produtoIds) {
+        if (produtoIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> ids = produtoIds.stream().map(Integer::longValue).collect(Collectors.toSet());
+        Map<Integer, String> nomes = new HashMap<>();
+        jdbcTemplate.query("SELECT produto_id, codigo, nome FROM produto WHERE produto_id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    nomes.put(rs.getInt(1), rs.getString(2) + " - " + rs.getString(3));
+                });
+        return nomes;
+    }
+}
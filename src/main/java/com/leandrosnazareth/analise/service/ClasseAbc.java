@@ -0,0 +1,20 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Classe de um produto na curva ABC do faturamento.
+ */
+public enum ClasseAbc {
+    A("A - até " + CurvaAbc.PERCENTUAL_A + "% do faturamento"),
+    B("B - até " + CurvaAbc.PERCENTUAL_B + "% do faturamento"),
+    C("C - restante");
+
+    private final String descricao;
+
+    ClasseAbc(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,34 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Consulta ao cubo de vendas: uma dimensão nas linhas, opcionalmente outra nas colunas,
+ * sobre as vendas de um período.
+ *
+ * @param linhas dimensão das linhas
+ * @param colunas dimensão das colunas, ou {@code null} para só a coluna de total
+ * @param medida valor somado em cada célula
+ * @param inicio primeiro dia do período, inclusive
+ * @param fim último dia do período, inclusive
+ * @param categorias categorias consideradas; vazio para todas
+ * @param formasPagamento formas de pagamento consideradas; vazio para todas
+ */
+public record ConsultaPivo(DimensaoAnalise linhas, @Nullable DimensaoAnalise colunas, MedidaAnalise medida,
+        LocalDate inicio, LocalDate fim, Set<String> categorias, Set<FormaPagamento> formasPagamento) {
+
+    public ConsultaPivo {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final deve ser igual ou posterior à inicial");
+        }
+        if (linhas == colunas) {
+            throw new IllegalArgumentException("Escolha dimensões diferentes para linhas e colunas");
+        }
+        categorias = Set.copyOf(categorias);
+        formasPagamento = Set.copyOf(formasPagamento);
+    }
+}
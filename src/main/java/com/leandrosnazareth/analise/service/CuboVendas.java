@@ -0,0 +1,443 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import com.leandrosnazareth.venda.service.VendaFinalizadaEvent;
+import com.leandrosnazareth.venda.service.VendaParticoes;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cubo em memória com um registro por item das vendas finalizadas, guardado em colunas
+ * de arrays primitivos: dia, produto, quantidade, valor em centavos, categoria e forma
+ * de pagamento. As categorias são codificadas por um dicionário, então cada registro
+ * ocupa 25 bytes.
+ * <p>
+ * O cubo é carregado na inicialização e recebe as vendas finalizadas depois pelo
+ * {@link VendaFinalizadaEvent}. As consultas varrem as colunas em paralelo no
+ * {@link ForkJoinPool} comum, cada tarefa somando o seu trecho num {@link MapaSomas}.
+ * </p>
+ * <p>
+ * Quem consulta lê um retrato imutável das colunas: novos registros são escritos depois
+ * do tamanho publicado, e o retrato só é trocado, sem trava, quando a venda já está
+ * completa. A categoria registrada é a guardada no item na venda; itens anteriores a
+ * esse registro usam a categoria atual do produto.
+ * </p>
+ * <p>
+ * A carga lê o banco sem segurar o monitor do cubo. Vendas finalizadas enquanto ela roda
+ * ficam guardadas e só entram no cubo novo se tiverem ID maior que o da última venda
+ * lida, para não serem contadas duas vezes quando a leitura já as encontrou.
+ * </p>
+ */
+@Component
+public class CuboVendas {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuboVendas.class);
+
+    // Registros por tarefa abaixo do qual a varredura não é mais dividida
+    static final int LIMIAR_DIVISAO = 1 << 16;
+
+    static final int SEM_CATEGORIA = -1;
+
+    private static final int TAMANHO_LEITURA = 10_000;
+
+    private static final FormaPagamento[] FORMAS = FormaPagamento.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VendaParticoes particoes;
+
+    // Protegido pelo monitor do cubo; só quem escreve usa
+    private Construtor construtor = new Construtor(0);
+
+    // Vendas finalizadas durante a carga em andamento; nulo fora dela. Protegido pelo monitor do cubo
+    private @Nullable List<VendaFinalizadaEvent> finalizadasDuranteCarga;
+
+    // Uma carga por vez
+    private final Object carga = new Object();
+
+    private volatile Colunas colunas = construtor.publicar();
+
+    CuboVendas(JdbcTemplate jdbcTemplate, VendaParticoes particoes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.particoes = particoes;
+    }
+
+    /**
+     * Carrega o cubo com todos os itens das vendas finalizadas, inclusive as arquivadas,
+     * substituindo o conteúdo atual. As consultas continuam lendo o cubo anterior até o
+     * fim da carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        synchronized (carga) {
+            Instant inicio = Instant.now();
+            Construtor novo;
+            synchronized (this) {
+                novo = new Construtor(construtor.carga + 1);
+                finalizadasDuranteCarga = new ArrayList<>();
+            }
+            long[] ultimaVenda = { Long.MIN_VALUE };
+            try {
+                String consulta = consultaCarga(particoes.mesesArquivados());
+                jdbcTemplate.query(conexao -> {
+                    var comando = conexao.prepareStatement(consulta);
+                    comando.setFetchSize(TAMANHO_LEITURA);
+                    return comando;
+                }, rs -> {
+                    ultimaVenda[0] = Math.max(ultimaVenda[0], rs.getLong(7));
+                    novo.adicionar((int) rs.getObject(1, LocalDate.class).toEpochDay(),
+                            FormaPagamento.valueOf(rs.getString(2)), rs.getLong(3), rs.getString(4), rs.getInt(5),
+                            rs.getLong(6));
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    // O cubo anterior continua valendo, com as vendas que chegaram durante a carga
+                    finalizadasDuranteCarga.forEach(this::adicionar);
+                    finalizadasDuranteCarga = null;
+                    colunas = construtor.publicar();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                construtor = novo;
+                for (VendaFinalizadaEvent event : finalizadasDuranteCarga) {
+                    if (event.vendaId() > ultimaVenda[0]) {
+                        adicionar(event);
+                    }
+                }
+                finalizadasDuranteCarga = null;
+                colunas = novo.publicar();
+            }
+            logger.info("Cubo de vendas carregado: {} itens em {} ms", novo.tamanho,
+                    Duration.between(inicio, Instant.now()).toMillis());
+        }
+    }
+
+    private static String consultaCarga(List<Integer> meses) {
+        return "SELECT u.dia, u.forma_pagamento, u.produto_id, COALESCE(u.categoria, p.categoria), u.quantidade, "
+                + "u.centavos, u.venda_id FROM ("
+                + VendaParticoes.unir(meses, particao -> "SELECT CAST(v.data_venda AS DATE) AS dia, "
+                        + "v.forma_pagamento, v.venda_id, i.produto_id, i.categoria, i.quantidade, "
+                        + "CAST(i.subtotal * 100 AS BIGINT) AS centavos "
+                        + "FROM " + particao.tabelaItens() + " i JOIN " + particao.tabelaVendas()
+                        + " v ON v.venda_id = i.venda_id WHERE v.status = 'FINALIZADA'")
+                + ") u LEFT JOIN produto p ON p.produto_id = u.produto_id";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVendaFinalizada(VendaFinalizadaEvent event) {
+        adicionar(event);
+        if (finalizadasDuranteCarga != null) {
+            finalizadasDuranteCarga.add(event);
+        }
+        colunas = construtor.publicar();
+    }
+
+    // Chamado com o monitor do cubo
+    private void adicionar(VendaFinalizadaEvent event) {
+        int dia = (int) event.dataVenda().toLocalDate().toEpochDay();
+        for (VendaFinalizadaEvent.Item item : event.itens()) {
+            construtor.adicionar(dia, event.formaPagamento(), item.produtoId(), item.categoria(),
+                    item.quantidade(), item.subtotal().movePointRight(2).longValueExact());
+        }
+    }
+
+    /**
+     * Número de itens de venda no cubo.
+     */
+    public int contarRegistros() {
+        return colunas.tamanho();
+    }
+
+    /**
+     * Dia da venda mais antiga do cubo, ou {@code null} se estiver vazio.
+     */
+    public @Nullable LocalDate buscarPrimeiroDia() {
+        Colunas atual = colunas;
+        return atual.tamanho() == 0 ? null : LocalDate.ofEpochDay(atual.diaMinimo());
+    }
+
+    /**
+     * Dia da venda mais recente do cubo, ou {@code null} se estiver vazio.
+     */
+    public @Nullable LocalDate buscarUltimoDia() {
+        Colunas atual = colunas;
+        return atual.tamanho() == 0 ? null : LocalDate.ofEpochDay(atual.diaMaximo());
+    }
+
+    /**
+     * Categorias presentes no cubo, em ordem alfabética.
+     */
+    public List<String> listarCategorias() {
+        return Arrays.stream(colunas.dicionario()).sorted().toList();
+    }
+
+    /**
+     * Soma os registros da consulta por par de valores das dimensões de linha e coluna.
+     */
+    Agregacao agregar(ConsultaPivo consulta) {
+        return agregarDesde(consulta, Posicao.INICIO);
+    }
+
+    /**
+     * Como {@link #agregar(ConsultaPivo)}, mas só com os registros adicionados depois de
+     * {@code desde}, para quem mantém somas e quer apenas acrescentar as vendas novas.
+     * Se o cubo foi recarregado depois de {@code desde}, soma todos os registros e a
+     * agregação vem marcada como completa.
+     */
+    Agregacao agregarDesde(ConsultaPivo consulta, Posicao desde) {
+        Colunas atual = colunas;
+        boolean completa = desde.carga() != atual.carga();
+        int primeiro = completa ? 0 : desde.registros();
+        Filtro filtro = new Filtro(atual, consulta.linhas(), consulta.colunas(),
+                (int) consulta.inicio().toEpochDay(), (int) consulta.fim().toEpochDay(),
+                categoriasPermitidas(atual, consulta), formasPermitidas(consulta), mesesPorDia(atual));
+        MapaSomas somas = primeiro == atual.tamanho() ? new MapaSomas()
+                : ForkJoinPool.commonPool().invoke(new Varredura(filtro, primeiro, atual.tamanho()));
+        return new Agregacao(somas, atual.dicionario(), atual.tamanho() - primeiro,
+                new Posicao(atual.carga(), atual.tamanho()), completa);
+    }
+
+    /**
+     * Chave de agregação: valor da dimensão das linhas nos 32 bits altos e da coluna nos baixos.
+     */
+    static long chave(int linha, int coluna) {
+        return ((long) linha << 32) | (coluna & 0xFFFFFFFFL);
+    }
+
+    static int linhaDaChave(long chave) {
+        return (int) (chave >> 32);
+    }
+
+    static int colunaDaChave(long chave) {
+        return (int) chave;
+    }
+
+    /**
+     * Mês codificado como {@code ano * 12 + mês - 1}.
+     */
+    static int mes(LocalDate data) {
+        return data.getYear() * 12 + data.getMonthValue() - 1;
+    }
+
+    private static boolean @Nullable [] categoriasPermitidas(Colunas atual, ConsultaPivo consulta) {
+        if (consulta.categorias().isEmpty()) {
+            return null;
+        }
+        // Posição 0 para os produtos sem categoria, que nunca estão no filtro
+        boolean[] permitidas = new boolean[atual.dicionario().length + 1];
+        for (int codigo = 0; codigo < atual.dicionario().length; codigo++) {
+            permitidas[codigo + 1] = consulta.categorias().contains(atual.dicionario()[codigo]);
+        }
+        return permitidas;
+    }
+
+    private static boolean @Nullable [] formasPermitidas(ConsultaPivo consulta) {
+        if (consulta.formasPagamento().isEmpty()) {
+            return null;
+        }
+        boolean[] permitidas = new boolean[FORMAS.length];
+        consulta.formasPagamento().forEach(forma -> permitidas[forma.ordinal()] = true);
+        return permitidas;
+    }
+
+    private static int[] mesesPorDia(Colunas atual) {
+        if (atual.tamanho() == 0) {
+            return new int[0];
+        }
+        int[] meses = new int[atual.diaMaximo() - atual.diaMinimo() + 1];
+        for (int i = 0; i < meses.length; i++) {
+            meses[i] = mes(LocalDate.ofEpochDay(atual.diaMinimo() + i));
+        }
+        return meses;
+    }
+
+    /**
+     * Resultado de {@link #agregar(ConsultaPivo)}, com o dicionário de categorias do
+     * retrato consultado para decodificar as chaves.
+     * @param posicao posição do cubo até onde os registros foram somados
+     * @param completa se todos os registros do cubo foram somados
+     */
+    record Agregacao(MapaSomas somas, String[] dicionario, int registrosVarridos, Posicao posicao,
+            boolean completa) {
+    }
+
+    /**
+     * Número de registros de uma carga do cubo. Os registros só são acrescentados, então
+     * os de uma mesma carga depois da posição são exatamente os que ainda não foram lidos.
+     */
+    record Posicao(int carga, int registros) {
+
+        // Anterior a qualquer carga: a agregação a partir dele é sempre completa
+        static final Posicao INICIO = new Posicao(-1, 0);
+    }
+
+    /**
+     * Retrato imutável das colunas: só as posições abaixo de {@code tamanho} são lidas.
+     * A carga conta as recargas do cubo.
+     */
+    private record Colunas(int carga, int tamanho, int[] dias, int[] produtos, int[] quantidades, long[] centavos,
+            int[] categorias, byte[] formas, String[] dicionario, int diaMinimo, int diaMaximo) {
+    }
+
+    private record Filtro(Colunas colunas, DimensaoAnalise linhas, @Nullable DimensaoAnalise dimensaoColunas,
+            int diaInicial, int diaFinal, boolean @Nullable [] categorias, boolean @Nullable [] formas,
+            int[] mesesPorDia) {
+
+        int valor(@Nullable DimensaoAnalise dimensao, int registro) {
+            if (dimensao == null) {
+                return 0;
+            }
+            return switch (dimensao) {
+                case DIA -> colunas.dias()[registro];
+                case MES -> mesesPorDia[colunas.dias()[registro] - colunas.diaMinimo()];
+                // O dia 0 da época foi uma quinta-feira; 0 é segunda, como em DayOfWeek
+                case DIA_SEMANA -> Math.floorMod(colunas.dias()[registro] + 3, 7);
+                case CATEGORIA -> colunas.categorias()[registro];
+                case FORMA_PAGAMENTO -> colunas.formas()[registro];
+                case PRODUTO -> colunas.produtos()[registro];
+            };
+        }
+    }
+
+    private static final class Varredura extends RecursiveTask<MapaSomas> {
+
+        private final Filtro filtro;
+        private final int inicio;
+        private final int fim;
+
+        private Varredura(Filtro filtro, int inicio, int fim) {
+            this.filtro = filtro;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected MapaSomas compute() {
+            if (fim - inicio <= LIMIAR_DIVISAO) {
+                return varrer();
+            }
+            int meio = (inicio + fim) >>> 1;
+            Varredura esquerda = new Varredura(filtro, inicio, meio);
+            esquerda.fork();
+            MapaSomas direita = new Varredura(filtro, meio, fim).compute();
+            MapaSomas resultado = esquerda.join();
+            if (resultado.tamanho() < direita.tamanho()) {
+                direita.somar(resultado);
+                return direita;
+            }
+            resultado.somar(direita);
+            return resultado;
+        }
+
+        private MapaSomas varrer() {
+            Colunas colunas = filtro.colunas();
+            int[] dias = colunas.dias();
+            int[] categorias = colunas.categorias();
+            byte[] formas = colunas.formas();
+            boolean[] categoriasPermitidas = filtro.categorias();
+            boolean[] formasPermitidas = filtro.formas();
+            MapaSomas somas = new MapaSomas();
+            for (int i = inicio; i < fim; i++) {
+                if (dias[i] < filtro.diaInicial() || dias[i] > filtro.diaFinal()
+                        || (categoriasPermitidas != null && !categoriasPermitidas[categorias[i] + 1])
+                        || (formasPermitidas != null && !formasPermitidas[formas[i]])) {
+                    continue;
+                }
+                somas.somar(chave(filtro.valor(filtro.linhas(), i), filtro.valor(filtro.dimensaoColunas(), i)),
+                        colunas.quantidades()[i], colunas.centavos()[i]);
+            }
+            return somas;
+        }
+    }
+
+    /**
+     * Colunas em construção, com capacidade que cresce pela metade quando acaba.
+     */
+    private static final class Construtor {
+
+        private static final int CAPACIDADE_INICIAL = 1 << 16;
+
+        private final int carga;
+        private int tamanho;
+        private int[] dias = new int[CAPACIDADE_INICIAL];
+        private int[] produtos = new int[CAPACIDADE_INICIAL];
+        private int[] quantidades = new int[CAPACIDADE_INICIAL];
+        private long[] centavos = new long[CAPACIDADE_INICIAL];
+        private int[] categorias = new int[CAPACIDADE_INICIAL];
+        private byte[] formas = new byte[CAPACIDADE_INICIAL];
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<String> dicionario = new ArrayList<>();
+        private int diaMinimo = Integer.MAX_VALUE;
+        private int diaMaximo = Integer.MIN_VALUE;
+
+        Construtor(int carga) {
+            this.carga = carga;
+        }
+
+        void adicionar(int dia, FormaPagamento forma, long produtoId, @Nullable String categoria, int quantidade,
+                long valorCentavos) {
+            if (tamanho == dias.length) {
+                crescer();
+            }
+            dias[tamanho] = dia;
+            produtos[tamanho] = Math.toIntExact(produtoId);
+            quantidades[tamanho] = quantidade;
+            centavos[tamanho] = valorCentavos;
+            categorias[tamanho] = codificar(categoria);
+            formas[tamanho] = (byte) forma.ordinal();
+            diaMinimo = Math.min(diaMinimo, dia);
+            diaMaximo = Math.max(diaMaximo, dia);
+            tamanho++;
+        }
+
+        Colunas publicar() {
+            return new Colunas(carga, tamanho, dias, produtos, quantidades, centavos, categorias, formas,
+                    dicionario.toArray(String[]::new), diaMinimo, diaMaximo);
+        }
+
+        private int codificar(@Nullable String categoria) {
+            if (categoria == null || categoria.isBlank()) {
+                return SEM_CATEGORIA;
+            }
+            return codigos.computeIfAbsent(categoria, nova -> {
+                dicionario.add(nova);
+                return dicionario.size() - 1;
+            });
+        }
+
+        /**
+         * Copia as colunas para arrays maiores; retratos já publicados continuam com os antigos.
+         */
+        private void crescer() {
+            int capacidade = dias.length + (dias.length >> 1);
+            dias = Arrays.copyOf(dias, capacidade);
+            produtos = Arrays.copyOf(produtos, capacidade);
+            quantidades = Arrays.copyOf(quantidades, capacidade);
+            centavos = Arrays.copyOf(centavos, capacidade);
+            categorias = Arrays.copyOf(categorias, capacidade);
+            formas = Arrays.copyOf(formas, capacidade);
+        }
+    }
+}
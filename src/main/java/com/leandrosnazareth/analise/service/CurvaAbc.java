@@ -0,0 +1,170 @@
+package com.leandrosnazareth.analise.service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Produtos de um período ordenados do maior para o menor faturamento, com o faturamento
+ * acumulado e a classe ABC de cada posição.
+ * <p>
+ * Como a ordem é por faturamento, cada classe ocupa um trecho contínuo das posições:
+ * a classificação é feita numa única passada depois de uma única ordenação, e guardar
+ * onde cada classe termina basta para classificar qualquer posição.
+ * </p>
+ * <p>
+ * Um produto é da classe A enquanto o acumulado antes dele não chega a
+ * {@value #PERCENTUAL_A}% do total, e da B enquanto não chega a {@value #PERCENTUAL_B}%;
+ * o produto que cruza o limite fica na classe que o limite fecha.
+ * </p>
+ */
+public final class CurvaAbc {
+
+    static final int PERCENTUAL_A = 80;
+    static final int PERCENTUAL_B = 95;
+
+    private final LocalDate inicio;
+    private final LocalDate fim;
+    private final int[] produtos;
+    private final long[] quantidades;
+    private final long[] centavos;
+    private final long[] acumulados;
+    private final int fimA;
+    private final int fimB;
+
+    private CurvaAbc(LocalDate inicio, LocalDate fim, int[] produtos, long[] quantidades, long[] centavos,
+            long[] acumulados, int fimA, int fimB) {
+        this.inicio = inicio;
+        this.fim = fim;
+        this.produtos = produtos;
+        this.quantidades = quantidades;
+        this.centavos = centavos;
+        this.acumulados = acumulados;
+        this.fimA = fimA;
+        this.fimB = fimB;
+    }
+
+    /**
+     * Classifica as somas por produto, com o produto nos 32 bits altos da chave como no
+     * {@link CuboVendas}.
+     */
+    static CurvaAbc classificar(LocalDate inicio, LocalDate fim, MapaSomas somas) {
+        int tamanho = somas.tamanho();
+        int[] produtosLidos = new int[tamanho];
+        long[] quantidadesLidas = new long[tamanho];
+        long[] centavosLidos = new long[tamanho];
+        int[] lidos = new int[1];
+        somas.visitar((chave, quantidade, valor, itens) -> {
+            produtosLidos[lidos[0]] = CuboVendas.linhaDaChave(chave);
+            quantidadesLidas[lidos[0]] = quantidade;
+            centavosLidos[lidos[0]] = valor;
+            lidos[0]++;
+        });
+
+        // Empates pelo ID, para que a ordem não dependa do mapa
+        int[] ordem = IntStream.range(0, tamanho).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> centavosLidos[i]).reversed()
+                        .thenComparingInt(i -> produtosLidos[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int[] produtos = new int[tamanho];
+        long[] quantidades = new long[tamanho];
+        long[] centavos = new long[tamanho];
+        for (int posicao = 0; posicao < tamanho; posicao++) {
+            produtos[posicao] = produtosLidos[ordem[posicao]];
+            quantidades[posicao] = quantidadesLidas[ordem[posicao]];
+            centavos[posicao] = centavosLidos[ordem[posicao]];
+        }
+
+        long total = 0;
+        for (long valor : centavos) {
+            total += valor;
+        }
+        long[] acumulados = new long[tamanho];
+        int fimA = tamanho;
+        int fimB = tamanho;
+        long acumulado = 0;
+        for (int posicao = 0; posicao < tamanho; posicao++) {
+            if (fimA == tamanho && acumulado * 100 >= total * PERCENTUAL_A) {
+                fimA = posicao;
+            }
+            if (fimB == tamanho && acumulado * 100 >= total * PERCENTUAL_B) {
+                fimB = posicao;
+            }
+            acumulado += centavos[posicao];
+            acumulados[posicao] = acumulado;
+        }
+        return new CurvaAbc(inicio, fim, produtos, quantidades, centavos, acumulados, fimA, fimB);
+    }
+
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    public LocalDate getFim() {
+        return fim;
+    }
+
+    /**
+     * Número de produtos vendidos no período.
+     */
+    public int tamanho() {
+        return produtos.length;
+    }
+
+    public long getTotalCentavos() {
+        return produtos.length == 0 ? 0 : acumulados[produtos.length - 1];
+    }
+
+    /**
+     * Primeira posição da classe.
+     */
+    public int inicio(ClasseAbc classe) {
+        return switch (classe) {
+            case A -> 0;
+            case B -> fimA;
+            case C -> fimB;
+        };
+    }
+
+    /**
+     * Posição seguinte à última da classe.
+     */
+    public int fim(ClasseAbc classe) {
+        return switch (classe) {
+            case A -> fimA;
+            case B -> fimB;
+            case C -> produtos.length;
+        };
+    }
+
+    public long somarCentavos(ClasseAbc classe) {
+        long ate = fim(classe) == 0 ? 0 : acumulados[fim(classe) - 1];
+        long antes = inicio(classe) == 0 ? 0 : acumulados[inicio(classe) - 1];
+        return ate - antes;
+    }
+
+    public ClasseAbc classe(int posicao) {
+        return posicao < fimA ? ClasseAbc.A : posicao < fimB ? ClasseAbc.B : ClasseAbc.C;
+    }
+
+    public long produtoId(int posicao) {
+        return produtos[posicao];
+    }
+
+    public long quantidade(int posicao) {
+        return quantidades[posicao];
+    }
+
+    public long centavos(int posicao) {
+        return centavos[posicao];
+    }
+
+    /**
+     * Faturamento somado das posições até esta, inclusive.
+     */
+    public long acumuladoCentavos(int posicao) {
+        return acumulados[posicao];
+    }
+}
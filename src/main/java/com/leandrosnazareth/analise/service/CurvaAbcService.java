@@ -0,0 +1,165 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.base.service.EscritorExportacao;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.security.AppRoles;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Curva ABC dos produtos pelo faturamento de um período, a partir do {@link CuboVendas}.
+ * <p>
+ * A curva de cada período consultado fica em cache com as somas por produto e a posição
+ * do cubo até onde elas foram lidas. Consultar de novo soma só os itens vendidos depois
+ * dessa posição e reordena apenas se houve venda no período; sem vendas novas, a curva
+ * em cache é devolvida como está.
+ * </p>
+ */
+@Service
+@PreAuthorize("hasAnyRole('" + AppRoles.ADMIN + "', '" + AppRoles.PRODUCT_MANAGER + "')")
+public class CurvaAbcService {
+
+    static final int PERIODOS_EM_CACHE = 16;
+
+    private static final int TAMANHO_LOTE_EXPORTACAO = 1000;
+
+    private static final List<String> COLUNAS_EXPORTACAO = List.of("posicao", "produto_id", "codigo", "nome",
+            "quantidade", "faturamento", "participacao", "participacao_acumulada", "classe");
+
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    private record Periodo(LocalDate inicio, LocalDate fim) {
+    }
+
+    /**
+     * Somas por produto de um período; protegida pelo próprio monitor.
+     */
+    private static final class Entrada {
+        private MapaSomas somas = new MapaSomas();
+        private CuboVendas.Posicao posicao = CuboVendas.Posicao.INICIO;
+        private @Nullable CurvaAbc curva;
+    }
+
+    private final CuboVendas cubo;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Em ordem de acesso, descartando o período usado há mais tempo
+    private final Map<Periodo, Entrada> cache = new LinkedHashMap<>(PERIODOS_EM_CACHE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Periodo, Entrada> maisAntiga) {
+            return size() > PERIODOS_EM_CACHE;
+        }
+    };
+
+    CurvaAbcService(CuboVendas cubo, NamedParameterJdbcTemplate jdbcTemplate) {
+        this.cubo = cubo;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Curva ABC das vendas finalizadas de {@code inicio} a {@code fim}, inclusivo.
+     */
+    @Transactional(readOnly = true)
+    public CurvaAbc calcular(LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à inicial");
+        }
+        Entrada entrada;
+        synchronized (cache) {
+            entrada = cache.computeIfAbsent(new Periodo(inicio, fim), periodo -> new Entrada());
+        }
+        synchronized (entrada) {
+            CuboVendas.Agregacao novos = cubo.agregarDesde(new ConsultaPivo(DimensaoAnalise.PRODUTO, null,
+                    MedidaAnalise.VALOR, inicio, fim, Set.of(), Set.of()), entrada.posicao);
+            if (novos.completa()) {
+                entrada.somas = novos.somas();
+            } else {
+                entrada.somas.somar(novos.somas());
+            }
+            entrada.posicao = novos.posicao();
+            if (entrada.curva == null || novos.completa() || novos.somas().tamanho() > 0) {
+                entrada.curva = CurvaAbc.classificar(inicio, fim, entrada.somas);
+            }
+            return entrada.curva;
+        }
+    }
+
+    /**
+     * Produtos das posições {@code de} a {@code ate}, exclusivo, com código e nome.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemCurvaAbc> listar(CurvaAbc curva, int de, int ate) {
+        int primeiro = Math.max(0, de);
+        int ultimo = Math.min(curva.tamanho(), ate);
+        if (primeiro >= ultimo) {
+            return List.of();
+        }
+        Map<Long, String[]> produtos = buscarProdutos(curva, primeiro, ultimo);
+        List<ItemCurvaAbc> itens = new ArrayList<>(ultimo - primeiro);
+        for (int posicao = primeiro; posicao < ultimo; posicao++) {
+            long produtoId = curva.produtoId(posicao);
+            String[] produto = produtos.getOrDefault(produtoId, new String[] { "", "Produto " + produtoId });
+            itens.add(new ItemCurvaAbc(posicao + 1, produtoId, produto[0], produto[1], curva.quantidade(posicao),
+                    curva.centavos(posicao), curva.acumuladoCentavos(posicao), curva.classe(posicao)));
+        }
+        return itens;
+    }
+
+    /**
+     * Escreve no destino, que não é fechado, a curva ABC de {@code inicio} a {@code fim}.
+     * Os nomes dos produtos são buscados em lotes, sem montar a lista inteira.
+     * @return quantidade de produtos exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportar(LocalDate inicio, LocalDate fim, FormatoExportacao formato, Writer destino)
+            throws IOException {
+        CurvaAbc curva = calcular(inicio, fim);
+        EscritorExportacao escritor = EscritorExportacao.abrir(formato, destino, COLUNAS_EXPORTACAO);
+        BigDecimal total = BigDecimal.valueOf(curva.getTotalCentavos());
+        for (int de = 0; de < curva.tamanho(); de += TAMANHO_LOTE_EXPORTACAO) {
+            for (ItemCurvaAbc item : listar(curva, de, de + TAMANHO_LOTE_EXPORTACAO)) {
+                escritor.escrever(item.posicao(), item.produtoId(), item.codigo(), item.nome(), item.quantidade(),
+                        BigDecimal.valueOf(item.centavos(), 2), percentual(item.centavos(), total),
+                        percentual(item.acumuladoCentavos(), total), item.classe());
+            }
+        }
+        escritor.concluir();
+        return curva.tamanho();
+    }
+
+    private static BigDecimal percentual(long centavos, BigDecimal total) {
+        if (total.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(centavos).multiply(CEM).divide(total, 2, RoundingMode.HALF_UP);
+    }
+
+    private Map<Long, String[]> buscarProdutos(CurvaAbc curva, int de, int ate) {
+        List<Long> ids = new ArrayList<>(ate - de);
+        for (int posicao = de; posicao < ate; posicao++) {
+            ids.add(curva.produtoId(posicao));
+        }
+        Map<Long, String[]> produtos = new HashMap<>();
+        jdbcTemplate.query("SELECT produto_id, codigo, nome FROM produto WHERE produto_id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    produtos.put(rs.getLong(1), new String[] { rs.getString(2), rs.getString(3) });
+                });
+        return produtos;
+    }
+}
@@ -0,0 +1,33 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Dimensão pela qual as vendas do cubo podem ser agrupadas.
+ */
+public enum DimensaoAnalise {
+    DIA("Dia", true),
+    MES("Mês", true),
+    DIA_SEMANA("Dia da semana", true),
+    CATEGORIA("Categoria", false),
+    FORMA_PAGAMENTO("Forma de pagamento", false),
+    PRODUTO("Produto", false);
+
+    private final String descricao;
+    private final boolean temporal;
+
+    DimensaoAnalise(String descricao, boolean temporal) {
+        this.descricao = descricao;
+        this.temporal = temporal;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Dimensões temporais são listadas em ordem cronológica; as demais, da maior para
+     * a menor soma.
+     */
+    public boolean isTemporal() {
+        return temporal;
+    }
+}
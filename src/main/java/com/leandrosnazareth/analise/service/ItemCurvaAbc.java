@@ -0,0 +1,11 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Produto numa posição da curva ABC, com código e nome para exibição.
+ *
+ * @param posicao posição no ranking, a partir de 1
+ * @param acumuladoCentavos faturamento desta posição e das anteriores
+ */
+public record ItemCurvaAbc(int posicao, long produtoId, String codigo, String nome, long quantidade,
+        long centavos, long acumuladoCentavos, ClasseAbc classe) {
+}
@@ -0,0 +1,43 @@
+package com.leandrosnazareth.analise.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Linha do relatório de margem.
+ * <p>
+ * O lucro e a margem consideram só a receita dos itens com custo registrado; a receita
+ * dos itens sem custo é mostrada à parte.
+ * </p>
+ *
+ * @param rotulo dia, categoria ou produto da linha
+ * @param receita soma dos subtotais dos itens, sem os descontos da venda
+ * @param receitaSemCusto parte da receita de itens vendidos sem custo registrado
+ */
+public record LinhaMargem(String rotulo, long quantidade, BigDecimal receita, BigDecimal custo,
+        BigDecimal receitaSemCusto) {
+
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    public BigDecimal receitaComCusto() {
+        return receita.subtract(receitaSemCusto);
+    }
+
+    public BigDecimal lucro() {
+        return receitaComCusto().subtract(custo);
+    }
+
+    /**
+     * Lucro sobre a receita com custo registrado, em percentual, ou nulo se não houve
+     * receita com custo.
+     */
+    public @Nullable BigDecimal margem() {
+        BigDecimal receitaComCusto = receitaComCusto();
+        if (receitaComCusto.signum() == 0) {
+            return null;
+        }
+        return lucro().multiply(CEM).divide(receitaComCusto, 1, RoundingMode.HALF_UP);
+    }
+}
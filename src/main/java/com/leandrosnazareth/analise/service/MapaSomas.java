@@ -0,0 +1,101 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Somas de quantidade, valor e itens por chave {@code long}, em endereçamento aberto
+ * sobre arrays primitivos: somar uma linha do cubo não cria objetos.
+ * <p>
+ * Não é thread-safe; cada tarefa da varredura paralela usa o seu e os resultados são
+ * juntados com {@link #somar(MapaSomas)}.
+ * </p>
+ */
+final class MapaSomas {
+
+    /**
+     * Recebe as somas de uma chave.
+     */
+    @FunctionalInterface
+    interface Visitante {
+        void visitar(long chave, long quantidade, long centavos, long itens);
+    }
+
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    private long[] chaves;
+    private long[] quantidades;
+    private long[] centavos;
+    // Zero marca posição livre: toda chave ocupada tem ao menos um item
+    private long[] itens;
+    private int tamanho;
+
+    MapaSomas() {
+        alocar(CAPACIDADE_INICIAL);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    void somar(long chave, long quantidade, long valorCentavos) {
+        somar(chave, quantidade, valorCentavos, 1);
+    }
+
+    void somar(MapaSomas outro) {
+        for (int i = 0; i < outro.chaves.length; i++) {
+            if (outro.itens[i] != 0) {
+                somar(outro.chaves[i], outro.quantidades[i], outro.centavos[i], outro.itens[i]);
+            }
+        }
+    }
+
+    void visitar(Visitante visitante) {
+        for (int i = 0; i < chaves.length; i++) {
+            if (itens[i] != 0) {
+                visitante.visitar(chaves[i], quantidades[i], centavos[i], itens[i]);
+            }
+        }
+    }
+
+    private void somar(long chave, long quantidade, long valorCentavos, long numeroItens) {
+        int mascara = chaves.length - 1;
+        int posicao = espalhar(chave) & mascara;
+        while (itens[posicao] != 0 && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        if (itens[posicao] == 0) {
+            chaves[posicao] = chave;
+            tamanho++;
+        }
+        quantidades[posicao] += quantidade;
+        centavos[posicao] += valorCentavos;
+        itens[posicao] += numeroItens;
+        if (tamanho * 2 > chaves.length) {
+            crescer();
+        }
+    }
+
+    private void crescer() {
+        long[] antigasChaves = chaves;
+        long[] antigasQuantidades = quantidades;
+        long[] antigosCentavos = centavos;
+        long[] antigosItens = itens;
+        alocar(chaves.length * 2);
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigosItens[i] != 0) {
+                somar(antigasChaves[i], antigasQuantidades[i], antigosCentavos[i], antigosItens[i]);
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        quantidades = new long[capacidade];
+        centavos = new long[capacidade];
+        itens = new long[capacidade];
+        tamanho = 0;
+    }
+
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,107 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.security.AppRoles;
+import com.leandrosnazareth.venda.domain.VendaLucroCategoria;
+import com.leandrosnazareth.venda.domain.VendaLucroCategoriaRepository;
+import com.leandrosnazareth.venda.domain.VendaLucroDia;
+import com.leandrosnazareth.venda.domain.VendaLucroDiaRepository;
+import com.leandrosnazareth.venda.domain.VendaLucroProdutoRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Relatório de margem das vendas finalizadas por dia, por categoria ou por produto.
+ * <p>
+ * Lê só os agregados de lucro mantidos a cada venda finalizada, com o custo registrado
+ * em cada item na venda: o período consultado não percorre itens nem consulta o preço
+ * de compra atual dos produtos.
+ * </p>
+ */
+@Service
+@PreAuthorize("hasAnyRole('" + AppRoles.ADMIN + "', '" + AppRoles.PRODUCT_MANAGER + "')")
+public class MargemService {
+
+    // Limite de produtos para que a tabela continue legível e leve para a tela
+    static final int LIMITE_PRODUTOS = 500;
+
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final VendaLucroDiaRepository diaRepository;
+    private final VendaLucroCategoriaRepository categoriaRepository;
+    private final VendaLucroProdutoRepository produtoRepository;
+
+    MargemService(VendaLucroDiaRepository diaRepository, VendaLucroCategoriaRepository categoriaRepository,
+            VendaLucroProdutoRepository produtoRepository) {
+        this.diaRepository = diaRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Linhas do período de {@code inicio} a {@code fim}, inclusivo: os dias em ordem
+     * cronológica, as categorias e os {@value #LIMITE_PRODUTOS} produtos de maior lucro
+     * do maior para o menor.
+     */
+    @Transactional(readOnly = true)
+    public List<LinhaMargem> listar(AgrupamentoMargem agrupamento, LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à inicial");
+        }
+        return switch (agrupamento) {
+            case DIA -> diaRepository.findByDiaBetweenOrderByDia(inicio, fim).stream()
+                    .map(dia -> new LinhaMargem(dia.getDia().format(FORMATO_DIA), dia.getQuantidade(),
+                            dia.getReceita(), dia.getCusto(), dia.getReceitaSemCusto()))
+                    .toList();
+            case CATEGORIA -> categoriaRepository.somarPorCategoria(inicio, fim).stream()
+                    .map(linha -> linha(VendaLucroCategoria.SEM_CATEGORIA.equals(linha[0]) ? "Sem categoria"
+                            : (String) linha[0], linha, 1))
+                    .sorted(Comparator.comparing(LinhaMargem::lucro).reversed())
+                    .toList();
+            case PRODUTO -> produtoRepository.somarPorProduto(inicio, fim, PageRequest.of(0, LIMITE_PRODUTOS))
+                    .stream()
+                    .map(linha -> linha(linha[0] + " - " + linha[1], linha, 2))
+                    .toList();
+        };
+    }
+
+    /**
+     * Totais do período, com as vendas e os descontos das vendas, que não entram na
+     * receita das linhas.
+     */
+    @Transactional(readOnly = true)
+    public ResumoMargem resumir(LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à inicial");
+        }
+        long vendas = 0;
+        long quantidade = 0;
+        BigDecimal desconto = BigDecimal.ZERO;
+        BigDecimal receita = BigDecimal.ZERO;
+        BigDecimal custo = BigDecimal.ZERO;
+        BigDecimal receitaSemCusto = BigDecimal.ZERO;
+        for (VendaLucroDia dia : diaRepository.findByDiaBetweenOrderByDia(inicio, fim)) {
+            vendas += dia.getVendas();
+            quantidade += dia.getQuantidade();
+            desconto = desconto.add(dia.getDesconto());
+            receita = receita.add(dia.getReceita());
+            custo = custo.add(dia.getCusto());
+            receitaSemCusto = receitaSemCusto.add(dia.getReceitaSemCusto());
+        }
+        return new ResumoMargem(vendas, desconto,
+                new LinhaMargem("Total", quantidade, receita, custo, receitaSemCusto));
+    }
+
+    private static LinhaMargem linha(String rotulo, Object[] linha, int primeiraMedida) {
+        return new LinhaMargem(rotulo, ((Number) linha[primeiraMedida]).longValue(),
+                (BigDecimal) linha[primeiraMedida + 1], (BigDecimal) linha[primeiraMedida + 2],
+                (BigDecimal) linha[primeiraMedida + 3]);
+    }
+}
@@ -0,0 +1,23 @@
+package com.leandrosnazareth.analise.service;
+
+/**
+ * Valor somado em cada célula de uma consulta ao cubo de vendas.
+ */
+public enum MedidaAnalise {
+    /** Soma dos subtotais dos itens, em centavos, antes do desconto da venda. */
+    VALOR("Valor vendido"),
+    /** Soma das unidades vendidas. */
+    QUANTIDADE("Quantidade"),
+    /** Número de itens de venda. */
+    ITENS("Itens vendidos");
+
+    private final String descricao;
+
+    MedidaAnalise(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,30 @@
+package com.leandrosnazareth.analise.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tabela resultante de uma {@link ConsultaPivo}. Os valores estão na unidade da medida:
+ * centavos para {@link MedidaAnalise#VALOR}.
+ *
+ * @param colunas rótulos das colunas, sem a de total
+ * @param linhas linhas da tabela, limitadas às de maior soma quando a dimensão não é temporal
+ * @param totaisColunas total de cada coluna, considerando todas as linhas
+ * @param total total geral
+ * @param linhasOmitidas linhas que ficaram de fora pelo limite
+ * @param registrosVarridos itens de venda percorridos no cubo
+ * @param duracao tempo da varredura e da montagem da tabela
+ */
+public record ResultadoPivo(List<String> colunas, List<Linha> linhas, long[] totaisColunas, long total,
+        int linhasOmitidas, long registrosVarridos, Duration duracao) {
+
+    /**
+     * Linha da tabela.
+     *
+     * @param rotulo valor da dimensão das linhas
+     * @param valores um valor por coluna, na ordem de {@link ResultadoPivo#colunas()}
+     * @param total total da linha
+     */
+    public record Linha(String rotulo, long[] valores, long total) {
+    }
+}
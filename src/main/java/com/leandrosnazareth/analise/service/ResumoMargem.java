@@ -0,0 +1,13 @@
+package com.leandrosnazareth.analise.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais do relatório de margem num período.
+ *
+ * @param vendas vendas finalizadas no período
+ * @param desconto descontos dados nas vendas, fora da receita dos itens
+ * @param total somas dos itens de todas as vendas do período
+ */
+public record ResumoMargem(long vendas, BigDecimal desconto, LinhaMargem total) {
+}
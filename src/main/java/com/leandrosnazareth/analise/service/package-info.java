@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.analise.service;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,177 @@
+package com.leandrosnazareth.analise.ui.view;
+
+import com.leandrosnazareth.analise.service.AnaliseVendasService;
+import com.leandrosnazareth.analise.service.ConsultaPivo;
+import com.leandrosnazareth.analise.service.DimensaoAnalise;
+import com.leandrosnazareth.analise.service.MedidaAnalise;
+import com.leandrosnazareth.analise.service.ResultadoPivo;
+import com.leandrosnazareth.base.ui.component.ViewToolbar;
+import com.leandrosnazareth.security.AppRoles;
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.MultiSelectComboBox;
+import com.vaadin.flow.component.datepicker.DatePicker;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.select.Select;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+import jakarta.annotation.security.RolesAllowed;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Tabela dinâmica das vendas: uma dimensão nas linhas, outra opcional nas colunas e a
+ * medida somada nas células, com filtros de período, categoria e forma de pagamento.
+ * <p>
+ * As consultas são respondidas pelo cubo de vendas em memória, então trocar as
+ * dimensões ou os filtros não consulta o banco.
+ * </p>
+ */
+@Route("analise-vendas")
+@PageTitle("Análise de Vendas")
+@Menu(order = 4, icon = "vaadin:table", title = "Análise de Vendas")
+@RolesAllowed({ AppRoles.ADMIN, AppRoles.PRODUCT_MANAGER })
+public class AnaliseVendasView extends Main {
+
+    private static final int DIAS_PADRAO = 30;
+
+    private final AnaliseVendasService analiseService;
+
+    private final NumberFormat formatoMoeda = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+    private final NumberFormat formatoNumero = NumberFormat.getIntegerInstance(new Locale("pt", "BR"));
+
+    private final DatePicker inicioPicker;
+    private final DatePicker fimPicker;
+    private final Select<DimensaoAnalise> linhasSelect;
+    private final Select<DimensaoAnalise> colunasSelect;
+    private final Select<MedidaAnalise> medidaSelect;
+    private final MultiSelectComboBox<String> categoriasCombo;
+    private final MultiSelectComboBox<FormaPagamento> formasCombo;
+    private final Grid<ResultadoPivo.Linha> grid;
+    private final Span resumo;
+
+    public AnaliseVendasView(AnaliseVendasService analiseService, Clock clock) {
+        this.analiseService = analiseService;
+
+        LocalDate ultimoDia = analiseService.buscarUltimoDia();
+        LocalDate fim = ultimoDia == null ? LocalDate.now(clock) : ultimoDia;
+        inicioPicker = new DatePicker("De", fim.minusDays(DIAS_PADRAO - 1));
+        fimPicker = new DatePicker("Até", fim);
+
+        linhasSelect = new Select<>();
+        linhasSelect.setLabel("Linhas");
+        linhasSelect.setItems(DimensaoAnalise.values());
+        linhasSelect.setItemLabelGenerator(DimensaoAnalise::getDescricao);
+        linhasSelect.setValue(DimensaoAnalise.CATEGORIA);
+
+        colunasSelect = new Select<>();
+        colunasSelect.setLabel("Colunas");
+        colunasSelect.setItems(DimensaoAnalise.values());
+        colunasSelect.setItemLabelGenerator(DimensaoAnalise::getDescricao);
+        colunasSelect.setEmptySelectionAllowed(true);
+        colunasSelect.setEmptySelectionCaption("Nenhuma");
+        colunasSelect.setValue(DimensaoAnalise.FORMA_PAGAMENTO);
+
+        medidaSelect = new Select<>();
+        medidaSelect.setLabel("Medida");
+        medidaSelect.setItems(MedidaAnalise.values());
+        medidaSelect.setItemLabelGenerator(MedidaAnalise::getDescricao);
+        medidaSelect.setValue(MedidaAnalise.VALOR);
+
+        categoriasCombo = new MultiSelectComboBox<>("Categorias");
+        categoriasCombo.setItems(analiseService.listarCategorias());
+        categoriasCombo.setPlaceholder("Todas");
+
+        formasCombo = new MultiSelectComboBox<>("Formas de pagamento");
+        formasCombo.setItems(FormaPagamento.values());
+        formasCombo.setItemLabelGenerator(FormaPagamento::getDescricao);
+        formasCombo.setPlaceholder("Todas");
+
+        Button consultarButton = new Button("Consultar", VaadinIcon.SEARCH.create(), e -> consultar());
+        consultarButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+
+        resumo = new Span();
+        resumo.addClassNames(LumoUtility.FontSize.SMALL, LumoUtility.TextColor.SECONDARY);
+
+        grid = new Grid<>();
+        grid.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES, GridVariant.LUMO_COMPACT);
+        grid.setSizeFull();
+
+        HorizontalLayout filtros = new HorizontalLayout(inicioPicker, fimPicker, linhasSelect, colunasSelect,
+                medidaSelect, categoriasCombo, formasCombo, consultarButton);
+        filtros.setAlignItems(FlexComponent.Alignment.BASELINE);
+        filtros.setWrap(true);
+
+        addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, LumoUtility.FlexDirection.COLUMN,
+                LumoUtility.Padding.MEDIUM, LumoUtility.Gap.SMALL);
+        setSizeFull();
+        add(new ViewToolbar("Análise de Vendas"), filtros, resumo, grid);
+
+        consultar();
+    }
+
+    private void consultar() {
+        LocalDate inicio = inicioPicker.getValue();
+        LocalDate fim = fimPicker.getValue();
+        if (inicio == null || fim == null) {
+            mostrarErro("Informe o período");
+            return;
+        }
+        ResultadoPivo resultado;
+        try {
+            resultado = analiseService.pivotar(new ConsultaPivo(linhasSelect.getValue(), colunasSelect.getValue(),
+                    medidaSelect.getValue(), inicio, fim, categoriasCombo.getValue(), formasCombo.getValue()));
+        } catch (IllegalArgumentException e) {
+            mostrarErro(e.getMessage());
+            return;
+        }
+        mostrar(resultado, medidaSelect.getValue());
+    }
+
+    private void mostrar(ResultadoPivo resultado, MedidaAnalise medida) {
+        grid.removeAllColumns();
+        grid.addColumn(ResultadoPivo.Linha::rotulo).setHeader(linhasSelect.getValue().getDescricao())
+                .setAutoWidth(true).setFlexGrow(1).setFrozen(true);
+        for (int i = 0; i < resultado.colunas().size(); i++) {
+            int coluna = i;
+            grid.addColumn(linha -> formatar(linha.valores()[coluna], medida))
+                    .setHeader(resultado.colunas().get(coluna)).setTextAlign(ColumnTextAlign.END)
+                    .setAutoWidth(true).setFlexGrow(0);
+        }
+        grid.addColumn(linha -> formatar(linha.total(), medida)).setHeader("Total")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.setItems(resultado.linhas());
+
+        String omitidas = resultado.linhasOmitidas() > 0
+                ? " (%d linhas menores omitidas)".formatted(resultado.linhasOmitidas()) : "";
+        resumo.setText("Total: %s%s. %s itens de venda analisados em %d ms.".formatted(
+                formatar(resultado.total(), medida), omitidas, formatoNumero.format(resultado.registrosVarridos()),
+                resultado.duracao().toMillis()));
+    }
+
+    private String formatar(long valor, MedidaAnalise medida) {
+        return medida == MedidaAnalise.VALOR ? formatoMoeda.format(BigDecimal.valueOf(valor, 2))
+                : formatoNumero.format(valor);
+    }
+
+    private static void mostrarErro(String mensagem) {
+        Notification.show(mensagem, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+}
@@ -0,0 +1,198 @@
+package com.leandrosnazareth.analise.ui.view;
+
+import com.leandrosnazareth.analise.service.ClasseAbc;
+import com.leandrosnazareth.analise.service.CurvaAbc;
+import com.leandrosnazareth.analise.service.CurvaAbcService;
+import com.leandrosnazareth.analise.service.ItemCurvaAbc;
+import com.leandrosnazareth.analise.web.CurvaAbcExportacaoController;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.base.ui.component.ViewToolbar;
+import com.leandrosnazareth.security.AppRoles;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.datepicker.DatePicker;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.select.Select;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+import jakarta.annotation.security.RolesAllowed;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Curva ABC dos produtos pelo faturamento do período, com o resumo de cada classe, a
+ * lista dos produtos em ordem de faturamento e a exportação da curva.
+ */
+@Route("curva-abc")
+@PageTitle("Curva ABC")
+@Menu(order = 5, icon = "vaadin:chart", title = "Curva ABC")
+@RolesAllowed({ AppRoles.ADMIN, AppRoles.PRODUCT_MANAGER })
+public class CurvaAbcView extends Main {
+
+    private static final int DIAS_PADRAO = 90;
+
+    private final CurvaAbcService curvaAbcService;
+
+    private final NumberFormat formatoMoeda = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+    private final NumberFormat formatoNumero = NumberFormat.getIntegerInstance(new Locale("pt", "BR"));
+    private final NumberFormat formatoPercentual = NumberFormat.getPercentInstance(new Locale("pt", "BR"));
+
+    private final DatePicker inicioPicker;
+    private final DatePicker fimPicker;
+    private final Select<ClasseAbc> classeSelect;
+    private final Anchor exportarLink;
+    private final Span resumo;
+    private final Grid<ItemCurvaAbc> grid;
+
+    private @Nullable CurvaAbc curva;
+
+    public CurvaAbcView(CurvaAbcService curvaAbcService, Clock clock) {
+        this.curvaAbcService = curvaAbcService;
+        formatoPercentual.setMaximumFractionDigits(2);
+
+        LocalDate hoje = LocalDate.now(clock);
+        inicioPicker = new DatePicker("De", hoje.minusDays(DIAS_PADRAO - 1));
+        fimPicker = new DatePicker("Até", hoje);
+
+        classeSelect = new Select<>();
+        classeSelect.setLabel("Classe");
+        classeSelect.setItems(ClasseAbc.values());
+        classeSelect.setItemLabelGenerator(ClasseAbc::getDescricao);
+        classeSelect.setEmptySelectionAllowed(true);
+        classeSelect.setEmptySelectionCaption("Todas");
+
+        Button consultarButton = new Button("Consultar", VaadinIcon.SEARCH.create(), e -> consultar());
+        consultarButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+
+        // Link de exportação: o download é feito pelo navegador, fora do Vaadin
+        exportarLink = new Anchor("", new Button("Exportar CSV", VaadinIcon.DOWNLOAD.create()));
+        exportarLink.setRouterIgnore(true);
+        exportarLink.getElement().setAttribute("download", true);
+
+        resumo = new Span();
+        resumo.addClassNames(LumoUtility.FontSize.SMALL, LumoUtility.TextColor.SECONDARY);
+
+        grid = criarGrid();
+        classeSelect.addValueChangeListener(e -> grid.getDataProvider().refreshAll());
+
+        HorizontalLayout filtros = new HorizontalLayout(inicioPicker, fimPicker, classeSelect, consultarButton,
+                exportarLink);
+        filtros.setAlignItems(FlexComponent.Alignment.BASELINE);
+        filtros.setWrap(true);
+
+        addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, LumoUtility.FlexDirection.COLUMN,
+                LumoUtility.Padding.MEDIUM, LumoUtility.Gap.SMALL);
+        setSizeFull();
+        add(new ViewToolbar("Curva ABC"), filtros, resumo, grid);
+
+        consultar();
+    }
+
+    private Grid<ItemCurvaAbc> criarGrid() {
+        Grid<ItemCurvaAbc> grid = new Grid<>();
+        grid.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES, GridVariant.LUMO_COMPACT);
+        grid.setSizeFull();
+
+        grid.addColumn(ItemCurvaAbc::posicao).setHeader("#").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        grid.addColumn(ItemCurvaAbc::codigo).setHeader("Código").setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(ItemCurvaAbc::nome).setHeader("Produto").setFlexGrow(1);
+        grid.addColumn(item -> formatoNumero.format(item.quantidade())).setHeader("Quantidade")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(item -> formatoMoeda.format(BigDecimal.valueOf(item.centavos(), 2))).setHeader("Faturamento")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(item -> percentual(item.centavos())).setHeader("Participação")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(item -> percentual(item.acumuladoCentavos())).setHeader("Acumulado")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(item -> item.classe().name()).setHeader("Classe").setTextAlign(ColumnTextAlign.CENTER)
+                .setAutoWidth(true).setFlexGrow(0);
+
+        grid.setItems(query -> {
+            int de = inicioDaLista() + query.getOffset();
+            int ate = Math.min(fimDaLista(), de + query.getLimit());
+            CurvaAbc atual = curva;
+            return atual == null ? Stream.empty() : curvaAbcService.listar(atual, de, ate).stream();
+        }, query -> fimDaLista() - inicioDaLista());
+        return grid;
+    }
+
+    private void consultar() {
+        LocalDate inicio = inicioPicker.getValue();
+        LocalDate fim = fimPicker.getValue();
+        if (inicio == null || fim == null) {
+            mostrarErro("Informe o período");
+            return;
+        }
+        try {
+            curva = curvaAbcService.calcular(inicio, fim);
+        } catch (IllegalArgumentException e) {
+            mostrarErro(e.getMessage());
+            return;
+        }
+        exportarLink.setHref(CurvaAbcExportacaoController.url(inicio, fim, FormatoExportacao.CSV));
+        resumo.setText(resumir(curva));
+        grid.getDataProvider().refreshAll();
+    }
+
+    private String resumir(CurvaAbc curva) {
+        StringBuilder texto = new StringBuilder("%s produtos, faturamento de %s.".formatted(
+                formatoNumero.format(curva.tamanho()),
+                formatoMoeda.format(BigDecimal.valueOf(curva.getTotalCentavos(), 2))));
+        for (ClasseAbc classe : ClasseAbc.values()) {
+            int produtos = curva.fim(classe) - curva.inicio(classe);
+            texto.append(" Classe %s: %s produtos (%s), %s do faturamento.".formatted(classe.name(),
+                    formatoNumero.format(produtos),
+                    curva.tamanho() == 0 ? formatoPercentual.format(0)
+                            : formatoPercentual.format((double) produtos / curva.tamanho()),
+                    percentual(curva.somarCentavos(classe))));
+        }
+        return texto.toString();
+    }
+
+    private int inicioDaLista() {
+        CurvaAbc atual = curva;
+        ClasseAbc classe = classeSelect.getValue();
+        return atual == null || classe == null ? 0 : atual.inicio(classe);
+    }
+
+    private int fimDaLista() {
+        CurvaAbc atual = curva;
+        if (atual == null) {
+            return 0;
+        }
+        ClasseAbc classe = classeSelect.getValue();
+        return classe == null ? atual.tamanho() : atual.fim(classe);
+    }
+
+    private String percentual(long centavos) {
+        CurvaAbc atual = curva;
+        if (atual == null || atual.getTotalCentavos() == 0) {
+            return formatoPercentual.format(0);
+        }
+        return formatoPercentual.format((double) centavos / atual.getTotalCentavos());
+    }
+
+    private static void mostrarErro(String mensagem) {
+        Notification.show(mensagem, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+}
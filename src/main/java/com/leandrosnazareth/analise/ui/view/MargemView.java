@@ -0,0 +1,163 @@
+package com.leandrosnazareth.analise.ui.view;
+
+import com.leandrosnazareth.analise.service.AgrupamentoMargem;
+import com.leandrosnazareth.analise.service.LinhaMargem;
+import com.leandrosnazareth.analise.service.MargemService;
+import com.leandrosnazareth.analise.service.ResumoMargem;
+import com.leandrosnazareth.base.ui.component.ViewToolbar;
+import com.leandrosnazareth.security.AppRoles;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.datepicker.DatePicker;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.select.Select;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+import jakarta.annotation.security.RolesAllowed;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Margem das vendas finalizadas no período, por dia, categoria ou produto, com o custo
+ * de cada item registrado na venda.
+ * <p>
+ * Lida dos agregados de lucro mantidos a cada venda, então períodos longos respondem
+ * tão rápido quanto os curtos.
+ * </p>
+ */
+@Route("margem")
+@PageTitle("Margem")
+@Menu(order = 6, icon = "vaadin:money", title = "Margem")
+@RolesAllowed({ AppRoles.ADMIN, AppRoles.PRODUCT_MANAGER })
+public class MargemView extends Main {
+
+    private static final int DIAS_PADRAO = 30;
+
+    private final MargemService margemService;
+
+    private final NumberFormat formatoMoeda = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+    private final NumberFormat formatoNumero = NumberFormat.getIntegerInstance(new Locale("pt", "BR"));
+
+    private final DatePicker inicioPicker;
+    private final DatePicker fimPicker;
+    private final Select<AgrupamentoMargem> agrupamentoSelect;
+    private final Span resumo;
+    private final Grid<LinhaMargem> grid;
+
+    public MargemView(MargemService margemService, Clock clock) {
+        this.margemService = margemService;
+
+        LocalDate hoje = LocalDate.now(clock);
+        inicioPicker = new DatePicker("De", hoje.minusDays(DIAS_PADRAO - 1));
+        fimPicker = new DatePicker("Até", hoje);
+
+        agrupamentoSelect = new Select<>();
+        agrupamentoSelect.setLabel("Agrupar por");
+        agrupamentoSelect.setItems(AgrupamentoMargem.values());
+        agrupamentoSelect.setItemLabelGenerator(AgrupamentoMargem::getDescricao);
+        agrupamentoSelect.setValue(AgrupamentoMargem.CATEGORIA);
+
+        Button consultarButton = new Button("Consultar", VaadinIcon.SEARCH.create(), e -> consultar());
+        consultarButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+
+        resumo = new Span();
+        resumo.addClassNames(LumoUtility.FontSize.SMALL, LumoUtility.TextColor.SECONDARY);
+
+        grid = criarGrid();
+
+        HorizontalLayout filtros = new HorizontalLayout(inicioPicker, fimPicker, agrupamentoSelect, consultarButton);
+        filtros.setAlignItems(FlexComponent.Alignment.BASELINE);
+        filtros.setWrap(true);
+
+        addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, LumoUtility.FlexDirection.COLUMN,
+                LumoUtility.Padding.MEDIUM, LumoUtility.Gap.SMALL);
+        setSizeFull();
+        add(new ViewToolbar("Margem"), filtros, resumo, grid);
+
+        consultar();
+    }
+
+    private Grid<LinhaMargem> criarGrid() {
+        Grid<LinhaMargem> tabela = new Grid<>();
+        tabela.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES, GridVariant.LUMO_COMPACT);
+        tabela.setSizeFull();
+        tabela.addColumn(LinhaMargem::rotulo).setHeader("Dia, categoria ou produto")
+                .setAutoWidth(true).setFlexGrow(1).setFrozen(true);
+        tabela.addColumn(linha -> formatoNumero.format(linha.quantidade())).setHeader("Quantidade")
+                .setComparator(LinhaMargem::quantidade).setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        tabela.addColumn(linha -> formatoMoeda.format(linha.receita())).setHeader("Receita")
+                .setComparator(LinhaMargem::receita).setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        tabela.addColumn(linha -> formatoMoeda.format(linha.custo())).setHeader("Custo")
+                .setComparator(LinhaMargem::custo).setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        tabela.addColumn(linha -> formatoMoeda.format(linha.lucro())).setHeader("Lucro")
+                .setComparator(LinhaMargem::lucro).setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        tabela.addColumn(linha -> formatarMargem(linha.margem())).setHeader("Margem")
+                .setComparator(Comparator.comparing(LinhaMargem::margem,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        tabela.addColumn(linha -> formatoMoeda.format(linha.receitaSemCusto())).setHeader("Receita sem custo")
+                .setComparator(LinhaMargem::receitaSemCusto).setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        return tabela;
+    }
+
+    private void consultar() {
+        LocalDate inicio = inicioPicker.getValue();
+        LocalDate fim = fimPicker.getValue();
+        if (inicio == null || fim == null) {
+            mostrarErro("Informe o período");
+            return;
+        }
+        List<LinhaMargem> linhas;
+        ResumoMargem totais;
+        try {
+            linhas = margemService.listar(agrupamentoSelect.getValue(), inicio, fim);
+            totais = margemService.resumir(inicio, fim);
+        } catch (IllegalArgumentException e) {
+            mostrarErro(e.getMessage());
+            return;
+        }
+        grid.setItems(linhas);
+
+        LinhaMargem total = totais.total();
+        String semCusto = total.receitaSemCusto().signum() > 0
+                ? " Receita de itens sem custo, fora da margem: %s.".formatted(
+                        formatoMoeda.format(total.receitaSemCusto()))
+                : "";
+        resumo.setText("%s vendas. Receita: %s, custo: %s, lucro: %s, margem: %s. Descontos nas vendas: %s.%s"
+                .formatted(formatoNumero.format(totais.vendas()), formatoMoeda.format(total.receita()),
+                        formatoMoeda.format(total.custo()), formatoMoeda.format(total.lucro()),
+                        formatarMargem(total.margem()), formatoMoeda.format(totais.desconto()), semCusto));
+    }
+
+    private static String formatarMargem(@Nullable BigDecimal margem) {
+        return margem == null ? "-" : margem.toPlainString().replace('.', ',') + "%";
+    }
+
+    private static void mostrarErro(String mensagem) {
+        Notification.show(mensagem, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Este pacote contém as views do módulo de Análise de vendas.
+ * <p>
+ * As views consultam o cubo de vendas em memória, sem agregações no banco.
+ * </p>
+ */
+@NullMarked
+package com.leandrosnazareth.analise.ui.view;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,82 @@
+package com.leandrosnazareth.analise.web;
+
+import com.leandrosnazareth.analise.service.CurvaAbcService;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Exporta a curva ABC dos produtos de um período como download.
+ * <p>
+ * As datas são ISO-8601 ({@code 2025-01-31}) e o período inclui o último dia. A curva
+ * vem do cache do {@link CurvaAbcService}, a mesma exibida na tela.
+ * </p>
+ */
+@RestController
+@RequestMapping(CurvaAbcExportacaoController.CAMINHO)
+public class CurvaAbcExportacaoController {
+
+    static final String CAMINHO = "/exportacao/curva-abc";
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final CurvaAbcService curvaAbcService;
+
+    public CurvaAbcExportacaoController(CurvaAbcService curvaAbcService) {
+        this.curvaAbcService = curvaAbcService;
+    }
+
+    /**
+     * Retorna a URL relativa da exportação, a ser usada como {@code href} nas telas.
+     */
+    public static String url(LocalDate inicio, LocalDate fim, FormatoExportacao formato) {
+        return CAMINHO.substring(1) + "?inicio=" + inicio + "&fim=" + fim + "&formato="
+                + formato.name().toLowerCase(Locale.ROOT);
+    }
+
+    @GetMapping
+    public void exportar(@RequestParam String inicio, @RequestParam String fim,
+            @RequestParam(defaultValue = "csv") String formato, HttpServletResponse response) throws IOException {
+        LocalDate dataInicio;
+        LocalDate dataFim;
+        FormatoExportacao tipo;
+        try {
+            dataInicio = LocalDate.parse(inicio);
+            dataFim = LocalDate.parse(fim);
+            tipo = FormatoExportacao.doNome(formato);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (dataFim.isBefore(dataInicio)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "A data final não pode ser anterior à inicial");
+            return;
+        }
+
+        response.setContentType(tipo.getTipoConteudo());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("curva-abc-" + dataInicio + "-" + dataFim + "." + tipo.getExtensao())
+                .build()
+                .toString());
+        Writer destino = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8),
+                TAMANHO_BUFFER);
+        curvaAbcService.exportar(dataInicio, dataFim, tipo, destino);
+        destino.flush();
+    }
+}
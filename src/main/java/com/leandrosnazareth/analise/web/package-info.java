@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.analise.web;
+
+import org.jspecify.annotations.NullMarked;
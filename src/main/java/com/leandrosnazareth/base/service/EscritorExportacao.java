@@ -0,0 +1,168 @@
+package com.leandrosnazareth.base.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Escreve registros de uma exportação, um de cada vez, direto no {@link Writer} de destino.
+ * <p>
+ * Nada é acumulado além do buffer do próprio destino, então o tamanho da exportação
+ * não afeta a memória. Os valores são escritos em formato neutro, para leitura por
+ * outros sistemas: números com ponto decimal e sem separador de milhar, datas em
+ * ISO-8601 e enums pelo nome.
+ * </p>
+ */
+public abstract class EscritorExportacao {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+            .build();
+
+    protected final List<String> colunas;
+
+    private EscritorExportacao(List<String> colunas) {
+        this.colunas = List.copyOf(colunas);
+    }
+
+    /**
+     * Abre a exportação, escrevendo o cabeçalho quando o formato tem um.
+     *
+     * @param colunas nomes das colunas, na ordem dos valores de {@link #escrever(Object...)}
+     */
+    public static EscritorExportacao abrir(FormatoExportacao formato, Writer destino, List<String> colunas)
+            throws IOException {
+        return switch (formato) {
+            case CSV -> new Csv(destino, colunas);
+            case NDJSON -> new Ndjson(destino, colunas);
+        };
+    }
+
+    /**
+     * Escreve um registro.
+     *
+     * @throws IllegalArgumentException se o número de valores for diferente do de colunas
+     */
+    public final void escrever(@Nullable Object... valores) throws IOException {
+        if (valores.length != colunas.size()) {
+            throw new IllegalArgumentException(
+                    "Esperados " + colunas.size() + " valores, recebidos " + valores.length);
+        }
+        escreverRegistro(valores);
+    }
+
+    /**
+     * Termina a exportação e descarrega o que estiver em buffer; o destino continua aberto.
+     */
+    public abstract void concluir() throws IOException;
+
+    protected abstract void escreverRegistro(@Nullable Object[] valores) throws IOException;
+
+    private static String texto(Object valor) {
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (valor instanceof Enum<?> constante) {
+            return constante.name();
+        }
+        return valor.toString();
+    }
+
+    private static final class Csv extends EscritorExportacao {
+
+        private static final char SEPARADOR = ';';
+
+        private final Writer destino;
+
+        private Csv(Writer destino, List<String> colunas) throws IOException {
+            super(colunas);
+            this.destino = destino;
+            // BOM para que planilhas reconheçam o UTF-8
+            destino.write('\uFEFF');
+            escreverRegistro(colunas.toArray());
+        }
+
+        @Override
+        protected void escreverRegistro(@Nullable Object[] valores) throws IOException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    destino.write(SEPARADOR);
+                }
+                if (valores[i] != null) {
+                    escreverCampo(texto(valores[i]));
+                }
+            }
+            destino.write("\r\n");
+        }
+
+        private void escreverCampo(String campo) throws IOException {
+            boolean aspas = false;
+            for (int i = 0; i < campo.length() && !aspas; i++) {
+                char c = campo.charAt(i);
+                aspas = c == SEPARADOR || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!aspas) {
+                destino.write(campo);
+                return;
+            }
+            destino.write('"');
+            destino.write(campo.replace("\"", "\"\""));
+            destino.write('"');
+        }
+
+        @Override
+        public void concluir() throws IOException {
+            destino.flush();
+        }
+    }
+
+    private static final class Ndjson extends EscritorExportacao {
+
+        private final JsonGenerator gerador;
+
+        private Ndjson(Writer destino, List<String> colunas) throws IOException {
+            super(colunas);
+            // O gerador não é fechado ao fim: o destino pertence a quem abriu a exportação
+            this.gerador = JSON.createGenerator(destino)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        protected void escreverRegistro(@Nullable Object[] valores) throws IOException {
+            gerador.writeStartObject();
+            for (int i = 0; i < valores.length; i++) {
+                gerador.writeFieldName(colunas.get(i));
+                Object valor = valores[i];
+                if (valor == null) {
+                    gerador.writeNull();
+                } else if (valor instanceof BigDecimal decimal) {
+                    gerador.writeNumber(decimal);
+                } else if (valor instanceof BigInteger inteiro) {
+                    gerador.writeNumber(inteiro);
+                } else if (valor instanceof Integer || valor instanceof Long) {
+                    gerador.writeNumber(((Number) valor).longValue());
+                } else if (valor instanceof Boolean logico) {
+                    gerador.writeBoolean(logico);
+                } else {
+                    gerador.writeString(texto(valor));
+                }
+            }
+            gerador.writeEndObject();
+        }
+
+        @Override
+        public void concluir() throws IOException {
+            gerador.writeRaw('\n');
+            gerador.flush();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.leandrosnazareth.base.service;
+
+import java.util.Locale;
+
+/**
+ * Formatos de arquivo das exportações.
+ */
+public enum FormatoExportacao {
+
+    /**
+     * CSV em UTF-8 com BOM, separado por ponto e vírgula, com cabeçalho.
+     */
+    CSV("text/csv;charset=UTF-8", "csv"),
+
+    /**
+     * Um objeto JSON por linha (NDJSON).
+     */
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson");
+
+    private final String tipoConteudo;
+    private final String extensao;
+
+    FormatoExportacao(String tipoConteudo, String extensao) {
+        this.tipoConteudo = tipoConteudo;
+        this.extensao = extensao;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Identifica o formato pelo nome, sem diferenciar maiúsculas.
+     *
+     * @throws IllegalArgumentException se o formato não existir
+     */
+    public static FormatoExportacao doNome(String nome) {
+        try {
+            return valueOf(nome.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportação inválido: " + nome);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.base.service;
+
+import org.jspecify.annotations.NullMarked;
@@ -1,7 +1,12 @@
 package com.leandrosnazareth.base.ui.view;
 
+import com.leandrosnazareth.produto.service.AlertaEstoqueBaixo;
+import com.leandrosnazareth.produto.service.EstoqueBaixoMonitor;
+import com.leandrosnazareth.security.AppRoles;
 import com.leandrosnazareth.security.CurrentUser;
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.applayout.AppLayout;
 import com.vaadin.flow.component.avatar.Avatar;
@@ -13,14 +18,18 @@ import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.menubar.MenuBar;
 import com.vaadin.flow.component.menubar.MenuBarVariant;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.Scroller;
 import com.vaadin.flow.component.sidenav.SideNav;
 import com.vaadin.flow.component.sidenav.SideNavItem;
 import com.vaadin.flow.router.Layout;
 import com.vaadin.flow.server.menu.MenuConfiguration;
 import com.vaadin.flow.server.menu.MenuEntry;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.spring.security.AuthenticationContext;
 import jakarta.annotation.security.PermitAll;
+import org.jspecify.annotations.Nullable;
 
 import static com.vaadin.flow.theme.lumo.LumoUtility.*;
 
@@ -31,14 +40,55 @@ public final class MainLayout extends AppLayout {
 
     private final CurrentUser currentUser;
     private final AuthenticationContext authenticationContext;
+    private final EstoqueBaixoMonitor estoqueBaixoMonitor;
+    private @Nullable Registration estoqueBaixoRegistro;
 
-    MainLayout(CurrentUser currentUser, AuthenticationContext authenticationContext) {
+    MainLayout(CurrentUser currentUser, AuthenticationContext authenticationContext,
+            EstoqueBaixoMonitor estoqueBaixoMonitor) {
         this.currentUser = currentUser;
         this.authenticationContext = authenticationContext;
+        this.estoqueBaixoMonitor = estoqueBaixoMonitor;
         setPrimarySection(Section.DRAWER);
         addToDrawer(createHeader(), new Scroller(createSideNav()), createUserMenu());
     }
 
+    /**
+     * Gerentes recebem, em qualquer tela, o aviso dos produtos que ficam com estoque baixo.
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        if (authenticationContext.hasAnyRole(AppRoles.ADMIN, AppRoles.PRODUCT_MANAGER)) {
+            UI ui = attachEvent.getUI();
+            EstoqueBaixoMonitor.Inscricao inscricao = estoqueBaixoMonitor.registrar(
+                    alerta -> ui.access(() -> avisar(alerta)));
+            estoqueBaixoRegistro = inscricao::close;
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (estoqueBaixoRegistro != null) {
+            estoqueBaixoRegistro.remove();
+            estoqueBaixoRegistro = null;
+        }
+        super.onDetach(detachEvent);
+    }
+
+    private static void avisar(AlertaEstoqueBaixo alerta) {
+        if (!alerta.entrou()) {
+            return;
+        }
+        var produto = alerta.produto();
+        var mensagem = produto.isSemEstoque()
+                ? "Produto sem estoque: %s (%s)".formatted(produto.nome(), produto.codigo())
+                : "Estoque baixo: %s (%s) com %d un, mínimo %d".formatted(produto.nome(), produto.codigo(),
+                        produto.estoqueAtual(), produto.estoqueMinimo());
+        Notification.show(mensagem, 8000, Notification.Position.TOP_END)
+                .addThemeVariants(produto.isSemEstoque() ? NotificationVariant.LUMO_ERROR
+                        : NotificationVariant.LUMO_WARNING);
+    }
+
     private Div createHeader() {
         var appLogo = VaadinIcon.CUBES.create();
         appLogo.addClassNames(TextColor.PRIMARY, IconSize.LARGE);
@@ -1,14 +1,19 @@
 package com.leandrosnazareth.base.ui.view;
 
+import com.leandrosnazareth.produto.service.EstoqueBaixoMonitor;
+import com.leandrosnazareth.produto.service.ProdutoEstoqueBaixo;
 import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.venda.service.MapaHorarioVendas;
 import com.leandrosnazareth.venda.service.VendaService;
 import com.leandrosnazareth.venda.domain.Venda;
-import com.leandrosnazareth.produto.domain.Produto;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Main;
@@ -22,15 +27,21 @@ import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import jakarta.annotation.security.PermitAll;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
 import java.util.List;
 import java.util.Locale;
 
@@ -41,8 +52,14 @@ import java.util.Locale;
 @CssImport("./styles/dashboard.css")
 public final class MainView extends Main {
 
+    private static final Logger logger = LoggerFactory.getLogger(MainView.class);
+
+    // Semanas somadas no mapa de movimento por dia e hora
+    private static final int SEMANAS_MAPA_HORARIO = 12;
+
     private final VendaService vendaService;
     private final ProdutoService produtoService;
+    private final EstoqueBaixoMonitor estoqueBaixoMonitor;
     private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
 
     // Componentes de estatísticas
@@ -56,15 +73,21 @@ public final class MainView extends Main {
     // Estatísticas adicionais
     private VerticalLayout estatisticasVendas30Dias;
     private VerticalLayout estatisticasFormasPagamento;
+    private VerticalLayout mapaHorario;
 
     // Tabelas
     private Grid<Object[]> produtosMaisVendidosGrid;
-    private Grid<Produto> produtosEstoqueBaixoGrid;
+    private Grid<ProdutoEstoqueBaixo> produtosEstoqueBaixoGrid;
     private Grid<Venda> ultimasVendasGrid;
 
-    public MainView(VendaService vendaService, ProdutoService produtoService) {
+    // Aviso de produtos que cruzaram o estoque mínimo, enquanto a tela está aberta
+    private @Nullable Registration estoqueBaixoRegistro;
+
+    public MainView(VendaService vendaService, ProdutoService produtoService,
+            EstoqueBaixoMonitor estoqueBaixoMonitor) {
         this.vendaService = vendaService;
         this.produtoService = produtoService;
+        this.estoqueBaixoMonitor = estoqueBaixoMonitor;
 
         addClassName(LumoUtility.Background.BASE);
         addClassName(LumoUtility.Padding.NONE);
@@ -80,6 +103,24 @@ public final class MainView extends Main {
         UI.getCurrent().navigate(MainView.class);
     }
 
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        EstoqueBaixoMonitor.Inscricao inscricao = estoqueBaixoMonitor.registrar(
+                alerta -> ui.access(this::carregarTabelaEstoqueBaixo));
+        estoqueBaixoRegistro = inscricao::close;
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (estoqueBaixoRegistro != null) {
+            estoqueBaixoRegistro.remove();
+            estoqueBaixoRegistro = null;
+        }
+        super.onDetach(detachEvent);
+    }
+
     private void criarInterface() {
         // Container principal com gradiente sutil
         VerticalLayout mainContainer = new VerticalLayout();
@@ -105,8 +146,9 @@ public final class MainView extends Main {
         HorizontalLayout primeiraLinha = criarPrimeiraLinha();
         HorizontalLayout segundaLinha = criarSegundaLinha();
         HorizontalLayout terceiraLinha = criarTerceiraLinha();
+        HorizontalLayout quartaLinha = criarQuartaLinha();
 
-        contentContainer.add(primeiraLinha, segundaLinha, terceiraLinha);
+        contentContainer.add(primeiraLinha, segundaLinha, terceiraLinha, quartaLinha);
         mainContainer.add(header, contentContainer);
 
         add(mainContainer);
@@ -244,6 +286,27 @@ public final class MainView extends Main {
         return linha;
     }
 
+    private HorizontalLayout criarQuartaLinha() {
+        HorizontalLayout linha = new HorizontalLayout();
+        linha.setWidthFull();
+        linha.setSpacing(true);
+        linha.addClassName(LumoUtility.Gap.LARGE);
+
+        mapaHorario = new VerticalLayout();
+        mapaHorario.setSpacing(false);
+        mapaHorario.setPadding(false);
+        mapaHorario.setSizeFull();
+
+        // Movimento por dia da semana e hora das últimas semanas
+        VerticalLayout cardMapaHorario = criarCardEstatisticasTextuais(
+                "🔥 Movimento por Dia e Hora",
+                mapaHorario,
+                "linear-gradient(135deg, #ffffff 0%, #f8f9fa 100%)");
+
+        linha.add(cardMapaHorario);
+        return linha;
+    }
+
     private VerticalLayout criarCardEstatistica(String titulo, VaadinIcon icone, String valor, String descricao,
             String tema, String gradiente) {
         VerticalLayout card = new VerticalLayout();
@@ -522,8 +585,8 @@ public final class MainView extends Main {
         return produtosMaisVendidosGrid;
     }
 
-    private Grid<Produto> criarTabelaEstoqueBaixo() {
-        produtosEstoqueBaixoGrid = new Grid<>(Produto.class, false);
+    private Grid<ProdutoEstoqueBaixo> criarTabelaEstoqueBaixo() {
+        produtosEstoqueBaixoGrid = new Grid<>(ProdutoEstoqueBaixo.class, false);
         produtosEstoqueBaixoGrid.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES);
         produtosEstoqueBaixoGrid.setWidthFull();
         produtosEstoqueBaixoGrid.setHeight("350px");
@@ -535,7 +598,7 @@ public final class MainView extends Main {
         produtosEstoqueBaixoGrid.getStyle().set("--lumo-header-color", "var(--lumo-primary-text-color)");
         produtosEstoqueBaixoGrid.getStyle().set("--lumo-header-font-weight", "600");
 
-        produtosEstoqueBaixoGrid.addColumn(produto -> "📦 " + produto.getNome())
+        produtosEstoqueBaixoGrid.addColumn(produto -> "📦 " + produto.nome())
                 .setHeader("🏷️ Produto")
                 .setFlexGrow(1);
 
@@ -583,33 +646,28 @@ public final class MainView extends Main {
         return ultimasVendasGrid;
     }
 
-    private com.vaadin.flow.component.Component criarIndicadorEstoque(Produto produto) {
+    private com.vaadin.flow.component.Component criarIndicadorEstoque(ProdutoEstoqueBaixo produto) {
         HorizontalLayout layout = new HorizontalLayout();
         layout.setSpacing(false);
         layout.setAlignItems(FlexComponent.Alignment.CENTER);
         layout.setPadding(false);
 
-        Span estoqueSpan = new Span(produto.getEstoqueAtual().toString() + " un");
+        Span estoqueSpan = new Span(produto.estoqueAtual() + " un");
         estoqueSpan.addClassName(LumoUtility.FontWeight.MEDIUM);
         estoqueSpan.addClassName(LumoUtility.FontSize.SMALL);
 
         Icon icon;
-        if (produto.getEstoqueAtual() == 0) {
+        if (produto.isSemEstoque()) {
             estoqueSpan.getElement().getThemeList().add("badge error");
             icon = new Icon(VaadinIcon.CLOSE_CIRCLE);
             icon.getStyle().set("color", "var(--lumo-error-color)");
             estoqueSpan.getStyle().set("color", "var(--lumo-error-color)");
             estoqueSpan.getStyle().set("font-weight", "bold");
-        } else if (produto.isEstoqueBaixo()) {
+        } else {
             estoqueSpan.getElement().getThemeList().add("badge contrast");
             icon = new Icon(VaadinIcon.WARNING);
             icon.getStyle().set("color", "var(--lumo-warning-color)");
             estoqueSpan.getStyle().set("color", "var(--lumo-warning-color)");
-        } else {
-            estoqueSpan.getElement().getThemeList().add("badge success");
-            icon = new Icon(VaadinIcon.CHECK_CIRCLE);
-            icon.getStyle().set("color", "var(--lumo-success-color)");
-            estoqueSpan.getStyle().set("color", "var(--lumo-success-color)");
         }
 
         icon.setSize("16px");
@@ -655,6 +713,56 @@ public final class MainView extends Main {
     private void carregarEstatisticasTextuais() {
         carregarEstatisticasVendas30Dias();
         carregarEstatisticasFormasPagamento();
+        carregarMapaHorario();
+    }
+
+    private void carregarMapaHorario() {
+        try {
+            MapaHorarioVendas mapa = vendaService.obterMapaHorario(SEMANAS_MAPA_HORARIO);
+            mapaHorario.removeAll();
+
+            Div grade = new Div();
+            grade.addClassName("mapa-horario");
+            grade.add(new Div());
+            for (int hora = 0; hora < MapaHorarioVendas.HORAS; hora++) {
+                Span rotulo = new Span(hora % 3 == 0 ? String.valueOf(hora) : "");
+                rotulo.addClassName("mapa-horario-hora");
+                grade.add(rotulo);
+            }
+
+            long maximo = mapa.maximoVendas();
+            Locale portugues = new Locale("pt", "BR");
+            for (int dia = 0; dia < MapaHorarioVendas.DIAS; dia++) {
+                String nomeDia = DayOfWeek.of(dia + 1).getDisplayName(TextStyle.SHORT, portugues);
+                Span rotulo = new Span(nomeDia);
+                rotulo.addClassName("mapa-horario-dia");
+                grade.add(rotulo);
+                for (int hora = 0; hora < MapaHorarioVendas.HORAS; hora++) {
+                    long vendas = mapa.vendas(dia, hora);
+                    Div celula = new Div();
+                    celula.addClassName("mapa-horario-celula");
+                    // Intensidade proporcional ao maior movimento do período
+                    long intensidade = maximo > 0 ? Math.round(vendas * 100.0 / maximo) : 0;
+                    celula.getStyle().set("background", "color-mix(in srgb, var(--lumo-primary-color) "
+                            + intensidade + "%, var(--lumo-contrast-5pct))");
+                    celula.getElement().setAttribute("title", "%s, %02dh: %d vendas, %s, %d canceladas".formatted(
+                            nomeDia, hora, vendas, currencyFormat.format(mapa.valor(dia, hora)),
+                            mapa.canceladas(dia, hora)));
+                    grade.add(celula);
+                }
+            }
+
+            DateTimeFormatter formatoDia = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+            Span legenda = new Span("%d vendas finalizadas de %s a %s".formatted(mapa.totalVendas(),
+                    mapa.inicio().format(formatoDia), mapa.fim().format(formatoDia)));
+            legenda.addClassName(LumoUtility.FontSize.SMALL);
+            legenda.addClassName(LumoUtility.Margin.Top.MEDIUM);
+            legenda.getStyle().set("color", "var(--lumo-contrast-70pct)");
+
+            mapaHorario.add(grade, legenda);
+        } catch (Exception e) {
+            logger.error("Erro ao carregar movimento por dia e hora", e);
+        }
     }
 
     private void carregarEstatisticasVendas() {
@@ -1086,8 +1194,8 @@ public final class MainView extends Main {
 
     private void carregarTabelaEstoqueBaixo() {
         try {
-            List<Produto> produtosEstoqueBaixo = produtoService.listarProdutosComEstoqueBaixo();
-            produtosEstoqueBaixoGrid.setItems(produtosEstoqueBaixo.stream().limit(10).toList());
+            // Lido do monitor em memória, os mais críticos primeiro, sem consultar o banco
+            produtosEstoqueBaixoGrid.setItems(estoqueBaixoMonitor.listar());
         } catch (Exception e) {
             System.err.println("Erro ao carregar produtos com estoque baixo: " + e.getMessage());
         }
@@ -0,0 +1,119 @@
+package com.leandrosnazareth.gerador.service;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Categoria do catálogo sintético, com os tipos de produto, as marcas e a faixa de
+ * preço de venda usados para montar os produtos dela.
+ * <p>
+ * As marcas vêm em ordem de participação: a escolha segue a lei de Zipf, como num
+ * mercado onde poucas marcas dominam cada categoria.
+ * </p>
+ */
+final class CategoriaSintetica {
+
+    static final List<CategoriaSintetica> TODAS = List.of(
+            new CategoriaSintetica("Mercearia", 22, "UN", 2, 60,
+                    List.of("Arroz", "Feijão", "Macarrão", "Açúcar", "Café", "Óleo", "Farinha", "Biscoito"),
+                    List.of("Camil", "Tio João", "Kicaldo", "União", "Pilão", "Liza", "Dona Benta", "Piraquê",
+                            "Renata", "Vitarella")),
+            new CategoriaSintetica("Bebidas", 14, "UN", 3, 120,
+                    List.of("Refrigerante", "Suco", "Água Mineral", "Cerveja", "Energético", "Chá Gelado"),
+                    List.of("Coca-Cola", "Guaraná Antarctica", "Del Valle", "Crystal", "Heineken", "Skol",
+                            "Red Bull", "Leão")),
+            new CategoriaSintetica("Laticínios", 8, "UN", 3, 45,
+                    List.of("Leite", "Iogurte", "Queijo", "Manteiga", "Requeijão"),
+                    List.of("Italac", "Piracanjuba", "Danone", "Nestlé", "Vigor", "Tirolez", "Aviação")),
+            new CategoriaSintetica("Higiene", 10, "UN", 3, 80,
+                    List.of("Sabonete", "Shampoo", "Creme Dental", "Desodorante", "Papel Higiênico"),
+                    List.of("Dove", "Colgate", "Rexona", "Seda", "Neve", "Palmolive", "Elseve", "Personal")),
+            new CategoriaSintetica("Limpeza", 9, "UN", 3, 70,
+                    List.of("Detergente", "Sabão em Pó", "Amaciante", "Desinfetante", "Água Sanitária"),
+                    List.of("Ypê", "Omo", "Comfort", "Veja", "Qboa", "Brilhante", "Pinho Sol")),
+            new CategoriaSintetica("Hortifruti", 6, "KG", 2, 40,
+                    List.of("Tomate", "Banana", "Batata", "Maçã", "Cebola", "Laranja"),
+                    List.of("Ceasa", "Hortifruti Sul", "Sítio Verde", "Fazenda Boa Vista")),
+            new CategoriaSintetica("Açougue", 5, "KG", 15, 150,
+                    List.of("Picanha", "Alcatra", "Frango", "Linguiça", "Costela"),
+                    List.of("Friboi", "Seara", "Sadia", "Swift", "Perdigão")),
+            new CategoriaSintetica("Padaria", 4, "UN", 1, 50,
+                    List.of("Pão Francês", "Bolo", "Pão de Forma", "Torrada"),
+                    List.of("Pullman", "Wickbold", "Seven Boys", "Bauducco", "Casa")),
+            new CategoriaSintetica("Utilidades", 7, "UN", 5, 250,
+                    List.of("Pote", "Panela", "Copo", "Vassoura", "Lâmpada", "Pilha"),
+                    List.of("Tramontina", "Sanremo", "Nadir", "Bettanin", "Philips", "Duracell")),
+            new CategoriaSintetica("Periféricos", 5, "UN", 20, 900,
+                    List.of("Mouse", "Teclado", "Headset", "Webcam", "Mousepad"),
+                    List.of("Logitech", "Multilaser", "Redragon", "HyperX", "Corsair", "Razer")),
+            new CategoriaSintetica("Eletrônicos", 4, "UN", 40, 4_000,
+                    List.of("Fone Bluetooth", "Carregador", "Caixa de Som", "Smartwatch", "Cabo USB"),
+                    List.of("Samsung", "JBL", "Xiaomi", "Motorola", "Positivo", "Philco")),
+            new CategoriaSintetica("Papelaria", 6, "UN", 1, 60,
+                    List.of("Caderno", "Caneta", "Lápis", "Borracha", "Cola", "Mochila"),
+                    List.of("Tilibra", "BIC", "Faber-Castell", "Pritt", "Foroni", "Maped")));
+
+    private static final DistribuicaoDiscreta PARTICIPACAO = DistribuicaoDiscreta.porPesos(
+            TODAS.stream().mapToDouble(categoria -> categoria.peso).toArray());
+
+    private static final List<String> VARIANTES = List.of("Tradicional", "Premium", "Econômico", "Light",
+            "Família", "Integral", "Mini", "Plus", "Zero", "Max");
+
+    private final String nome;
+    private final double peso;
+    private final String unidade;
+    private final int precoMinimo;
+    private final int precoMaximo;
+    private final List<String> tipos;
+    private final List<String> marcas;
+    private final DistribuicaoDiscreta participacaoMarcas;
+
+    private CategoriaSintetica(String nome, double peso, String unidade, int precoMinimo, int precoMaximo,
+            List<String> tipos, List<String> marcas) {
+        this.nome = nome;
+        this.peso = peso;
+        this.unidade = unidade;
+        this.precoMinimo = precoMinimo;
+        this.precoMaximo = precoMaximo;
+        this.tipos = tipos;
+        this.marcas = marcas;
+        this.participacaoMarcas = DistribuicaoDiscreta.zipf(marcas.size(), 1.2);
+    }
+
+    /**
+     * Sorteia uma categoria, conforme a participação de cada uma no catálogo.
+     */
+    static CategoriaSintetica sortear(SplittableRandom random) {
+        return TODAS.get(PARTICIPACAO.sortear(random));
+    }
+
+    String nome() {
+        return nome;
+    }
+
+    String unidade() {
+        return unidade;
+    }
+
+    String sortearTipo(SplittableRandom random) {
+        return tipos.get(random.nextInt(tipos.size()));
+    }
+
+    String sortearMarca(SplittableRandom random) {
+        return marcas.get(participacaoMarcas.sortear(random));
+    }
+
+    static String sortearVariante(SplittableRandom random) {
+        return VARIANTES.get(random.nextInt(VARIANTES.size()));
+    }
+
+    /**
+     * Preço de venda em centavos, uniforme na escala logarítmica da faixa da categoria
+     * e terminado em 90 centavos.
+     */
+    long sortearPrecoCentavos(SplittableRandom random) {
+        double logMinimo = Math.log(precoMinimo);
+        double valor = Math.exp(logMinimo + random.nextDouble() * (Math.log(precoMaximo) - logMinimo));
+        return (long) Math.floor(valor) * 100 + 90;
+    }
+}
@@ -0,0 +1,66 @@
+package com.leandrosnazareth.gerador.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Sorteia índices de {@code 0} a {@code n - 1} com probabilidades fixas, por busca
+ * binária na distribuição acumulada.
+ */
+final class DistribuicaoDiscreta {
+
+    private final double[] acumulada;
+
+    private DistribuicaoDiscreta(double[] pesos) {
+        if (pesos.length == 0) {
+            throw new IllegalArgumentException("Informe ao menos um peso");
+        }
+        acumulada = new double[pesos.length];
+        double total = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            if (pesos[i] < 0) {
+                throw new IllegalArgumentException("Pesos não podem ser negativos");
+            }
+            total += pesos[i];
+            acumulada[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("A soma dos pesos deve ser positiva");
+        }
+        for (int i = 0; i < acumulada.length; i++) {
+            acumulada[i] /= total;
+        }
+    }
+
+    /**
+     * Distribuição proporcional aos pesos informados.
+     */
+    static DistribuicaoDiscreta porPesos(double... pesos) {
+        return new DistribuicaoDiscreta(pesos);
+    }
+
+    /**
+     * Lei de Zipf: o índice {@code k} tem probabilidade proporcional a
+     * {@code 1 / (k + 1)^expoente}, então poucos índices concentram a maior parte dos sorteios.
+     */
+    static DistribuicaoDiscreta zipf(int n, double expoente) {
+        double[] pesos = new double[n];
+        for (int k = 0; k < n; k++) {
+            pesos[k] = 1 / Math.pow(k + 1, expoente);
+        }
+        return new DistribuicaoDiscreta(pesos);
+    }
+
+    int tamanho() {
+        return acumulada.length;
+    }
+
+    int sortear(SplittableRandom random) {
+        int indice = Arrays.binarySearch(acumulada, random.nextDouble());
+        if (indice < 0) {
+            indice = -indice - 1;
+        }
+        // Arredondamentos podem deixar o último acumulado um pouco abaixo de 1
+        return Math.min(indice, acumulada.length - 1);
+    }
+}
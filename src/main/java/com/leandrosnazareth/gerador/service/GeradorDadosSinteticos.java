@@ -0,0 +1,394 @@
+package com.leandrosnazareth.gerador.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import com.leandrosnazareth.venda.domain.Venda.StatusVenda;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Gera um volume grande de produtos e vendas sintéticos para testes de carga, ativado
+ * pelo perfil {@value #PERFIL} ({@code --spring.profiles.active=gerador}).
+ * <p>
+ * Os produtos são distribuídos entre as {@link CategoriaSintetica categorias} por
+ * participação, com marcas concentradas pela lei de Zipf. As vendas cobrem os últimos
+ * meses até o instante do {@link Clock} e escolhem os produtos também por Zipf sobre
+ * um ranking de popularidade, então poucos produtos concentram a maior parte dos itens.
+ * Com a mesma semente e o mesmo relógio, o resultado é sempre o mesmo.
+ * </p>
+ * <p>
+ * Os registros são gravados em lotes por {@code INSERT} em batch, em várias threads,
+ * sem passar pelo Hibernate. Os IDs são reservados antes de dividir o trabalho, um
+ * bloco por sequência, e cada lote usa a sua parte do bloco. Roda ao iniciar a
+ * aplicação, antes da carga dos índices em memória e do preenchimento do histórico de
+ * preços, e não faz nada se os produtos sintéticos já existirem.
+ * </p>
+ * <p>
+ * Os itens guardam o custo do produto, e os agregados de lucro e de movimento por hora
+ * são esvaziados ao final, para que os jobs da inicialização os reconstruam com as
+ * vendas geradas.
+ * </p>
+ */
+@Component
+@Profile(GeradorDadosSinteticos.PERFIL)
+public class GeradorDadosSinteticos {
+
+    public static final String PERFIL = "gerador";
+
+    static final String PREFIXO_CODIGO = "GEN";
+
+    private static final Logger logger = LoggerFactory.getLogger(GeradorDadosSinteticos.class);
+
+    private static final long FASE_PRODUTOS = 1;
+    private static final long FASE_VENDAS = 2;
+
+    // Movimento por hora do dia, das 7h às 22h
+    private static final DistribuicaoDiscreta HORAS = DistribuicaoDiscreta.porPesos(
+            0, 0, 0, 0, 0, 0, 0, 2, 4, 6, 7, 9, 11, 9, 7, 7, 8, 10, 11, 9, 6, 4, 1, 0);
+
+    // De 1 a 8 itens por venda
+    private static final DistribuicaoDiscreta ITENS = DistribuicaoDiscreta.porPesos(35, 25, 15, 10, 6, 4, 3, 2);
+    private static final int MAXIMO_ITENS = 8;
+
+    // De 1 a 5 unidades por item
+    private static final DistribuicaoDiscreta QUANTIDADES = DistribuicaoDiscreta.porPesos(70, 18, 7, 3, 2);
+
+    // Vendas sintéticas não usam pagamento misto
+    private static final Map<FormaPagamento, Double> PESOS_FORMAS_PAGAMENTO = new EnumMap<>(Map.of(
+            FormaPagamento.DINHEIRO, 25.0,
+            FormaPagamento.CARTAO_CREDITO, 30.0,
+            FormaPagamento.CARTAO_DEBITO, 20.0,
+            FormaPagamento.PIX, 25.0));
+
+    private static final FormaPagamento[] FORMAS_PAGAMENTO = PESOS_FORMAS_PAGAMENTO.keySet()
+            .toArray(FormaPagamento[]::new);
+
+    private static final DistribuicaoDiscreta DISTRIBUICAO_FORMAS_PAGAMENTO = DistribuicaoDiscreta.porPesos(
+            PESOS_FORMAS_PAGAMENTO.values().stream().mapToDouble(Double::doubleValue).toArray());
+
+    private static final double PERCENTUAL_CANCELADAS = 0.02;
+    private static final double PERCENTUAL_INATIVOS = 0.03;
+
+    private static final String INSERT_PRODUTO = "INSERT INTO produto (produto_id, codigo, nome, categoria, marca, "
+            + "fornecedor, unidade, preco_compra, preco_venda, estoque_atual, estoque_minimo, estoque_maximo, "
+            + "ativo, data_criacao, data_atualizacao, nome_busca, codigo_busca, texto_busca, estoque_baixo) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int POSICAO_CATEGORIA = 3;
+    private static final int POSICAO_PRECO_COMPRA = 7;
+
+    private static final int[] TIPOS_PRODUTO = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.DECIMAL, Types.INTEGER,
+            Types.INTEGER, Types.INTEGER, Types.BOOLEAN, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN };
+
+    private static final String INSERT_VENDA = "INSERT INTO venda (venda_id, data_venda, valor_total, desconto, "
+            + "valor_recebido, troco, forma_pagamento, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] TIPOS_VENDA = { Types.BIGINT, Types.TIMESTAMP, Types.DECIMAL, Types.DECIMAL,
+            Types.DECIMAL, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR };
+
+    private static final String INSERT_ITEM = "INSERT INTO item_venda (item_venda_id, venda_id, produto_id, "
+            + "quantidade, preco_unitario, subtotal, custo_unitario, categoria) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] TIPOS_ITEM = { Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER,
+            Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.VARCHAR };
+
+    // Reconstruídos na inicialização quando vazios, por VendaFaixaHorariaJob e VendaLucroJob
+    private static final List<String> AGREGADOS = List.of("venda_faixa_horaria", "venda_lucro_dia",
+            "venda_lucro_produto", "venda_lucro_categoria");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacao;
+    private final Clock clock;
+    private final SequenceSupport sequencias;
+    private final int produtos;
+    private final long vendas;
+    private final int meses;
+    private final long semente;
+    private final int threads;
+    private final int tamanhoLote;
+    private final double expoenteZipf;
+
+    GeradorDadosSinteticos(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, Clock clock,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${pdv.gerador.produtos:1000000}") int produtos,
+            @Value("${pdv.gerador.vendas:10000000}") long vendas,
+            @Value("${pdv.gerador.meses:24}") int meses,
+            @Value("${pdv.gerador.semente:42}") long semente,
+            @Value("${pdv.gerador.threads:4}") int threads,
+            @Value("${pdv.gerador.tamanho-lote:1000}") int tamanhoLote,
+            @Value("${pdv.gerador.expoente-zipf:1.0}") double expoenteZipf) {
+        if (produtos <= 0 || vendas < 0 || meses <= 0 || threads <= 0 || tamanhoLote <= 0) {
+            throw new IllegalArgumentException(
+                    "Volumes, meses, threads e tamanho do lote do gerador devem ser positivos");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.sequencias = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport();
+        this.produtos = produtos;
+        this.vendas = vendas;
+        this.meses = meses;
+        this.semente = semente;
+        this.threads = threads;
+        this.tamanhoLote = tamanhoLote;
+        this.expoenteZipf = expoenteZipf;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Antes do histórico de preços e da carga dos índices em memória
+    public void gerar() {
+        Integer existentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM produto WHERE codigo LIKE ?",
+                Integer.class, PREFIXO_CODIGO + "%");
+        if (existentes != null && existentes > 0) {
+            logger.info("Dados sintéticos já gerados ({} produtos); nada a fazer", existentes);
+            return;
+        }
+
+        LocalDateTime fim = LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime inicio = fim.minusMonths(meses);
+        Instant comeco = Instant.now();
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "gerador-dados-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Catalogo catalogo = gerarProdutos(executor, Timestamp.from(inicio.atZone(clock.getZone()).toInstant()));
+            logger.info("{} produtos gerados em {} s", produtos, Duration.between(comeco, Instant.now()).toSeconds());
+            gerarVendas(executor, catalogo, inicio, fim);
+            logger.info("{} vendas geradas em {} s", vendas, Duration.between(comeco, Instant.now()).toSeconds());
+            AGREGADOS.forEach(tabela -> jdbcTemplate.update("DELETE FROM " + tabela));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Catalogo gerarProdutos(ExecutorService executor, Timestamp criacao) {
+        Catalogo catalogo = new Catalogo(reservar("produto_seq", produtos), new long[produtos], new long[produtos],
+                new String[produtos]);
+        int lotes = (produtos + tamanhoLote - 1) / tamanhoLote;
+        executarLotes(executor, lotes, "produtos", lote -> () -> {
+            int primeiro = lote * tamanhoLote;
+            int ultimo = Math.min(primeiro + tamanhoLote, produtos);
+            SplittableRandom random = aleatorio(FASE_PRODUTOS, lote);
+            List<Object[]> linhas = new ArrayList<>(ultimo - primeiro);
+            for (int i = primeiro; i < ultimo; i++) {
+                CategoriaSintetica categoria = CategoriaSintetica.sortear(random);
+                long precoCentavos = categoria.sortearPrecoCentavos(random);
+                catalogo.precosCentavos()[i] = precoCentavos;
+                Object[] linha = linhaProduto(catalogo.primeiroId() + i, i, categoria, precoCentavos, random, criacao);
+                catalogo.custosCentavos()[i] = ((BigDecimal) linha[POSICAO_PRECO_COMPRA]).unscaledValue().longValue();
+                catalogo.categorias()[i] = (String) linha[POSICAO_CATEGORIA];
+                linhas.add(linha);
+            }
+            jdbcTemplate.batchUpdate(INSERT_PRODUTO, linhas, TIPOS_PRODUTO);
+        });
+        return catalogo;
+    }
+
+    /**
+     * Monta o produto pela entidade, para que as chaves de busca e o indicador de estoque
+     * baixo sigam as mesmas regras do cadastro.
+     */
+    private static Object[] linhaProduto(long id, int indice, CategoriaSintetica categoria, long precoCentavos,
+            SplittableRandom random, Timestamp criacao) {
+        String marca = categoria.sortearMarca(random);
+        String nome = categoria.sortearTipo(random) + " " + marca + " " + CategoriaSintetica.sortearVariante(random);
+
+        Produto produto = new Produto(PREFIXO_CODIGO + "%07d".formatted(indice + 1), nome,
+                BigDecimal.valueOf(precoCentavos, 2));
+        produto.setCategoria(categoria.nome());
+        produto.setMarca(marca);
+        produto.setFornecedor(marca + " Distribuidora");
+        produto.setUnidade(categoria.unidade());
+        produto.setPrecoCompra(BigDecimal.valueOf(Math.round(precoCentavos * (0.55 + 0.25 * random.nextDouble())), 2));
+        int estoqueMaximo = 20 + random.nextInt(481);
+        int estoqueMinimo = Math.max(1, estoqueMaximo / 10);
+        produto.setEstoqueMaximo(estoqueMaximo);
+        produto.setEstoqueMinimo(estoqueMinimo);
+        produto.setEstoqueAtual(random.nextDouble() < 0.05 ? 0 : random.nextInt(estoqueMaximo + 1));
+        produto.setAtivo(random.nextDouble() >= PERCENTUAL_INATIVOS);
+        produto.atualizarChavesBusca();
+
+        return new Object[] { id, produto.getCodigo(), produto.getNome(), produto.getCategoria(),
+                produto.getMarca(), produto.getFornecedor(), produto.getUnidade(), produto.getPrecoCompra(),
+                produto.getPrecoVenda(), produto.getEstoqueAtual(), produto.getEstoqueMinimo(),
+                produto.getEstoqueMaximo(), produto.getAtivo(), criacao, criacao, produto.getNomeBusca(),
+                produto.getCodigoBusca(), produto.getTextoBusca(), produto.isEstoqueBaixo() };
+    }
+
+    private void gerarVendas(ExecutorService executor, Catalogo catalogo, LocalDateTime inicio, LocalDateTime fim) {
+        if (vendas == 0) {
+            return;
+        }
+        DistribuicaoDiscreta popularidade = DistribuicaoDiscreta.zipf(produtos, expoenteZipf);
+        long passo = passoPermutacao(produtos);
+        int dias = (int) Math.max(1, ChronoUnit.DAYS.between(inicio, fim));
+        long lotes = (vendas + tamanhoLote - 1) / tamanhoLote;
+        if (lotes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho do lote pequeno demais para " + vendas + " vendas");
+        }
+        // Cada lote tem espaço para o máximo de itens; os IDs que sobram ficam sem uso
+        long primeiraVendaGerada = reservar("venda_seq", vendas);
+        long primeiroItemGerado = reservar("item_venda_seq", Math.multiplyExact(vendas, MAXIMO_ITENS));
+
+        executarLotes(executor, (int) lotes, "vendas", lote -> () -> {
+            int quantidade = (int) Math.min(tamanhoLote, vendas - (long) lote * tamanhoLote);
+            long primeiraVenda = primeiraVendaGerada + (long) lote * tamanhoLote;
+            long primeiroItem = primeiroItemGerado + (long) lote * tamanhoLote * MAXIMO_ITENS;
+            SplittableRandom random = aleatorio(FASE_VENDAS, lote);
+            List<Object[]> linhasVenda = new ArrayList<>(quantidade);
+            List<Object[]> linhasItem = new ArrayList<>(quantidade * 3);
+            for (int v = 0; v < quantidade; v++) {
+                LocalDateTime data = inicio.plusDays(random.nextInt(dias))
+                        .withHour(HORAS.sortear(random))
+                        .withMinute(random.nextInt(60))
+                        .withSecond(random.nextInt(60));
+                if (data.isAfter(fim)) {
+                    data = data.minusDays(1);
+                }
+                long totalCentavos = 0;
+                int itens = ITENS.sortear(random) + 1;
+                for (int i = 0; i < itens; i++) {
+                    // O ranking de popularidade é espalhado pelo catálogo, e não em ordem de código
+                    int indice = (int) (popularidade.sortear(random) * passo % produtos);
+                    int unidades = QUANTIDADES.sortear(random) + 1;
+                    long precoCentavos = catalogo.precosCentavos()[indice];
+                    totalCentavos += precoCentavos * unidades;
+                    linhasItem.add(new Object[] { primeiroItem + linhasItem.size(), primeiraVenda + v,
+                            catalogo.primeiroId() + indice, unidades, BigDecimal.valueOf(precoCentavos, 2),
+                            BigDecimal.valueOf(precoCentavos * unidades, 2),
+                            BigDecimal.valueOf(catalogo.custosCentavos()[indice], 2),
+                            catalogo.categorias()[indice] });
+                }
+                FormaPagamento forma = FORMAS_PAGAMENTO[DISTRIBUICAO_FORMAS_PAGAMENTO.sortear(random)];
+                long recebidoCentavos = forma == FormaPagamento.DINHEIRO
+                        ? (totalCentavos + 999) / 1000 * 1000 : totalCentavos;
+                StatusVenda status = random.nextDouble() < PERCENTUAL_CANCELADAS
+                        ? StatusVenda.CANCELADA : StatusVenda.FINALIZADA;
+                linhasVenda.add(new Object[] { primeiraVenda + v, Timestamp.valueOf(data),
+                        BigDecimal.valueOf(totalCentavos, 2), BigDecimal.ZERO.setScale(2), BigDecimal.valueOf(recebidoCentavos, 2),
+                        BigDecimal.valueOf(recebidoCentavos - totalCentavos, 2), forma.name(), status.name() });
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_VENDA, linhasVenda, TIPOS_VENDA);
+            jdbcTemplate.batchUpdate(INSERT_ITEM, linhasItem, TIPOS_ITEM);
+        });
+    }
+
+    /**
+     * Executa os lotes no executor, registrando o andamento a cada décimo concluído, e
+     * espera todos terminarem. A falha de um lote interrompe a geração.
+     */
+    private static void executarLotes(ExecutorService executor, int lotes, String descricao,
+            IntFunction<Runnable> tarefa) {
+        AtomicLong concluidos = new AtomicLong();
+        long intervaloLog = Math.max(1, lotes / 10);
+        List<CompletableFuture<Void>> futuros = new ArrayList<>(lotes);
+        for (int lote = 0; lote < lotes; lote++) {
+            Runnable execucao = tarefa.apply(lote);
+            futuros.add(CompletableFuture.runAsync(() -> {
+                execucao.run();
+                long feitos = concluidos.incrementAndGet();
+                if (feitos % intervaloLog == 0) {
+                    logger.info("Gerando {}: {} de {} lotes", descricao, feitos, lotes);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futuros.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Reserva um bloco de IDs consecutivos da sequência, retornando o primeiro, e avança
+     * a sequência para depois do bloco.
+     * <p>
+     * Tudo numa transação aberta por um {@code ALTER SEQUENCE}, que bloqueia o
+     * {@code nextval} das outras sessões até o commit: um cadastro feito durante a
+     * geração espera a reserva e recebe um ID depois do bloco.
+     * </p>
+     */
+    private long reservar(String sequencia, long quantidade) {
+        Long primeiro = transacao.execute(status -> {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequencia + " INCREMENT BY 1");
+            Long valor = jdbcTemplate.queryForObject(sequencias.getSequenceNextValString(sequencia), Long.class);
+            if (valor != null && quantidade > 1) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequencia + " RESTART WITH " + (valor + quantidade));
+            }
+            return valor;
+        });
+        if (primeiro == null) {
+            throw new IllegalStateException("A sequência " + sequencia + " não retornou valor");
+        }
+        return primeiro;
+    }
+
+    /**
+     * Gerador de cada lote, derivado da semente, da fase e do número do lote: o resultado
+     * não depende de qual thread executou o lote nem em que ordem.
+     */
+    private SplittableRandom aleatorio(long fase, long lote) {
+        long mistura = semente;
+        mistura = mistura * 0x9E3779B97F4A7C15L + fase;
+        mistura = mistura * 0x9E3779B97F4A7C15L + lote;
+        return new SplittableRandom(mistura);
+    }
+
+    /**
+     * Passo primo com o total, para que {@code rank * passo % total} percorra todos os
+     * produtos sem repetir.
+     */
+    static long passoPermutacao(int total) {
+        long passo = 7_919;
+        while (mdc(passo, total) != 1) {
+            passo++;
+        }
+        return passo;
+    }
+
+    private static long mdc(long a, long b) {
+        return b == 0 ? a : mdc(b, a % b);
+    }
+
+    /**
+     * Produtos gerados: o produto de índice {@code i} tem ID {@code primeiroId + i}.
+     */
+    private record Catalogo(long primeiroId, long[] precosCentavos, long[] custosCentavos, String[] categorias) {
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.gerador.service;
+
+import org.jspecify.annotations.NullMarked;
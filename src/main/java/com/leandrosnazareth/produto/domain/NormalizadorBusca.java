@@ -0,0 +1,53 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.jspecify.annotations.Nullable;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos para comparação em buscas.
+ * <p>
+ * O texto é convertido para minúsculas, os acentos são removidos e os espaços
+ * repetidos são colapsados, de forma que "Açúcar  Cristal" e "acucar cristal"
+ * produzam a mesma chave.
+ * </p>
+ */
+public final class NormalizadorBusca {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern SEPARADORES_TOKEN = Pattern.compile("[^\\p{Alnum}]+");
+
+    private NormalizadorBusca() {
+    }
+
+    /**
+     * Normaliza um texto para busca.
+     *
+     * @param texto texto original
+     * @return texto em minúsculas e sem acentos, ou string vazia se o texto for nulo
+     */
+    public static String normalizar(@Nullable String texto) {
+        if (texto == null || texto.isBlank()) {
+            return "";
+        }
+        String semAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    /**
+     * Separa um texto já normalizado em palavras, descartando pontuação.
+     *
+     * @param textoNormalizado texto retornado por {@link #normalizar(String)}
+     * @return lista de palavras na ordem em que aparecem
+     */
+    public static List<String> tokens(String textoNormalizado) {
+        return Arrays.stream(SEPARADORES_TOKEN.split(textoNormalizado))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
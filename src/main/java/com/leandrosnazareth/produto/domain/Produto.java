@@ -7,17 +7,31 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jspecify.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Produto.REGIAO_CACHE)
 @Table(name = "produto", indexes = {
     @Index(name = "idx_produto_codigo", columnList = "codigo"),
     @Index(name = "idx_produto_nome", columnList = "nome"),
-    @Index(name = "idx_produto_categoria", columnList = "categoria")
+    @Index(name = "idx_produto_categoria_ativo", columnList = "categoria, ativo"),
+    @Index(name = "idx_produto_marca_ativo", columnList = "marca, ativo"),
+    @Index(name = "idx_produto_fornecedor_ativo", columnList = "fornecedor, ativo"),
+    @Index(name = "idx_produto_preco_venda", columnList = "preco_venda"),
+    @Index(name = "idx_produto_ativo_nome", columnList = "ativo, nome"),
+    @Index(name = "idx_produto_nome_busca", columnList = "nome_busca"),
+    @Index(name = "idx_produto_codigo_busca", columnList = "codigo_busca"),
+    @Index(name = "idx_produto_estoque_baixo", columnList = "estoque_baixo, ativo"),
+    @Index(name = "idx_produto_estoque_atual", columnList = "estoque_atual, ativo")
 })
 public class Produto extends AbstractEntity<Long> {
 
@@ -28,6 +42,19 @@ public class Produto extends AbstractEntity<Long> {
     public static final int UNIDADE_MAX_LENGTH = 10;
     public static final int MARCA_MAX_LENGTH = 100;
     public static final int FORNECEDOR_MAX_LENGTH = 150;
+    public static final int TEXTO_BUSCA_MAX_LENGTH = 1000;
+    public static final int FOTO_URL_MAX_LENGTH = 2000;
+
+    /**
+     * Condição de {@link #isEstoqueBaixo()} em SQL, para quem grava a coluna
+     * {@code estoque_baixo} sem passar pela entidade.
+     */
+    public static final String SQL_ESTOQUE_BAIXO = "(estoque_minimo IS NOT NULL AND estoque_atual <= estoque_minimo)";
+
+    /**
+     * Região do cache de segundo nível, configurada em {@code application.conf}.
+     */
+    public static final String REGIAO_CACHE = "produto";
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_seq")
@@ -106,9 +133,27 @@ public class Produto extends AbstractEntity<Long> {
     @Size(max = DESCRICAO_MAX_LENGTH, message = "Observações deve ter no máximo {max} caracteres")
     private String observacoes;
 
-    @Lob
-    @Column(name = "foto", columnDefinition = "BLOB")
-    private byte[] foto;
+    // A imagem fica em produto_imagem e só é lida quando exibida; aqui guardamos apenas a referência
+    @Column(name = "foto_hash", length = ProdutoImagem.HASH_LENGTH)
+    private String fotoHash;
+
+    @Column(name = "foto_url", length = FOTO_URL_MAX_LENGTH)
+    @Size(max = FOTO_URL_MAX_LENGTH, message = "URL da foto deve ter no máximo {max} caracteres")
+    private String fotoUrl;
+
+    // Chaves de busca normalizadas (minúsculas e sem acentos), mantidas pelo próprio entity
+    @Column(name = "nome_busca", length = NOME_MAX_LENGTH)
+    private String nomeBusca;
+
+    @Column(name = "codigo_busca", length = CODIGO_MAX_LENGTH)
+    private String codigoBusca;
+
+    @Column(name = "texto_busca", length = TEXTO_BUSCA_MAX_LENGTH)
+    private String textoBusca;
+
+    // Cópia persistida de isEstoqueBaixo(), para que a consulta de estoque baixo use índice
+    @Column(name = "estoque_baixo")
+    private Boolean estoqueBaixo;
 
     public Produto() {
         this.ativo = true;
@@ -126,6 +171,39 @@ public class Produto extends AbstractEntity<Long> {
         this.precoVenda = precoVenda;
     }
 
+    /**
+     * Retorna uma cópia desanexada com todos os campos, inclusive o ID, para ser guardada
+     * em cache sem que alterações feitas por quem a recebeu afetem o original.
+     */
+    public Produto copiar() {
+        Produto copia = new Produto();
+        copia.id = id;
+        copia.codigo = codigo;
+        copia.nome = nome;
+        copia.descricao = descricao;
+        copia.categoria = categoria;
+        copia.marca = marca;
+        copia.fornecedor = fornecedor;
+        copia.precoCompra = precoCompra;
+        copia.precoVenda = precoVenda;
+        copia.estoqueAtual = estoqueAtual;
+        copia.estoqueMinimo = estoqueMinimo;
+        copia.estoqueMaximo = estoqueMaximo;
+        copia.unidade = unidade;
+        copia.peso = peso;
+        copia.ativo = ativo;
+        copia.dataCriacao = dataCriacao;
+        copia.dataAtualizacao = dataAtualizacao;
+        copia.observacoes = observacoes;
+        copia.fotoHash = fotoHash;
+        copia.fotoUrl = fotoUrl;
+        copia.nomeBusca = nomeBusca;
+        copia.codigoBusca = codigoBusca;
+        copia.textoBusca = textoBusca;
+        copia.estoqueBaixo = estoqueBaixo;
+        return copia;
+    }
+
     @Override
     public @Nullable Long getId() {
         return id;
@@ -290,22 +368,74 @@ public class Produto extends AbstractEntity<Long> {
         return true;
     }
 
-    public byte @Nullable [] getFoto() {
-        return foto;
+    /**
+     * Retorna o hash SHA-256 da imagem do produto em {@link ProdutoImagem}, se houver.
+     */
+    public @Nullable String getFotoHash() {
+        return fotoHash;
+    }
+
+    public void setFotoHash(@Nullable String fotoHash) {
+        this.fotoHash = fotoHash;
+    }
+
+    /**
+     * Retorna a URL externa da foto, usada quando a imagem não foi enviada ao sistema.
+     */
+    public @Nullable String getFotoUrl() {
+        return fotoUrl;
+    }
+
+    public void setFotoUrl(@Nullable String fotoUrl) {
+        this.fotoUrl = fotoUrl;
+    }
+
+    public boolean hasFoto() {
+        return fotoHash != null || (fotoUrl != null && !fotoUrl.isBlank());
+    }
+
+    public @Nullable String getNomeBusca() {
+        return nomeBusca;
+    }
+
+    public @Nullable String getCodigoBusca() {
+        return codigoBusca;
     }
 
-    public void setFoto(byte @Nullable [] foto) {
-        this.foto = foto;
+    public @Nullable String getTextoBusca() {
+        return textoBusca;
+    }
+
+    /**
+     * Recalcula as chaves de busca normalizadas a partir dos campos atuais.
+     * <p>
+     * O texto de busca reúne nome, código, descrição, categoria e marca, permitindo
+     * que a busca geral compare com uma única coluna já normalizada.
+     * </p>
+     */
+    public void atualizarChavesBusca() {
+        nomeBusca = NormalizadorBusca.normalizar(nome);
+        codigoBusca = NormalizadorBusca.normalizar(codigo);
+
+        String texto = Stream.of(nomeBusca, codigoBusca, NormalizadorBusca.normalizar(descricao),
+                NormalizadorBusca.normalizar(categoria), NormalizadorBusca.normalizar(marca))
+                .filter(parte -> !parte.isEmpty())
+                .collect(Collectors.joining(" "));
+        textoBusca = texto.length() > TEXTO_BUSCA_MAX_LENGTH ? texto.substring(0, TEXTO_BUSCA_MAX_LENGTH) : texto;
     }
 
     @PrePersist
     protected void onCreate() {
         dataCriacao = Instant.now();
         dataAtualizacao = Instant.now();
+        atualizarChavesBusca();
+        estoqueBaixo = isEstoqueBaixo();
     }
 
     @PreUpdate
     protected void onUpdate() {
         dataAtualizacao = Instant.now();
+        atualizarChavesBusca();
+        estoqueBaixo = isEstoqueBaixo();
     }
 }
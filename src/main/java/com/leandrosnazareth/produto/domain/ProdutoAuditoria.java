@@ -0,0 +1,97 @@
+package com.leandrosnazareth.produto.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Registro de uma alteração feita em um produto por uma operação em lote.
+ * <p>
+ * Cada produto alterado gera uma linha por campo, com o valor anterior e o novo em
+ * texto. As linhas de uma mesma operação têm o mesmo {@code lote}. O produto é
+ * referenciado só pelo ID, para que a auditoria não impeça a exclusão física. As linhas
+ * são gravadas em massa por SQL e nunca alteradas.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "produto_auditoria", indexes = {
+    @Index(name = "idx_produto_auditoria_produto", columnList = "produto_id"),
+    @Index(name = "idx_produto_auditoria_lote", columnList = "lote")
+})
+public class ProdutoAuditoria extends AbstractEntity<Long> {
+
+    public static final int LOTE_LENGTH = 36;
+    public static final int CAMPO_MAX_LENGTH = 30;
+    public static final int VALOR_MAX_LENGTH = 100;
+    public static final int USUARIO_MAX_LENGTH = 100;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_auditoria_seq")
+    @SequenceGenerator(name = "produto_auditoria_seq", sequenceName = "produto_auditoria_seq", allocationSize = 1)
+    @Column(name = "produto_auditoria_id")
+    private Long id;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long produtoId;
+
+    @Column(name = "lote", nullable = false, length = LOTE_LENGTH)
+    private String lote;
+
+    @Column(name = "campo", nullable = false, length = CAMPO_MAX_LENGTH)
+    private String campo;
+
+    @Column(name = "valor_anterior", length = VALOR_MAX_LENGTH)
+    private String valorAnterior;
+
+    @Column(name = "valor_novo", length = VALOR_MAX_LENGTH)
+    private String valorNovo;
+
+    @Column(name = "usuario", nullable = false, length = USUARIO_MAX_LENGTH)
+    private String usuario;
+
+    @Column(name = "data_alteracao", nullable = false)
+    private Instant dataAlteracao;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected ProdutoAuditoria() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public String getLote() {
+        return lote;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public @Nullable String getValorAnterior() {
+        return valorAnterior;
+    }
+
+    public @Nullable String getValorNovo() {
+        return valorNovo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public Instant getDataAlteracao() {
+        return dataAlteracao;
+    }
+}
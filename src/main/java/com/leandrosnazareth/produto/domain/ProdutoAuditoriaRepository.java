@@ -0,0 +1,14 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProdutoAuditoriaRepository extends JpaRepository<ProdutoAuditoria, Long> {
+
+    List<ProdutoAuditoria> findByLoteOrderByProdutoId(String lote);
+
+    List<ProdutoAuditoria> findByProdutoIdOrderByDataAlteracaoDesc(Long produtoId);
+}
@@ -0,0 +1,15 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha da exportação do catálogo, lida por projeção para não carregar entidades.
+ */
+public record ProdutoExportado(String codigo, String nome, @Nullable String descricao, @Nullable String categoria,
+        @Nullable String marca, @Nullable String fornecedor, @Nullable String unidade,
+        @Nullable BigDecimal precoCompra, BigDecimal precoVenda, Integer estoqueAtual,
+        @Nullable Integer estoqueMinimo, @Nullable Integer estoqueMaximo, @Nullable BigDecimal peso,
+        Boolean ativo) {
+}
@@ -0,0 +1,95 @@
+package com.leandrosnazareth.produto.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Imagem de produto armazenada fora da linha do {@link Produto}.
+ * <p>
+ * A chave é o hash SHA-256 do conteúdo, então imagens iguais são gravadas uma única
+ * vez e o {@link Produto} guarda apenas o hash. Os bytes ficam em disco, no arquivo
+ * endereçado pelo mesmo hash; esta tabela guarda só os metadados e o número de
+ * produtos que usam a imagem, para que as imagens sem uso possam ser removidas.
+ * </p>
+ */
+@Entity
+@Table(name = "produto_imagem")
+public class ProdutoImagem extends AbstractEntity<String> {
+
+    public static final int HASH_LENGTH = 64;
+    public static final int TIPO_MAX_LENGTH = 50;
+
+    @Id
+    @Column(name = "hash", length = HASH_LENGTH)
+    private String hash;
+
+    @Column(name = "tipo", nullable = false, length = TIPO_MAX_LENGTH)
+    private String tipo;
+
+    @Column(name = "tamanho", nullable = false)
+    private Integer tamanho;
+
+    /**
+     * Número de produtos com {@code fotoHash} igual ao hash. Nulo em linhas migradas
+     * que ainda não foram recontadas.
+     */
+    @Column(name = "referencias")
+    private Integer referencias;
+
+    @Column(name = "data_criacao", nullable = false)
+    private Instant dataCriacao;
+
+    /**
+     * Último envio desta imagem; imagens enviadas há pouco não são removidas mesmo sem
+     * referências, pois o produto que vai usá-las pode ainda não ter sido salvo.
+     */
+    @Column(name = "data_ultimo_uso")
+    private Instant dataUltimoUso;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected ProdutoImagem() {
+    }
+
+    public ProdutoImagem(String hash, String tipo, int tamanho, Instant dataCriacao) {
+        this.hash = hash;
+        this.tipo = tipo;
+        this.tamanho = tamanho;
+        this.referencias = 0;
+        this.dataCriacao = dataCriacao;
+        this.dataUltimoUso = dataCriacao;
+    }
+
+    @Override
+    public @Nullable String getId() {
+        return hash;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public Integer getTamanho() {
+        return tamanho;
+    }
+
+    public Integer getReferencias() {
+        return referencias;
+    }
+
+    public Instant getDataCriacao() {
+        return dataCriacao;
+    }
+
+    public Instant getDataUltimoUso() {
+        return dataUltimoUso;
+    }
+}
@@ -0,0 +1,67 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProdutoImagemRepository extends JpaRepository<ProdutoImagem, String> {
+
+    /**
+     * Retorna os hashes das imagens que ainda não têm todas as variantes geradas.
+     */
+    @Query("SELECT i.hash FROM ProdutoImagem i WHERE (SELECT COUNT(v) FROM ProdutoImagemVariante v "
+            + "WHERE v.imagemHash = i.hash) < :quantidadeVariantes")
+    List<String> findHashesComVariantesPendentes(@Param("quantidadeVariantes") long quantidadeVariantes);
+
+    /**
+     * Soma {@code delta} ao contador de referências da imagem, no banco, sem carregar a linha.
+     */
+    @Modifying
+    @Query("UPDATE ProdutoImagem i SET i.referencias = COALESCE(i.referencias, 0) + :delta WHERE i.hash = :hash")
+    int alterarReferencias(@Param("hash") String hash, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE ProdutoImagem i SET i.referencias = :referencias WHERE i.hash = :hash")
+    int definirReferencias(@Param("hash") String hash, @Param("referencias") int referencias);
+
+    @Modifying
+    @Query("UPDATE ProdutoImagem i SET i.dataUltimoUso = :instante WHERE i.hash = :hash")
+    int registrarUso(@Param("hash") String hash, @Param("instante") Instant instante);
+
+    /**
+     * Insere uma imagem nova, sem referências. Ao contrário de {@code save}, que faria um
+     * merge por ter o id atribuído, falha com violação de chave se o hash já existe.
+     */
+    @Modifying
+    @Query("INSERT INTO ProdutoImagem (hash, tipo, tamanho, referencias, dataCriacao, dataUltimoUso) "
+            + "VALUES (:hash, :tipo, :tamanho, 0, :instante, :instante)")
+    int inserir(@Param("hash") String hash, @Param("tipo") String tipo, @Param("tamanho") int tamanho,
+            @Param("instante") Instant instante);
+
+    @Query("SELECT i.hash FROM ProdutoImagem i")
+    List<String> findAllHashes();
+
+    /**
+     * Remove a imagem se ela continua sem referências e sem envio desde {@code limite}.
+     * As condições são avaliadas com a linha travada, então um envio ou uma referência
+     * gravados depois da consulta dos candidatos impedem a remoção.
+     *
+     * @return 1 se a imagem foi removida
+     */
+    @Modifying
+    @Query("DELETE FROM ProdutoImagem i WHERE i.hash = :hash AND (i.referencias IS NULL OR i.referencias <= 0) "
+            + "AND (i.dataUltimoUso IS NULL OR i.dataUltimoUso < :limite)")
+    int deleteSemReferencias(@Param("hash") String hash, @Param("limite") Instant limite);
+
+    /**
+     * Retorna as imagens sem produtos que as usem (ou ainda não recontadas) e sem
+     * envio desde {@code limite}.
+     */
+    @Query("SELECT i.hash FROM ProdutoImagem i WHERE (i.referencias IS NULL OR i.referencias <= 0) "
+            + "AND (i.dataUltimoUso IS NULL OR i.dataUltimoUso < :limite)")
+    List<String> findHashesSemReferencias(@Param("limite") Instant limite);
+}
@@ -0,0 +1,123 @@
+package com.leandrosnazareth.produto.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Versão redimensionada e recomprimida de uma {@link ProdutoImagem}.
+ * <p>
+ * As variantes são geradas uma única vez, depois do envio da imagem, para que as telas
+ * exibam miniaturas de poucos KB em vez da imagem original. Os bytes ficam em disco,
+ * ao lado do arquivo da original.
+ * </p>
+ */
+@Entity
+@Table(name = "produto_imagem_variante", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_produto_imagem_variante", columnNames = { "imagem_hash", "tamanho" })
+})
+public class ProdutoImagemVariante extends AbstractEntity<Long> {
+
+    /**
+     * Tamanhos gerados para cada imagem, com o maior lado em pixels e a qualidade JPEG.
+     */
+    public enum Tamanho {
+        MINIATURA("Miniatura", 120, 0.75f),
+        CARTAO("Cartão", 400, 0.8f),
+        COMPLETA("Completa", 1200, 0.85f);
+
+        private final String descricao;
+        private final int ladoMaximo;
+        private final float qualidade;
+
+        Tamanho(String descricao, int ladoMaximo, float qualidade) {
+            this.descricao = descricao;
+            this.ladoMaximo = ladoMaximo;
+            this.qualidade = qualidade;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+
+        public int getLadoMaximo() {
+            return ladoMaximo;
+        }
+
+        public float getQualidade() {
+            return qualidade;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_imagem_variante_seq")
+    @SequenceGenerator(name = "produto_imagem_variante_seq", sequenceName = "produto_imagem_variante_seq", allocationSize = 1)
+    @Column(name = "produto_imagem_variante_id")
+    private Long id;
+
+    @Column(name = "imagem_hash", nullable = false, length = ProdutoImagem.HASH_LENGTH)
+    private String imagemHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tamanho", nullable = false, length = 20)
+    private Tamanho tamanho;
+
+    @Column(name = "tipo", nullable = false, length = ProdutoImagem.TIPO_MAX_LENGTH)
+    private String tipo;
+
+    @Column(name = "largura", nullable = false)
+    private Integer largura;
+
+    @Column(name = "altura", nullable = false)
+    private Integer altura;
+
+    @Column(name = "data_criacao", nullable = false)
+    private Instant dataCriacao;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected ProdutoImagemVariante() {
+    }
+
+    public ProdutoImagemVariante(String imagemHash, Tamanho tamanho, String tipo, int largura, int altura,
+            Instant dataCriacao) {
+        this.imagemHash = imagemHash;
+        this.tamanho = tamanho;
+        this.tipo = tipo;
+        this.largura = largura;
+        this.altura = altura;
+        this.dataCriacao = dataCriacao;
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public String getImagemHash() {
+        return imagemHash;
+    }
+
+    public Tamanho getTamanho() {
+        return tamanho;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public Integer getLargura() {
+        return largura;
+    }
+
+    public Integer getAltura() {
+        return altura;
+    }
+
+    public Instant getDataCriacao() {
+        return dataCriacao;
+    }
+}
@@ -0,0 +1,20 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProdutoImagemVarianteRepository extends JpaRepository<ProdutoImagemVariante, Long> {
+
+    Optional<ProdutoImagemVariante> findByImagemHashAndTamanho(String imagemHash, ProdutoImagemVariante.Tamanho tamanho);
+
+    List<ProdutoImagemVariante> findByImagemHash(String imagemHash);
+
+    @Modifying
+    @Query("DELETE FROM ProdutoImagemVariante v WHERE v.imagemHash = :imagemHash")
+    int deleteByImagemHash(@Param("imagemHash") String imagemHash);
+}
@@ -0,0 +1,82 @@
+package com.leandrosnazareth.produto.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Preços de venda e de compra de um produto durante um intervalo de vigência.
+ * <p>
+ * O intervalo vai de {@code validoDe}, inclusivo, a {@code validoAte}, exclusivo; a
+ * linha vigente tem {@code validoAte} nulo. Quando um preço muda, a linha vigente é
+ * encerrada no instante da alteração e uma nova é aberta, então os intervalos de um
+ * produto não se sobrepõem. O produto é referenciado só pelo ID, para que o histórico
+ * sobreviva à exclusão física. As linhas são gravadas por SQL e nunca alteradas pela
+ * aplicação.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "produto_preco_historico", indexes = {
+    @Index(name = "idx_produto_preco_historico_produto", columnList = "produto_id, valido_de"),
+    @Index(name = "idx_produto_preco_historico_vigente", columnList = "produto_id, valido_ate")
+})
+public class ProdutoPrecoHistorico extends AbstractEntity<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_preco_historico_seq")
+    @SequenceGenerator(name = "produto_preco_historico_seq", sequenceName = "produto_preco_historico_seq",
+            allocationSize = 1)
+    @Column(name = "produto_preco_historico_id")
+    private Long id;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long produtoId;
+
+    @Column(name = "preco_venda", precision = 10, scale = 2, nullable = false)
+    private BigDecimal precoVenda;
+
+    @Column(name = "preco_compra", precision = 10, scale = 2)
+    private BigDecimal precoCompra;
+
+    @Column(name = "valido_de", nullable = false)
+    private Instant validoDe;
+
+    @Column(name = "valido_ate")
+    private Instant validoAte;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected ProdutoPrecoHistorico() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public BigDecimal getPrecoVenda() {
+        return precoVenda;
+    }
+
+    public @Nullable BigDecimal getPrecoCompra() {
+        return precoCompra;
+    }
+
+    public Instant getValidoDe() {
+        return validoDe;
+    }
+
+    public @Nullable Instant getValidoAte() {
+        return validoAte;
+    }
+}
@@ -0,0 +1,39 @@
+package com.leandrosnazareth.produto.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProdutoPrecoHistoricoRepository extends JpaRepository<ProdutoPrecoHistorico, Long> {
+
+    List<ProdutoPrecoHistorico> findByProdutoIdOrderByValidoDeDesc(Long produtoId);
+
+    /**
+     * Intervalos ainda vigentes ou encerrados depois de {@code limite}.
+     */
+    @Query("SELECT h.produtoId, h.precoVenda, h.precoCompra, h.validoDe, h.validoAte "
+            + "FROM ProdutoPrecoHistorico h WHERE h.validoAte IS NULL OR h.validoAte > :limite "
+            + "ORDER BY h.produtoId, h.validoDe")
+    List<Object[]> findResumoDesde(@Param("limite") Instant limite);
+
+    @Query("SELECT h.produtoId, h.precoVenda, h.precoCompra, h.validoDe, h.validoAte "
+            + "FROM ProdutoPrecoHistorico h WHERE h.produtoId IN :produtoIds "
+            + "AND (h.validoAte IS NULL OR h.validoAte > :limite) ORDER BY h.produtoId, h.validoDe")
+    List<Object[]> findResumoPorProdutosDesde(@Param("produtoIds") Collection<Long> produtoIds,
+            @Param("limite") Instant limite);
+
+    @Query("SELECT h.produtoId, h.precoVenda, h.precoCompra, h.validoDe, h.validoAte "
+            + "FROM ProdutoPrecoHistorico h WHERE h.produtoId = :produtoId AND h.validoDe <= :instante "
+            + "AND (h.validoAte IS NULL OR h.validoAte > :instante)")
+    List<Object[]> findResumoVigente(@Param("produtoId") Long produtoId, @Param("instante") Instant instante);
+
+    @Query("SELECT h.produtoId, h.precoVenda, h.precoCompra, h.validoDe, h.validoAte "
+            + "FROM ProdutoPrecoHistorico h WHERE h.produtoId IN :produtoIds ORDER BY h.produtoId, h.validoDe")
+    List<Object[]> findResumoPorProdutos(@Param("produtoIds") Collection<Long> produtoIds);
+}
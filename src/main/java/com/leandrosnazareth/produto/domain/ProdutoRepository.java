@@ -1,16 +1,20 @@
 package com.leandrosnazareth.produto.domain;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Repository
@@ -22,14 +26,15 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpec
 
     boolean existsByCodigoAndIdNot(String codigo, Long id);
 
-    Slice<Produto> findByNomeContainingIgnoreCase(String nome, Pageable pageable);
+    Slice<Produto> findByNomeBuscaContaining(String nomeNormalizado, Pageable pageable);
 
     Slice<Produto> findByCategoria(String categoria, Pageable pageable);
 
     Slice<Produto> findByAtivoTrue(Pageable pageable);
 
-    @Query("SELECT p FROM Produto p WHERE p.estoqueAtual <= p.estoqueMinimo AND p.ativo = true")
-    List<Produto> findProdutosComEstoqueBaixo();
+    // Pela coluna estoque_baixo, mantida pela entidade, para usar o índice (estoque_baixo, ativo)
+    @Query("SELECT p FROM Produto p WHERE p.estoqueBaixo = true AND p.ativo = true")
+    Slice<Produto> findProdutosComEstoqueBaixo(Pageable pageable);
 
     Slice<Produto> findByPrecoVendaBetween(BigDecimal precoMin, BigDecimal precoMax, Pageable pageable);
 
@@ -37,20 +42,28 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpec
 
     Slice<Produto> findByFornecedor(String fornecedor, Pageable pageable);
 
-    @Query("SELECT p FROM Produto p WHERE " +
-           "LOWER(p.nome) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.codigo) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.descricao) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.categoria) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.marca) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Slice<Produto> findBySearchTerm(@Param("searchTerm") String searchTerm, Pageable pageable);
-
+    /**
+     * Busca pelo texto normalizado que reúne nome, código, descrição, categoria e marca.
+     * O termo deve ser normalizado com {@link NormalizadorBusca#normalizar(String)}.
+     * <p>
+     * Por projeto, é uma varredura sequencial de {@code texto_busca}: o {@code LIKE} com
+     * curinga no início não usa índice. Serve só à listagem administrativa, que inclui os
+     * produtos inativos e lê uma fatia por vez; a busca do PDV usa o índice em memória.
+     * </p>
+     */
+    @Query("SELECT p FROM Produto p WHERE p.textoBusca LIKE CONCAT('%', :termoNormalizado, '%')")
+    Slice<Produto> findBySearchTerm(@Param("termoNormalizado") String termoNormalizado, Pageable pageable);
+
+    // Listas no cache de consultas do Hibernate, invalidado a cada escrita na tabela produto
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT p.categoria FROM Produto p WHERE p.categoria IS NOT NULL ORDER BY p.categoria")
     List<String> findDistinctCategorias();
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT p.marca FROM Produto p WHERE p.marca IS NOT NULL ORDER BY p.marca")
     List<String> findDistinctMarcas();
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT p.fornecedor FROM Produto p WHERE p.fornecedor IS NOT NULL ORDER BY p.fornecedor")
     List<String> findDistinctFornecedores();
 
@@ -58,7 +71,7 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpec
 
     long countByAtivoTrue();
 
-    @Query("SELECT COUNT(p) FROM Produto p WHERE p.estoqueAtual <= p.estoqueMinimo AND p.ativo = true")
+    @Query("SELECT COUNT(p) FROM Produto p WHERE p.estoqueBaixo = true AND p.ativo = true")
     long countProdutosComEstoqueBaixo();
 
     Slice<Produto> findAllByOrderByNome(Pageable pageable);
@@ -66,9 +79,34 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpec
     Slice<Produto> findAllByOrderByDataCriacaoDesc(Pageable pageable);
 
     @Query("SELECT p FROM Produto p WHERE p.estoqueAtual = 0 AND p.ativo = true")
-    List<Produto> findProdutosSemEstoque();
+    Slice<Produto> findProdutosSemEstoque(Pageable pageable);
 
     Slice<Produto> findByEstoqueAtualBetween(Integer estoqueMin, Integer estoqueMax, Pageable pageable);
 
     Slice<Produto> findAllBy(Pageable pageable);
+
+    @Query("SELECT p.id, p.codigo, p.nome, p.textoBusca FROM Produto p WHERE p.ativo = true")
+    List<Object[]> findResumoProdutosAtivos();
+
+    @Query("SELECT p.id, p.codigo, p.nome, p.estoqueAtual, p.estoqueMinimo FROM Produto p "
+            + "WHERE p.estoqueBaixo = true AND p.ativo = true")
+    List<Object[]> findResumoEstoqueBaixo();
+
+    // Em lotes pelo ID, para preencher as chaves de busca sem carregar o catálogo inteiro
+    List<Produto> findTop1000ByNomeBuscaIsNullAndIdGreaterThanOrderById(Long id);
+
+    @Query("SELECT p.fotoHash FROM Produto p WHERE p.id = :id")
+    Optional<String> findFotoHashById(@Param("id") Long id);
+
+    long countByFotoHash(String fotoHash);
+
+    /**
+     * Catálogo inteiro para exportação, lido por cursor; o stream deve ser fechado
+     * dentro da transação que o abriu.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leandrosnazareth.produto.domain.ProdutoExportado(p.codigo, p.nome, p.descricao, "
+            + "p.categoria, p.marca, p.fornecedor, p.unidade, p.precoCompra, p.precoVenda, p.estoqueAtual, "
+            + "p.estoqueMinimo, p.estoqueMaximo, p.peso, p.ativo) FROM Produto p ORDER BY p.id")
+    Stream<ProdutoExportado> streamExportacao();
 }
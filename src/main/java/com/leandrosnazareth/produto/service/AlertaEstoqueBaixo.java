@@ -0,0 +1,11 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Aviso de que um produto cruzou o estoque mínimo, em qualquer dos sentidos.
+ *
+ * @param produto resumo do produto; ao sair do estoque baixo, o último estado conhecido
+ * @param entrou {@code true} se o produto passou a ter estoque baixo, {@code false} se foi reposto,
+ *        inativado ou excluído
+ */
+public record AlertaEstoqueBaixo(ProdutoEstoqueBaixo produto, boolean entrou) {
+}
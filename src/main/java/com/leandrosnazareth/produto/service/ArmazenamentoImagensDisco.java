@@ -0,0 +1,207 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Arquivos das imagens dos produtos em disco, endereçados pelo hash SHA-256 do conteúdo.
+ * <p>
+ * Cada imagem fica em {@code <raiz>/ab/cd/<hash>}, onde {@code ab} e {@code cd} são os
+ * quatro primeiros caracteres do hash, para que nenhum diretório acumule milhares de
+ * arquivos. As variantes ficam ao lado da original, em {@code <hash>.<tamanho>}.
+ * </p>
+ * <p>
+ * Como o nome do arquivo é o hash do conteúdo, um arquivo nunca é alterado depois de
+ * gravado: a gravação vai para um arquivo temporário no mesmo diretório e é movida
+ * atomicamente para o nome final, então um leitor nunca vê um arquivo pela metade e
+ * gravar a mesma imagem duas vezes não tem efeito. As leituras mapeiam o arquivo em
+ * memória, deixando o cache de páginas do sistema operacional fazer o trabalho.
+ * </p>
+ */
+@Component
+public class ArmazenamentoImagensDisco {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String DIRETORIO_TEMPORARIOS = "tmp";
+
+    private final Path raiz;
+
+    public ArmazenamentoImagensDisco(@Value("${pdv.imagens.diretorio:data/imagens}") Path raiz) {
+        this.raiz = raiz.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Retorna o caminho do arquivo da imagem original ({@code tamanho} nulo) ou de uma variante.
+     */
+    public Path caminho(String hash, ProdutoImagemVariante.@Nullable Tamanho tamanho) {
+        if (hash.length() < 4) {
+            throw new IllegalArgumentException("Hash de imagem inválido: " + hash);
+        }
+        String nome = tamanho == null ? hash : hash + "." + tamanho.name().toLowerCase(Locale.ROOT);
+        return raiz.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(nome);
+    }
+
+    public boolean existe(String hash, ProdutoImagemVariante.@Nullable Tamanho tamanho) {
+        return Files.isRegularFile(caminho(hash, tamanho));
+    }
+
+    /**
+     * Grava o arquivo, se ainda não existir.
+     */
+    public void gravar(String hash, ProdutoImagemVariante.@Nullable Tamanho tamanho, byte[] dados) {
+        Path destino = caminho(hash, tamanho);
+        if (Files.isRegularFile(destino)) {
+            return;
+        }
+        try {
+            Files.createDirectories(destino.getParent());
+            Path temporario = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporario, dados);
+                mover(temporario, destino);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar a imagem " + destino, e);
+        }
+    }
+
+    /**
+     * Cria um arquivo vazio no diretório de temporários do armazenamento, no mesmo
+     * sistema de arquivos das imagens, para que {@link #importar(String, Path)} possa
+     * movê-lo atomicamente. Temporários esquecidos são apagados por {@link #listarHashes(Instant)}.
+     */
+    public Path criarTemporario() {
+        try {
+            Path temporarios = Files.createDirectories(raiz.resolve(DIRETORIO_TEMPORARIOS));
+            return Files.createTempFile(temporarios, "upload-", ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar arquivo temporário em " + raiz, e);
+        }
+    }
+
+    /**
+     * Move um arquivo criado por {@link #criarTemporario()} para o lugar da imagem com o
+     * hash informado. Se a imagem já existe, o temporário é apenas apagado.
+     */
+    public void importar(String hash, Path temporario) {
+        Path destino = caminho(hash, null);
+        try {
+            if (Files.isRegularFile(destino)) {
+                Files.deleteIfExists(temporario);
+                return;
+            }
+            Files.createDirectories(destino.getParent());
+            mover(temporario, destino);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar a imagem " + destino, e);
+        }
+    }
+
+    /**
+     * Mapeia o arquivo em memória, somente para leitura.
+     *
+     * @return o conteúdo do arquivo, ou vazio se o arquivo não existe
+     */
+    public Optional<MappedByteBuffer> mapear(String hash, ProdutoImagemVariante.@Nullable Tamanho tamanho) {
+        return mapear(caminho(hash, tamanho));
+    }
+
+    /**
+     * Mapeia o arquivo em memória, somente para leitura. O mapeamento continua válido
+     * depois que o canal é fechado.
+     */
+    public Optional<MappedByteBuffer> mapear(Path arquivo) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            return Optional.of(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler a imagem " + arquivo, e);
+        }
+    }
+
+    /**
+     * Copia o conteúdo do arquivo para um array, para quem precisa dos bytes na heap
+     * (decodificação da imagem, pré-visualização no formulário).
+     */
+    public Optional<byte[]> ler(String hash, ProdutoImagemVariante.@Nullable Tamanho tamanho) {
+        return mapear(hash, tamanho).map(buffer -> {
+            byte[] dados = new byte[buffer.remaining()];
+            buffer.get(dados);
+            return dados;
+        });
+    }
+
+    /**
+     * Remove a imagem original e todas as suas variantes.
+     */
+    public void remover(String hash) {
+        try {
+            Files.deleteIfExists(caminho(hash, null));
+            for (ProdutoImagemVariante.Tamanho tamanho : ProdutoImagemVariante.Tamanho.values()) {
+                Files.deleteIfExists(caminho(hash, tamanho));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível remover a imagem " + hash, e);
+        }
+    }
+
+    /**
+     * Lista os hashes das imagens originais gravadas antes de {@code limite} e apaga os
+     * temporários antigos deixados por gravações interrompidas.
+     */
+    public List<String> listarHashes(Instant limite) {
+        if (!Files.isDirectory(raiz)) {
+            return List.of();
+        }
+        List<String> hashes = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.walk(raiz, 3)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                if (!Files.isRegularFile(arquivo)
+                        || !Files.getLastModifiedTime(arquivo).toInstant().isBefore(limite)) {
+                    continue;
+                }
+                String nome = arquivo.getFileName().toString();
+                if (nome.endsWith(".tmp")) {
+                    Files.deleteIfExists(arquivo);
+                } else if (HASH.matcher(nome).matches()) {
+                    hashes.add(nome);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível listar as imagens em " + raiz, e);
+        }
+        return hashes;
+    }
+
+    private static void mover(Path origem, Path destino) throws IOException {
+        try {
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.NormalizadorBusca;
+import com.leandrosnazareth.produto.domain.Produto;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Colunas aceitas no arquivo de importação de produtos.
+ * <p>
+ * O nome de cada coluna é o da coluna na tabela {@code produto}. No cabeçalho do
+ * arquivo ele pode vir com acentos, maiúsculas ou espaços ("Preço Venda" equivale a
+ * {@code preco_venda}).
+ * </p>
+ */
+enum ColunaImportacao {
+
+    CODIGO(true, Types.VARCHAR, Produto::setCodigo, Produto::getCodigo),
+    NOME(true, Types.VARCHAR, Produto::setNome, Produto::getNome),
+    DESCRICAO(false, Types.VARCHAR, Produto::setDescricao, Produto::getDescricao),
+    CATEGORIA(false, Types.VARCHAR, Produto::setCategoria, Produto::getCategoria),
+    MARCA(false, Types.VARCHAR, Produto::setMarca, Produto::getMarca),
+    FORNECEDOR(false, Types.VARCHAR, Produto::setFornecedor, Produto::getFornecedor),
+    UNIDADE(false, Types.VARCHAR, Produto::setUnidade, Produto::getUnidade),
+    PRECO_COMPRA(false, Types.NUMERIC, (p, v) -> p.setPrecoCompra(decimal(v)), Produto::getPrecoCompra),
+    PRECO_VENDA(true, Types.NUMERIC, (p, v) -> p.setPrecoVenda(decimal(v)), Produto::getPrecoVenda),
+    ESTOQUE_ATUAL(false, Types.INTEGER, (p, v) -> p.setEstoqueAtual(inteiro(v)), Produto::getEstoqueAtual),
+    ESTOQUE_MINIMO(false, Types.INTEGER, (p, v) -> p.setEstoqueMinimo(inteiro(v)), Produto::getEstoqueMinimo),
+    ESTOQUE_MAXIMO(false, Types.INTEGER, (p, v) -> p.setEstoqueMaximo(inteiro(v)), Produto::getEstoqueMaximo),
+    PESO(false, Types.NUMERIC, (p, v) -> p.setPeso(decimal(v)), Produto::getPeso);
+
+    private final boolean obrigatoria;
+    private final int tipoSql;
+    private final BiConsumer<Produto, String> atribuir;
+    private final Function<Produto, @Nullable Object> ler;
+
+    ColunaImportacao(boolean obrigatoria, int tipoSql, BiConsumer<Produto, String> atribuir,
+            Function<Produto, @Nullable Object> ler) {
+        this.obrigatoria = obrigatoria;
+        this.tipoSql = tipoSql;
+        this.atribuir = atribuir;
+        this.ler = ler;
+    }
+
+    /**
+     * Nome da coluna na tabela {@code produto}.
+     */
+    String coluna() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    boolean isObrigatoria() {
+        return obrigatoria;
+    }
+
+    /**
+     * Tipo da coluna em {@link Types}, para gravar valores nulos.
+     */
+    int tipoSql() {
+        return tipoSql;
+    }
+
+    /**
+     * Atribui ao produto o valor lido do arquivo, já sem espaços nas pontas e não vazio.
+     *
+     * @throws IllegalArgumentException se o valor não for um número válido para a coluna
+     */
+    void atribuir(Produto produto, String valor) {
+        atribuir.accept(produto, valor);
+    }
+
+    @Nullable
+    Object valor(Produto produto) {
+        return ler.apply(produto);
+    }
+
+    /**
+     * Identifica a coluna pelo texto do cabeçalho.
+     */
+    static Optional<ColunaImportacao> doCabecalho(String cabecalho) {
+        String nome = NormalizadorBusca.normalizar(cabecalho).replaceAll("[^a-z0-9]+", "_");
+        for (ColunaImportacao coluna : values()) {
+            if (coluna.coluna().equals(nome)) {
+                return Optional.of(coluna);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lê números com vírgula ou ponto decimal e separador de milhar opcional:
+     * "1.234,56", "1234,56" e "1234.56" são o mesmo valor.
+     */
+    static BigDecimal decimal(String valor) {
+        String numero = valor.replace("R$", "").replace(" ", "");
+        if (numero.contains(",")) {
+            numero = numero.replace(".", "").replace(',', '.');
+        }
+        try {
+            return new BigDecimal(numero);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inválido: " + valor);
+        }
+    }
+
+    static Integer inteiro(String valor) {
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inteiro inválido: " + valor);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.leandrosnazareth.produto.service;
+
+import java.nio.file.Path;
+
+/**
+ * Arquivo de uma imagem de produto pronto para ser enviado ao navegador.
+ *
+ * @param tipo tipo MIME da imagem
+ * @param arquivo arquivo da imagem no {@link ArmazenamentoImagensDisco}
+ * @param provisorio {@code true} quando a variante pedida ainda não existe e a imagem
+ *        original foi usada no lugar; o conteúdo servido para a mesma variante pode mudar
+ */
+public record ConteudoImagem(String tipo, Path arquivo, boolean provisorio) {
+}
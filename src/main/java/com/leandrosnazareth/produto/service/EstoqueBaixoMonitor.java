@@ -0,0 +1,213 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Conjunto em memória dos produtos ativos com estoque igual ou abaixo do mínimo.
+ * <p>
+ * O conjunto é carregado na inicialização e atualizado produto a produto a partir
+ * dos eventos do {@link ProdutoService}, o que inclui as baixas de estoque das vendas
+ * finalizadas. Quando um produto entra ou sai do conjunto, os ouvintes registrados
+ * recebem um {@link AlertaEstoqueBaixo}, entregue numa thread própria para não atrasar
+ * quem alterou o estoque.
+ * </p>
+ * <p>
+ * Cada alteração vinda de evento recebe uma versão. Uma recarga só aplica o que leu do
+ * banco aos produtos sem alteração posterior ao início da leitura, para não desfazer
+ * eventos que chegaram enquanto a consulta rodava.
+ * </p>
+ */
+@Component
+public class EstoqueBaixoMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstoqueBaixoMonitor.class);
+
+    private static final Comparator<ProdutoEstoqueBaixo> MAIS_CRITICOS = Comparator
+            .comparingInt(ProdutoEstoqueBaixo::estoqueAtual)
+            .thenComparing(ProdutoEstoqueBaixo::nome)
+            .thenComparing(ProdutoEstoqueBaixo::produtoId);
+
+    private final ProdutoRepository produtoRepository;
+
+    private final Map<Long, ProdutoEstoqueBaixo> produtos = new ConcurrentHashMap<>();
+
+    // Versão da última alteração de cada produto recebida por evento
+    private final Map<Long, Long> versoes = new HashMap<>();
+
+    private final AtomicLong versao = new AtomicLong();
+
+    private final List<Consumer<AlertaEstoqueBaixo>> ouvintes = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService notificador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "alertas-estoque-baixo");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EstoqueBaixoMonitor(ProdutoRepository produtoRepository) {
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Carrega o conjunto a partir do banco, depois que a coluna {@code estoque_baixo}
+     * foi preenchida. Numa recarga, os produtos que entraram ou saíram são avisados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = versao.get();
+        Map<Long, ProdutoEstoqueBaixo> atuais = new HashMap<>();
+        for (Object[] resumo : produtoRepository.findResumoEstoqueBaixo()) {
+            ProdutoEstoqueBaixo produto = new ProdutoEstoqueBaixo((Long) resumo[0], (String) resumo[1],
+                    (String) resumo[2], (Integer) resumo[3], (Integer) resumo[4]);
+            atuais.put(produto.produtoId(), produto);
+        }
+        synchronized (versoes) {
+            for (Long produtoId : List.copyOf(produtos.keySet())) {
+                if (!atuais.containsKey(produtoId) && !alteradoDepois(produtoId, inicio)) {
+                    atualizar(produtoId, null);
+                }
+            }
+            atuais.forEach((produtoId, produto) -> {
+                if (!alteradoDepois(produtoId, inicio)) {
+                    atualizar(produtoId, produto);
+                }
+            });
+            versoes.values().removeIf(alteracao -> alteracao <= inicio);
+        }
+        logger.info("Monitor de estoque baixo carregado com {} produtos", produtos.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutoAlterado(ProdutoAlteradoEvent event) {
+        Produto produto = event.produto();
+        if (produto.getId() == null) {
+            return;
+        }
+        Integer estoqueMinimo = produto.getEstoqueMinimo();
+        boolean estoqueBaixo = estoqueMinimo != null && Boolean.TRUE.equals(produto.getAtivo())
+                && produto.isEstoqueBaixo();
+        aplicar(produto.getId(), estoqueBaixo
+                ? new ProdutoEstoqueBaixo(produto.getId(), produto.getCodigo(), produto.getNome(),
+                        produto.getEstoqueAtual(), estoqueMinimo)
+                : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutoExcluido(ProdutoExcluidoEvent event) {
+        aplicar(event.produtoId(), null);
+    }
+
+    /**
+     * Ativações e inativações em lote não trazem os produtos, então o conjunto é
+     * recarregado; mudanças só de preço não afetam o estoque. A recarga chama
+     * {@link #carregar} sem passar pelo proxy, então a transação é aberta aqui.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProdutosAlteradosEmLote(ProdutosAlteradosEmLoteEvent event) {
+        if (event.situacaoAlterada()) {
+            carregar();
+        }
+    }
+
+    /**
+     * Retorna os produtos com estoque baixo, os de menor estoque primeiro.
+     */
+    public List<ProdutoEstoqueBaixo> listar() {
+        return produtos.values().stream().sorted(MAIS_CRITICOS).toList();
+    }
+
+    /**
+     * Retorna quantos produtos estão com estoque baixo, sem consultar o banco.
+     */
+    public int contar() {
+        return produtos.size();
+    }
+
+    /**
+     * Registra um ouvinte para os produtos que cruzarem o estoque mínimo.
+     * <p>
+     * O ouvinte é chamado fora da thread da requisição; telas devem repassar o aviso
+     * com {@code UI.access}.
+     * </p>
+     *
+     * @return inscrição que remove o ouvinte ao ser fechada, por exemplo ao desanexar a tela
+     */
+    public Inscricao registrar(Consumer<AlertaEstoqueBaixo> ouvinte) {
+        ouvintes.add(ouvinte);
+        return () -> ouvintes.remove(ouvinte);
+    }
+
+    private void aplicar(Long produtoId, @Nullable ProdutoEstoqueBaixo produto) {
+        synchronized (versoes) {
+            versoes.put(produtoId, versao.incrementAndGet());
+            atualizar(produtoId, produto);
+        }
+    }
+
+    private boolean alteradoDepois(Long produtoId, long inicio) {
+        Long alteracao = versoes.get(produtoId);
+        return alteracao != null && alteracao > inicio;
+    }
+
+    private void atualizar(Long produtoId, @Nullable ProdutoEstoqueBaixo produto) {
+        ProdutoEstoqueBaixo anterior = produto == null ? produtos.remove(produtoId) : produtos.put(produtoId, produto);
+        if (produto != null && anterior == null) {
+            notificar(new AlertaEstoqueBaixo(produto, true));
+        } else if (produto == null && anterior != null) {
+            notificar(new AlertaEstoqueBaixo(anterior, false));
+        }
+    }
+
+    private void notificar(AlertaEstoqueBaixo alerta) {
+        for (Consumer<AlertaEstoqueBaixo> ouvinte : ouvintes) {
+            notificador.execute(() -> {
+                try {
+                    ouvinte.accept(alerta);
+                } catch (RuntimeException e) {
+                    logger.warn("Erro ao avisar ouvinte de estoque baixo", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Inscrição de um ouvinte do monitor; fechar remove o ouvinte.
+     */
+    public interface Inscricao extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        notificador.shutdownNow();
+    }
+}
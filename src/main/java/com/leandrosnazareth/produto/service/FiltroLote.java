@@ -0,0 +1,37 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Seleciona os produtos de uma alteração em lote pela categoria ou pela marca.
+ *
+ * @param campo coluna comparada
+ * @param valor valor exato da coluna
+ */
+public record FiltroLote(Campo campo, String valor) {
+
+    public enum Campo {
+        CATEGORIA("Categoria", "categoria"),
+        MARCA("Marca", "marca");
+
+        private final String descricao;
+        private final String coluna;
+
+        Campo(String descricao, String coluna) {
+            this.descricao = descricao;
+            this.coluna = coluna;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+
+        String coluna() {
+            return coluna;
+        }
+    }
+
+    public FiltroLote {
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException(campo.getDescricao() + " é obrigatória");
+        }
+    }
+}
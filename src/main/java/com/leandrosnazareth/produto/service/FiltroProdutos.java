@@ -0,0 +1,48 @@
+package com.leandrosnazareth.produto.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * Critérios combináveis da listagem de produtos; critérios nulos não filtram.
+ *
+ * @param termo texto procurado no nome, código, descrição, categoria e marca
+ * @param categoria categoria exata
+ * @param marca marca exata
+ * @param fornecedor fornecedor exato
+ * @param precoMinimo menor preço de venda, inclusivo
+ * @param precoMaximo maior preço de venda, inclusivo
+ * @param estoque situação do estoque
+ * @param ativo somente ativos ({@code true}) ou somente inativos ({@code false})
+ */
+public record FiltroProdutos(@Nullable String termo, @Nullable String categoria, @Nullable String marca,
+        @Nullable String fornecedor, @Nullable BigDecimal precoMinimo, @Nullable BigDecimal precoMaximo,
+        @Nullable SituacaoEstoque estoque, @Nullable Boolean ativo) {
+
+    /**
+     * Filtro que aceita todos os produtos.
+     */
+    public static final FiltroProdutos TODOS = new FiltroProdutos(null, null, null, null, null, null, null, null);
+
+    public enum SituacaoEstoque {
+        /** Estoque atual igual ou abaixo do mínimo. */
+        BAIXO,
+        /** Estoque atual zerado. */
+        SEM_ESTOQUE
+    }
+
+    public FiltroProdutos {
+        termo = vazioComoNulo(termo);
+        categoria = vazioComoNulo(categoria);
+        marca = vazioComoNulo(marca);
+        fornecedor = vazioComoNulo(fornecedor);
+        if (precoMinimo != null && precoMaximo != null && precoMinimo.compareTo(precoMaximo) > 0) {
+            throw new IllegalArgumentException("Preço mínimo maior que o preço máximo");
+        }
+    }
+
+    private static @Nullable String vazioComoNulo(@Nullable String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+}
@@ -0,0 +1,14 @@
+package com.leandrosnazareth.produto.service;
+
+import java.nio.file.Path;
+
+/**
+ * Foto enviada pelo usuário, já validada e gravada em um arquivo temporário, à espera
+ * de ser armazenada com {@link ProdutoImagemService#armazenar(FotoRecebida)}.
+ *
+ * @param arquivo arquivo temporário com o conteúdo enviado
+ * @param tipo tipo MIME identificado pelos primeiros bytes do conteúdo
+ * @param tamanho tamanho do conteúdo em bytes
+ */
+public record FotoRecebida(Path arquivo, String tipo, long tamanho) {
+}
@@ -0,0 +1,372 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.NormalizadorBusca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de trigramas para busca tolerante a erros de digitação.
+ * <p>
+ * Em vez de indexar cada produto, o índice trabalha sobre o vocabulário de palavras
+ * dos nomes: cada palavra distinta é decomposta em trigramas, e cada palavra aponta
+ * para os produtos que a contêm. Uma busca encontra as palavras do vocabulário que
+ * compartilham trigramas com cada palavra digitada, confirma a distância de edição
+ * (Damerau restrita) dentro de um limite que cresce com o tamanho da palavra e só
+ * então expande para os produtos. Como o vocabulário cresce muito mais devagar que o
+ * catálogo, o custo da busca fica praticamente independente do número de produtos.
+ * </p>
+ * <p>
+ * A última palavra da consulta é comparada como prefixo, para funcionar enquanto o
+ * usuário ainda está digitando.
+ * </p>
+ */
+final class IndiceTrigramas {
+
+    private static final char BORDA = '$';
+
+    /**
+     * Resultado de uma busca aproximada.
+     *
+     * @param produtoId ID do produto
+     * @param similaridade média da similaridade das palavras da consulta, entre 0 e 1
+     */
+    record Resultado(long produtoId, double similaridade) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Vocabulário: palavra -> id, e id -> palavra
+    private final Map<String, Integer> idPorPalavra = new HashMap<>();
+    private final List<String> palavras = new ArrayList<>();
+
+    // Trigrama -> ids das palavras que o contêm
+    private final Map<String, ListaInteiros> palavrasPorTrigrama = new HashMap<>();
+
+    // Id da palavra -> produtos cujo nome contém a palavra
+    private final List<ConjuntoIds> produtosPorPalavra = new ArrayList<>();
+
+    // Produto -> ids das palavras do nome, para remoção incremental
+    private final Map<Long, int[]> palavrasPorProduto = new HashMap<>();
+
+    /**
+     * Indexa (ou reindexa) o nome de um produto.
+     */
+    void indexar(long produtoId, String nome) {
+        List<String> tokens = NormalizadorBusca.tokens(NormalizadorBusca.normalizar(nome));
+        lock.writeLock().lock();
+        try {
+            removerSemLock(produtoId);
+            int[] ids = new LinkedHashSet<>(tokens).stream().mapToInt(this::idDaPalavra).toArray();
+            for (int palavraId : ids) {
+                produtosPorPalavra.get(palavraId).adicionar(produtoId);
+            }
+            palavrasPorProduto.put(produtoId, ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remover(long produtoId) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(produtoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int tamanho() {
+        lock.readLock().lock();
+        try {
+            return palavrasPorProduto.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca produtos cujo nome contém palavras parecidas com todas as palavras da consulta.
+     *
+     * @param consulta texto digitado
+     * @param limite número máximo de resultados
+     * @return resultados ordenados por similaridade decrescente e, em empate, por ID
+     */
+    List<Resultado> buscar(String consulta, int limite) {
+        List<String> tokens = NormalizadorBusca.tokens(NormalizadorBusca.normalizar(consulta));
+        if (tokens.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, double[]> pontuacoes = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefixo = i == tokens.size() - 1;
+                Map<Long, Double> melhores = produtosParecidos(tokens.get(i), prefixo);
+                if (melhores.isEmpty()) {
+                    return List.of();
+                }
+                if (i == 0) {
+                    melhores.forEach((produtoId, similaridade) -> pontuacoes.put(produtoId,
+                            new double[] { similaridade, 1 }));
+                } else {
+                    // Mantém apenas os produtos que casam com todas as palavras até aqui
+                    int palavrasCasadas = i;
+                    pontuacoes.entrySet().removeIf(entrada -> {
+                        Double similaridade = melhores.get(entrada.getKey());
+                        if (similaridade == null || entrada.getValue()[1] < palavrasCasadas) {
+                            return true;
+                        }
+                        entrada.getValue()[0] += similaridade;
+                        entrada.getValue()[1]++;
+                        return false;
+                    });
+                }
+            }
+
+            int quantidadeTokens = tokens.size();
+            return pontuacoes.entrySet().stream()
+                    .map(entrada -> new Resultado(entrada.getKey(), entrada.getValue()[0] / quantidadeTokens))
+                    .sorted((a, b) -> {
+                        int comparacao = Double.compare(b.similaridade(), a.similaridade());
+                        return comparacao != 0 ? comparacao : Long.compare(a.produtoId(), b.produtoId());
+                    })
+                    .limit(limite)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna, para cada produto, a maior similaridade entre a palavra consultada e
+     * alguma palavra do seu nome que esteja dentro da distância de edição permitida.
+     */
+    private Map<Long, Double> produtosParecidos(String token, boolean prefixo) {
+        int maxEdicoes = maxEdicoes(token.length());
+        List<String> trigramas = trigramas(token, !prefixo);
+
+        // Conta os trigramas compartilhados com cada palavra do vocabulário
+        Map<Integer, Integer> compartilhados = new HashMap<>();
+        for (String trigrama : trigramas) {
+            ListaInteiros ids = palavrasPorTrigrama.get(trigrama);
+            if (ids != null) {
+                ids.paraCada(id -> compartilhados.merge(id, 1, Integer::sum));
+            }
+        }
+
+        // Lema dos q-gramas: cada edição destrói no máximo três trigramas, e uma
+        // transposição, que conta como uma edição, pode destruir quatro
+        int minimoCompartilhado = Math.max(1, trigramas.size() - 4 * maxEdicoes);
+
+        Map<Long, Double> melhores = new HashMap<>();
+        compartilhados.forEach((palavraId, quantidade) -> {
+            if (quantidade < minimoCompartilhado) {
+                return;
+            }
+            ConjuntoIds produtos = produtosPorPalavra.get(palavraId);
+            if (produtos.vazio()) {
+                return;
+            }
+            String palavra = palavras.get(palavraId);
+            double similaridade = similaridade(token, palavra, prefixo, maxEdicoes);
+            if (similaridade > 0) {
+                produtos.paraCada(produtoId -> melhores.merge(produtoId, similaridade, Math::max));
+            }
+        });
+        return melhores;
+    }
+
+    /**
+     * Similaridade entre 0 e 1 derivada da distância de edição, ou 0 se a distância
+     * exceder o limite. No modo prefixo, a palavra do vocabulário é truncada ao
+     * tamanho mais favorável em torno do tamanho da consulta, e completar a palavra
+     * vale meia edição, para que a palavra exata fique à frente das mais longas.
+     */
+    static double similaridade(String consulta, String palavra, boolean prefixo, int maxEdicoes) {
+        if (Math.abs(palavra.length() - consulta.length()) > maxEdicoes
+                && !(prefixo && palavra.length() > consulta.length())) {
+            return 0;
+        }
+
+        int distancia;
+        double penalidade = 0;
+        if (prefixo && palavra.length() > consulta.length()) {
+            penalidade = 0.5;
+            distancia = Integer.MAX_VALUE;
+            int menor = Math.max(1, consulta.length() - maxEdicoes);
+            int maior = Math.min(palavra.length(), consulta.length() + maxEdicoes);
+            for (int tamanho = menor; tamanho <= maior; tamanho++) {
+                distancia = Math.min(distancia, distancia(consulta, palavra.substring(0, tamanho), maxEdicoes));
+            }
+        } else {
+            distancia = distancia(consulta, palavra, maxEdicoes);
+        }
+
+        if (distancia > maxEdicoes) {
+            return 0;
+        }
+        return 1.0 - (distancia + penalidade) / (consulta.length() + 1);
+    }
+
+    /**
+     * Distância de Damerau-Levenshtein restrita (transposições adjacentes contam uma
+     * edição), interrompida assim que ultrapassa o limite.
+     *
+     * @return a distância, ou {@code limite + 1} se ela for maior que o limite
+     */
+    static int distancia(String a, String b, int limite) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limite) {
+            return limite + 1;
+        }
+
+        int[] anterior2 = new int[m + 1];
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            for (int j = 1; j <= m; j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, atual[j - 1] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                atual[j] = valor;
+                menorDaLinha = Math.min(menorDaLinha, valor);
+            }
+            if (menorDaLinha > limite) {
+                return limite + 1;
+            }
+            int[] temporario = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = temporario;
+        }
+        return Math.min(anterior[m], limite + 1);
+    }
+
+    static int maxEdicoes(int tamanho) {
+        if (tamanho <= 2) {
+            return 0;
+        }
+        return tamanho <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Decompõe a palavra em trigramas com bordas. Sem a borda final, os trigramas
+     * servem para casar a palavra como prefixo.
+     */
+    static List<String> trigramas(String palavra, boolean bordaFinal) {
+        String texto = "" + BORDA + BORDA + palavra + (bordaFinal ? String.valueOf(BORDA) : "");
+        List<String> resultado = new ArrayList<>(texto.length());
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    private int idDaPalavra(String palavra) {
+        Integer existente = idPorPalavra.get(palavra);
+        if (existente != null) {
+            return existente;
+        }
+
+        int id = palavras.size();
+        palavras.add(palavra);
+        idPorPalavra.put(palavra, id);
+        produtosPorPalavra.add(new ConjuntoIds());
+        for (String trigrama : new LinkedHashSet<>(trigramas(palavra, true))) {
+            palavrasPorTrigrama.computeIfAbsent(trigrama, t -> new ListaInteiros()).adicionar(id);
+        }
+        return id;
+    }
+
+    private void removerSemLock(long produtoId) {
+        int[] ids = palavrasPorProduto.remove(produtoId);
+        if (ids == null) {
+            return;
+        }
+        for (int palavraId : ids) {
+            produtosPorPalavra.get(palavraId).remover(produtoId);
+        }
+    }
+
+    /**
+     * Lista de inteiros sem boxing, apenas com inserção no final.
+     */
+    private static final class ListaInteiros {
+
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        void adicionar(int valor) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        void paraCada(java.util.function.IntConsumer acao) {
+            for (int i = 0; i < tamanho; i++) {
+                acao.accept(valores[i]);
+            }
+        }
+    }
+
+    /**
+     * Conjunto ordenado de IDs de produto sem boxing.
+     */
+    private static final class ConjuntoIds {
+
+        private long[] valores = new long[2];
+        private int tamanho;
+
+        void adicionar(long valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            System.arraycopy(valores, posicao, valores, posicao + 1, tamanho - posicao);
+            valores[posicao] = valor;
+            tamanho++;
+        }
+
+        void remover(long valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao < 0) {
+                return;
+            }
+            System.arraycopy(valores, posicao + 1, valores, posicao, tamanho - posicao - 1);
+            tamanho--;
+        }
+
+        boolean vazio() {
+            return tamanho == 0;
+        }
+
+        void paraCada(java.util.function.LongConsumer acao) {
+            for (int i = 0; i < tamanho; i++) {
+                acao.accept(valores[i]);
+            }
+        }
+    }
+}
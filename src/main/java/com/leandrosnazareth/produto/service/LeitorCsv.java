@@ -0,0 +1,127 @@
+package com.leandrosnazareth.produto.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê um arquivo CSV registro a registro, sem carregá-lo inteiro.
+ * <p>
+ * O separador é o que aparece mais vezes na primeira linha, ponto e vírgula (padrão
+ * das planilhas em português) ou vírgula. Campos entre aspas podem conter o
+ * separador, quebras de linha e aspas duplicadas ({@code ""}). Linhas em branco são
+ * ignoradas e o BOM do UTF-8 no início do arquivo é descartado.
+ * </p>
+ */
+final class LeitorCsv implements Closeable {
+
+    // Um campo entre aspas que nunca fecha não pode consumir o arquivo inteiro
+    private static final int TAMANHO_MAXIMO_REGISTRO = 64 * 1024;
+
+    private final BufferedReader reader;
+    private char separador;
+    private long linhaAtual;
+    private long linhaRegistro;
+
+    LeitorCsv(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Retorna os campos do próximo registro, ou {@code null} no fim do arquivo.
+     *
+     * @throws IllegalArgumentException se um registro passar do tamanho máximo
+     */
+    @Nullable
+    List<String> proximo() throws IOException {
+        String linha;
+        do {
+            linha = lerLinha();
+            if (linha == null) {
+                return null;
+            }
+        } while (linha.isBlank());
+
+        linhaRegistro = linhaAtual;
+        if (separador == 0) {
+            separador = detectarSeparador(linha);
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        int tamanho = 0;
+        while (true) {
+            tamanho += linha.length();
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c != '"') {
+                        campo.append(c);
+                    } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            if (!entreAspas) {
+                break;
+            }
+            // Quebra de linha dentro do campo entre aspas: o registro continua na próxima linha
+            linha = lerLinha();
+            if (linha == null) {
+                break;
+            }
+            if (tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                throw new IllegalArgumentException(
+                        "Registro da linha " + linhaRegistro + " muito grande; verifique as aspas");
+            }
+            campo.append('\n');
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * Número da linha do arquivo em que começa o último registro lido, a partir de 1.
+     */
+    long linha() {
+        return linhaRegistro;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private @Nullable String lerLinha() throws IOException {
+        String linha = reader.readLine();
+        if (linha == null) {
+            return null;
+        }
+        linhaAtual++;
+        if (linhaAtual == 1 && !linha.isEmpty() && linha.charAt(0) == '\uFEFF') {
+            return linha.substring(1);
+        }
+        return linha;
+    }
+
+    private static char detectarSeparador(String linha) {
+        long pontosEVirgulas = linha.chars().filter(c -> c == ';').count();
+        long virgulas = linha.chars().filter(c -> c == ',').count();
+        return virgulas > pontosEVirgulas ? ',' : ';';
+    }
+}
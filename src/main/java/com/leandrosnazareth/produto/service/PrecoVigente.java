@@ -0,0 +1,25 @@
+package com.leandrosnazareth.produto.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Preços de um produto em um intervalo do histórico.
+ *
+ * @param precoVenda preço de venda no intervalo
+ * @param precoCompra preço de compra no intervalo, se cadastrado
+ * @param validoDe início do intervalo, inclusivo
+ * @param validoAte fim do intervalo, exclusivo; nulo para os preços atuais
+ */
+public record PrecoVigente(BigDecimal precoVenda, @Nullable BigDecimal precoCompra, Instant validoDe,
+        @Nullable Instant validoAte) {
+
+    /**
+     * Indica se o instante cai dentro do intervalo.
+     */
+    public boolean vigenteEm(Instant instante) {
+        return !instante.isBefore(validoDe) && (validoAte == null || instante.isBefore(validoAte));
+    }
+}
@@ -0,0 +1,218 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoAuditoria;
+import com.leandrosnazareth.produto.domain.ProdutoAuditoriaRepository;
+import com.leandrosnazareth.security.AppRoles;
+import com.leandrosnazareth.security.CurrentUser;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Altera preço ou situação de todos os produtos de uma categoria ou marca de uma vez.
+ * <p>
+ * Cada alteração é feita por comandos SQL sobre o conjunto, sem carregar os produtos:
+ * as linhas afetadas são travadas, a auditoria de todas elas é gravada com um único
+ * {@code INSERT ... SELECT} e o {@code UPDATE} usa o mesmo filtro. Reajustes também
+ * atualizam o histórico de preços pelo {@link ProdutoPrecoHistoricoGravador}. Como passa por fora
+ * do Hibernate, os caches de produto são descartados uma vez ao fim da transação, e
+ * os ouvintes recebem um único {@link ProdutosAlteradosEmLoteEvent}.
+ * </p>
+ */
+@Service
+@PreAuthorize("hasRole('" + AppRoles.ADMIN + "')")
+public class ProdutoAlteracaoLoteService {
+
+    /**
+     * Forma de aplicar o valor de um reajuste de preço.
+     */
+    public enum TipoReajuste {
+        /** Percentual sobre o preço atual; negativo para desconto. */
+        PERCENTUAL("Percentual (%)"),
+        /** Valor somado ao preço atual; negativo para desconto. */
+        VALOR("Valor (R$)");
+
+        private final String descricao;
+
+        TipoReajuste(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+
+    static final String CAMPO_PRECO_VENDA = "preco_venda";
+    static final String CAMPO_ATIVO = "ativo";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProdutoAuditoriaRepository auditoriaRepository;
+    private final ProdutoCatalogoCache catalogoCache;
+    private final ProdutoPrecoHistoricoGravador precoHistorico;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentUser currentUser;
+    private final Clock clock;
+    private final String proximoIdAuditoria;
+
+    ProdutoAlteracaoLoteService(NamedParameterJdbcTemplate jdbcTemplate,
+            ProdutoAuditoriaRepository auditoriaRepository, ProdutoCatalogoCache catalogoCache,
+            ProdutoPrecoHistoricoGravador precoHistorico, EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher,
+            CurrentUser currentUser, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditoriaRepository = auditoriaRepository;
+        this.catalogoCache = catalogoCache;
+        this.precoHistorico = precoHistorico;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.currentUser = currentUser;
+        this.clock = clock;
+        this.proximoIdAuditoria = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSelectSequenceNextValString("produto_auditoria_seq");
+    }
+
+    /**
+     * Reajusta o preço de venda dos produtos do filtro, arredondando para centavos.
+     * Produtos cujo preço não muda não são alterados nem auditados.
+     *
+     * @param valor percentual ou valor em reais, conforme o tipo
+     * @throws IllegalArgumentException se algum preço resultante não for positivo
+     */
+    @Transactional
+    public ResultadoAlteracaoLote reajustarPrecos(FiltroLote filtro, TipoReajuste tipo, BigDecimal valor) {
+        if (valor.signum() == 0) {
+            throw new IllegalArgumentException("Informe um valor de reajuste diferente de zero");
+        }
+        String lote = UUID.randomUUID().toString();
+        Instant agora = clock.instant();
+        MapSqlParameterSource parametros = parametros(filtro, lote, agora);
+        String novoPreco;
+        if (tipo == TipoReajuste.PERCENTUAL) {
+            novoPreco = "ROUND(preco_venda * :fator, 2)";
+            parametros.addValue("fator", BigDecimal.ONE.add(valor.movePointLeft(2)));
+        } else {
+            novoPreco = "(preco_venda + :valor)";
+            parametros.addValue("valor", valor.setScale(2, RoundingMode.HALF_UP));
+        }
+        String where = "WHERE " + filtro.campo().coluna() + " = :filtro AND " + novoPreco + " <> preco_venda";
+
+        List<Long> ids = travar(where, parametros);
+        if (ids.isEmpty()) {
+            return new ResultadoAlteracaoLote(lote, 0);
+        }
+        Integer invalidos = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM produto " + where + " AND " + novoPreco + " <= 0", parametros, Integer.class);
+        if (invalidos != null && invalidos > 0) {
+            throw new IllegalArgumentException(
+                    "O reajuste deixaria " + invalidos + " produto(s) com preço menor ou igual a zero");
+        }
+
+        auditar(CAMPO_PRECO_VENDA, "CAST(preco_venda AS VARCHAR(20))", "CAST(" + novoPreco + " AS VARCHAR(20))",
+                where, parametros);
+        int alterados = jdbcTemplate.update("UPDATE produto SET preco_venda = " + novoPreco
+                + ", data_atualizacao = :agora " + where, parametros);
+        precoHistorico.registrarPorIds(ids, agora);
+        return concluir(lote, ids, false, alterados);
+    }
+
+    /**
+     * Ativa ou inativa os produtos do filtro. Produtos que já estão na situação pedida
+     * não são alterados nem auditados.
+     */
+    @Transactional
+    public ResultadoAlteracaoLote alterarAtivo(FiltroLote filtro, boolean ativo) {
+        String lote = UUID.randomUUID().toString();
+        MapSqlParameterSource parametros = parametros(filtro, lote, clock.instant())
+                .addValue("ativo", ativo)
+                .addValue("anterior", Boolean.toString(!ativo))
+                .addValue("novo", Boolean.toString(ativo));
+        String where = "WHERE " + filtro.campo().coluna() + " = :filtro AND ativo <> :ativo";
+
+        List<Long> ids = travar(where, parametros);
+        if (ids.isEmpty()) {
+            return new ResultadoAlteracaoLote(lote, 0);
+        }
+        auditar(CAMPO_ATIVO, ":anterior", ":novo", where, parametros);
+        int alterados = jdbcTemplate.update(
+                "UPDATE produto SET ativo = :ativo, data_atualizacao = :agora " + where, parametros);
+        return concluir(lote, ids, true, alterados);
+    }
+
+    /**
+     * Retorna as linhas de auditoria gravadas por uma alteração em lote.
+     */
+    @Transactional(readOnly = true)
+    public List<ProdutoAuditoria> listarAuditoria(String lote) {
+        return auditoriaRepository.findByLoteOrderByProdutoId(lote);
+    }
+
+    private MapSqlParameterSource parametros(FiltroLote filtro, String lote, Instant agora) {
+        return new MapSqlParameterSource()
+                .addValue("filtro", filtro.valor())
+                .addValue("lote", lote)
+                .addValue("usuario", currentUser.require().getPreferredUsername())
+                .addValue("agora", Timestamp.from(agora));
+    }
+
+    /**
+     * Trava as linhas que serão alteradas, para que a auditoria e o {@code UPDATE}
+     * vejam os mesmos valores.
+     */
+    private List<Long> travar(String where, MapSqlParameterSource parametros) {
+        return jdbcTemplate.queryForList("SELECT produto_id FROM produto " + where + " FOR UPDATE", parametros,
+                Long.class);
+    }
+
+    private void auditar(String campo, String valorAnterior, String valorNovo, String where,
+            MapSqlParameterSource parametros) {
+        jdbcTemplate.update("INSERT INTO produto_auditoria (produto_auditoria_id, produto_id, lote, campo, "
+                + "valor_anterior, valor_novo, usuario, data_alteracao) SELECT " + proximoIdAuditoria
+                + ", produto_id, :lote, '" + campo + "', " + valorAnterior + ", " + valorNovo
+                + ", :usuario, :agora FROM produto " + where, parametros);
+    }
+
+    private ResultadoAlteracaoLote concluir(String lote, List<Long> ids, boolean situacaoAlterada, int alterados) {
+        descartarCachesAoFim();
+        eventPublisher.publishEvent(new ProdutosAlteradosEmLoteEvent(List.copyOf(ids), situacaoAlterada));
+        return new ResultadoAlteracaoLote(lote, alterados);
+    }
+
+    /**
+     * Descarta os caches agora e de novo ao fim da transação, para que nenhuma leitura
+     * concorrente guarde o estado anterior ao commit.
+     */
+    private void descartarCachesAoFim() {
+        descartarCaches();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                descartarCaches();
+            }
+        });
+    }
+
+    private void descartarCaches() {
+        catalogoCache.invalidarTudo();
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Produto.class);
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegions();
+    }
+}
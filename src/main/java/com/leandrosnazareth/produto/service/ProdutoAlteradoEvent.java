@@ -0,0 +1,15 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+
+/**
+ * Evento publicado pelo {@link ProdutoService} quando um produto é criado ou alterado.
+ * <p>
+ * Os ouvintes que mantêm estruturas em memória devem usar
+ * {@code @TransactionalEventListener} para reagir somente após o commit.
+ * </p>
+ *
+ * @param produto estado do produto após a alteração
+ */
+public record ProdutoAlteradoEvent(Produto produto) {
+}
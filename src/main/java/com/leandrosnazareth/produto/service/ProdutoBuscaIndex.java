@@ -0,0 +1,323 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.NormalizadorBusca;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice em memória dos produtos ativos para autocompletar e ordenar buscas por relevância.
+ * <p>
+ * Os nomes e códigos normalizados ficam em mapas ordenados, então a busca por prefixo é
+ * uma descida logarítmica seguida da leitura das primeiras entradas do intervalo,
+ * sem consulta ao banco. O índice é carregado na inicialização e atualizado
+ * produto a produto a partir dos eventos publicados pelo {@link ProdutoService}.
+ * </p>
+ * <p>
+ * Também mantém um {@link IndiceTrigramas} sobre as palavras dos nomes, usado na
+ * busca tolerante a erros de digitação.
+ * </p>
+ */
+@Component
+public class ProdutoBuscaIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoBuscaIndex.class);
+
+    /**
+     * Separa o texto indexado do ID do produto na chave, mantendo nomes iguais
+     * como entradas distintas e ordenadas antes de qualquer continuação do texto.
+     */
+    private static final char SEPARADOR_ID = '\u0000';
+
+    /**
+     * Faixas de relevância da busca, da mais forte para a mais fraca.
+     */
+    private enum Relevancia {
+        CODIGO_EXATO, PREFIXO_CODIGO, PREFIXO_NOME, PALAVRA_NOME, CONTEM_TEXTO
+    }
+
+    /**
+     * Dados normalizados de um produto indexado e as chaves que ele ocupa nos mapas.
+     */
+    private record Entrada(SugestaoProduto sugestao, String nome, String texto, List<String> chaves) {
+    }
+
+    private static final Comparator<Entrada> POR_NOME_E_ID = Comparator.comparing(Entrada::nome)
+            .thenComparing(entrada -> entrada.sugestao().id());
+
+    private final ProdutoRepository produtoRepository;
+
+    // Nome completo normalizado -> sugestão
+    private final ConcurrentSkipListMap<String, SugestaoProduto> nomes = new ConcurrentSkipListMap<>();
+
+    // Nome a partir da segunda palavra em diante -> sugestão
+    private final ConcurrentSkipListMap<String, SugestaoProduto> palavras = new ConcurrentSkipListMap<>();
+
+    // Código normalizado -> sugestão
+    private final ConcurrentSkipListMap<String, SugestaoProduto> codigos = new ConcurrentSkipListMap<>();
+
+    // Produto -> entrada, para remoção incremental e para a busca por conteúdo
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final IndiceTrigramas trigramas = new IndiceTrigramas();
+
+    public ProdutoBuscaIndex(ProdutoRepository produtoRepository) {
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Carrega o índice com os produtos ativos, depois que os dados iniciais foram criados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.nanoTime();
+        for (Object[] resumo : produtoRepository.findResumoProdutosAtivos()) {
+            indexar(new SugestaoProduto((Long) resumo[0], (String) resumo[1], (String) resumo[2]),
+                    (String) resumo[3]);
+        }
+        logger.info("Índice de busca carregado com {} produtos em {} ms",
+                entradas.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutoAlterado(ProdutoAlteradoEvent event) {
+        Produto produto = event.produto();
+        if (produto.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(produto.getAtivo())) {
+            indexar(new SugestaoProduto(produto.getId(), produto.getCodigo(), produto.getNome()),
+                    produto.getTextoBusca());
+        } else {
+            remover(produto.getId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutoExcluido(ProdutoExcluidoEvent event) {
+        remover(event.produtoId());
+    }
+
+    /**
+     * Ativações e inativações em lote não trazem os produtos, então o índice é
+     * recarregado; mudanças só de preço não afetam as sugestões.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutosAlteradosEmLote(ProdutosAlteradosEmLoteEvent event) {
+        if (!event.situacaoAlterada()) {
+            return;
+        }
+        event.produtoIds().forEach(this::remover);
+        carregar();
+    }
+
+    /**
+     * Retorna os produtos ativos cujo nome, ou alguma palavra do nome, começa com o prefixo.
+     * <p>
+     * Produtos cujo nome começa com o prefixo vêm primeiro, em ordem alfabética.
+     * </p>
+     *
+     * @param prefixo texto digitado pelo usuário
+     * @param limite número máximo de sugestões
+     * @return sugestões sem repetição de produto
+     */
+    public List<SugestaoProduto> sugerir(String prefixo, int limite) {
+        String chave = NormalizadorBusca.normalizar(prefixo);
+        if (chave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Map<Long, SugestaoProduto> encontrados = new LinkedHashMap<>();
+        coletar(nomes, chave, limite, encontrados);
+        if (encontrados.size() < limite) {
+            coletar(palavras, chave, limite, encontrados);
+        }
+        return new ArrayList<>(encontrados.values());
+    }
+
+    /**
+     * Retorna os IDs dos produtos ativos que contêm o termo, ordenados por relevância.
+     * <p>
+     * A ordem é: código igual ao termo, código começando com o termo, nome começando
+     * com o termo, alguma palavra do nome começando com o termo e, por fim, termo
+     * contido em qualquer parte do nome, código, descrição, categoria ou marca. Dentro
+     * de cada faixa, os produtos são ordenados por nome e ID, de modo que a mesma
+     * busca sempre produz a mesma lista e as páginas não se sobrepõem.
+     * </p>
+     * <p>
+     * As faixas são avaliadas em ordem e a avaliação para assim que há produtos
+     * suficientes para a página pedida; a varredura do conteúdo só acontece quando as
+     * faixas de prefixo não bastam.
+     * </p>
+     *
+     * @param termo texto digitado pelo usuário
+     * @param inicio posição do primeiro resultado desejado
+     * @param quantidade número máximo de resultados
+     * @return IDs da página pedida, na ordem de relevância
+     */
+    public List<Long> buscarPorRelevancia(String termo, long inicio, int quantidade) {
+        String chave = NormalizadorBusca.normalizar(termo);
+        if (chave.isEmpty() || quantidade <= 0) {
+            return List.of();
+        }
+
+        long necessarios = inicio + quantidade;
+        Set<Long> ranqueados = new LinkedHashSet<>();
+        for (Relevancia relevancia : Relevancia.values()) {
+            if (ranqueados.size() >= necessarios) {
+                break;
+            }
+            candidatos(relevancia, chave).stream()
+                    .filter(entrada -> !ranqueados.contains(entrada.sugestao().id()))
+                    .sorted(POR_NOME_E_ID)
+                    .forEachOrdered(entrada -> ranqueados.add(entrada.sugestao().id()));
+        }
+
+        return ranqueados.stream()
+                .skip(inicio)
+                .limit(quantidade)
+                .toList();
+    }
+
+    /**
+     * Retorna os IDs dos produtos ativos cujo nome contém palavras parecidas com as
+     * palavras do termo, admitindo erros de digitação.
+     *
+     * @param termo texto digitado pelo usuário
+     * @param limite número máximo de produtos
+     * @return IDs ordenados da maior para a menor similaridade
+     */
+    public List<Long> buscarAproximado(String termo, int limite) {
+        return trigramas.buscar(termo, limite).stream()
+                .map(IndiceTrigramas.Resultado::produtoId)
+                .toList();
+    }
+
+    /**
+     * Retorna sugestões para os produtos encontrados por {@link #buscarAproximado(String, int)}.
+     */
+    public List<SugestaoProduto> sugerirAproximado(String termo, int limite) {
+        List<SugestaoProduto> sugestoes = new ArrayList<>();
+        for (Long produtoId : buscarAproximado(termo, limite)) {
+            Entrada entrada = entradas.get(produtoId);
+            if (entrada != null) {
+                sugestoes.add(entrada.sugestao());
+            }
+        }
+        return sugestoes;
+    }
+
+    /**
+     * Retorna o número de produtos indexados.
+     */
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    private List<Entrada> candidatos(Relevancia relevancia, String chave) {
+        return switch (relevancia) {
+            case CODIGO_EXATO -> entradasDoIntervalo(codigos, chave + SEPARADOR_ID);
+            case PREFIXO_CODIGO -> entradasDoIntervalo(codigos, chave);
+            case PREFIXO_NOME -> entradasDoIntervalo(nomes, chave);
+            case PALAVRA_NOME -> entradasDoIntervalo(palavras, chave);
+            case CONTEM_TEXTO -> entradas.values().stream()
+                    .filter(entrada -> entrada.texto().contains(chave))
+                    .toList();
+        };
+    }
+
+    private List<Entrada> entradasDoIntervalo(ConcurrentSkipListMap<String, SugestaoProduto> mapa, String prefixo) {
+        List<Entrada> encontradas = new ArrayList<>();
+        for (SugestaoProduto sugestao : mapa.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false).values()) {
+            Entrada entrada = entradas.get(sugestao.id());
+            if (entrada != null) {
+                encontradas.add(entrada);
+            }
+        }
+        return encontradas;
+    }
+
+    private static void coletar(ConcurrentSkipListMap<String, SugestaoProduto> mapa, String prefixo, int limite,
+            Map<Long, SugestaoProduto> encontrados) {
+        for (SugestaoProduto sugestao : mapa.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false).values()) {
+            encontrados.putIfAbsent(sugestao.id(), sugestao);
+            if (encontrados.size() >= limite) {
+                return;
+            }
+        }
+    }
+
+    void indexar(SugestaoProduto sugestao) {
+        indexar(sugestao, null);
+    }
+
+    /**
+     * Indexa o produto. Sem o texto de busca persistido (linhas ainda não migradas),
+     * a busca por conteúdo considera apenas o nome e o código.
+     */
+    synchronized void indexar(SugestaoProduto sugestao, @Nullable String textoBusca) {
+        remover(sugestao.id());
+
+        String nome = NormalizadorBusca.normalizar(sugestao.nome());
+        String codigo = NormalizadorBusca.normalizar(sugestao.codigo());
+        if (nome.isEmpty()) {
+            return;
+        }
+
+        List<String> chaves = new ArrayList<>();
+        String chaveNome = nome + SEPARADOR_ID + sugestao.id();
+        nomes.put(chaveNome, sugestao);
+        chaves.add(chaveNome);
+
+        List<String> tokens = NormalizadorBusca.tokens(nome);
+        for (int i = 1; i < tokens.size(); i++) {
+            String chavePalavra = String.join(" ", tokens.subList(i, tokens.size())) + SEPARADOR_ID + sugestao.id();
+            palavras.put(chavePalavra, sugestao);
+            chaves.add(chavePalavra);
+        }
+
+        if (!codigo.isEmpty()) {
+            String chaveCodigo = codigo + SEPARADOR_ID + sugestao.id();
+            codigos.put(chaveCodigo, sugestao);
+            chaves.add(chaveCodigo);
+        }
+
+        String texto = textoBusca != null && !textoBusca.isEmpty() ? textoBusca : nome + " " + codigo;
+        entradas.put(sugestao.id(), new Entrada(sugestao, nome, texto, chaves));
+        trigramas.indexar(sugestao.id(), nome);
+    }
+
+    synchronized void remover(Long produtoId) {
+        Entrada entrada = entradas.remove(produtoId);
+        trigramas.remover(produtoId);
+        if (entrada == null) {
+            return;
+        }
+        for (String chave : entrada.chaves()) {
+            nomes.remove(chave);
+            palavras.remove(chave);
+            codigos.remove(chave);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.leandrosnazareth.produto.service;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra os caches do {@link ProdutoCatalogoCache} em um {@link CacheManager}.
+ * <p>
+ * Os caches são usados diretamente pelo {@link ProdutoService}, não por
+ * {@code @Cacheable}; o {@code CacheManager} existe para que o Spring Boot publique as
+ * métricas {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} e
+ * {@code cache.size} de cada cache e liste os caches no endpoint {@code caches} do actuator.
+ * </p>
+ */
+@Configuration
+class ProdutoCacheConfig {
+
+    @Bean
+    CacheManager cacheManager(ProdutoCatalogoCache catalogoCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(catalogoCache.caches());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,188 @@
+package com.leandrosnazareth.produto.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.leandrosnazareth.produto.domain.Produto;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache do catálogo de produtos lido pelos caixas: produtos por ID e por código. As
+ * listas de categorias, marcas e fornecedores ficam no cache de consultas do Hibernate
+ * (veja {@code ProdutoRepository}).
+ * <p>
+ * Os caches usam Caffeine (política W-TinyLFU) limitados pelo tamanho estimado das
+ * entradas, não pela quantidade. Os produtos são guardados como cópias desanexadas e
+ * cada leitura recebe uma nova cópia, então quem altera o produto recebido não altera
+ * o cache.
+ * </p>
+ * <p>
+ * A invalidação é feita pelo {@link ProdutoService} em cada escrita, para o produto
+ * alterado, e repetida ao fim da transação: sem a segunda invalidação, uma leitura
+ * concorrente poderia guardar o valor anterior ao commit, ou um valor de uma
+ * transação desfeita. Como a leitura no banco e a gravação no cache não são atômicas,
+ * quem lê do banco informa a {@link #geracao()} anterior à leitura e a entrada é
+ * descartada se houve alguma invalidação nesse meio-tempo. A expiração após a escrita
+ * só cobre alterações feitas por fora do serviço (migrações, SQL manual).
+ * </p>
+ */
+@Component
+public class ProdutoCatalogoCache {
+
+    static final String CACHE_PRODUTOS = "produtos";
+    static final String CACHE_CODIGOS = "produtosPorCodigo";
+
+    // Limites em bytes estimados
+    private static final long PESO_MAXIMO_PRODUTOS = 8L * 1024 * 1024;
+    private static final long PESO_MAXIMO_CODIGOS = 1024L * 1024;
+
+    private static final Duration EXPIRACAO = Duration.ofMinutes(30);
+
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final Cache<Long, Produto> produtos = Caffeine.newBuilder()
+            .maximumWeight(PESO_MAXIMO_PRODUTOS)
+            .weigher((Long id, Produto produto) -> pesoEstimado(produto))
+            .expireAfterWrite(EXPIRACAO)
+            .recordStats()
+            .build();
+
+    /**
+     * Índice inverso de {@link #idsPorCodigo}, para invalidar pelo ID sem percorrer o cache.
+     * Segue as entradas do cache: o ouvinte de despejo remove o par despejado.
+     */
+    private final Map<Long, String> codigosPorId = new ConcurrentHashMap<>();
+
+    private final Cache<String, Long> idsPorCodigo = Caffeine.newBuilder()
+            .maximumWeight(PESO_MAXIMO_CODIGOS)
+            .weigher((String codigo, Long id) -> 48 + 2 * codigo.length())
+            .expireAfterWrite(EXPIRACAO)
+            .evictionListener((String codigo, Long id, RemovalCause causa) -> {
+                if (codigo != null && id != null) {
+                    codigosPorId.remove(id, codigo);
+                }
+            })
+            .recordStats()
+            .build();
+
+    /**
+     * Retorna uma cópia do produto em cache, ou {@code null} se não estiver em cache.
+     */
+    public @Nullable Produto produto(Long id) {
+        Produto produto = produtos.getIfPresent(id);
+        return produto != null ? produto.copiar() : null;
+    }
+
+    /**
+     * Retorna uma cópia do produto com o código, ou {@code null} se não estiver em cache.
+     */
+    public @Nullable Produto produtoPorCodigo(String codigo) {
+        Long id = idsPorCodigo.getIfPresent(codigo);
+        Produto produto = id != null ? produto(id) : null;
+        return produto != null && codigo.equals(produto.getCodigo()) ? produto : null;
+    }
+
+    /**
+     * Retorna o contador de invalidações, a ser lido antes de consultar o banco.
+     */
+    public long geracao() {
+        return geracao.get();
+    }
+
+    /**
+     * Guarda uma cópia do produto lido do banco.
+     *
+     * @param geracaoLida valor de {@link #geracao()} antes da consulta
+     */
+    public void guardar(Produto produto, long geracaoLida) {
+        Long id = produto.getId();
+        if (id == null) {
+            return;
+        }
+        produtos.put(id, produto.copiar());
+        idsPorCodigo.put(produto.getCodigo(), id);
+        String anterior = codigosPorId.put(id, produto.getCodigo());
+        if (anterior != null && !anterior.equals(produto.getCodigo())) {
+            idsPorCodigo.asMap().remove(anterior, id);
+        }
+        if (geracao.get() != geracaoLida) {
+            removerProduto(id);
+        }
+    }
+
+    /**
+     * Invalida o produto, agora e ao fim da transação corrente.
+     */
+    public void invalidar(Long produtoId) {
+        removerProduto(produtoId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removerProduto(produtoId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Esvazia todos os caches, para escritas em massa que não passam produto a produto.
+     */
+    public void invalidarTudo() {
+        geracao.incrementAndGet();
+        produtos.invalidateAll();
+        idsPorCodigo.invalidateAll();
+        codigosPorId.clear();
+    }
+
+    /**
+     * Caches no formato do Spring, para o {@code CacheManager} que publica as métricas
+     * e o endpoint {@code caches} do actuator.
+     */
+    List<org.springframework.cache.Cache> caches() {
+        return List.of(
+                new CaffeineCache(CACHE_PRODUTOS, cacheGenerico(produtos), false),
+                new CaffeineCache(CACHE_CODIGOS, cacheGenerico(idsPorCodigo), false));
+    }
+
+    private void removerProduto(Long produtoId) {
+        geracao.incrementAndGet();
+        produtos.invalidate(produtoId);
+        // O código pode ter mudado, então a entrada é achada pelo ID e não pelo código
+        String codigo = codigosPorId.remove(produtoId);
+        if (codigo != null) {
+            idsPorCodigo.asMap().remove(codigo, produtoId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> cacheGenerico(Cache<?, ?> cache) {
+        return (Cache<Object, Object>) cache;
+    }
+
+    /**
+     * Estimativa grosseira do tamanho do produto na heap: objeto, números e textos.
+     */
+    private static int pesoEstimado(Produto produto) {
+        int textos = Stream.of(produto.getCodigo(), produto.getNome(), produto.getDescricao(),
+                produto.getCategoria(), produto.getMarca(), produto.getFornecedor(), produto.getUnidade(),
+                produto.getObservacoes(), produto.getFotoHash(), produto.getFotoUrl(), produto.getNomeBusca(),
+                produto.getCodigoBusca(), produto.getTextoBusca())
+                .filter(Objects::nonNull)
+                .mapToInt(texto -> 48 + 2 * texto.length())
+                .sum();
+        return 400 + textos;
+    }
+}
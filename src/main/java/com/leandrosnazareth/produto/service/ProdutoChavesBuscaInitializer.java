@@ -0,0 +1,66 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Preenche as chaves de busca normalizadas dos produtos gravados antes de elas existirem.
+ * <p>
+ * Novos produtos e alterações já recebem as chaves no {@code @PrePersist}/{@code @PreUpdate}
+ * de {@link Produto}; este componente só trata as linhas antigas, uma única vez. Os
+ * produtos são lidos em lotes pelo ID, e o contexto de persistência é descarregado e
+ * limpo a cada lote, para que um catálogo grande não fique inteiro em memória.
+ * </p>
+ */
+@Component
+public class ProdutoChavesBuscaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoChavesBuscaInitializer.class);
+
+    // Deve acompanhar o findTop1000 do repositório
+    private static final int TAMANHO_LOTE = 1000;
+
+    private final ProdutoRepository produtoRepository;
+    private final EntityManager entityManager;
+
+    public ProdutoChavesBuscaInitializer(ProdutoRepository produtoRepository, EntityManager entityManager) {
+        this.produtoRepository = produtoRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1) // Depois dos dados iniciais e antes da carga dos índices em memória
+    @Transactional
+    public void preencherChavesBusca() {
+        long preenchidos = 0;
+        Long ultimoId = Long.MIN_VALUE;
+        List<Produto> pendentes;
+        do {
+            pendentes = produtoRepository.findTop1000ByNomeBuscaIsNullAndIdGreaterThanOrderById(ultimoId);
+            if (pendentes.isEmpty()) {
+                break;
+            }
+            pendentes.forEach(Produto::atualizarChavesBusca);
+            produtoRepository.saveAll(pendentes);
+            ultimoId = pendentes.get(pendentes.size() - 1).getId();
+            preenchidos += pendentes.size();
+            entityManager.flush();
+            entityManager.clear();
+        } while (pendentes.size() == TAMANHO_LOTE);
+
+        if (preenchidos > 0) {
+            logger.info("Chaves de busca normalizadas preenchidas para {} produtos", preenchidos);
+        }
+    }
+}
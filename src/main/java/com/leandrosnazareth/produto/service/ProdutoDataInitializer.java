@@ -3,7 +3,10 @@ package com.leandrosnazareth.produto.service;
 import com.leandrosnazareth.produto.domain.Produto;
 import com.leandrosnazareth.produto.domain.ProdutoRepository;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,6 +14,7 @@ import java.math.BigDecimal;
 import java.time.Clock;
 
 @Component
+@Profile("!gerador") // O perfil do gerador de dados sintéticos cria o próprio catálogo
 public class ProdutoDataInitializer {
 
     private final ProdutoRepository produtoRepository;
@@ -22,6 +26,7 @@ public class ProdutoDataInitializer {
     }
 
     @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Antes da carga dos índices em memória
     @Transactional
     public void inicializarDados() {
         // Só criar dados se não existirem produtos
@@ -123,7 +128,7 @@ public class ProdutoDataInitializer {
         
         // Definir foto se fornecida
         if (fotoUrl != null && !fotoUrl.isEmpty()) {
-            produto.setFoto(fotoUrl.getBytes());
+            produto.setFotoUrl(fotoUrl);
         }
         
         // Adicionar descrições
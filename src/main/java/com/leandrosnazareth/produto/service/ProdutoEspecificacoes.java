@@ -0,0 +1,60 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.NormalizadorBusca;
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converte um {@link FiltroProdutos} em uma única consulta.
+ * <p>
+ * Cada critério informado vira um predicado simples sobre uma coluna, combinados com
+ * {@code AND}, para que o banco escolha entre os índices compostos de {@link Produto}
+ * (categoria, marca ou fornecedor com ativo; estoque baixo com ativo; preço de venda).
+ * O termo é comparado com o texto de busca já normalizado.
+ * </p>
+ */
+final class ProdutoEspecificacoes {
+
+    private ProdutoEspecificacoes() {
+    }
+
+    static Specification<Produto> de(FiltroProdutos filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtro.termo() != null) {
+                String termo = NormalizadorBusca.normalizar(filtro.termo());
+                if (!termo.isEmpty()) {
+                    predicados.add(cb.like(root.get("textoBusca"), "%" + termo + "%"));
+                }
+            }
+            if (filtro.categoria() != null) {
+                predicados.add(cb.equal(root.get("categoria"), filtro.categoria()));
+            }
+            if (filtro.marca() != null) {
+                predicados.add(cb.equal(root.get("marca"), filtro.marca()));
+            }
+            if (filtro.fornecedor() != null) {
+                predicados.add(cb.equal(root.get("fornecedor"), filtro.fornecedor()));
+            }
+            if (filtro.precoMinimo() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("precoVenda"), filtro.precoMinimo()));
+            }
+            if (filtro.precoMaximo() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("precoVenda"), filtro.precoMaximo()));
+            }
+            if (filtro.estoque() == FiltroProdutos.SituacaoEstoque.BAIXO) {
+                predicados.add(cb.isTrue(root.get("estoqueBaixo")));
+            } else if (filtro.estoque() == FiltroProdutos.SituacaoEstoque.SEM_ESTOQUE) {
+                predicados.add(cb.equal(root.get("estoqueAtual"), 0));
+            }
+            if (filtro.ativo() != null) {
+                predicados.add(cb.equal(root.get("ativo"), filtro.ativo()));
+            }
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Resumo de um produto ativo com estoque igual ou abaixo do mínimo, mantido pelo
+ * {@link EstoqueBaixoMonitor}.
+ *
+ * @param produtoId ID do produto
+ * @param codigo código do produto
+ * @param nome nome do produto
+ * @param estoqueAtual estoque no momento da última alteração
+ * @param estoqueMinimo estoque mínimo cadastrado
+ */
+public record ProdutoEstoqueBaixo(Long produtoId, String codigo, String nome, int estoqueAtual,
+        int estoqueMinimo) {
+
+    public boolean isSemEstoque() {
+        return estoqueAtual <= 0;
+    }
+}
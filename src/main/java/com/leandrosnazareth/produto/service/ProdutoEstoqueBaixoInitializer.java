@@ -0,0 +1,50 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Preenche a coluna {@code estoque_baixo} dos produtos gravados antes de ela existir.
+ * <p>
+ * Novos produtos e alterações já recebem o valor no {@code @PrePersist}/{@code @PreUpdate}
+ * de {@link Produto}; este componente só trata as linhas antigas, com um único comando.
+ * </p>
+ */
+@Component
+public class ProdutoEstoqueBaixoInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoEstoqueBaixoInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProdutoCatalogoCache catalogoCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ProdutoEstoqueBaixoInitializer(JdbcTemplate jdbcTemplate, ProdutoCatalogoCache catalogoCache,
+            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogoCache = catalogoCache;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @Transactional
+    public void preencherEstoqueBaixo() {
+        int preenchidos = jdbcTemplate.update(
+                "UPDATE produto SET estoque_baixo = " + Produto.SQL_ESTOQUE_BAIXO + " WHERE estoque_baixo IS NULL");
+        if (preenchidos > 0) {
+            catalogoCache.invalidarTudo();
+            entityManagerFactory.getCache().evict(Produto.class);
+            logger.info("Indicador de estoque baixo preenchido para {} produtos", preenchidos);
+        }
+    }
+}
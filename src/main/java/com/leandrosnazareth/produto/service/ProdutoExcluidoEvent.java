@@ -0,0 +1,9 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Evento publicado pelo {@link ProdutoService} quando um produto é excluído fisicamente.
+ *
+ * @param produtoId ID do produto excluído
+ */
+public record ProdutoExcluidoEvent(Long produtoId) {
+}
@@ -0,0 +1,58 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.base.service.EscritorExportacao;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.produto.domain.ProdutoExportado;
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exporta o catálogo de produtos em CSV ou NDJSON.
+ * <p>
+ * Os produtos são lidos por cursor, sem passar pelo contexto de persistência, e cada
+ * linha é escrita no destino assim que lida, então a memória usada não depende do
+ * tamanho do catálogo. As colunas têm os mesmos nomes aceitos pela importação, então
+ * o CSV exportado pode ser importado de volta.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ProdutoExportacaoService {
+
+    static final List<String> COLUNAS = List.of("codigo", "nome", "descricao", "categoria", "marca",
+            "fornecedor", "unidade", "preco_compra", "preco_venda", "estoque_atual", "estoque_minimo",
+            "estoque_maximo", "peso", "ativo");
+
+    private final ProdutoRepository produtoRepository;
+
+    ProdutoExportacaoService(ProdutoRepository produtoRepository) {
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Escreve o catálogo inteiro no destino, que não é fechado.
+     */
+    @Transactional(readOnly = true)
+    public long exportarCatalogo(FormatoExportacao formato, Writer destino) throws IOException {
+        EscritorExportacao escritor = EscritorExportacao.abrir(formato, destino, COLUNAS);
+        long linhas = 0;
+        try (Stream<ProdutoExportado> produtos = produtoRepository.streamExportacao()) {
+            for (Iterator<ProdutoExportado> it = produtos.iterator(); it.hasNext(); linhas++) {
+                ProdutoExportado p = it.next();
+                escritor.escrever(p.codigo(), p.nome(), p.descricao(), p.categoria(), p.marca(), p.fornecedor(),
+                        p.unidade(), p.precoCompra(), p.precoVenda(), p.estoqueAtual(), p.estoqueMinimo(),
+                        p.estoqueMaximo(), p.peso(), p.ativo());
+            }
+        }
+        escritor.concluir();
+        return linhas;
+    }
+}
@@ -0,0 +1,212 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Tira do banco os bytes das fotos dos produtos e os grava no {@link ArmazenamentoImagensDisco}.
+ * <p>
+ * Há duas origens: a antiga coluna {@code produto.foto}, com uma cópia da imagem por
+ * produto, e a coluna {@code dados} das tabelas {@code produto_imagem} e
+ * {@code produto_imagem_variante}, usada antes de as imagens irem para o disco. Nenhuma
+ * delas é mais mapeada pelas entidades, por isso a migração usa SQL e remove cada
+ * coluna ao terminar.
+ * </p>
+ * <p>
+ * Gravar um arquivo endereçado pelo hash é idempotente e as linhas só são alteradas
+ * depois que o arquivo existe, então a migração pode ser interrompida e retomada na
+ * próxima inicialização sem perder nem duplicar imagens. As fotos que na verdade
+ * eram URLs gravadas como bytes vão para {@code foto_url}.
+ * </p>
+ * <p>
+ * Como o SQL passa por fora do Hibernate, os produtos alterados são descartados do
+ * cache de segundo nível e do cache do catálogo.
+ * </p>
+ */
+@Component
+public class ProdutoFotoMigracao {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoFotoMigracao.class);
+
+    private static final int TAMANHO_LOTE = 50;
+
+    private record FotoLegada(long produtoId, byte[] dados) {
+    }
+
+    private record ImagemLegada(String hash, byte[] dados) {
+    }
+
+    private record VarianteLegada(long id, String hash, String tamanho, byte[] dados) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArmazenamentoImagensDisco disco;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProdutoCatalogoCache catalogoCache;
+    private final Clock clock;
+
+    public ProdutoFotoMigracao(JdbcTemplate jdbcTemplate, ArmazenamentoImagensDisco disco,
+            EntityManagerFactory entityManagerFactory, ProdutoCatalogoCache catalogoCache, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.disco = disco;
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogoCache = catalogoCache;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1) // Antes do reprocessamento das imagens sem variantes
+    public void migrar() {
+        // A tabela de imagens precisa perder a coluna dados antes de receber as fotos legadas
+        if (colunaExiste("PRODUTO_IMAGEM", "DADOS")) {
+            migrarImagens();
+        }
+        if (colunaExiste("PRODUTO_IMAGEM_VARIANTE", "DADOS")) {
+            migrarVariantes();
+        }
+        if (colunaExiste("PRODUTO", "FOTO")) {
+            migrarFotosLegadas();
+        }
+
+        int recontadas = jdbcTemplate.update("UPDATE produto_imagem i SET referencias = "
+                + "(SELECT COUNT(*) FROM produto p WHERE p.foto_hash = i.hash) WHERE referencias IS NULL");
+        if (recontadas > 0) {
+            logger.info("Referências recontadas para {} imagens", recontadas);
+        }
+    }
+
+    private void migrarImagens() {
+        int imagens = 0;
+        String ultimoHash = "";
+        List<ImagemLegada> lote;
+        do {
+            // Lotes pequenos por chave, para não trazer todas as imagens para a memória
+            lote = jdbcTemplate.query(
+                    "SELECT hash, dados FROM produto_imagem WHERE hash > ? ORDER BY hash LIMIT " + TAMANHO_LOTE,
+                    (rs, linha) -> new ImagemLegada(rs.getString(1), rs.getBytes(2)), ultimoHash);
+
+            for (ImagemLegada imagem : lote) {
+                if (imagem.dados() != null) {
+                    disco.gravar(imagem.hash(), null, imagem.dados());
+                    imagens++;
+                }
+                ultimoHash = imagem.hash();
+            }
+        } while (lote.size() == TAMANHO_LOTE);
+
+        jdbcTemplate.execute("ALTER TABLE produto_imagem DROP COLUMN dados");
+        logger.info("Imagens movidas para o disco: {}; coluna produto_imagem.dados removida", imagens);
+    }
+
+    private void migrarVariantes() {
+        int variantes = 0;
+        long ultimoId = 0;
+        List<VarianteLegada> lote;
+        do {
+            lote = jdbcTemplate.query(
+                    "SELECT produto_imagem_variante_id, imagem_hash, tamanho, dados FROM produto_imagem_variante "
+                            + "WHERE produto_imagem_variante_id > ? ORDER BY produto_imagem_variante_id LIMIT "
+                            + TAMANHO_LOTE,
+                    (rs, linha) -> new VarianteLegada(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getBytes(4)),
+                    ultimoId);
+
+            for (VarianteLegada variante : lote) {
+                if (variante.dados() != null) {
+                    disco.gravar(variante.hash(), ProdutoImagemVariante.Tamanho.valueOf(variante.tamanho()),
+                            variante.dados());
+                    variantes++;
+                }
+                ultimoId = variante.id();
+            }
+        } while (lote.size() == TAMANHO_LOTE);
+
+        jdbcTemplate.execute("ALTER TABLE produto_imagem_variante DROP COLUMN dados");
+        logger.info("Variantes movidas para o disco: {}; coluna produto_imagem_variante.dados removida", variantes);
+    }
+
+    private void migrarFotosLegadas() {
+        int imagens = 0;
+        int urls = 0;
+        long ultimoId = 0;
+        List<FotoLegada> lote;
+        do {
+            lote = jdbcTemplate.query(
+                    "SELECT produto_id, foto FROM produto WHERE foto IS NOT NULL AND produto_id > ? "
+                            + "ORDER BY produto_id LIMIT " + TAMANHO_LOTE,
+                    (rs, linha) -> new FotoLegada(rs.getLong(1), rs.getBytes(2)), ultimoId);
+
+            for (FotoLegada foto : lote) {
+                if (isUrl(foto.dados())) {
+                    jdbcTemplate.update("UPDATE produto SET foto_url = ?, foto = NULL WHERE produto_id = ?",
+                            new String(foto.dados(), StandardCharsets.UTF_8), foto.produtoId());
+                    urls++;
+                } else if (foto.dados().length > 0) {
+                    String hash = ProdutoImagemService.calcularHash(foto.dados());
+                    disco.gravar(hash, null, foto.dados());
+                    registrarImagemSeAusente(hash, foto.dados());
+                    jdbcTemplate.update("UPDATE produto SET foto_hash = ?, foto = NULL WHERE produto_id = ?",
+                            hash, foto.produtoId());
+                    imagens++;
+                } else {
+                    jdbcTemplate.update("UPDATE produto SET foto = NULL WHERE produto_id = ?", foto.produtoId());
+                }
+                ultimoId = foto.produtoId();
+            }
+        } while (lote.size() == TAMANHO_LOTE);
+
+        jdbcTemplate.execute("ALTER TABLE produto DROP COLUMN foto");
+        entityManagerFactory.getCache().evict(Produto.class);
+        catalogoCache.invalidarTudo();
+        logger.info("Fotos migradas para o disco: {} imagens e {} URLs; coluna produto.foto removida",
+                imagens, urls);
+    }
+
+    private boolean colunaExiste(String tabela, String coluna) {
+        Integer colunas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                        + "WHERE UPPER(TABLE_NAME) = ? AND UPPER(COLUMN_NAME) = ?",
+                Integer.class, tabela, coluna);
+        return colunas != null && colunas > 0;
+    }
+
+    /**
+     * Registra a imagem sem contar referências; a contagem é feita ao fim da migração.
+     */
+    private void registrarImagemSeAusente(String hash, byte[] dados) {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM produto_imagem WHERE hash = ?", Integer.class, hash);
+        if (existentes != null && existentes > 0) {
+            return;
+        }
+        Timestamp agora = Timestamp.from(clock.instant());
+        jdbcTemplate.update(
+                "INSERT INTO produto_imagem (hash, tipo, tamanho, data_criacao, data_ultimo_uso) VALUES (?, ?, ?, ?, ?)",
+                hash, ProdutoImagemService.detectarTipo(dados), dados.length, agora, agora);
+    }
+
+    /**
+     * Versões anteriores gravavam a URL informada no formulário como bytes na coluna da foto.
+     */
+    private static boolean isUrl(byte[] dados) {
+        if (dados.length == 0 || dados.length >= Produto.FOTO_URL_MAX_LENGTH) {
+            return false;
+        }
+        String texto = new String(dados, StandardCharsets.UTF_8);
+        return texto.startsWith("http") && !texto.contains("\0");
+    }
+}
@@ -0,0 +1,9 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Evento publicado pelo {@link ProdutoImagemService} quando uma nova imagem é gravada.
+ *
+ * @param hash hash SHA-256 da imagem
+ */
+public record ProdutoImagemArmazenadaEvent(String hash) {
+}
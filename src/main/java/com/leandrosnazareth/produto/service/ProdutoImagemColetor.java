@@ -0,0 +1,100 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Remove as imagens de produto que nenhum produto usa mais.
+ * <p>
+ * Uma imagem é candidata quando o seu contador de referências chegou a zero e ela não
+ * foi enviada de novo durante a {@link #CARENCIA}, que cobre o intervalo entre o envio
+ * da foto e a gravação do produto. Antes de remover, as referências são recontadas na
+ * tabela de produtos; se o contador estava errado, ele é corrigido e a imagem fica.
+ * A remoção em si fica na {@link ProdutoImagemRemocao}, que reconfere as condições com a
+ * linha travada, para não apagar uma imagem enviada de novo enquanto a coleta roda.
+ * Os arquivos que ficaram no disco sem linha correspondente (envios cuja transação foi
+ * desfeita) são apagados depois do commit.
+ * </p>
+ * <p>
+ * Roda em segundo plano, sem usuário autenticado, então acessa os repositórios diretamente.
+ * </p>
+ */
+@Component
+public class ProdutoImagemColetor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoImagemColetor.class);
+
+    static final Duration CARENCIA = Duration.ofHours(1);
+
+    private final ProdutoImagemRepository imagemRepository;
+    private final ProdutoRepository produtoRepository;
+    private final ProdutoImagemRemocao remocao;
+    private final ArmazenamentoImagensDisco disco;
+    private final Clock clock;
+
+    ProdutoImagemColetor(ProdutoImagemRepository imagemRepository, ProdutoRepository produtoRepository,
+            ProdutoImagemRemocao remocao, ArmazenamentoImagensDisco disco, Clock clock) {
+        this.imagemRepository = imagemRepository;
+        this.produtoRepository = produtoRepository;
+        this.remocao = remocao;
+        this.disco = disco;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "PT6H")
+    @Transactional
+    public void coletar() {
+        Instant limite = clock.instant().minus(CARENCIA);
+
+        int removidas = 0;
+        int corrigidas = 0;
+        for (String hash : imagemRepository.findHashesSemReferencias(limite)) {
+            long referencias = produtoRepository.countByFotoHash(hash);
+            if (referencias > 0) {
+                imagemRepository.definirReferencias(hash, (int) referencias);
+                corrigidas++;
+            } else if (remocao.removerSemUso(hash, limite)) {
+                removidas++;
+            }
+        }
+
+        Set<String> registradas = new HashSet<>(imagemRepository.findAllHashes());
+        Set<String> orfas = new LinkedHashSet<>();
+        for (String hash : disco.listarHashes(limite)) {
+            if (!registradas.contains(hash)) {
+                orfas.add(hash);
+            }
+        }
+
+        if (removidas + orfas.size() + corrigidas == 0) {
+            return;
+        }
+        int removidasNoCommit = removidas;
+        int corrigidasNoCommit = corrigidas;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (String hash : orfas) {
+                    disco.remover(hash);
+                }
+                logger.info("Imagens sem uso removidas: {}; arquivos sem registro: {}; "
+                        + "contador de referências corrigido em {} imagens",
+                        removidasNoCommit, orfas.size(), corrigidasNoCommit);
+            }
+        });
+    }
+}
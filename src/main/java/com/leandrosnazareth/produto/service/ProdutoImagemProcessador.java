@@ -0,0 +1,102 @@
+package com.leandrosnazareth.produto.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera as variantes (miniatura, cartão e completa) das imagens de produto fora da thread da UI.
+ * <p>
+ * Cada imagem nova é enfileirada depois do commit do seu envio. O trabalho é feito por
+ * um pool com número fixo de threads e fila limitada: o redimensionamento usa bastante
+ * CPU e memória, e não pode competir sem limite com o atendimento no PDV. Se a fila
+ * estiver cheia, a imagem é descartada da fila e será processada na próxima
+ * inicialização, quando as imagens sem variantes são reprocessadas. Enquanto a
+ * variante não existe, as telas exibem a imagem original.
+ * </p>
+ */
+@Component
+public class ProdutoImagemProcessador {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoImagemProcessador.class);
+
+    private static final int THREADS = 2;
+    private static final int CAPACIDADE_FILA = 100;
+
+    private final ProdutoImagemVarianteArmazenamento armazenamento;
+    private final ThreadPoolExecutor executor;
+
+    ProdutoImagemProcessador(ProdutoImagemVarianteArmazenamento armazenamento) {
+        this.armazenamento = armazenamento;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CAPACIDADE_FILA),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "imagem-variantes-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (tarefa, pool) -> logger.warn("Fila de geração de variantes cheia; imagem fica para a próxima inicialização"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagemArmazenada(ProdutoImagemArmazenadaEvent event) {
+        executor.execute(() -> gerarVariantes(event.hash()));
+    }
+
+    /**
+     * Reprocessa as imagens gravadas antes das variantes existirem, ou que ficaram
+     * sem variantes por falha ou fila cheia.
+     * <p>
+     * As imagens pendentes são processadas em sequência por uma única tarefa, deixando
+     * as demais threads livres para as imagens enviadas enquanto isso.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void processarPendentes() {
+        List<String> pendentes = armazenamento.listarHashesPendentes();
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        logger.info("Gerando variantes de {} imagens de produto em segundo plano", pendentes.size());
+        executor.execute(() -> {
+            pendentes.forEach(this::gerarVariantes);
+            logger.info("Variantes das imagens pendentes geradas");
+        });
+    }
+
+    /**
+     * Gera as variantes que faltam para a imagem. Falhas são registradas e não
+     * interrompem o processamento das demais imagens.
+     */
+    void gerarVariantes(String hash) {
+        try {
+            armazenamento.lerOriginalSePendente(hash).ifPresent(original -> {
+                var variantes = RedimensionadorImagem.gerarVariantes(original);
+                if (variantes.isPresent()) {
+                    armazenamento.salvar(hash, variantes.get());
+                } else {
+                    logger.debug("Imagem {} em formato não suportado ou grande demais; as telas usarão a original", hash);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Erro ao gerar variantes da imagem {}", hash, e);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Insere a linha de uma imagem nova, usada pelo {@link ProdutoImagemService}.
+ * <p>
+ * Fica separado do serviço para que a inserção tenha sua própria transação: quando a
+ * mesma imagem é enviada ao mesmo tempo por duas sessões, a segunda recebe a violação
+ * da chave primária sem comprometer a transação de quem chamou, que só registra o uso
+ * da linha gravada pela primeira.
+ * </p>
+ */
+@Component
+class ProdutoImagemRegistro {
+
+    private final ProdutoImagemRepository imagemRepository;
+
+    ProdutoImagemRegistro(ProdutoImagemRepository imagemRepository) {
+        this.imagemRepository = imagemRepository;
+    }
+
+    /**
+     * Insere a imagem, sem referências e com o envio registrado em {@code instante}.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException se o hash já está gravado
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void inserir(String hash, String tipo, int tamanho, Instant instante) {
+        imagemRepository.inserir(hash, tipo, tamanho, instante);
+    }
+}
@@ -0,0 +1,49 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVarianteRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Remove uma imagem sem uso, usada pelo {@link ProdutoImagemColetor}.
+ * <p>
+ * Cada imagem é removida na sua própria transação. A linha é apagada com as condições
+ * reavaliadas sob a trava, e os arquivos são apagados antes do commit, ainda com a linha
+ * travada: um envio da mesma imagem espera a remoção terminar, encontra a linha já
+ * removida e grava o arquivo de novo, sem que a remoção possa apagá-lo depois.
+ * </p>
+ */
+@Component
+class ProdutoImagemRemocao {
+
+    private final ProdutoImagemRepository imagemRepository;
+    private final ProdutoImagemVarianteRepository varianteRepository;
+    private final ArmazenamentoImagensDisco disco;
+
+    ProdutoImagemRemocao(ProdutoImagemRepository imagemRepository,
+            ProdutoImagemVarianteRepository varianteRepository, ArmazenamentoImagensDisco disco) {
+        this.imagemRepository = imagemRepository;
+        this.varianteRepository = varianteRepository;
+        this.disco = disco;
+    }
+
+    /**
+     * Remove a imagem, as variantes e os arquivos, se ela continua sem referências e sem
+     * envio desde {@code limite}.
+     *
+     * @return se a imagem foi removida
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean removerSemUso(String hash, Instant limite) {
+        if (imagemRepository.deleteSemReferencias(hash, limite) == 0) {
+            return false;
+        }
+        varianteRepository.deleteByImagemHash(hash);
+        disco.remover(hash);
+        return true;
+    }
+}
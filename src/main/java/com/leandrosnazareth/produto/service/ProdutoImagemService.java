@@ -0,0 +1,300 @@
+package com.leandrosnazareth.produto.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVarianteRepository;
+
+/**
+ * Armazena e lê as imagens dos produtos, endereçadas pelo hash SHA-256 do conteúdo.
+ * <p>
+ * Os bytes ficam no {@link ArmazenamentoImagensDisco} e os metadados na tabela
+ * {@code produto_imagem}, que também conta quantos produtos usam cada imagem. O
+ * contador é mantido pelo {@link ProdutoService} e usado pelo
+ * {@link ProdutoImagemColetor} para remover as imagens sem uso.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ProdutoImagemService {
+
+    static final String TIPO_DESCONHECIDO = "application/octet-stream";
+
+    /**
+     * Maior foto aceita no envio.
+     */
+    public static final int TAMANHO_MAXIMO = 5 * 1024 * 1024;
+
+    /**
+     * Tipos aceitos no envio, conferidos pelos primeiros bytes do conteúdo.
+     */
+    public static final Set<String> TIPOS_ACEITOS = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
+    // Bytes lidos para identificar o tipo; o WEBP é o que precisa de mais
+    private static final int TAMANHO_ASSINATURA = 12;
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private final ProdutoImagemRepository imagemRepository;
+    private final ProdutoImagemVarianteRepository varianteRepository;
+    private final ProdutoImagemRegistro registro;
+    private final ArmazenamentoImagensDisco disco;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    public ProdutoImagemService(ProdutoImagemRepository imagemRepository,
+            ProdutoImagemVarianteRepository varianteRepository, ProdutoImagemRegistro registro,
+            ArmazenamentoImagensDisco disco, ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.imagemRepository = imagemRepository;
+        this.varianteRepository = varianteRepository;
+        this.registro = registro;
+        this.disco = disco;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    /**
+     * Grava a imagem, se ainda não existir uma igual, e retorna o seu hash.
+     * <p>
+     * As variantes redimensionadas são geradas depois do commit, em segundo plano,
+     * pelo {@link ProdutoImagemProcessador}. A imagem começa sem referências; ela
+     * passa a contar como usada quando o produto com este hash é salvo.
+     * </p>
+     *
+     * @param dados bytes da imagem
+     * @return hash a ser guardado em {@code Produto.fotoHash}
+     */
+    @Transactional
+    public String armazenar(byte[] dados) {
+        if (dados == null || dados.length == 0) {
+            throw new IllegalArgumentException("Imagem não pode ser vazia");
+        }
+
+        String hash = calcularHash(dados);
+        Instant agora = clock.instant();
+        if (imagemRepository.registrarUso(hash, agora) == 0
+                && !inserir(hash, detectarTipo(dados), dados.length, agora)) {
+            imagemRepository.registrarUso(hash, agora);
+        }
+        // O arquivo é gravado mesmo quando a linha existe, para recompor um arquivo perdido
+        disco.gravar(hash, null, dados);
+        return hash;
+    }
+
+    /**
+     * Grava o conteúdo enviado em um arquivo temporário, validando-o durante a leitura.
+     * <p>
+     * O tipo é conferido pelos primeiros bytes, antes de gravar o restante, e o envio é
+     * interrompido assim que passa de {@link #TAMANHO_MAXIMO}; em nenhum momento o
+     * conteúdo inteiro fica na memória. Ao final, as dimensões declaradas no cabeçalho
+     * são conferidas, sem decodificar a imagem. Se o envio for rejeitado, o temporário é apagado.
+     * </p>
+     *
+     * @param entrada conteúdo enviado; é fechado ao final, mesmo se rejeitado
+     * @param tamanhoInformado tamanho declarado pelo navegador, ou {@code -1} se desconhecido
+     * @return a foto recebida, a ser gravada com {@link #armazenar(FotoRecebida)}
+     * @throws IllegalArgumentException se o conteúdo não é uma imagem aceita ou é grande demais,
+     *         em bytes ou em pixels
+     */
+    public FotoRecebida receber(InputStream entrada, long tamanhoInformado) throws IOException {
+        if (tamanhoInformado > TAMANHO_MAXIMO) {
+            entrada.close();
+            throw new IllegalArgumentException("Arquivo muito grande. Máximo: 5MB");
+        }
+
+        Path arquivo = disco.criarTemporario();
+        try (InputStream origem = entrada; OutputStream destino = Files.newOutputStream(arquivo)) {
+            byte[] assinatura = origem.readNBytes(TAMANHO_ASSINATURA);
+            String tipo = detectarTipo(assinatura);
+            if (!TIPOS_ACEITOS.contains(tipo)) {
+                throw new IllegalArgumentException("Tipo de arquivo não permitido. Use: JPEG, PNG, GIF ou WEBP");
+            }
+            destino.write(assinatura);
+
+            long tamanho = assinatura.length;
+            byte[] buffer = new byte[TAMANHO_BUFFER];
+            int lidos;
+            while ((lidos = origem.read(buffer)) != -1) {
+                tamanho += lidos;
+                if (tamanho > TAMANHO_MAXIMO) {
+                    throw new IllegalArgumentException("Arquivo muito grande. Máximo: 5MB");
+                }
+                destino.write(buffer, 0, lidos);
+            }
+            destino.close();
+            if (RedimensionadorImagem.excedeDimensoes(arquivo)) {
+                throw new IllegalArgumentException("Imagem muito grande. Máximo: %d megapixels"
+                        .formatted(RedimensionadorImagem.MAXIMO_PIXELS / 1_000_000));
+            }
+            return new FotoRecebida(arquivo, tipo, tamanho);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(arquivo);
+            throw e;
+        }
+    }
+
+    /**
+     * Armazena uma foto recebida por {@link #receber(InputStream, long)} e retorna o seu hash.
+     * <p>
+     * O hash é calculado lendo o arquivo em blocos, e o temporário é movido para o
+     * armazenamento (ou apagado, se a imagem já existe), sem copiar o conteúdo para a memória.
+     * </p>
+     */
+    @Transactional
+    public String armazenar(FotoRecebida foto) {
+        String hash = calcularHash(foto.arquivo());
+        Instant agora = clock.instant();
+        if (imagemRepository.registrarUso(hash, agora) == 0
+                && !inserir(hash, foto.tipo(), (int) foto.tamanho(), agora)) {
+            imagemRepository.registrarUso(hash, agora);
+        }
+        disco.importar(hash, foto.arquivo());
+        return hash;
+    }
+
+    /**
+     * Insere a linha de uma imagem nova e avisa o {@link ProdutoImagemProcessador}.
+     * <p>
+     * A linha vem antes do arquivo: se o {@link ProdutoImagemColetor} estiver removendo
+     * esta mesma imagem, o registro do envio espera a remoção terminar e o arquivo é
+     * gravado de novo depois dela. A inserção roda na sua própria transação, então, se
+     * outra sessão inserir a mesma imagem ao mesmo tempo, ela falha sem comprometer a
+     * transação de quem chamou, que registra o envio na linha gravada pela outra.
+     * </p>
+     *
+     * @return {@code false} se a imagem foi inserida por outra sessão
+     */
+    private boolean inserir(String hash, String tipo, int tamanho, Instant agora) {
+        try {
+            registro.inserir(hash, tipo, tamanho, agora);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ProdutoImagemArmazenadaEvent(hash));
+        return true;
+    }
+
+    /**
+     * Lê os bytes da imagem original.
+     */
+    @Transactional(readOnly = true)
+    public Optional<byte[]> lerDados(String hash) {
+        if (!imagemRepository.existsById(hash)) {
+            return Optional.empty();
+        }
+        return disco.ler(hash, null);
+    }
+
+    /**
+     * Transfere uma referência de uma imagem para outra, quando a foto de um produto
+     * é criada, trocada ou removida. Deve ser chamado na mesma transação que grava o produto.
+     *
+     * @param anterior hash usado pelo produto antes da alteração, ou nulo
+     * @param atual hash usado pelo produto depois da alteração, ou nulo
+     */
+    @Transactional
+    public void atualizarReferencias(@Nullable String anterior, @Nullable String atual) {
+        if (Objects.equals(anterior, atual)) {
+            return;
+        }
+        if (anterior != null) {
+            imagemRepository.alterarReferencias(anterior, -1);
+        }
+        if (atual != null) {
+            imagemRepository.alterarReferencias(atual, 1);
+        }
+    }
+
+    /**
+     * Retorna a imagem no tamanho pedido, ou a original enquanto a variante não foi gerada
+     * (ou se o formato da original não permite gerá-la).
+     */
+    @Transactional(readOnly = true)
+    public Optional<ConteudoImagem> buscarConteudo(String hash, ProdutoImagemVariante.Tamanho tamanho) {
+        Optional<ProdutoImagemVariante> variante = varianteRepository.findByImagemHashAndTamanho(hash, tamanho);
+        if (variante.isPresent() && disco.existe(hash, tamanho)) {
+            return Optional.of(new ConteudoImagem(variante.get().getTipo(), disco.caminho(hash, tamanho), false));
+        }
+        return imagemRepository.findById(hash)
+                .filter(imagem -> disco.existe(hash, null))
+                .map(imagem -> new ConteudoImagem(imagem.getTipo(), disco.caminho(hash, null), true));
+    }
+
+    static String calcularHash(byte[] dados) {
+        return HexFormat.of().formatHex(sha256().digest(dados));
+    }
+
+    static String calcularHash(Path arquivo) {
+        MessageDigest digest = sha256();
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            byte[] buffer = new byte[TAMANHO_BUFFER];
+            int lidos;
+            while ((lidos = entrada.read(buffer)) != -1) {
+                digest.update(buffer, 0, lidos);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler a imagem " + arquivo, e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+
+    /**
+     * Identifica o tipo da imagem pelos primeiros bytes do conteúdo.
+     */
+    static String detectarTipo(byte[] dados) {
+        if (comecaCom(dados, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (comecaCom(dados, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (comecaCom(dados, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (comecaCom(dados, 'R', 'I', 'F', 'F') && dados.length >= 12
+                && dados[8] == 'W' && dados[9] == 'E' && dados[10] == 'B' && dados[11] == 'P') {
+            return "image/webp";
+        }
+        return TIPO_DESCONHECIDO;
+    }
+
+    private static boolean comecaCom(byte[] dados, int... assinatura) {
+        if (dados.length < assinatura.length) {
+            return false;
+        }
+        for (int i = 0; i < assinatura.length; i++) {
+            if ((dados[i] & 0xFF) != assinatura[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
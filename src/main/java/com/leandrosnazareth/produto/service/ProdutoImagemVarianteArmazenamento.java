@@ -0,0 +1,79 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVarianteRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Leitura e gravação usadas pelo {@link ProdutoImagemProcessador}.
+ * <p>
+ * Fica separado do processador para que cada operação tenha sua própria transação
+ * curta: a imagem é lida, a conexão é devolvida durante o redimensionamento e só
+ * então as variantes são gravadas. O arquivo de cada variante é gravado antes da
+ * linha, então uma variante registrada sempre tem arquivo. Como roda nas threads do
+ * processador, sem usuário autenticado, acessa os repositórios diretamente.
+ * </p>
+ */
+@Component
+class ProdutoImagemVarianteArmazenamento {
+
+    private final ProdutoImagemRepository imagemRepository;
+    private final ProdutoImagemVarianteRepository varianteRepository;
+    private final ArmazenamentoImagensDisco disco;
+    private final Clock clock;
+
+    ProdutoImagemVarianteArmazenamento(ProdutoImagemRepository imagemRepository,
+            ProdutoImagemVarianteRepository varianteRepository, ArmazenamentoImagensDisco disco, Clock clock) {
+        this.imagemRepository = imagemRepository;
+        this.varianteRepository = varianteRepository;
+        this.disco = disco;
+        this.clock = clock;
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> listarHashesPendentes() {
+        return imagemRepository.findHashesComVariantesPendentes(ProdutoImagemVariante.Tamanho.values().length);
+    }
+
+    /**
+     * Retorna os bytes da imagem original, se ainda faltar alguma variante.
+     */
+    @Transactional(readOnly = true)
+    public Optional<byte[]> lerOriginalSePendente(String hash) {
+        if (tamanhos(varianteRepository.findByImagemHash(hash)).size() == ProdutoImagemVariante.Tamanho.values().length) {
+            return Optional.empty();
+        }
+        if (!imagemRepository.existsById(hash)) {
+            return Optional.empty();
+        }
+        return disco.ler(hash, null);
+    }
+
+    @Transactional
+    public void salvar(String hash, Map<ProdutoImagemVariante.Tamanho, RedimensionadorImagem.Variante> variantes) {
+        Set<ProdutoImagemVariante.Tamanho> existentes = tamanhos(varianteRepository.findByImagemHash(hash));
+        for (Map.Entry<ProdutoImagemVariante.Tamanho, RedimensionadorImagem.Variante> entrada : variantes.entrySet()) {
+            if (!existentes.contains(entrada.getKey())) {
+                RedimensionadorImagem.Variante variante = entrada.getValue();
+                disco.gravar(hash, entrada.getKey(), variante.dados());
+                varianteRepository.save(new ProdutoImagemVariante(hash, entrada.getKey(),
+                        RedimensionadorImagem.TIPO_JPEG, variante.largura(), variante.altura(), clock.instant()));
+            }
+        }
+    }
+
+    private static Set<ProdutoImagemVariante.Tamanho> tamanhos(List<ProdutoImagemVariante> variantes) {
+        Set<ProdutoImagemVariante.Tamanho> tamanhos = EnumSet.noneOf(ProdutoImagemVariante.Tamanho.class);
+        variantes.forEach(variante -> tamanhos.add(variante.getTamanho()));
+        return tamanhos;
+    }
+}
@@ -0,0 +1,190 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Grava um lote da importação de produtos em uma transação, com comandos JDBC em lote.
+ * <p>
+ * Os códigos do lote são procurados no banco com uma única consulta; os que já existem
+ * são atualizados e os demais inseridos, cada grupo com um {@code batchUpdate}. O ID
+ * dos novos produtos vem da sequência dentro do próprio {@code INSERT}, sem uma ida
+ * ao banco por produto. Produtos novos e preços alterados entram no histórico de preços.
+ * Como passa por fora do Hibernate, quem chama é responsável por descartar os caches de
+ * produto depois do commit.
+ * </p>
+ * <p>
+ * Na atualização, só as colunas presentes no arquivo são alteradas, e o estoque atual
+ * em branco mantém o estoque gravado em vez de zerá-lo. As chaves de busca são
+ * recalculadas com a descrição, a categoria e a marca já gravadas quando o arquivo
+ * não as traz.
+ * </p>
+ */
+@Component
+class ProdutoImportacaoGravador {
+
+    /**
+     * Quantidade de produtos gravados em um lote.
+     */
+    record Lote(int inseridos, int atualizados) {
+    }
+
+    private record Existente(@Nullable String descricao, @Nullable String categoria, @Nullable String marca) {
+    }
+
+    private static final List<ColunaImportacao> TODAS = List.of(ColunaImportacao.values());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProdutoPrecoHistoricoGravador precoHistorico;
+    private final String insert;
+
+    ProdutoImportacaoGravador(NamedParameterJdbcTemplate jdbcTemplate, ProdutoPrecoHistoricoGravador precoHistorico,
+            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.precoHistorico = precoHistorico;
+        // nextval('produto_seq') no PostgreSQL, next value for produto_seq no H2
+        String proximoId = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSelectSequenceNextValString("produto_seq");
+        this.insert = "INSERT INTO produto (produto_id, "
+                + TODAS.stream().map(ColunaImportacao::coluna).collect(Collectors.joining(", "))
+                + ", ativo, data_criacao, data_atualizacao, nome_busca, codigo_busca, texto_busca, estoque_baixo) "
+                + "VALUES (" + proximoId + ", " + String.join(", ", Collections.nCopies(TODAS.size() + 7, "?")) + ")";
+    }
+
+    /**
+     * Insere ou atualiza os produtos pelo código.
+     *
+     * @param produtos produtos validados, sem códigos repetidos
+     * @param colunas colunas presentes no arquivo
+     * @param semEstoque códigos cuja coluna de estoque atual veio em branco
+     */
+    @Transactional
+    public Lote gravar(List<Produto> produtos, Set<ColunaImportacao> colunas, Set<String> semEstoque,
+            Timestamp agora) {
+        Map<String, Existente> existentes = buscarExistentes(produtos);
+
+        List<ColunaImportacao> alteradas = colunas.stream()
+                .filter(coluna -> coluna != ColunaImportacao.CODIGO)
+                .sorted()
+                .toList();
+        boolean precosAlterados = colunas.contains(ColunaImportacao.PRECO_VENDA)
+                || colunas.contains(ColunaImportacao.PRECO_COMPRA);
+        List<Object[]> insercoes = new ArrayList<>();
+        List<Object[]> atualizacoes = new ArrayList<>();
+        List<String> comPrecoNovo = new ArrayList<>();
+        for (Produto produto : produtos) {
+            Existente existente = existentes.get(produto.getCodigo());
+            if (existente == null) {
+                produto.atualizarChavesBusca();
+                insercoes.add(parametrosInsercao(produto, agora));
+                comPrecoNovo.add(produto.getCodigo());
+            } else {
+                if (precosAlterados) {
+                    comPrecoNovo.add(produto.getCodigo());
+                }
+                completar(produto, existente, colunas);
+                produto.atualizarChavesBusca();
+                atualizacoes.add(parametrosAtualizacao(produto, alteradas, semEstoque.contains(produto.getCodigo()),
+                        agora));
+            }
+        }
+
+        if (!insercoes.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(insert, insercoes, tiposInsercao());
+        }
+        if (!atualizacoes.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(update(alteradas), atualizacoes, tiposAtualizacao(alteradas));
+            if (colunas.contains(ColunaImportacao.ESTOQUE_ATUAL) || colunas.contains(ColunaImportacao.ESTOQUE_MINIMO)) {
+                // Depois do UPDATE, para comparar com os valores novos e os que o arquivo não trouxe
+                jdbcTemplate.update("UPDATE produto SET estoque_baixo = " + Produto.SQL_ESTOQUE_BAIXO
+                        + " WHERE codigo IN (:codigos)", Map.of("codigos", List.copyOf(existentes.keySet())));
+            }
+        }
+        if (!comPrecoNovo.isEmpty()) {
+            precoHistorico.registrarPorCodigos(comPrecoNovo, agora.toInstant());
+        }
+        return new Lote(insercoes.size(), atualizacoes.size());
+    }
+
+    private Map<String, Existente> buscarExistentes(List<Produto> produtos) {
+        List<String> codigos = produtos.stream().map(Produto::getCodigo).toList();
+        Map<String, Existente> existentes = new HashMap<>();
+        jdbcTemplate.query("SELECT codigo, descricao, categoria, marca FROM produto WHERE codigo IN (:codigos)",
+                Map.of("codigos", codigos),
+                rs -> {
+                    existentes.put(rs.getString(1), new Existente(rs.getString(2), rs.getString(3), rs.getString(4)));
+                });
+        return existentes;
+    }
+
+    /**
+     * Preenche os campos usados nas chaves de busca que o arquivo não traz.
+     */
+    private static void completar(Produto produto, Existente existente, Set<ColunaImportacao> colunas) {
+        if (!colunas.contains(ColunaImportacao.DESCRICAO)) {
+            produto.setDescricao(existente.descricao());
+        }
+        if (!colunas.contains(ColunaImportacao.CATEGORIA)) {
+            produto.setCategoria(existente.categoria());
+        }
+        if (!colunas.contains(ColunaImportacao.MARCA)) {
+            produto.setMarca(existente.marca());
+        }
+    }
+
+    private static Object[] parametrosInsercao(Produto produto, Timestamp agora) {
+        Stream<@Nullable Object> valores = TODAS.stream().map(coluna -> coluna.valor(produto));
+        return Stream.concat(valores, Stream.of(true, agora, agora, produto.getNomeBusca(),
+                produto.getCodigoBusca(), produto.getTextoBusca(), produto.isEstoqueBaixo())).toArray();
+    }
+
+    private static int[] tiposInsercao() {
+        return Stream.concat(TODAS.stream().map(ColunaImportacao::tipoSql),
+                Stream.of(Types.BOOLEAN, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.BOOLEAN))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static String update(List<ColunaImportacao> alteradas) {
+        return "UPDATE produto SET "
+                + alteradas.stream()
+                        .map(coluna -> coluna == ColunaImportacao.ESTOQUE_ATUAL
+                                ? "estoque_atual = COALESCE(?, estoque_atual)"
+                                : coluna.coluna() + " = ?")
+                        .collect(Collectors.joining(", "))
+                + (alteradas.isEmpty() ? "" : ", ")
+                + "data_atualizacao = ?, nome_busca = ?, codigo_busca = ?, texto_busca = ? WHERE codigo = ?";
+    }
+
+    private static Object[] parametrosAtualizacao(Produto produto, List<ColunaImportacao> alteradas,
+            boolean semEstoque, Timestamp agora) {
+        Stream<@Nullable Object> valores = alteradas.stream()
+                .map(coluna -> semEstoque && coluna == ColunaImportacao.ESTOQUE_ATUAL ? null : coluna.valor(produto));
+        return Stream.concat(valores, Stream.of(agora, produto.getNomeBusca(), produto.getCodigoBusca(),
+                produto.getTextoBusca(), produto.getCodigo())).toArray();
+    }
+
+    private static int[] tiposAtualizacao(List<ColunaImportacao> alteradas) {
+        return Stream.concat(alteradas.stream().map(ColunaImportacao::tipoSql),
+                Stream.of(Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,314 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Importa produtos de um arquivo CSV, como os catálogos enviados pelos fornecedores.
+ * <p>
+ * O arquivo é lido em fluxo, em lotes de {@value #TAMANHO_LOTE} registros, então a
+ * memória usada não depende do tamanho do arquivo. Cada lote é convertido e validado
+ * em paralelo, perde os códigos repetidos (fica a última linha) e é gravado em uma
+ * transação pelo {@link ProdutoImportacaoGravador}: produtos com código já cadastrado
+ * são atualizados, os demais são criados. Linhas inválidas são contadas e relatadas,
+ * sem interromper a importação.
+ * </p>
+ * <p>
+ * As importações rodam uma de cada vez em uma thread própria, para não prender a
+ * requisição da tela; o andamento é informado ao fim de cada lote. Como a gravação
+ * passa por fora do Hibernate, os caches de produto são descartados após cada lote e
+ * o índice de busca é recarregado no fim.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ProdutoImportacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoImportacaoService.class);
+
+    static final int TAMANHO_LOTE = 1000;
+    private static final int MAXIMO_ERROS = 100;
+
+    private record Registro(long linha, List<String> campos) {
+    }
+
+    /**
+     * Linha convertida; {@code estoqueVazio} indica que a coluna de estoque atual veio em branco.
+     */
+    private record Convertido(long linha, @Nullable Produto produto, @Nullable String erro, boolean estoqueVazio) {
+    }
+
+    /**
+     * Contadores da importação em andamento; usados só pela thread da importação.
+     */
+    private static final class Andamento {
+        long linhas;
+        long inseridos;
+        long atualizados;
+        long rejeitados;
+        final List<String> erros = new ArrayList<>();
+
+        void rejeitar(long linha, String erro) {
+            rejeitados++;
+            if (erros.size() < MAXIMO_ERROS) {
+                erros.add("Linha " + linha + ": " + erro);
+            }
+        }
+    }
+
+    private final ProdutoImportacaoGravador gravador;
+    private final ProdutoBuscaIndex buscaIndex;
+    private final EstoqueBaixoMonitor estoqueBaixoMonitor;
+    private final ProdutoPrecoIndex precoIndex;
+    private final ProdutoCatalogoCache catalogoCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Validator validator;
+    private final Clock clock;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "importacao-produtos");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ProdutoImportacaoService(ProdutoImportacaoGravador gravador, ProdutoBuscaIndex buscaIndex,
+            EstoqueBaixoMonitor estoqueBaixoMonitor, ProdutoPrecoIndex precoIndex,
+            ProdutoCatalogoCache catalogoCache, EntityManagerFactory entityManagerFactory, Validator validator,
+            Clock clock) {
+        this.gravador = gravador;
+        this.buscaIndex = buscaIndex;
+        this.estoqueBaixoMonitor = estoqueBaixoMonitor;
+        this.precoIndex = precoIndex;
+        this.catalogoCache = catalogoCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.validator = validator;
+        this.clock = clock;
+    }
+
+    /**
+     * Agenda a importação do arquivo. O arquivo passa a ser da importação e é apagado
+     * quando ela termina.
+     *
+     * @param arquivo CSV em UTF-8 com cabeçalho; as colunas {@code codigo}, {@code nome}
+     *        e {@code preco_venda} são obrigatórias
+     * @param progresso chamado na thread da importação ao fim de cada lote
+     * @return resultado, concluído com {@link IllegalArgumentException} se o cabeçalho
+     *         for inválido
+     */
+    public CompletableFuture<ResultadoImportacao> importar(Path arquivo, Consumer<ProgressoImportacao> progresso) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return executar(arquivo, progresso);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                try {
+                    Files.deleteIfExists(arquivo);
+                } catch (IOException e) {
+                    logger.warn("Não foi possível apagar o arquivo importado {}", arquivo, e);
+                }
+            }
+        }, executor);
+    }
+
+    ResultadoImportacao executar(Path arquivo, Consumer<ProgressoImportacao> progresso) throws IOException {
+        long inicio = System.nanoTime();
+        Andamento andamento = new Andamento();
+        var decodificador = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+                LeitorCsv leitor = new LeitorCsv(new BufferedReader(Channels.newReader(canal, decodificador, -1)))) {
+            List<String> cabecalho = leitor.proximo();
+            if (cabecalho == null) {
+                throw new IllegalArgumentException("Arquivo vazio");
+            }
+            @Nullable ColunaImportacao[] colunas = mapearCabecalho(cabecalho);
+            Set<ColunaImportacao> presentes = EnumSet.noneOf(ColunaImportacao.class);
+            for (ColunaImportacao coluna : colunas) {
+                if (coluna != null) {
+                    presentes.add(coluna);
+                }
+            }
+
+            long tamanho = Math.max(1, canal.size());
+            List<Registro> lote = new ArrayList<>(TAMANHO_LOTE);
+            for (List<String> campos = leitor.proximo(); campos != null; campos = leitor.proximo()) {
+                lote.add(new Registro(leitor.linha(), campos));
+                if (lote.size() == TAMANHO_LOTE) {
+                    processarLote(lote, colunas, presentes, andamento);
+                    lote.clear();
+                    informar(progresso, andamento, Math.min(1.0, (double) canal.position() / tamanho));
+                }
+            }
+            if (!lote.isEmpty()) {
+                processarLote(lote, colunas, presentes, andamento);
+            }
+            informar(progresso, andamento, 1.0);
+        }
+
+        buscaIndex.carregar();
+        estoqueBaixoMonitor.carregar();
+        precoIndex.carregar();
+        Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+        logger.info("Importação de produtos: {} linhas, {} inseridos, {} atualizados, {} rejeitados em {} ms",
+                andamento.linhas, andamento.inseridos, andamento.atualizados, andamento.rejeitados,
+                duracao.toMillis());
+        return new ResultadoImportacao(andamento.linhas, andamento.inseridos, andamento.atualizados,
+                andamento.rejeitados, List.copyOf(andamento.erros), duracao);
+    }
+
+    /**
+     * Associa cada posição do cabeçalho a uma coluna; colunas desconhecidas são ignoradas.
+     */
+    private static @Nullable ColunaImportacao[] mapearCabecalho(List<String> cabecalho) {
+        @Nullable ColunaImportacao[] colunas = new ColunaImportacao[cabecalho.size()];
+        Set<ColunaImportacao> encontradas = EnumSet.noneOf(ColunaImportacao.class);
+        for (int i = 0; i < cabecalho.size(); i++) {
+            ColunaImportacao coluna = ColunaImportacao.doCabecalho(cabecalho.get(i)).orElse(null);
+            if (coluna != null && !encontradas.add(coluna)) {
+                throw new IllegalArgumentException("Coluna repetida no cabeçalho: " + cabecalho.get(i));
+            }
+            colunas[i] = coluna;
+        }
+        for (ColunaImportacao coluna : ColunaImportacao.values()) {
+            if (coluna.isObrigatoria() && !encontradas.contains(coluna)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho: " + coluna.coluna());
+            }
+        }
+        return colunas;
+    }
+
+    private void processarLote(List<Registro> lote, @Nullable ColunaImportacao[] colunas,
+            Set<ColunaImportacao> presentes, Andamento andamento) {
+        andamento.linhas += lote.size();
+        Timestamp agora = Timestamp.from(clock.instant());
+
+        List<Convertido> convertidos = lote.parallelStream()
+                .map(registro -> converter(registro, colunas, agora))
+                .toList();
+
+        Map<String, Produto> porCodigo = new LinkedHashMap<>();
+        Set<String> semEstoque = new HashSet<>();
+        for (Convertido convertido : convertidos) {
+            if (convertido.produto() != null) {
+                String codigo = convertido.produto().getCodigo();
+                porCodigo.put(codigo, convertido.produto());
+                if (convertido.estoqueVazio()) {
+                    semEstoque.add(codigo);
+                } else {
+                    semEstoque.remove(codigo);
+                }
+            } else {
+                andamento.rejeitar(convertido.linha(), String.valueOf(convertido.erro()));
+            }
+        }
+        if (porCodigo.isEmpty()) {
+            return;
+        }
+
+        try {
+            ProdutoImportacaoGravador.Lote gravado = gravador.gravar(new ArrayList<>(porCodigo.values()), presentes,
+                    semEstoque, agora);
+            andamento.inseridos += gravado.inseridos();
+            andamento.atualizados += gravado.atualizados();
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao gravar o lote das linhas {} a {}", lote.get(0).linha(),
+                    lote.get(lote.size() - 1).linha(), e);
+            andamento.rejeitados += porCodigo.size();
+            if (andamento.erros.size() < MAXIMO_ERROS) {
+                andamento.erros.add("Linhas " + lote.get(0).linha() + " a " + lote.get(lote.size() - 1).linha()
+                        + " não gravadas: " + e.getMostSpecificCause().getMessage());
+            }
+        } finally {
+            descartarCaches();
+        }
+    }
+
+    private Convertido converter(Registro registro, @Nullable ColunaImportacao[] colunas, Timestamp agora) {
+        Produto produto = new Produto();
+        // Sem os padrões do construtor: coluna ausente ou vazia fica sem valor
+        produto.setPrecoCompra(null);
+        produto.setEstoqueMinimo(null);
+        produto.setEstoqueMaximo(null);
+        produto.setDataCriacao(agora.toInstant());
+        boolean estoqueVazio = false;
+        try {
+            List<String> campos = registro.campos();
+            for (int i = 0; i < colunas.length; i++) {
+                ColunaImportacao coluna = colunas[i];
+                String valor = i < campos.size() ? campos.get(i).trim() : "";
+                if (coluna != null && !valor.isEmpty()) {
+                    coluna.atribuir(produto, valor);
+                } else if (coluna == ColunaImportacao.ESTOQUE_ATUAL) {
+                    // Produto novo fica com estoque zero; o existente mantém o estoque gravado
+                    estoqueVazio = true;
+                }
+            }
+            ProdutoService.validarProduto(produto);
+            Set<ConstraintViolation<Produto>> violacoes = validator.validate(produto);
+            if (!violacoes.isEmpty()) {
+                return new Convertido(registro.linha(), null, violacoes.iterator().next().getMessage(), false);
+            }
+            return new Convertido(registro.linha(), produto, null, estoqueVazio);
+        } catch (IllegalArgumentException e) {
+            return new Convertido(registro.linha(), null, e.getMessage(), false);
+        }
+    }
+
+    private void descartarCaches() {
+        catalogoCache.invalidarTudo();
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Produto.class);
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegions();
+    }
+
+    private static void informar(Consumer<ProgressoImportacao> progresso, Andamento andamento, double fracao) {
+        try {
+            progresso.accept(new ProgressoImportacao(andamento.linhas, andamento.inseridos, andamento.atualizados,
+                    andamento.rejeitados, fracao));
+        } catch (RuntimeException e) {
+            logger.warn("Erro ao informar o andamento da importação", e);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.leandrosnazareth.produto.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Remove os índices da tabela {@code produto} que foram substituídos por outros.
+ * <p>
+ * O {@code ddl-auto=update} cria os índices novos, mas não apaga os que saíram do
+ * mapeamento, que continuariam custando em cada escrita.
+ * </p>
+ */
+@Component
+class ProdutoIndicesObsoletos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoIndicesObsoletos.class);
+
+    // idx_produto_categoria: substituído por idx_produto_categoria_ativo
+    static final List<String> INDICES = List.of("idx_produto_categoria");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProdutoIndicesObsoletos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void remover() {
+        for (String indice : INDICES) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + indice);
+        }
+        logger.debug("Índices obsoletos de produto removidos, se existiam: {}", INDICES);
+    }
+}
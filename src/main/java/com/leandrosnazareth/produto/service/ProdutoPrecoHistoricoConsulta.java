@@ -0,0 +1,37 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoPrecoHistoricoRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consulta o histórico de preços no banco, para o que fica fora do {@link ProdutoPrecoIndex}:
+ * instantes anteriores ao período mantido em memória e o histórico completo de um produto.
+ */
+@Component
+class ProdutoPrecoHistoricoConsulta {
+
+    private final ProdutoPrecoHistoricoRepository historicoRepository;
+
+    ProdutoPrecoHistoricoConsulta(ProdutoPrecoHistoricoRepository historicoRepository) {
+        this.historicoRepository = historicoRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PrecoVigente> buscar(Long produtoId, Instant instante) {
+        return historicoRepository.findResumoVigente(produtoId, instante).stream()
+                .map(ProdutoPrecoIndex::preco)
+                .findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PrecoVigente> listar(Long produtoId) {
+        return historicoRepository.findResumoPorProdutos(List.of(produtoId)).stream()
+                .map(ProdutoPrecoIndex::preco)
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.leandrosnazareth.produto.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava o histórico de preços comparando a tabela de produtos com os intervalos vigentes.
+ * <p>
+ * Para os produtos informados, encerra o intervalo vigente cujos preços diferem dos
+ * gravados no produto e abre um intervalo novo para quem ficou sem vigente. São dois
+ * comandos sobre o conjunto, qualquer que seja o caminho da alteração (tela, reajuste
+ * em lote ou importação), e nada é gravado quando o preço não mudou. Deve ser chamado
+ * na mesma transação, depois que o produto foi gravado no banco.
+ * </p>
+ */
+@Component
+class ProdutoPrecoHistoricoGravador {
+
+    // Chaves por comando, bem abaixo do limite de parâmetros dos bancos suportados
+    private static final int TAMANHO_BLOCO = 1_000;
+
+    private static final String ENCERRAR = "UPDATE produto_preco_historico h SET valido_ate = :agora "
+            + "WHERE h.valido_ate IS NULL AND EXISTS (SELECT 1 FROM produto p WHERE p.produto_id = h.produto_id "
+            + "AND (p.preco_venda <> h.preco_venda OR p.preco_compra IS DISTINCT FROM h.preco_compra) AND ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String proximoId;
+
+    ProdutoPrecoHistoricoGravador(NamedParameterJdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.proximoId = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSelectSequenceNextValString("produto_preco_historico_seq");
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPorIds(Collection<Long> produtoIds, Instant agora) {
+        registrar("p.produto_id IN (:chaves)", List.copyOf(produtoIds), agora);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPorCodigos(Collection<String> codigos, Instant agora) {
+        registrar("p.codigo IN (:chaves)", List.copyOf(codigos), agora);
+    }
+
+    /**
+     * Abre o primeiro intervalo dos produtos que ainda não têm histórico, a partir da
+     * data de criação do produto, que é o melhor registro disponível do preço atual.
+     *
+     * @return número de produtos com histórico aberto
+     */
+    @Transactional
+    public int preencherAusentes() {
+        return jdbcTemplate.update(inserir("p.data_criacao", "1 = 1"), new MapSqlParameterSource());
+    }
+
+    private void registrar(String condicao, List<?> chaves, Instant agora) {
+        String encerrar = ENCERRAR + condicao + ")";
+        String inserir = inserir(":agora", condicao);
+        for (int inicio = 0; inicio < chaves.size(); inicio += TAMANHO_BLOCO) {
+            MapSqlParameterSource parametros = new MapSqlParameterSource()
+                    .addValue("chaves", chaves.subList(inicio, Math.min(chaves.size(), inicio + TAMANHO_BLOCO)))
+                    .addValue("agora", Timestamp.from(agora));
+            jdbcTemplate.update(encerrar, parametros);
+            jdbcTemplate.update(inserir, parametros);
+        }
+    }
+
+    private String inserir(String validoDe, String condicao) {
+        return "INSERT INTO produto_preco_historico (produto_preco_historico_id, produto_id, preco_venda, "
+                + "preco_compra, valido_de) SELECT " + proximoId + ", p.produto_id, p.preco_venda, p.preco_compra, "
+                + validoDe + " FROM produto p WHERE " + condicao + " AND NOT EXISTS (SELECT 1 FROM "
+                + "produto_preco_historico h WHERE h.produto_id = p.produto_id AND h.valido_ate IS NULL)";
+    }
+}
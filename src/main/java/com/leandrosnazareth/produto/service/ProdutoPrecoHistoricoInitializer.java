@@ -0,0 +1,34 @@
+package com.leandrosnazareth.produto.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Abre o histórico de preços dos produtos gravados antes de ele existir, antes que o
+ * {@link ProdutoPrecoIndex} seja carregado.
+ */
+@Component
+public class ProdutoPrecoHistoricoInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoPrecoHistoricoInitializer.class);
+
+    private final ProdutoPrecoHistoricoGravador gravador;
+
+    ProdutoPrecoHistoricoInitializer(ProdutoPrecoHistoricoGravador gravador) {
+        this.gravador = gravador;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void preencherHistorico() {
+        int preenchidos = gravador.preencherAusentes();
+        if (preenchidos > 0) {
+            logger.info("Histórico de preços aberto para {} produtos", preenchidos);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.leandrosnazareth.produto.service;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consulta os preços de venda e de compra que um produto tinha em um instante.
+ * <p>
+ * As consultas do período recente são atendidas pelo {@link ProdutoPrecoIndex}, em
+ * memória, então relatórios sobre vendas podem buscar o preço da época linha a linha sem
+ * uma subconsulta por venda. Instantes mais antigos e o histórico completo são lidos
+ * do banco.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ProdutoPrecoHistoricoService {
+
+    private final ProdutoPrecoIndex precoIndex;
+    private final ProdutoPrecoHistoricoConsulta consulta;
+
+    ProdutoPrecoHistoricoService(ProdutoPrecoIndex precoIndex, ProdutoPrecoHistoricoConsulta consulta) {
+        this.precoIndex = precoIndex;
+        this.consulta = consulta;
+    }
+
+    /**
+     * Retorna os preços do produto vigentes no instante.
+     *
+     * @return vazio se o produto ainda não existia no instante
+     */
+    public Optional<PrecoVigente> buscarPreco(Long produtoId, Instant instante) {
+        if (!precoIndex.cobre(instante)) {
+            return consulta.buscar(produtoId, instante);
+        }
+        return Optional.ofNullable(precoIndex.buscar(produtoId, instante));
+    }
+
+    /**
+     * Retorna o histórico de preços do produto, do mais antigo ao atual.
+     */
+    public List<PrecoVigente> listarHistorico(Long produtoId) {
+        return consulta.listar(produtoId);
+    }
+}
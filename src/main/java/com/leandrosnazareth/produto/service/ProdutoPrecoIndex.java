@@ -0,0 +1,248 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoPrecoHistoricoRepository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória do histórico de preços, para saber o preço de um produto em um
+ * instante sem consultar o banco.
+ * <p>
+ * Os intervalos de cada produto ficam em vetores ordenados pelo início, trocados
+ * inteiros a cada recarga, então a consulta é uma busca binária sem trava. O índice é
+ * carregado na inicialização e, depois de cada alteração de preço confirmada, só os
+ * produtos afetados são relidos.
+ * </p>
+ * <p>
+ * Só os intervalos vigentes nos últimos {@code pdv.preco-historico.dias-em-memoria} dias
+ * ficam em memória; o período é renovado pela recarga diária, então o índice não cresce
+ * com o histórico. Instantes anteriores são respondidos pelo banco, veja {@link #cobre}.
+ * </p>
+ */
+@Component
+public class ProdutoPrecoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoPrecoIndex.class);
+
+    // Produtos por consulta na recarga parcial
+    private static final int TAMANHO_BLOCO = 1_000;
+
+    /**
+     * Intervalos de um produto, ordenados e sem sobreposição.
+     */
+    private record Intervalos(Instant[] inicios, PrecoVigente[] precos) {
+
+        static Intervalos de(List<PrecoVigente> precos) {
+            return new Intervalos(precos.stream().map(PrecoVigente::validoDe).toArray(Instant[]::new),
+                    precos.toArray(PrecoVigente[]::new));
+        }
+
+        @Nullable PrecoVigente em(Instant instante) {
+            int posicao = Arrays.binarySearch(inicios, instante);
+            if (posicao < 0) {
+                // Último intervalo que começa antes do instante
+                posicao = -posicao - 2;
+            } else {
+                // Intervalos vazios têm o mesmo início do seguinte
+                while (posicao + 1 < inicios.length && inicios[posicao + 1].equals(instante)) {
+                    posicao++;
+                }
+            }
+            if (posicao < 0 || !precos[posicao].vigenteEm(instante)) {
+                return null;
+            }
+            return precos[posicao];
+        }
+
+        PrecoVigente atual() {
+            return precos[precos.length - 1];
+        }
+    }
+
+    private final ProdutoPrecoHistoricoRepository historicoRepository;
+
+    private final Clock clock;
+
+    private final Duration periodo;
+
+    private final Map<Long, Intervalos> produtos = new ConcurrentHashMap<>();
+
+    // Início do período em memória; antes da primeira carga, tudo vai ao banco
+    private volatile Instant inicioPeriodo = Instant.MAX;
+
+    public ProdutoPrecoIndex(ProdutoPrecoHistoricoRepository historicoRepository, Clock clock,
+            @Value("${pdv.preco-historico.dias-em-memoria:400}") int diasEmMemoria) {
+        this.historicoRepository = historicoRepository;
+        this.clock = clock;
+        this.periodo = Duration.ofDays(diasEmMemoria);
+    }
+
+    /**
+     * Carrega o histórico do período, depois que os produtos antigos receberam o primeiro
+     * intervalo, e o renova todo dia.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Scheduled(cron = "${pdv.preco-historico.agenda:0 0 4 * * *}")
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.nanoTime();
+        Instant limite = clock.instant().minus(periodo);
+        // Avança antes da troca: os intervalos antigos ainda em memória só cobrem mais
+        inicioPeriodo = limite;
+        Map<Long, Intervalos> carregados = agrupar(historicoRepository.findResumoDesde(limite));
+        produtos.keySet().retainAll(carregados.keySet());
+        produtos.putAll(carregados);
+        logger.info("Histórico de preços carregado para {} produtos em {} ms", produtos.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Relê o histórico dos produtos informados.
+     */
+    @Transactional(readOnly = true)
+    public void recarregar(Collection<Long> produtoIds) {
+        Instant limite = inicioPeriodo;
+        List<Long> ids = List.copyOf(new HashSet<>(produtoIds));
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO) {
+            List<Long> bloco = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO));
+            Map<Long, Intervalos> carregados = agrupar(historicoRepository.findResumoPorProdutosDesde(bloco, limite));
+            bloco.forEach(id -> {
+                Intervalos intervalos = carregados.get(id);
+                if (intervalos == null) {
+                    produtos.remove(id);
+                } else {
+                    produtos.put(id, intervalos);
+                }
+            });
+        }
+    }
+
+    /**
+     * Só relê o produto quando os preços do evento diferem dos vigentes no índice;
+     * alterações de estoque, como as baixas das vendas, não chegam ao banco.
+     * <p>
+     * A releitura chama {@link #recarregar} no próprio objeto, sem passar pelo proxy, então
+     * a transação é aberta aqui; o evento chega depois do commit de quem alterou.
+     * </p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProdutoAlterado(ProdutoAlteradoEvent event) {
+        Produto produto = event.produto();
+        if (produto.getId() == null) {
+            return;
+        }
+        Intervalos intervalos = produtos.get(produto.getId());
+        if (intervalos == null || !mesmosPrecos(intervalos.atual(), produto)) {
+            recarregar(List.of(produto.getId()));
+        }
+    }
+
+    /**
+     * Reajustes em lote trazem os produtos alterados; mudanças de situação não afetam preços.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProdutosAlteradosEmLote(ProdutosAlteradosEmLoteEvent event) {
+        if (!event.situacaoAlterada()) {
+            recarregar(event.produtoIds());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProdutoExcluido(ProdutoExcluidoEvent event) {
+        produtos.remove(event.produtoId());
+    }
+
+    /**
+     * Indica se o instante está no período em memória; os anteriores devem ser
+     * consultados no banco.
+     */
+    public boolean cobre(Instant instante) {
+        return !instante.isBefore(inicioPeriodo);
+    }
+
+    /**
+     * Retorna os preços do produto vigentes no instante, que deve estar no período
+     * em memória.
+     *
+     * @return nulo se o produto não existia no instante ou não tem histórico
+     */
+    public @Nullable PrecoVigente buscar(Long produtoId, Instant instante) {
+        Intervalos intervalos = produtos.get(produtoId);
+        return intervalos == null ? null : intervalos.em(instante);
+    }
+
+    int tamanho() {
+        return produtos.size();
+    }
+
+    private static boolean mesmosPrecos(PrecoVigente vigente, Produto produto) {
+        return vigente.validoAte() == null
+                && vigente.precoVenda().compareTo(produto.getPrecoVenda()) == 0
+                && iguais(vigente.precoCompra(), produto.getPrecoCompra());
+    }
+
+    private static boolean iguais(@Nullable BigDecimal a, @Nullable BigDecimal b) {
+        return a == null || b == null ? Objects.equals(a, b) : a.compareTo(b) == 0;
+    }
+
+    /**
+     * Converte uma linha das consultas de resumo do histórico, que começam pelo produto.
+     */
+    static PrecoVigente preco(Object[] linha) {
+        return new PrecoVigente((BigDecimal) linha[1], (BigDecimal) linha[2], (Instant) linha[3],
+                (Instant) linha[4]);
+    }
+
+    /**
+     * Agrupa as linhas, já ordenadas por produto e início, em intervalos por produto.
+     */
+    private static Map<Long, Intervalos> agrupar(List<Object[]> linhas) {
+        Map<Long, Intervalos> agrupados = new HashMap<>();
+        @Nullable Long produtoAtual = null;
+        List<PrecoVigente> precos = new ArrayList<>();
+        for (Object[] linha : linhas) {
+            Long produtoId = (Long) linha[0];
+            if (!produtoId.equals(produtoAtual)) {
+                if (produtoAtual != null) {
+                    agrupados.put(produtoAtual, Intervalos.de(precos));
+                }
+                produtoAtual = produtoId;
+                precos = new ArrayList<>();
+            }
+            precos.add(preco(linha));
+        }
+        if (produtoAtual != null) {
+            agrupados.put(produtoAtual, Intervalos.de(precos));
+        }
+        return agrupados;
+    }
+}
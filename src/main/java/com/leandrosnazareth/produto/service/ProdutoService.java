@@ -2,15 +2,23 @@ package com.leandrosnazareth.produto.service;
 
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.leandrosnazareth.produto.domain.NormalizadorBusca;
 import com.leandrosnazareth.produto.domain.Produto;
 import com.leandrosnazareth.produto.domain.ProdutoRepository;
 
@@ -19,10 +27,22 @@ import com.leandrosnazareth.produto.domain.ProdutoRepository;
 public class ProdutoService {
 
     private final ProdutoRepository produtoRepository;
+    private final ProdutoBuscaIndex buscaIndex;
+    private final ProdutoImagemService imagemService;
+    private final ProdutoCatalogoCache catalogoCache;
+    private final ProdutoPrecoHistoricoGravador precoHistorico;
+    private final ApplicationEventPublisher eventPublisher;
     private final Clock clock;
 
-    public ProdutoService(ProdutoRepository produtoRepository, Clock clock) {
+    public ProdutoService(ProdutoRepository produtoRepository, ProdutoBuscaIndex buscaIndex,
+            ProdutoImagemService imagemService, ProdutoCatalogoCache catalogoCache,
+            ProdutoPrecoHistoricoGravador precoHistorico, ApplicationEventPublisher eventPublisher, Clock clock) {
         this.produtoRepository = produtoRepository;
+        this.buscaIndex = buscaIndex;
+        this.imagemService = imagemService;
+        this.catalogoCache = catalogoCache;
+        this.precoHistorico = precoHistorico;
+        this.eventPublisher = eventPublisher;
         this.clock = clock;
     }
 
@@ -34,10 +54,16 @@ public class ProdutoService {
             throw new IllegalArgumentException("Já existe um produto com o código: " + produto.getCodigo());
         }
 
-        produto.setDataCriacao(clock.instant());
-        produto.setDataAtualizacao(clock.instant());
+        Instant agora = clock.instant();
+        produto.setDataCriacao(agora);
+        produto.setDataAtualizacao(agora);
 
-        return produtoRepository.save(produto);
+        // Gravado já, para que o histórico de preços leia o produto no banco
+        Produto salvo = produtoRepository.saveAndFlush(produto);
+        precoHistorico.registrarPorIds(List.of(salvo.getId()), agora);
+        imagemService.atualizarReferencias(null, salvo.getFotoHash());
+        catalogoCache.invalidar(salvo.getId());
+        return publicarAlteracao(salvo);
     }
 
     @Transactional
@@ -56,19 +82,52 @@ public class ProdutoService {
             throw new IllegalArgumentException("Já existe outro produto com o código: " + produto.getCodigo());
         }
 
-        produto.setDataAtualizacao(clock.instant());
-
-        return produtoRepository.save(produto);
+        Instant agora = clock.instant();
+        produto.setDataAtualizacao(agora);
+
+        // Lido antes de salvar: o produto recebido já traz a foto nova
+        String fotoAnterior = produtoRepository.findFotoHashById(produto.getId()).orElse(null);
+        // Gravado já, para que o histórico de preços compare com os preços novos
+        Produto salvo = produtoRepository.saveAndFlush(produto);
+        precoHistorico.registrarPorIds(List.of(produto.getId()), agora);
+        imagemService.atualizarReferencias(fotoAnterior, salvo.getFotoHash());
+        catalogoCache.invalidar(produto.getId());
+        return publicarAlteracao(salvo);
     }
 
+    /**
+     * Busca o produto pelo ID, passando pelo {@link ProdutoCatalogoCache}. Um produto
+     * vindo do cache é uma cópia desanexada.
+     */
     @Transactional(readOnly = true)
     public Optional<Produto> buscarPorId(Long id) {
-        return produtoRepository.findById(id);
+        Produto emCache = catalogoCache.produto(id);
+        if (emCache != null) {
+            return Optional.of(emCache);
+        }
+        long geracao = catalogoCache.geracao();
+        Optional<Produto> produto = produtoRepository.findById(id);
+        if (produto.isPresent()) {
+            catalogoCache.guardar(produto.get(), geracao);
+        }
+        return produto;
     }
 
+    /**
+     * Busca o produto pelo código, passando pelo {@link ProdutoCatalogoCache}.
+     */
     @Transactional(readOnly = true)
     public Optional<Produto> buscarPorCodigo(String codigo) {
-        return produtoRepository.findByCodigo(codigo);
+        Produto emCache = catalogoCache.produtoPorCodigo(codigo);
+        if (emCache != null) {
+            return Optional.of(emCache);
+        }
+        long geracao = catalogoCache.geracao();
+        Optional<Produto> produto = produtoRepository.findByCodigo(codigo);
+        if (produto.isPresent()) {
+            catalogoCache.guardar(produto.get(), geracao);
+        }
+        return produto;
     }
 
     @Transactional(readOnly = true)
@@ -83,7 +142,7 @@ public class ProdutoService {
 
     @Transactional(readOnly = true)
     public Slice<Produto> buscarPorNome(String nome, Pageable pageable) {
-        return produtoRepository.findByNomeContainingIgnoreCase(nome, pageable);
+        return produtoRepository.findByNomeBuscaContaining(NormalizadorBusca.normalizar(nome), pageable);
     }
 
     @Transactional(readOnly = true)
@@ -93,7 +152,64 @@ public class ProdutoService {
 
     @Transactional(readOnly = true)
     public Slice<Produto> buscarPorTermo(String searchTerm, Pageable pageable) {
-        return produtoRepository.findBySearchTerm(searchTerm, pageable);
+        return produtoRepository.findBySearchTerm(NormalizadorBusca.normalizar(searchTerm), pageable);
+    }
+
+    /**
+     * Busca produtos ativos que contêm o termo, ordenados por relevância.
+     * <p>
+     * A ordem é calculada pelo {@link ProdutoBuscaIndex} (código exato, prefixo do
+     * código, prefixo do nome, palavra do nome e, por último, conteúdo da descrição,
+     * categoria ou marca); o banco é consultado apenas para carregar os produtos da
+     * página. A ordenação do {@link Pageable} é ignorada.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public Slice<Produto> buscarPorRelevancia(String termo, Pageable pageable) {
+        // Um resultado a mais indica se existe próxima página
+        List<Long> ids = buscaIndex.buscarPorRelevancia(termo, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean temProxima = ids.size() > pageable.getPageSize();
+        List<Long> idsDaPagina = temProxima ? ids.subList(0, pageable.getPageSize()) : ids;
+        return new SliceImpl<>(ordenarPelosIds(idsDaPagina, produtoRepository.findAllById(idsDaPagina)),
+                pageable, temProxima);
+    }
+
+    /**
+     * Sugere produtos ativos cujo nome começa com o prefixo informado.
+     * <p>
+     * A consulta é respondida pelo {@link ProdutoBuscaIndex}, sem acesso ao banco.
+     * Quando nenhum nome começa com o prefixo, sugere os produtos com nomes parecidos,
+     * para tolerar erros de digitação.
+     * </p>
+     */
+    public List<SugestaoProduto> sugerirProdutos(String prefixo, int limite) {
+        List<SugestaoProduto> sugestoes = buscaIndex.sugerir(prefixo, limite);
+        return sugestoes.isEmpty() ? buscaIndex.sugerirAproximado(prefixo, limite) : sugestoes;
+    }
+
+    /**
+     * Busca produtos ativos admitindo erros de digitação no termo (ex.: "tecaldo").
+     * <p>
+     * Os IDs são obtidos do índice de trigramas em memória, já ordenados por
+     * similaridade; o banco é consultado apenas para carregar esses produtos.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public List<Produto> buscarAproximado(String termo, int limite) {
+        List<Long> ids = buscaIndex.buscarAproximado(termo, limite);
+        return ids.isEmpty() ? List.of() : ordenarPelosIds(ids, produtoRepository.findAllById(ids));
+    }
+
+    /**
+     * Lista os produtos que atendem a todos os critérios do filtro, com uma única consulta.
+     * <p>
+     * Retorna um {@link Slice}: a página é lida com um registro a mais para saber se há
+     * outra, sem a consulta de contagem que um {@code Page} faria a cada busca.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public Slice<Produto> filtrar(FiltroProdutos filtro, Pageable pageable) {
+        return produtoRepository.findBy(ProdutoEspecificacoes.de(filtro), consulta -> consulta.slice(pageable));
     }
 
     @Transactional(readOnly = true)
@@ -102,13 +218,13 @@ public class ProdutoService {
     }
 
     @Transactional(readOnly = true)
-    public List<Produto> listarProdutosComEstoqueBaixo() {
-        return produtoRepository.findProdutosComEstoqueBaixo();
+    public Slice<Produto> listarProdutosComEstoqueBaixo(Pageable pageable) {
+        return produtoRepository.findProdutosComEstoqueBaixo(pageable);
     }
 
     @Transactional(readOnly = true)
-    public List<Produto> listarProdutosSemEstoque() {
-        return produtoRepository.findProdutosSemEstoque();
+    public Slice<Produto> listarProdutosSemEstoque(Pageable pageable) {
+        return produtoRepository.findProdutosSemEstoque(pageable);
     }
 
     @Transactional
@@ -122,7 +238,9 @@ public class ProdutoService {
 
         produto.setDataAtualizacao(clock.instant());
 
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        catalogoCache.invalidar(produtoId);
+        return publicarAlteracao(salvo);
     }
 
     @Transactional
@@ -133,7 +251,9 @@ public class ProdutoService {
         produto.setAtivo(ativo);
         produto.setDataAtualizacao(clock.instant());
 
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        catalogoCache.invalidar(produtoId);
+        return publicarAlteracao(salvo);
     }
 
     @Transactional
@@ -148,7 +268,11 @@ public class ProdutoService {
             throw new IllegalArgumentException("Produto não encontrado com ID: " + produtoId);
         }
 
+        String foto = produtoRepository.findFotoHashById(produtoId).orElse(null);
         produtoRepository.deleteById(produtoId);
+        imagemService.atualizarReferencias(foto, null);
+        catalogoCache.invalidar(produtoId);
+        eventPublisher.publishEvent(new ProdutoExcluidoEvent(produtoId));
     }
 
     @Transactional(readOnly = true)
@@ -181,7 +305,17 @@ public class ProdutoService {
         return produtoRepository.countProdutosComEstoqueBaixo();
     }
 
-    private void validarProduto(Produto produto) {
+    private Produto publicarAlteracao(Produto produto) {
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(produto));
+        return produto;
+    }
+
+    /**
+     * Regras de negócio do produto, também aplicadas a cada linha da importação.
+     *
+     * @throws IllegalArgumentException com a primeira regra violada
+     */
+    static void validarProduto(Produto produto) {
         if (produto == null) {
             throw new IllegalArgumentException("Produto não pode ser nulo");
         }
@@ -223,4 +357,16 @@ public class ProdutoService {
             throw new IllegalArgumentException("Peso deve ser maior ou igual a zero");
         }
     }
+
+    /**
+     * Ordena os produtos carregados na ordem dos IDs vindos do índice de busca.
+     */
+    private static List<Produto> ordenarPelosIds(List<Long> ids, List<Produto> produtos) {
+        Map<Long, Produto> produtosPorId = produtos.stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+        return ids.stream()
+                .map(produtosPorId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
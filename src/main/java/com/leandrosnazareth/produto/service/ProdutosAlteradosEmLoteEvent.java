@@ -0,0 +1,13 @@
+package com.leandrosnazareth.produto.service;
+
+import java.util.List;
+
+/**
+ * Evento publicado pelo {@link ProdutoAlteracaoLoteService} depois de alterar vários
+ * produtos com um único comando SQL, sem passar pelas entidades.
+ *
+ * @param produtoIds produtos alterados
+ * @param situacaoAlterada se os produtos foram ativados ou inativados
+ */
+public record ProdutosAlteradosEmLoteEvent(List<Long> produtoIds, boolean situacaoAlterada) {
+}
@@ -0,0 +1,13 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Andamento de uma importação de produtos, informado a cada lote gravado.
+ *
+ * @param linhas registros lidos do arquivo, sem o cabeçalho
+ * @param inseridos produtos criados
+ * @param atualizados produtos existentes alterados
+ * @param rejeitados registros com erro, que não foram gravados
+ * @param fracao parte do arquivo já lida, de 0 a 1
+ */
+public record ProgressoImportacao(long linhas, long inseridos, long atualizados, long rejeitados, double fracao) {
+}
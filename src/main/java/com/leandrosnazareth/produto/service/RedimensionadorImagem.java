@@ -0,0 +1,213 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante.Tamanho;
+
+import org.jspecify.annotations.Nullable;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Gera as variantes redimensionadas de uma imagem com ImageIO.
+ * <p>
+ * A imagem original é decodificada uma única vez e cada tamanho é derivado do anterior,
+ * do maior para o menor, reduzindo pela metade enquanto possível antes do ajuste final.
+ * Esse encadeamento evita o serrilhado de uma única redução bilinear grande e sai mais
+ * barato do que partir sempre da original. Imagens menores que um tamanho não são
+ * ampliadas. Todas as variantes são JPEG, com a transparência achatada sobre branco.
+ * </p>
+ * <p>
+ * Um arquivo pequeno pode declarar dimensões enormes e ocupar gigabytes ao ser
+ * decodificado, então as dimensões são lidas do cabeçalho antes e imagens acima de
+ * {@link #MAXIMO_PIXELS} não são decodificadas.
+ * </p>
+ */
+final class RedimensionadorImagem {
+
+    static final String TIPO_JPEG = "image/jpeg";
+
+    /**
+     * Maior imagem decodificada, em pixels; cobre as fotos das câmeras de celular.
+     */
+    static final long MAXIMO_PIXELS = 50_000_000L;
+
+    /**
+     * Variante codificada.
+     */
+    record Variante(int largura, int altura, byte[] dados) {
+    }
+
+    private RedimensionadorImagem() {
+    }
+
+    /**
+     * Decodifica a imagem e gera todos os tamanhos.
+     *
+     * @param original bytes da imagem enviada
+     * @return as variantes por tamanho, ou vazio se o formato não é suportado pelo ImageIO
+     *         ou se a imagem passa de {@link #MAXIMO_PIXELS}
+     */
+    static Optional<Map<Tamanho, Variante>> gerarVariantes(byte[] original) {
+        BufferedImage imagem;
+        try (ImageInputStream entrada = new MemoryCacheImageInputStream(new ByteArrayInputStream(original))) {
+            imagem = ler(entrada);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (imagem == null) {
+            return Optional.empty();
+        }
+
+        Map<Tamanho, Variante> variantes = new EnumMap<>(Tamanho.class);
+        BufferedImage atual = paraRgb(imagem);
+        Tamanho[] tamanhos = Tamanho.values();
+        for (int i = tamanhos.length - 1; i >= 0; i--) {
+            Tamanho tamanho = tamanhos[i];
+            atual = reduzir(atual, tamanho.getLadoMaximo());
+            variantes.put(tamanho, new Variante(atual.getWidth(), atual.getHeight(),
+                    codificarJpeg(atual, tamanho.getQualidade())));
+        }
+        return Optional.of(variantes);
+    }
+
+    /**
+     * Indica se o cabeçalho da imagem declara mais que {@link #MAXIMO_PIXELS}. Formatos
+     * que o ImageIO não lê, como o WEBP, não são conferidos.
+     */
+    static boolean excedeDimensoes(Path arquivo) {
+        try (ImageInputStream entrada = new FileImageInputStream(arquivo.toFile())) {
+            ImageReader leitor = leitor(entrada);
+            if (leitor == null) {
+                return false;
+            }
+            try {
+                return excede(leitor);
+            } finally {
+                leitor.dispose();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodifica a imagem, conferindo antes as dimensões declaradas no cabeçalho.
+     *
+     * @return a imagem, ou nulo se o formato não é suportado ou a imagem é grande demais
+     */
+    private static @Nullable BufferedImage ler(ImageInputStream entrada) throws IOException {
+        ImageReader leitor = leitor(entrada);
+        if (leitor == null) {
+            return null;
+        }
+        try {
+            return excede(leitor) ? null : leitor.read(0);
+        } finally {
+            leitor.dispose();
+        }
+    }
+
+    private static @Nullable ImageReader leitor(ImageInputStream entrada) {
+        Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+        if (!leitores.hasNext()) {
+            return null;
+        }
+        ImageReader leitor = leitores.next();
+        leitor.setInput(entrada, true, true);
+        return leitor;
+    }
+
+    private static boolean excede(ImageReader leitor) throws IOException {
+        return (long) leitor.getWidth(0) * leitor.getHeight(0) > MAXIMO_PIXELS;
+    }
+
+    /**
+     * Reduz a imagem até que o maior lado caiba em {@code ladoMaximo}, mantendo a proporção.
+     */
+    static BufferedImage reduzir(BufferedImage imagem, int ladoMaximo) {
+        int maiorLado = Math.max(imagem.getWidth(), imagem.getHeight());
+        if (maiorLado <= ladoMaximo) {
+            return imagem;
+        }
+
+        double escala = (double) ladoMaximo / maiorLado;
+        int larguraFinal = Math.max(1, (int) Math.round(imagem.getWidth() * escala));
+        int alturaFinal = Math.max(1, (int) Math.round(imagem.getHeight() * escala));
+
+        BufferedImage atual = imagem;
+        while (atual.getWidth() / 2 >= larguraFinal && atual.getHeight() / 2 >= alturaFinal) {
+            atual = desenhar(atual, atual.getWidth() / 2, atual.getHeight() / 2);
+        }
+        if (atual.getWidth() != larguraFinal || atual.getHeight() != alturaFinal) {
+            atual = desenhar(atual, larguraFinal, alturaFinal);
+        }
+        return atual;
+    }
+
+    static byte[] codificarJpeg(BufferedImage imagem, float qualidade) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(saida)) {
+            writer.setOutput(stream);
+            ImageWriteParam parametros = writer.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(qualidade);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(imagem, null, null), parametros);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao codificar imagem JPEG", e);
+        } finally {
+            writer.dispose();
+        }
+        return saida.toByteArray();
+    }
+
+    private static BufferedImage paraRgb(BufferedImage imagem) {
+        if (imagem.getType() == BufferedImage.TYPE_INT_RGB) {
+            return imagem;
+        }
+        BufferedImage rgb = new BufferedImage(imagem.getWidth(), imagem.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, imagem.getWidth(), imagem.getHeight());
+            g.drawImage(imagem, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage desenhar(BufferedImage imagem, int largura, int altura) {
+        BufferedImage destino = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(imagem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+}
@@ -0,0 +1,10 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Resultado de uma alteração em lote.
+ *
+ * @param lote identificador gravado nas linhas de auditoria da alteração
+ * @param alterados quantidade de produtos alterados
+ */
+public record ResultadoAlteracaoLote(String lote, int alterados) {
+}
@@ -0,0 +1,23 @@
+package com.leandrosnazareth.produto.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Resultado de uma importação de produtos.
+ * <p>
+ * Um código repetido no arquivo é gravado uma vez, com os valores da última linha
+ * em que aparece, então {@code inseridos + atualizados + rejeitados} pode ser menor
+ * que {@code linhas}.
+ * </p>
+ *
+ * @param linhas registros lidos do arquivo, sem o cabeçalho
+ * @param inseridos produtos criados
+ * @param atualizados produtos existentes alterados
+ * @param rejeitados registros com erro, que não foram gravados
+ * @param erros mensagens dos primeiros erros, com o número da linha
+ * @param duracao tempo total da importação
+ */
+public record ResultadoImportacao(long linhas, long inseridos, long atualizados, long rejeitados,
+        List<String> erros, Duration duracao) {
+}
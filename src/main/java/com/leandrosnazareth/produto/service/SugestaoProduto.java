@@ -0,0 +1,11 @@
+package com.leandrosnazareth.produto.service;
+
+/**
+ * Resumo de um produto exibido nas sugestões de autocompletar.
+ *
+ * @param id ID do produto
+ * @param codigo código do produto
+ * @param nome nome do produto
+ */
+public record SugestaoProduto(Long id, String codigo, String nome) {
+}
@@ -1,26 +1,37 @@
 package com.leandrosnazareth.produto.ui.component;
 
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.service.FotoRecebida;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
+import com.leandrosnazareth.produto.web.ProdutoImagemController;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
-import com.vaadin.flow.component.html.Input;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.function.Consumer;
+import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * Componente personalizado para upload de fotos.
  * 
  * Permite upload de arquivos locais ou inserção via URL.
  * Exibe preview da imagem selecionada.
+ * 
+ * O arquivo é enviado como fluxo pelo {@link FotoUploadHandler} e gravado em arquivo
+ * temporário, validado durante o envio; o componente guarda apenas a referência ao
+ * temporário até o produto ser salvo.
  */
 public class FotoUploadComponent extends VerticalLayout {
     
@@ -31,18 +42,22 @@ public class FotoUploadComponent extends VerticalLayout {
     private final Button previewButton;
     private final Button removeButton;
     private final Button selectFileButton;
-    private final Input fileInput;
+    private final Upload upload;
     private final Div uploadInfo;
     
-    private byte[] fotoBytes;
-    private String fileName;
-    private Consumer<byte[]> onFotoChange;
+    // Foto enviada e ainda não salva, foto já armazenada ou URL visualizada; no máximo uma delas
+    private @Nullable FotoRecebida fotoRecebida;
+    private @Nullable String fotoHash;
+    private @Nullable String fotoUrl;
+    private @Nullable Runnable onFotoChange;
     private boolean silenciarCallbacks = false;
     
     /**
      * Construtor do componente de upload de foto.
+     * 
+     * @param imagemService serviço que recebe e valida o arquivo enviado
      */
-    public FotoUploadComponent() {
+    public FotoUploadComponent(ProdutoImagemService imagemService) {
         setSpacing(true);
         setPadding(false);
         
@@ -55,18 +70,18 @@ public class FotoUploadComponent extends VerticalLayout {
         preview.getStyle().set("object-fit", "cover");
         preview.setVisible(false);
         
-        // Criar input de arquivo (HTML5)
-        fileInput = new Input();
-        fileInput.getElement().setAttribute("type", "file");
-        fileInput.getElement().setAttribute("accept", "image/*");
-        fileInput.getElement().setAttribute("style", "display: none");
-        
         // Criar botão para selecionar arquivo
         selectFileButton = new Button("Selecionar Arquivo", VaadinIcon.UPLOAD.create());
         selectFileButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
-        selectFileButton.addClickListener(e -> {
-            fileInput.getElement().callJsFunction("click");
-        });
+        
+        // Upload em fluxo; o navegador já recusa tipos e tamanhos inválidos, e o servidor confere de novo
+        upload = new Upload(new FotoUploadHandler(imagemService, this::onFotoRecebida, this::onFileError));
+        upload.setUploadButton(selectFileButton);
+        upload.setDropAllowed(false);
+        upload.setMaxFiles(1);
+        upload.setMaxFileSize(ProdutoImagemService.TAMANHO_MAXIMO);
+        upload.setAcceptedFileTypes(ProdutoImagemService.TIPOS_ACEITOS.toArray(String[]::new));
+        upload.addFileRejectedListener(e -> onFileError(e.getErrorMessage()));
         
         // Info sobre upload
         uploadInfo = new Div();
@@ -92,7 +107,7 @@ public class FotoUploadComponent extends VerticalLayout {
         removeButton.addClickListener(e -> removerFoto());
         
         // Layout dos botões de arquivo
-        HorizontalLayout fileButtonLayout = new HorizontalLayout(selectFileButton);
+        HorizontalLayout fileButtonLayout = new HorizontalLayout(upload);
         fileButtonLayout.setSpacing(true);
         
         // Layout dos botões de URL
@@ -108,10 +123,7 @@ public class FotoUploadComponent extends VerticalLayout {
         separator.getStyle().set("margin", "10px 0");
         
         // Adicionar componentes
-        add(fileInput, fileButtonLayout, uploadInfo, separator, urlField, urlButtonLayout, preview);
-        
-        // Configurar listeners
-        configurarFileInput();
+        add(fileButtonLayout, uploadInfo, separator, urlField, urlButtonLayout, preview);
         
         // Adicionar listener para Enter no campo URL
         urlField.addKeyPressListener(event -> {
@@ -122,84 +134,36 @@ public class FotoUploadComponent extends VerticalLayout {
     }
     
     /**
-     * Configura o input de arquivo usando JavaScript.
-     */
-    private void configurarFileInput() {
-        // Adicionar listener via JavaScript para processar o arquivo
-        fileInput.getElement().addEventListener("change", e -> {
-            // Usar JavaScript para ler o arquivo
-            getElement().executeJs(
-                """
-                const fileInput = this.querySelector('input[type=file]');
-                const file = fileInput.files[0];
-                if (file) {
-                    if (file.size > 5 * 1024 * 1024) {
-                        $0.$server.onFileError('Arquivo muito grande. Máximo: 5MB');
-                        return;
-                    }
-                    
-                    const allowedTypes = ['image/jpeg', 'image/png', 'image/gif', 'image/webp'];
-                    if (!allowedTypes.includes(file.type)) {
-                        $0.$server.onFileError('Tipo de arquivo não permitido. Use: JPEG, PNG, GIF ou WEBP');
-                        return;
-                    }
-                    
-                    const reader = new FileReader();
-                    reader.onload = function(e) {
-                        const base64 = e.target.result;
-                        $0.$server.onFileSelected(file.name, file.type, base64);
-                    };
-                    reader.readAsDataURL(file);
-                }
-                """,
-                getElement()
-            );
-        });
-    }
-    
-    /**
-     * Callback chamado quando um arquivo é selecionado com sucesso.
+     * Callback chamado, já com o lock da sessão, quando um arquivo é recebido com sucesso.
      */
-    @com.vaadin.flow.component.ClientCallable
-    public void onFileSelected(String fileName, String mimeType, String base64Data) {
-        try {
-            this.fileName = fileName;
-            
-            // Converter base64 para bytes (remover o prefixo data:image/...;base64,)
-            String base64 = base64Data.substring(base64Data.indexOf(',') + 1);
-            this.fotoBytes = java.util.Base64.getDecoder().decode(base64);
-            
-            // Exibir preview
-            preview.setSrc(base64Data);
-            preview.setVisible(true);
-            removeButton.setVisible(true);
-            
-            // Limpar campo URL
-            urlField.clear();
-            
-            // Notificar mudança
-            notificarMudancaFoto(fotoBytes);
-            
-            logger.info("Arquivo carregado: {} ({} bytes)", fileName, fotoBytes.length);
-            
-            Notification.show("Imagem carregada com sucesso!", 
-                3000, Notification.Position.MIDDLE)
-                .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-                
-        } catch (Exception e) {
-            logger.error("Erro ao processar arquivo: {}", e.getMessage(), e);
-            Notification.show("Erro ao processar arquivo: " + e.getMessage(), 
-                5000, Notification.Position.MIDDLE)
-                .addThemeVariants(NotificationVariant.LUMO_ERROR);
-        }
+    private void onFotoRecebida(FotoRecebida foto) {
+        descartarFotoRecebida();
+        fotoRecebida = foto;
+        fotoHash = null;
+        fotoUrl = null;
+        upload.clearFileList();
+        
+        // Exibir preview a partir do arquivo temporário
+        preview.setSrc(DownloadHandler.forFile(foto.arquivo().toFile()));
+        preview.setVisible(true);
+        removeButton.setVisible(true);
+        
+        // Limpar campo URL
+        urlField.clear();
+        
+        // Notificar mudança
+        notificarMudancaFoto();
+        
+        Notification.show("Imagem carregada com sucesso!", 
+            3000, Notification.Position.MIDDLE)
+            .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
     }
     
     /**
      * Callback chamado quando há erro no arquivo.
      */
-    @com.vaadin.flow.component.ClientCallable
-    public void onFileError(String message) {
-        logger.warn("Erro no arquivo: {}", message);
+    private void onFileError(String message) {
+        upload.clearFileList();
         Notification.show(message, 5000, Notification.Position.MIDDLE)
             .addThemeVariants(NotificationVariant.LUMO_ERROR);
     }
@@ -211,16 +175,16 @@ public class FotoUploadComponent extends VerticalLayout {
         String url = urlField.getValue();
         if (url != null && !url.trim().isEmpty()) {
             try {
-                // Simular conversão para bytes (em uma implementação real, 
-                // você baixaria a imagem e converteria para bytes)
-                fotoBytes = url.getBytes();
+                descartarFotoRecebida();
+                fotoHash = null;
+                fotoUrl = url.trim();
                 
                 preview.setSrc(url);
                 preview.setVisible(true);
                 removeButton.setVisible(true);
                 
                 // Notificar mudança
-                notificarMudancaFoto(fotoBytes);
+                notificarMudancaFoto();
                 
                 logger.info("Preview da foto carregado: {}", url);
                 
@@ -241,17 +205,10 @@ public class FotoUploadComponent extends VerticalLayout {
      * Remove a foto selecionada.
      */
     private void removerFoto() {
-        fotoBytes = null;
-        fileName = null;
-        urlField.clear();
-        preview.setVisible(false);
-        removeButton.setVisible(false);
-        
-        // Limpar o input de arquivo
-        fileInput.getElement().setProperty("value", "");
+        limparEstado();
         
         // Notificar mudança
-        notificarMudancaFoto(null);
+        notificarMudancaFoto();
     }
     
     /**
@@ -260,14 +217,7 @@ public class FotoUploadComponent extends VerticalLayout {
     public void limparSilenciosamente() {
         silenciarCallbacks = true;
         try {
-            fotoBytes = null;
-            fileName = null;
-            urlField.clear();
-            preview.setVisible(false);
-            removeButton.setVisible(false);
-            
-            // Limpar o input de arquivo
-            fileInput.getElement().setProperty("value", "");
+            limparEstado();
             
             logger.debug("Componente de foto limpo silenciosamente");
         } catch (Exception e) {
@@ -280,30 +230,20 @@ public class FotoUploadComponent extends VerticalLayout {
     /**
      * Define o callback para mudanças na foto.
      */
-    public void setOnFotoChange(Consumer<byte[]> onFotoChange) {
+    public void setOnFotoChange(Runnable onFotoChange) {
         this.onFotoChange = onFotoChange;
     }
     
     /**
-     * Define a foto atual.
+     * Define a foto atual, já armazenada, pelo hash; o preview é carregado pela URL da imagem.
      */
-    public void setFoto(byte[] fotoBytes) {
-        this.fotoBytes = fotoBytes;
-        if (fotoBytes != null && fotoBytes.length > 0) {
-            // Converter bytes para base64 para exibir
-            String base64 = java.util.Base64.getEncoder().encodeToString(fotoBytes);
-            String dataUrl = "data:image/jpeg;base64," + base64;
-            
-            preview.setSrc(dataUrl);
+    public void setFotoHash(@Nullable String fotoHash) {
+        limparEstado();
+        this.fotoHash = fotoHash;
+        if (fotoHash != null) {
+            preview.setSrc(ProdutoImagemController.url(fotoHash, ProdutoImagemVariante.Tamanho.CARTAO));
             preview.setVisible(true);
             removeButton.setVisible(true);
-            
-            // Limpar campo URL
-            urlField.clear();
-        } else {
-            urlField.clear();
-            preview.setVisible(false);
-            removeButton.setVisible(false);
         }
     }
     
@@ -311,6 +251,7 @@ public class FotoUploadComponent extends VerticalLayout {
      * Define a URL da foto.
      */
     public void setFotoUrl(String url) {
+        limparEstado();
         urlField.setValue(url != null ? url : "");
         if (url != null && !url.trim().isEmpty()) {
             mostrarPreviewUrl();
@@ -318,48 +259,67 @@ public class FotoUploadComponent extends VerticalLayout {
     }
     
     /**
-     * Retorna os bytes da foto atual.
+     * Retorna a foto enviada e ainda não armazenada, se houver.
      */
-    public byte[] getFoto() {
-        return fotoBytes;
+    public @Nullable FotoRecebida getFotoRecebida() {
+        return fotoRecebida;
     }
     
     /**
-     * Retorna a URL da foto.
+     * Retorna a URL da foto, se a foto atual é uma URL.
      */
-    public String getFotoUrl() {
-        return urlField.getValue();
+    public @Nullable String getFotoUrl() {
+        return fotoUrl;
     }
     
     /**
-     * Retorna o nome do arquivo.
+     * Verifica se há uma foto selecionada.
      */
-    public String getFileName() {
-        return fileName;
+    public boolean hasFoto() {
+        return fotoRecebida != null || fotoHash != null || fotoUrl != null;
     }
     
     /**
-     * Verifica se há uma foto selecionada.
+     * Volta ao estado sem foto, apagando o temporário de um envio não salvo.
      */
-    public boolean hasFoto() {
-        return fotoBytes != null && fotoBytes.length > 0;
+    private void limparEstado() {
+        descartarFotoRecebida();
+        fotoHash = null;
+        fotoUrl = null;
+        urlField.clear();
+        upload.clearFileList();
+        preview.setVisible(false);
+        removeButton.setVisible(false);
     }
     
     /**
-     * Notifica mudança de foto de forma segura.
+     * Apaga o arquivo temporário do envio anterior; depois que o produto é salvo, o
+     * arquivo já foi movido para o armazenamento e não há o que apagar.
      */
-    private void notificarMudancaFoto(byte[] bytes) {
-        if (silenciarCallbacks) {
+    private void descartarFotoRecebida() {
+        if (fotoRecebida == null) {
             return;
         }
-        
+        try {
+            Files.deleteIfExists(fotoRecebida.arquivo());
+        } catch (IOException e) {
+            // O coletor de imagens apaga os temporários esquecidos
+            logger.warn("Não foi possível apagar o arquivo temporário {}", fotoRecebida.arquivo(), e);
+        }
+        fotoRecebida = null;
+    }
+    
+    /**
+     * Notifica mudança de foto de forma segura.
+     */
+    private void notificarMudancaFoto() {
         if (silenciarCallbacks) {
             return;
         }
         
         try {
             if (onFotoChange != null) {
-                onFotoChange.accept(bytes);
+                onFotoChange.run();
             }
         } catch (Exception e) {
             logger.error("Erro ao notificar mudança de foto: {}", e.getMessage(), e);
@@ -0,0 +1,48 @@
+package com.leandrosnazareth.produto.ui.component;
+
+import com.leandrosnazareth.produto.service.FotoRecebida;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.streams.UploadEvent;
+import com.vaadin.flow.server.streams.UploadHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Recebe o envio da foto como fluxo, gravando-o direto em arquivo temporário.
+ * <p>
+ * Roda na requisição do envio, fora do lock da sessão; o componente só é avisado do
+ * resultado por {@link UI#access}.
+ * </p>
+ */
+class FotoUploadHandler implements UploadHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FotoUploadHandler.class);
+
+    private final ProdutoImagemService imagemService;
+    private final Consumer<FotoRecebida> onRecebida;
+    private final Consumer<String> onErro;
+
+    FotoUploadHandler(ProdutoImagemService imagemService, Consumer<FotoRecebida> onRecebida,
+            Consumer<String> onErro) {
+        this.imagemService = imagemService;
+        this.onRecebida = onRecebida;
+        this.onErro = onErro;
+    }
+
+    @Override
+    public void handleUploadRequest(UploadEvent event) throws IOException {
+        UI ui = event.getUI();
+        try {
+            FotoRecebida foto = imagemService.receber(event.getInputStream(), event.getFileSize());
+            logger.info("Arquivo recebido: {} ({} bytes)", event.getFileName(), foto.tamanho());
+            ui.access(() -> onRecebida.accept(foto));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Arquivo rejeitado: {} - {}", event.getFileName(), e.getMessage());
+            ui.access(() -> onErro.accept(e.getMessage()));
+        }
+    }
+}
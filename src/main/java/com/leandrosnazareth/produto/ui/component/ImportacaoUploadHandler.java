@@ -0,0 +1,50 @@
+package com.leandrosnazareth.produto.ui.component;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.streams.UploadEvent;
+import com.vaadin.flow.server.streams.UploadHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+
+/**
+ * Recebe o arquivo da importação como fluxo e o grava em arquivo temporário.
+ * <p>
+ * Roda na requisição do envio, fora do lock da sessão; o diálogo só é avisado, por
+ * {@link UI#access}, depois que o arquivo foi gravado por inteiro.
+ * </p>
+ */
+class ImportacaoUploadHandler implements UploadHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoUploadHandler.class);
+
+    private final Consumer<Path> onRecebido;
+    private final Consumer<String> onErro;
+
+    ImportacaoUploadHandler(Consumer<Path> onRecebido, Consumer<String> onErro) {
+        this.onRecebido = onRecebido;
+        this.onErro = onErro;
+    }
+
+    @Override
+    public void handleUploadRequest(UploadEvent event) throws IOException {
+        UI ui = event.getUI();
+        Path arquivo = Files.createTempFile("importacao-produtos-", ".csv");
+        try (InputStream entrada = event.getInputStream()) {
+            Files.copy(entrada, arquivo, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(arquivo);
+            logger.warn("Envio do arquivo {} interrompido: {}", event.getFileName(), e.getMessage());
+            ui.access(() -> onErro.accept("Envio do arquivo interrompido"));
+            return;
+        }
+        logger.info("Arquivo de importação recebido: {} ({} bytes)", event.getFileName(), Files.size(arquivo));
+        ui.access(() -> onRecebido.accept(arquivo));
+    }
+}
@@ -0,0 +1,180 @@
+package com.leandrosnazareth.produto.ui.component;
+
+import com.leandrosnazareth.produto.service.FiltroLote;
+import com.leandrosnazareth.produto.service.ProdutoAlteracaoLoteService;
+import com.leandrosnazareth.produto.service.ProdutoAlteracaoLoteService.TipoReajuste;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.produto.service.ResultadoAlteracaoLote;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.select.Select;
+import com.vaadin.flow.component.textfield.BigDecimalField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * Diálogo de administração para alterar de uma vez o preço ou a situação de todos os
+ * produtos de uma categoria ou marca.
+ * <p>
+ * A alteração é feita pelo {@link ProdutoAlteracaoLoteService} com um único comando
+ * sobre o conjunto, e fica registrada na auditoria de produtos.
+ * </p>
+ */
+public class ProdutoAlteracaoLoteDialog extends Dialog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoAlteracaoLoteDialog.class);
+
+    private enum Operacao {
+        REAJUSTAR("Reajustar preço de venda"),
+        ATIVAR("Ativar produtos"),
+        INATIVAR("Inativar produtos");
+
+        private final String descricao;
+
+        Operacao(String descricao) {
+            this.descricao = descricao;
+        }
+    }
+
+    private final ProdutoAlteracaoLoteService alteracaoLoteService;
+    private final ProdutoService produtoService;
+    private final Runnable onConcluida;
+
+    private final Select<FiltroLote.Campo> campoSelect;
+    private final ComboBox<String> valorFiltroCombo;
+    private final Select<Operacao> operacaoSelect;
+    private final Select<TipoReajuste> tipoReajusteSelect;
+    private final BigDecimalField reajusteField;
+
+    /**
+     * @param onConcluida chamado quando uma alteração é aplicada
+     */
+    public ProdutoAlteracaoLoteDialog(ProdutoAlteracaoLoteService alteracaoLoteService,
+            ProdutoService produtoService, Runnable onConcluida) {
+        this.alteracaoLoteService = alteracaoLoteService;
+        this.produtoService = produtoService;
+        this.onConcluida = onConcluida;
+
+        setHeaderTitle("Alterar Produtos em Lote");
+        setModal(true);
+        setWidth("520px");
+
+        campoSelect = new Select<>();
+        campoSelect.setLabel("Selecionar por");
+        campoSelect.setItems(FiltroLote.Campo.values());
+        campoSelect.setItemLabelGenerator(FiltroLote.Campo::getDescricao);
+        campoSelect.setValue(FiltroLote.Campo.CATEGORIA);
+        campoSelect.addValueChangeListener(e -> carregarValores());
+
+        valorFiltroCombo = new ComboBox<>();
+        valorFiltroCombo.setRequired(true);
+
+        operacaoSelect = new Select<>();
+        operacaoSelect.setLabel("Operação");
+        operacaoSelect.setItems(Operacao.values());
+        operacaoSelect.setItemLabelGenerator(operacao -> operacao.descricao);
+        operacaoSelect.setValue(Operacao.REAJUSTAR);
+        operacaoSelect.addValueChangeListener(e -> atualizarCamposReajuste());
+
+        tipoReajusteSelect = new Select<>();
+        tipoReajusteSelect.setLabel("Tipo de reajuste");
+        tipoReajusteSelect.setItems(TipoReajuste.values());
+        tipoReajusteSelect.setItemLabelGenerator(TipoReajuste::getDescricao);
+        tipoReajusteSelect.setValue(TipoReajuste.PERCENTUAL);
+
+        reajusteField = new BigDecimalField("Reajuste");
+        reajusteField.setHelperText("Use valores negativos para reduzir o preço");
+
+        FormLayout formulario = new FormLayout(campoSelect, valorFiltroCombo, operacaoSelect, tipoReajusteSelect,
+                reajusteField);
+        formulario.setResponsiveSteps(new FormLayout.ResponsiveStep("0", 1), new FormLayout.ResponsiveStep("400px", 2));
+        formulario.setColspan(operacaoSelect, 2);
+        add(formulario);
+
+        Button aplicarButton = new Button("Aplicar", e -> confirmar());
+        aplicarButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        Button cancelarButton = new Button("Cancelar", e -> close());
+        getFooter().add(cancelarButton, aplicarButton);
+
+        addOpenedChangeListener(e -> {
+            if (e.isOpened()) {
+                carregarValores();
+            }
+        });
+    }
+
+    private void carregarValores() {
+        FiltroLote.Campo campo = campoSelect.getValue();
+        valorFiltroCombo.setLabel(campo.getDescricao());
+        valorFiltroCombo.clear();
+        valorFiltroCombo.setItems(campo == FiltroLote.Campo.CATEGORIA ? produtoService.listarCategorias()
+                : produtoService.listarMarcas());
+    }
+
+    private void atualizarCamposReajuste() {
+        boolean reajuste = operacaoSelect.getValue() == Operacao.REAJUSTAR;
+        tipoReajusteSelect.setVisible(reajuste);
+        reajusteField.setVisible(reajuste);
+    }
+
+    private void confirmar() {
+        String valorFiltro = valorFiltroCombo.getValue();
+        if (valorFiltro == null || valorFiltro.isBlank()) {
+            mostrarErro("Selecione " + campoSelect.getValue().getDescricao().toLowerCase());
+            return;
+        }
+        Operacao operacao = operacaoSelect.getValue();
+        BigDecimal reajuste = reajusteField.getValue();
+        if (operacao == Operacao.REAJUSTAR && (reajuste == null || reajuste.signum() == 0)) {
+            mostrarErro("Informe o valor do reajuste");
+            return;
+        }
+
+        FiltroLote filtro = new FiltroLote(campoSelect.getValue(), valorFiltro);
+        String descricao = operacao == Operacao.REAJUSTAR
+                ? "Reajustar em %s%s o preço de venda".formatted(reajuste.toPlainString(),
+                        tipoReajusteSelect.getValue() == TipoReajuste.PERCENTUAL ? "%" : " reais")
+                : operacao.descricao;
+        ConfirmDialog confirmacao = new ConfirmDialog();
+        confirmacao.setHeader("Confirmar alteração em lote");
+        confirmacao.setText("%s de todos os produtos com %s \"%s\"?".formatted(descricao,
+                filtro.campo().getDescricao().toLowerCase(), valorFiltro));
+        confirmacao.setCancelable(true);
+        confirmacao.setConfirmText("Aplicar");
+        confirmacao.addConfirmListener(e -> aplicar(() -> switch (operacao) {
+            case REAJUSTAR -> alteracaoLoteService.reajustarPrecos(filtro, tipoReajusteSelect.getValue(), reajuste);
+            case ATIVAR -> alteracaoLoteService.alterarAtivo(filtro, true);
+            case INATIVAR -> alteracaoLoteService.alterarAtivo(filtro, false);
+        }));
+        confirmacao.open();
+    }
+
+    private void aplicar(Supplier<ResultadoAlteracaoLote> alteracao) {
+        try {
+            ResultadoAlteracaoLote resultado = alteracao.get();
+            Notification.show(resultado.alterados() + " produto(s) alterado(s)", 3000, Notification.Position.MIDDLE)
+                    .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+            close();
+            onConcluida.run();
+        } catch (IllegalArgumentException e) {
+            mostrarErro(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erro na alteração de produtos em lote", e);
+            mostrarErro("Erro ao alterar os produtos");
+        }
+    }
+
+    private static void mostrarErro(String mensagem) {
+        Notification.show(mensagem, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+}
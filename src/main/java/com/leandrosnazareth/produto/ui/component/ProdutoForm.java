@@ -7,6 +7,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.service.FotoRecebida;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
 import com.leandrosnazareth.produto.service.ProdutoService;
 import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.button.Button;
@@ -44,6 +46,7 @@ public class ProdutoForm extends Dialog {
     private static final Logger logger = LoggerFactory.getLogger(ProdutoForm.class);
     
     private final ProdutoService produtoService;
+    private final ProdutoImagemService imagemService;
     private final Binder<Produto> binder;
     
     // Campos do formulário
@@ -65,7 +68,7 @@ public class ProdutoForm extends Dialog {
     
     // Campos de foto
     private final FotoUploadComponent fotoUpload;
-    private byte[] fotoBytes;
+    private boolean fotoAlterada;
     
     // Botões
     private final Button salvarButton;
@@ -80,11 +83,14 @@ public class ProdutoForm extends Dialog {
      * Construtor do formulário de produto.
      * 
      * @param produtoService serviço para operações de produto
+     * @param imagemService serviço que armazena e lê as imagens dos produtos
      * @param onSave callback chamado após salvar com sucesso
      * @param onDelete callback chamado após excluir com sucesso
      */
-    public ProdutoForm(ProdutoService produtoService, Consumer<Produto> onSave, Consumer<Produto> onDelete) {
+    public ProdutoForm(ProdutoService produtoService, ProdutoImagemService imagemService,
+            Consumer<Produto> onSave, Consumer<Produto> onDelete) {
         this.produtoService = produtoService;
+        this.imagemService = imagemService;
         this.onSave = onSave;
         this.onDelete = onDelete;
         this.binder = new Binder<>(Produto.class);
@@ -114,13 +120,11 @@ public class ProdutoForm extends Dialog {
         observacoesField = new TextArea("Observações");
         
         // Campos de foto
-        fotoUpload = new FotoUploadComponent();
-        fotoUpload.setOnFotoChange(bytes -> {
-            // Apenas armazenar os bytes, não disparar atualizações desnecessárias
-            this.fotoBytes = bytes;
-            // Log para debug
-            logger.debug("Foto alterada no formulário: {} bytes", 
-                        bytes != null ? bytes.length : 0);
+        fotoUpload = new FotoUploadComponent(imagemService);
+        fotoUpload.setOnFotoChange(() -> {
+            // Apenas marcar a alteração; a foto só é armazenada ao salvar
+            this.fotoAlterada = true;
+            logger.debug("Foto alterada no formulário");
         });
         
         // Botões
@@ -380,8 +384,8 @@ public class ProdutoForm extends Dialog {
         binder.setBean(produto);
         
         // Limpar foto
-        fotoBytes = null;
-        fotoUpload.setFoto(null);
+        fotoUpload.setFotoHash(null);
+        fotoAlterada = false;
         
         excluirButton.setVisible(false);
         open();
@@ -397,14 +401,12 @@ public class ProdutoForm extends Dialog {
         this.produto = produto;
         binder.setBean(produto);
         
-        // Carregar foto se existir
-        if (produto.getFoto() != null) {
-            fotoBytes = produto.getFoto();
-            fotoUpload.setFoto(fotoBytes);
-        } else {
-            fotoBytes = null;
-            fotoUpload.setFoto(null);
+        // Carregar foto se existir; o preview é buscado pelo navegador na URL da imagem
+        fotoUpload.setFotoHash(produto.getFotoHash());
+        if (produto.getFotoHash() == null && produto.getFotoUrl() != null) {
+            fotoUpload.setFotoUrl(produto.getFotoUrl());
         }
+        fotoAlterada = false;
         
         excluirButton.setVisible(true);
         open();
@@ -419,9 +421,9 @@ public class ProdutoForm extends Dialog {
             if (binder.validate().isOk()) {
                 binder.writeBean(produto);
                 
-                // Salvar foto se houver
-                if (fotoBytes != null) {
-                    produto.setFoto(fotoBytes);
+                // Salvar foto somente se foi alterada no formulário
+                if (fotoAlterada) {
+                    atualizarFoto();
                 }
                 
                 // Validação adicional
@@ -456,6 +458,29 @@ public class ProdutoForm extends Dialog {
         }
     }
     
+    /**
+     * Grava a nova foto no armazenamento de imagens e atualiza a referência no produto.
+     * <p>
+     * A URL informada no componente é guardada como URL; um arquivo enviado é movido
+     * do temporário para o armazenamento de imagens e o produto passa a guardar apenas
+     * o seu hash.
+     * </p>
+     */
+    private void atualizarFoto() {
+        FotoRecebida fotoRecebida = fotoUpload.getFotoRecebida();
+        String url = fotoUpload.getFotoUrl();
+        if (fotoRecebida != null) {
+            produto.setFotoHash(imagemService.armazenar(fotoRecebida));
+            produto.setFotoUrl(null);
+        } else if (url != null) {
+            produto.setFotoHash(null);
+            produto.setFotoUrl(url);
+        } else if (!fotoUpload.hasFoto()) {
+            produto.setFotoHash(null);
+            produto.setFotoUrl(null);
+        }
+    }
+    
     /**
      * Exclui o produto.
      */
@@ -503,7 +528,7 @@ public class ProdutoForm extends Dialog {
     private void cancelar() {
         try {
             // Limpar estado da foto sem disparar callbacks
-            fotoBytes = null;
+            fotoAlterada = false;
             fotoUpload.limparSilenciosamente();
             
             // Resetar formulário
@@ -0,0 +1,43 @@
+package com.leandrosnazareth.produto.ui.component;
+
+import java.util.Optional;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.web.ProdutoImagemController;
+import com.vaadin.flow.component.html.Image;
+
+/**
+ * Cria as imagens dos produtos para grids e formulários.
+ * <p>
+ * As imagens enviadas ao sistema são referenciadas pela URL do
+ * {@link ProdutoImagemController}, então os bytes não passam pela comunicação do
+ * Vaadin, só são lidos quando o navegador pede a imagem e ficam no cache do navegador
+ * entre atualizações dos grids.
+ * </p>
+ */
+public final class ProdutoFotos {
+
+    private ProdutoFotos() {
+    }
+
+    /**
+     * Cria a imagem do produto.
+     *
+     * @param produto o produto
+     * @param tamanho variante a exibir; a miniatura basta para as linhas dos grids
+     * @return a imagem, ou vazio se o produto não tem foto
+     */
+    public static Optional<Image> criarImagem(Produto produto, ProdutoImagemVariante.Tamanho tamanho) {
+        String hash = produto.getFotoHash();
+        if (hash != null) {
+            return Optional.of(new Image(ProdutoImagemController.url(hash, tamanho), produto.getNome()));
+        }
+
+        String url = produto.getFotoUrl();
+        if (url != null && !url.isBlank()) {
+            return Optional.of(new Image(url, produto.getNome()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,173 @@
+package com.leandrosnazareth.produto.ui.component;
+
+import com.leandrosnazareth.produto.service.ProdutoImportacaoService;
+import com.leandrosnazareth.produto.service.ProgressoImportacao;
+import com.leandrosnazareth.produto.service.ResultadoImportacao;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.textfield.TextArea;
+import com.vaadin.flow.component.upload.Upload;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Diálogo de importação de produtos a partir de um arquivo CSV.
+ * <p>
+ * O arquivo é enviado em fluxo para um temporário e importado em segundo plano pelo
+ * {@link ProdutoImportacaoService}. O andamento chega à tela por push, ao fim de cada
+ * lote; fechar o diálogo não interrompe a importação.
+ * </p>
+ */
+public class ProdutoImportacaoDialog extends Dialog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoImportacaoDialog.class);
+
+    // Igual ao limite do envio multipart em application.properties
+    private static final int TAMANHO_MAXIMO_ARQUIVO = 50 * 1024 * 1024;
+
+    private final ProdutoImportacaoService importacaoService;
+    private final Runnable onConcluida;
+
+    private final Upload upload;
+    private final ProgressBar progresso;
+    private final Span status;
+    private final TextArea erros;
+    private boolean importando;
+
+    /**
+     * @param importacaoService serviço que importa o arquivo
+     * @param onConcluida chamado, com o lock da sessão, quando uma importação termina
+     */
+    public ProdutoImportacaoDialog(ProdutoImportacaoService importacaoService, Runnable onConcluida) {
+        this.importacaoService = importacaoService;
+        this.onConcluida = onConcluida;
+
+        setHeaderTitle("Importar Produtos");
+        setModal(true);
+        setWidth("640px");
+
+        Div instrucoes = new Div();
+        instrucoes.setText("Arquivo CSV em UTF-8, separado por ponto e vírgula ou vírgula, com cabeçalho. "
+                + "Colunas obrigatórias: codigo, nome, preco_venda. Opcionais: descricao, categoria, marca, "
+                + "fornecedor, unidade, preco_compra, estoque_atual, estoque_minimo, estoque_maximo, peso. "
+                + "Produtos com código já cadastrado são atualizados apenas nas colunas presentes; "
+                + "estoque_atual em branco mantém o estoque cadastrado.");
+        instrucoes.getStyle().set("font-size", "0.9em");
+        instrucoes.getStyle().set("color", "var(--lumo-secondary-text-color)");
+
+        upload = new Upload(new ImportacaoUploadHandler(this::onArquivoRecebido, this::onErro));
+        upload.setUploadButton(new Button("Selecionar Arquivo", VaadinIcon.UPLOAD.create()));
+        upload.setMaxFiles(1);
+        upload.setMaxFileSize(TAMANHO_MAXIMO_ARQUIVO);
+        upload.setAcceptedFileTypes("text/csv", ".csv", ".txt");
+        upload.addFileRejectedListener(e -> onErro(e.getErrorMessage()));
+
+        progresso = new ProgressBar();
+        progresso.setVisible(false);
+
+        status = new Span();
+
+        erros = new TextArea("Linhas rejeitadas");
+        erros.setReadOnly(true);
+        erros.setWidthFull();
+        erros.setMaxHeight("200px");
+        erros.setVisible(false);
+
+        VerticalLayout conteudo = new VerticalLayout(instrucoes, upload, progresso, status, erros);
+        conteudo.setPadding(false);
+        add(conteudo);
+
+        Button fecharButton = new Button("Fechar", e -> close());
+        getFooter().add(fecharButton);
+    }
+
+    /**
+     * Callback chamado, já com o lock da sessão, quando o arquivo foi gravado no servidor.
+     */
+    private void onArquivoRecebido(Path arquivo) {
+        upload.clearFileList();
+        if (importando) {
+            apagar(arquivo);
+            onErro("Aguarde o fim da importação em andamento");
+            return;
+        }
+
+        UI ui = UI.getCurrent();
+        importando = true;
+        upload.setVisible(false);
+        progresso.setValue(0);
+        progresso.setVisible(true);
+        status.setText("Importando...");
+        erros.clear();
+        erros.setVisible(false);
+
+        try {
+            importacaoService.importar(arquivo, andamento -> ui.access(() -> mostrarAndamento(andamento)))
+                    .whenComplete((resultado, erro) -> ui.access(() -> concluir(resultado, erro)));
+        } catch (RuntimeException e) {
+            apagar(arquivo);
+            concluir(null, e);
+        }
+    }
+
+    private void mostrarAndamento(ProgressoImportacao andamento) {
+        progresso.setValue(andamento.fracao());
+        status.setText("%d linhas lidas: %d novos, %d atualizados, %d rejeitados".formatted(andamento.linhas(),
+                andamento.inseridos(), andamento.atualizados(), andamento.rejeitados()));
+    }
+
+    private void concluir(@Nullable ResultadoImportacao resultado, @Nullable Throwable erro) {
+        importando = false;
+        progresso.setVisible(false);
+        upload.setVisible(true);
+
+        if (resultado == null) {
+            Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+            logger.error("Erro na importação de produtos", causa);
+            String mensagem = causa instanceof IllegalArgumentException ? causa.getMessage()
+                    : "Erro ao importar o arquivo";
+            status.setText(mensagem);
+            onErro(mensagem);
+            return;
+        }
+
+        status.setText("%d linhas em %d s: %d novos, %d atualizados, %d rejeitados".formatted(resultado.linhas(),
+                resultado.duracao().toSeconds(), resultado.inseridos(), resultado.atualizados(),
+                resultado.rejeitados()));
+        if (!resultado.erros().isEmpty()) {
+            erros.setValue(String.join("\n", resultado.erros()));
+            erros.setVisible(true);
+        }
+        Notification.show("Importação concluída", 3000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+        onConcluida.run();
+    }
+
+    private void onErro(String mensagem) {
+        upload.clearFileList();
+        Notification.show(mensagem, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Não foi possível apagar o arquivo {}", arquivo, e);
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.leandrosnazareth.produto.ui.view;
 
+import com.leandrosnazareth.base.service.FormatoExportacao;
 import com.leandrosnazareth.base.ui.component.ViewToolbar;
 import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.service.FiltroProdutos;
+import com.leandrosnazareth.produto.service.ProdutoAlteracaoLoteService;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
+import com.leandrosnazareth.produto.service.ProdutoImportacaoService;
 import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.produto.ui.component.ProdutoAlteracaoLoteDialog;
 import com.leandrosnazareth.produto.ui.component.ProdutoForm;
+import com.leandrosnazareth.produto.ui.component.ProdutoFotos;
+import com.leandrosnazareth.produto.ui.component.ProdutoImportacaoDialog;
+import com.leandrosnazareth.produto.web.ProdutoExportacaoController;
+import com.leandrosnazareth.security.AppRoles;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -11,6 +22,7 @@ import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Main;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.Icon;
@@ -19,12 +31,14 @@ import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.textfield.BigDecimalField;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.security.AuthenticationContext;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import jakarta.annotation.security.PermitAll;
 import org.slf4j.Logger;
@@ -53,13 +67,24 @@ public class ProdutoListView extends Main {
     private static final Logger logger = LoggerFactory.getLogger(ProdutoListView.class);
     
     private final ProdutoService produtoService;
+    private final ProdutoImagemService imagemService;
+    private final ProdutoImportacaoService importacaoService;
+    private final ProdutoAlteracaoLoteService alteracaoLoteService;
     private final NumberFormat currencyFormat;
     
     // Componentes de busca e filtros
     private final TextField buscaField;
     private final ComboBox<String> categoriaFilter;
+    private final ComboBox<String> marcaFilter;
+    private final ComboBox<String> fornecedorFilter;
+    private final BigDecimalField precoMinimoFilter;
+    private final BigDecimalField precoMaximoFilter;
     private final ComboBox<String> statusFilter;
+    private FiltroProdutos filtro = FiltroProdutos.TODOS;
     private final Button novoProdutoButton;
+    private final Button importarButton;
+    private final Button exportarButton;
+    private final Button alterarLoteButton;
     private final Button atualizarButton;
     
     // Grid de produtos
@@ -67,21 +92,39 @@ public class ProdutoListView extends Main {
     
     // Formulário
     private ProdutoForm produtoForm;
+    private ProdutoImportacaoDialog importacaoDialog;
+    private ProdutoAlteracaoLoteDialog alteracaoLoteDialog;
 
     /**
      * Construtor da view de produtos.
      * 
      * @param produtoService serviço para operações de produto
+     * @param importacaoService serviço de importação de produtos em lote
+     * @param alteracaoLoteService serviço de alteração de preço e situação por categoria ou marca
+     * @param authenticationContext usado para exibir as ações de administrador
      */
-    public ProdutoListView(ProdutoService produtoService) {
+    public ProdutoListView(ProdutoService produtoService, ProdutoImagemService imagemService,
+            ProdutoImportacaoService importacaoService, ProdutoAlteracaoLoteService alteracaoLoteService,
+            AuthenticationContext authenticationContext) {
         this.produtoService = produtoService;
+        this.imagemService = imagemService;
+        this.importacaoService = importacaoService;
+        this.alteracaoLoteService = alteracaoLoteService;
         this.currencyFormat = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
         
         // Inicializar componentes
         buscaField = new TextField();
         categoriaFilter = new ComboBox<>();
+        marcaFilter = new ComboBox<>();
+        fornecedorFilter = new ComboBox<>();
+        precoMinimoFilter = new BigDecimalField();
+        precoMaximoFilter = new BigDecimalField();
         statusFilter = new ComboBox<>();
         novoProdutoButton = new Button("Novo Produto");
+        importarButton = new Button("Importar");
+        exportarButton = new Button("Exportar");
+        alterarLoteButton = new Button("Alterar em Lote");
+        alterarLoteButton.setVisible(authenticationContext.hasRole(AppRoles.ADMIN));
         atualizarButton = new Button();
         produtoGrid = new Grid<>(Produto.class, false);
         
@@ -128,6 +171,30 @@ public class ProdutoListView extends Main {
         categoriaFilter.setClearButtonVisible(true);
         categoriaFilter.addValueChangeListener(e -> filtrarProdutos());
         categoriaFilter.setWidth("200px");
+
+        // Filtros por marca e fornecedor
+        marcaFilter.setPlaceholder("Todas as marcas");
+        marcaFilter.setClearButtonVisible(true);
+        marcaFilter.addValueChangeListener(e -> filtrarProdutos());
+        marcaFilter.setWidth("170px");
+
+        fornecedorFilter.setPlaceholder("Todos os fornecedores");
+        fornecedorFilter.setClearButtonVisible(true);
+        fornecedorFilter.addValueChangeListener(e -> filtrarProdutos());
+        fornecedorFilter.setWidth("190px");
+
+        // Faixa de preço de venda
+        precoMinimoFilter.setPlaceholder("Preço mín.");
+        precoMinimoFilter.setClearButtonVisible(true);
+        precoMinimoFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        precoMinimoFilter.addValueChangeListener(e -> filtrarProdutos());
+        precoMinimoFilter.setWidth("120px");
+
+        precoMaximoFilter.setPlaceholder("Preço máx.");
+        precoMaximoFilter.setClearButtonVisible(true);
+        precoMaximoFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        precoMaximoFilter.addValueChangeListener(e -> filtrarProdutos());
+        precoMaximoFilter.setWidth("120px");
         
         // Filtro por status
         statusFilter.setPlaceholder("Todos os status");
@@ -141,6 +208,20 @@ public class ProdutoListView extends Main {
         novoProdutoButton.setIcon(new Icon(VaadinIcon.PLUS));
         novoProdutoButton.addClickListener(e -> abrirFormularioNovo());
         
+        // Botão importar CSV
+        importarButton.setIcon(new Icon(VaadinIcon.UPLOAD));
+        importarButton.addClickListener(e -> abrirImportacao());
+        importarButton.setTooltipText("Importar produtos de arquivo CSV");
+
+        // Botão exportar CSV
+        exportarButton.setIcon(new Icon(VaadinIcon.DOWNLOAD));
+        exportarButton.setTooltipText("Exportar o catálogo em arquivo CSV");
+
+        // Botão alteração em lote (somente administradores)
+        alterarLoteButton.setIcon(new Icon(VaadinIcon.COINS));
+        alterarLoteButton.addClickListener(e -> abrirAlteracaoLote());
+        alterarLoteButton.setTooltipText("Reajustar preços ou ativar/inativar por categoria ou marca");
+        
         // Botão atualizar
         atualizarButton.setIcon(new Icon(VaadinIcon.REFRESH));
         atualizarButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
@@ -206,8 +287,8 @@ public class ProdutoListView extends Main {
                 .setFlexGrow(0)
                 .setWidth("120px");
         
-        // Configurar fonte de dados
-        produtoGrid.setItems(query -> produtoService.listarProdutos(toSpringPageRequest(query)).stream());
+        // Configurar fonte de dados: todos os filtros vão para a consulta
+        configurarFonteDados();
         
         // Configurar seleção
         produtoGrid.addItemDoubleClickListener(e -> editarProduto(e.getItem()));
@@ -223,11 +304,17 @@ public class ProdutoListView extends Main {
         HorizontalLayout filtrosLayout = new HorizontalLayout();
         filtrosLayout.setWidthFull();
         filtrosLayout.setAlignItems(FlexComponent.Alignment.END);
-        filtrosLayout.add(buscaField, categoriaFilter, statusFilter, atualizarButton);
+        filtrosLayout.add(buscaField, categoriaFilter, marcaFilter, fornecedorFilter, precoMinimoFilter,
+                precoMaximoFilter, statusFilter, atualizarButton);
         filtrosLayout.setFlexGrow(1, buscaField);
         
+        // Link de exportação: o download é feito pelo navegador, fora do Vaadin
+        Anchor exportarLink = new Anchor(ProdutoExportacaoController.url(FormatoExportacao.CSV), exportarButton);
+        exportarLink.setRouterIgnore(true);
+        exportarLink.getElement().setAttribute("download", true);
+
         // Toolbar
-        ViewToolbar toolbar = new ViewToolbar("Produtos", ViewToolbar.group(filtrosLayout, novoProdutoButton));
+        ViewToolbar toolbar = new ViewToolbar("Produtos", ViewToolbar.group(filtrosLayout, importarButton, exportarLink, alterarLoteButton, novoProdutoButton));
         
         // Layout principal
         addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, 
@@ -245,6 +332,8 @@ public class ProdutoListView extends Main {
         try {
             // Carregar categorias para o filtro
             categoriaFilter.setItems(produtoService.listarCategorias());
+            marcaFilter.setItems(produtoService.listarMarcas());
+            fornecedorFilter.setItems(produtoService.listarFornecedores());
             
             // Atualizar estatísticas na toolbar se necessário
             atualizarEstatisticas();
@@ -309,7 +398,7 @@ public class ProdutoListView extends Main {
                 produtoGrid.deselectAll();
                 
                 // Reconfigurar data provider
-                produtoGrid.setItems(query -> produtoService.listarProdutos(toSpringPageRequest(query)).stream());
+                configurarFonteDados();
                 
                 // Forçar refresh
                 produtoGrid.getDataProvider().refreshAll();
@@ -337,33 +426,40 @@ public class ProdutoListView extends Main {
     }
 
     /**
-     * Aplica filtros aos produtos.
+     * Liga o grid ao filtro atual; cada página é buscada no banco já filtrada.
+     */
+    private void configurarFonteDados() {
+        produtoGrid.setItems(query -> produtoService.filtrar(filtro, toSpringPageRequest(query)).stream());
+    }
+
+    /**
+     * Combina todos os filtros preenchidos e recarrega o grid.
      */
     private void filtrarProdutos() {
-        String busca = buscaField.getValue();
-        String categoria = categoriaFilter.getValue();
         String status = statusFilter.getValue();
-        
-        if (busca != null && !busca.trim().isEmpty()) {
-            produtoGrid.setItems(query -> 
-                produtoService.buscarPorTermo(busca.trim(), toSpringPageRequest(query)).stream());
-        } else if (categoria != null && !categoria.trim().isEmpty()) {
-            produtoGrid.setItems(query -> 
-                produtoService.buscarPorCategoria(categoria, toSpringPageRequest(query)).stream());
-        } else if ("Ativo".equals(status)) {
-            produtoGrid.setItems(query -> 
-                produtoService.listarProdutosAtivos(toSpringPageRequest(query)).stream());
-        } else {
-            produtoGrid.setItems(query -> 
-                produtoService.listarProdutos(toSpringPageRequest(query)).stream());
-        }
-        
-        // Aplicar filtro adicional por status especial
-        if ("Estoque Baixo".equals(status)) {
-            produtoGrid.setItems(produtoService.listarProdutosComEstoqueBaixo());
+        FiltroProdutos.SituacaoEstoque estoque = null;
+        Boolean ativo = null;
+        if ("Ativo".equals(status)) {
+            ativo = true;
+        } else if ("Inativo".equals(status)) {
+            ativo = false;
+        } else if ("Estoque Baixo".equals(status)) {
+            estoque = FiltroProdutos.SituacaoEstoque.BAIXO;
+            ativo = true;
         } else if ("Sem Estoque".equals(status)) {
-            produtoGrid.setItems(produtoService.listarProdutosSemEstoque());
+            estoque = FiltroProdutos.SituacaoEstoque.SEM_ESTOQUE;
+            ativo = true;
         }
+
+        try {
+            filtro = new FiltroProdutos(buscaField.getValue(), categoriaFilter.getValue(), marcaFilter.getValue(),
+                    fornecedorFilter.getValue(), precoMinimoFilter.getValue(), precoMaximoFilter.getValue(), estoque,
+                    ativo);
+        } catch (IllegalArgumentException e) {
+            mostrarNotificacaoErro(e.getMessage());
+            return;
+        }
+        produtoGrid.getDataProvider().refreshAll();
     }
     
     /**
@@ -371,11 +467,29 @@ public class ProdutoListView extends Main {
      */
     private void abrirFormularioNovo() {
         if (produtoForm == null) {
-            produtoForm = new ProdutoForm(produtoService, this::onProdutoSalvo, this::onProdutoExcluido);
+            produtoForm = new ProdutoForm(produtoService, imagemService, this::onProdutoSalvo, this::onProdutoExcluido);
         }
         produtoForm.abrirParaNovo();
     }
     
+    /**
+     * Abre o diálogo de importação de produtos.
+     */
+    private void abrirImportacao() {
+        if (importacaoDialog == null) {
+            importacaoDialog = new ProdutoImportacaoDialog(importacaoService, this::atualizarDadosSilencioso);
+        }
+        importacaoDialog.open();
+    }
+
+    private void abrirAlteracaoLote() {
+        if (alteracaoLoteDialog == null) {
+            alteracaoLoteDialog = new ProdutoAlteracaoLoteDialog(alteracaoLoteService, produtoService,
+                    this::atualizarDadosSilencioso);
+        }
+        alteracaoLoteDialog.open();
+    }
+    
     /**
      * Edita um produto existente.
      * 
@@ -384,7 +498,7 @@ public class ProdutoListView extends Main {
     private void editarProduto(Produto produto) {
         try {
             if (produtoForm == null) {
-                produtoForm = new ProdutoForm(produtoService, this::onProdutoSalvo, this::onProdutoExcluido);
+                produtoForm = new ProdutoForm(produtoService, imagemService, this::onProdutoSalvo, this::onProdutoExcluido);
             }
             produtoForm.abrirParaEdicao(produto);
         } catch (Exception e) {
@@ -434,7 +548,7 @@ public class ProdutoListView extends Main {
     private void onProdutoSalvo(Produto produto) {
         try {
             // Se o produto tem foto, usar reconfiguração para evitar problemas
-            if (produto.getFoto() != null && produto.getFoto().length > 0) {
+            if (produto.hasFoto()) {
                 reconfigurarGrid();
             } else {
                 atualizarDadosSilencioso();
@@ -467,16 +581,13 @@ public class ProdutoListView extends Main {
         }
         
         try {
-            if (produto.getFoto() != null && produto.getFoto().length > 0) {
-                // Verificar se os dados são uma URL válida
-                if (isValidUrl(produto.getFoto())) {
-                    return criarImagemUrl(produto.getFoto());
-                } else {
-                    return criarImagemBytes(produto.getFoto());
-                }
-            } else {
-                return criarIconePadrao();
-            }
+            // Miniatura servida por URL, em cache no navegador
+            return ProdutoFotos.criarImagem(produto, ProdutoImagemVariante.Tamanho.MINIATURA)
+                .<Component>map(img -> {
+                    configurarImagemMiniatura(img);
+                    return img;
+                })
+                .orElseGet(this::criarIconePadrao);
         } catch (Exception e) {
             logger.error("Erro ao criar componente de foto para produto {}: {}", 
                         produto.getId(), e.getMessage(), e);
@@ -484,40 +595,6 @@ public class ProdutoListView extends Main {
         }
     }
     
-    /**
-     * Cria uma imagem a partir de uma URL.
-     */
-    private Component criarImagemUrl(byte[] fotoBytes) {
-        try {
-            String fotoUrl = new String(fotoBytes);
-            com.vaadin.flow.component.html.Image img = new com.vaadin.flow.component.html.Image();
-            img.setSrc(fotoUrl);
-            configurarImagemMiniatura(img);
-            return img;
-        } catch (Exception e) {
-            logger.error("Erro ao criar imagem da URL: {}", e.getMessage());
-            return criarIconePadrao();
-        }
-    }
-    
-    /**
-     * Cria uma imagem a partir de bytes.
-     */
-    private Component criarImagemBytes(byte[] fotoBytes) {
-        try {
-            String base64 = java.util.Base64.getEncoder().encodeToString(fotoBytes);
-            String dataUrl = "data:image/jpeg;base64," + base64;
-            
-            com.vaadin.flow.component.html.Image img = new com.vaadin.flow.component.html.Image();
-            img.setSrc(dataUrl);
-            configurarImagemMiniatura(img);
-            return img;
-        } catch (Exception e) {
-            logger.error("Erro ao criar imagem dos bytes: {}", e.getMessage());
-            return criarIconePadrao();
-        }
-    }
-    
     /**
      * Configura uma imagem como miniatura.
      */
@@ -539,24 +616,6 @@ public class ProdutoListView extends Main {
         return icon;
     }
     
-    /**
-     * Verifica se os dados em bytes representam uma URL válida.
-     * 
-     * @param fotoBytes os bytes da foto
-     * @return true se for uma URL válida, false caso contrário
-     */
-    private boolean isValidUrl(byte[] fotoBytes) {
-        try {
-            String possibleUrl = new String(fotoBytes);
-            // Verificar se é uma URL válida e não contém dados binários
-            return (possibleUrl.startsWith("http") || possibleUrl.startsWith("https")) 
-                   && !possibleUrl.contains("\0") // Não deve conter caracteres nulos (comum em dados binários)
-                   && possibleUrl.length() < 2000; // URLs muito longas provavelmente não são URLs válidas
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
     /**
      * Cria o indicador visual de estoque.
      * 
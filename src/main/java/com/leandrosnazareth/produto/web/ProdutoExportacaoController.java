@@ -0,0 +1,70 @@
+package com.leandrosnazareth.produto.web;
+
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.produto.service.ProdutoExportacaoService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exporta o catálogo de produtos como download.
+ * <p>
+ * As linhas saem do cursor do banco direto para a resposta, por um buffer de tamanho
+ * fixo, então a exportação não é montada em memória; o cliente começa a receber o
+ * arquivo antes de a consulta terminar.
+ * </p>
+ */
+@RestController
+@RequestMapping(ProdutoExportacaoController.CAMINHO)
+public class ProdutoExportacaoController {
+
+    static final String CAMINHO = "/exportacao/produtos";
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final ProdutoExportacaoService exportacaoService;
+
+    public ProdutoExportacaoController(ProdutoExportacaoService exportacaoService) {
+        this.exportacaoService = exportacaoService;
+    }
+
+    /**
+     * Retorna a URL relativa da exportação, a ser usada como {@code href} nas telas.
+     */
+    public static String url(FormatoExportacao formato) {
+        return CAMINHO.substring(1) + "?formato=" + formato.name().toLowerCase(Locale.ROOT);
+    }
+
+    @GetMapping
+    public void exportar(@RequestParam(defaultValue = "csv") String formato, HttpServletResponse response)
+            throws IOException {
+        FormatoExportacao tipo;
+        try {
+            tipo = FormatoExportacao.doNome(formato);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType(tipo.getTipoConteudo());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("produtos." + tipo.getExtensao()).build().toString());
+        Writer destino = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8),
+                TAMANHO_BUFFER);
+        exportacaoService.exportarCatalogo(tipo, destino);
+        destino.flush();
+    }
+}
@@ -0,0 +1,152 @@
+package com.leandrosnazareth.produto.web;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import com.leandrosnazareth.produto.service.ArmazenamentoImagensDisco;
+import com.leandrosnazareth.produto.service.ConteudoImagem;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Serve as imagens dos produtos por URL, para que o navegador possa guardá-las em cache.
+ * <p>
+ * A URL contém o hash SHA-256 do conteúdo original e o tamanho da variante, então o
+ * conteúdo de uma URL nunca muda: a resposta é marcada como {@code immutable}, com ETag
+ * forte, e uma revalidação ({@code If-None-Match}) é respondida com 304 sem consultar
+ * o banco. A exceção é enquanto a variante ainda não foi gerada: a original é servida
+ * com outro ETag e cache curto, para que a variante seja buscada quando existir.
+ * </p>
+ * <p>
+ * O corpo sai do arquivo em disco: quando o conector do Tomcat oferece {@code sendfile},
+ * o arquivo é entregue ao kernel sem passar pela JVM. Caso contrário, o arquivo mapeado
+ * em memória é copiado para a resposta em blocos pequenos. O canal sobre o stream do
+ * servlet passa cada bloco por um buffer na heap, então esse caminho não é cópia zero,
+ * mas o arquivo inteiro nunca fica na heap.
+ * </p>
+ */
+@RestController
+@RequestMapping(ProdutoImagemController.CAMINHO)
+public class ProdutoImagemController {
+
+    static final String CAMINHO = "/imagens/produtos";
+
+    // Atributos de requisição do Tomcat para envio com sendfile
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // Privado: as imagens só são servidas a usuários autenticados, então caches compartilhados não devem guardá-las
+    private static final CacheControl CACHE_DEFINITIVO = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePrivate()
+            .immutable();
+    private static final CacheControl CACHE_PROVISORIO = CacheControl.maxAge(5, TimeUnit.MINUTES)
+            .cachePrivate();
+
+    private final ProdutoImagemService imagemService;
+    private final ArmazenamentoImagensDisco disco;
+
+    public ProdutoImagemController(ProdutoImagemService imagemService, ArmazenamentoImagensDisco disco) {
+        this.imagemService = imagemService;
+        this.disco = disco;
+    }
+
+    /**
+     * Retorna a URL relativa da imagem, a ser usada como {@code src} nas telas.
+     */
+    public static String url(String hash, ProdutoImagemVariante.Tamanho tamanho) {
+        return CAMINHO.substring(1) + "/" + hash + "/" + tamanho.name().toLowerCase(Locale.ROOT);
+    }
+
+    @GetMapping("/{hash}/{tamanho}")
+    public void buscar(@PathVariable String hash, @PathVariable String tamanho, ServletWebRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<ProdutoImagemVariante.Tamanho> variante = tamanho(tamanho);
+        if (!HASH.matcher(hash).matches() || variante.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etagVariante = etag(hash, variante.get().name());
+        if (request.checkNotModified(etagVariante)) {
+            // 304 já preparado pelo WebRequest, sem ler a imagem
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_DEFINITIVO.getHeaderValue());
+            return;
+        }
+
+        Optional<ConteudoImagem> conteudo = imagemService.buscarConteudo(hash, variante.get());
+        if (conteudo.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean provisorio = conteudo.get().provisorio();
+        response.setHeader(HttpHeaders.ETAG, provisorio ? etag(hash, "ORIGINAL") : etagVariante);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (provisorio ? CACHE_PROVISORIO : CACHE_DEFINITIVO).getHeaderValue());
+        response.setContentType(conteudo.get().tipo());
+        enviar(conteudo.get().arquivo(), request.getRequest(), response);
+    }
+
+    private void enviar(Path arquivo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tamanho;
+        try {
+            tamanho = Files.size(arquivo);
+        } catch (NoSuchFileException e) {
+            // Removida pelo coletor depois da consulta
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentLengthLong(tamanho);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO)) && !"HEAD".equals(request.getMethod())) {
+            // O Tomcat envia o arquivo depois que o controlador retorna
+            request.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, 0L);
+            request.setAttribute(SENDFILE_FIM, tamanho);
+            return;
+        }
+
+        Optional<MappedByteBuffer> buffer = disco.mapear(arquivo);
+        if (buffer.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // O canal copia o mapeamento para o stream do servlet em blocos, por um buffer na heap
+        WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+        while (buffer.get().hasRemaining()) {
+            saida.write(buffer.get());
+        }
+    }
+
+    private static String etag(String hash, String tamanho) {
+        return "\"" + hash + "-" + tamanho + "\"";
+    }
+
+    private static Optional<ProdutoImagemVariante.Tamanho> tamanho(String tamanho) {
+        return Arrays.stream(ProdutoImagemVariante.Tamanho.values())
+                .filter(t -> t.name().equalsIgnoreCase(tamanho))
+                .findFirst();
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.produto.web;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,125 @@
+package com.leandrosnazareth.reposicao.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Sugestão de compra de um produto, calculada em lote a partir das vendas finalizadas.
+ * <p>
+ * Há uma linha por produto ativo, substituída a cada cálculo. Os dados do produto são
+ * copiados no momento do cálculo para que a tela de reposição leia só esta tabela.
+ * As linhas são gravadas por SQL e nunca alteradas pela aplicação.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "sugestao_reposicao", indexes = {
+    @Index(name = "idx_sugestao_reposicao_cobertura", columnList = "dias_cobertura"),
+    @Index(name = "idx_sugestao_reposicao_quantidade", columnList = "quantidade_sugerida")
+})
+public class SugestaoReposicao extends AbstractEntity<Long> {
+
+    @Id
+    @Column(name = "produto_id")
+    private Long produtoId;
+
+    @Column(name = "codigo", nullable = false, length = Produto.CODIGO_MAX_LENGTH)
+    private String codigo;
+
+    @Column(name = "nome", nullable = false, length = Produto.NOME_MAX_LENGTH)
+    private String nome;
+
+    @Column(name = "estoque_atual", nullable = false)
+    private Integer estoqueAtual;
+
+    @Column(name = "estoque_minimo")
+    private Integer estoqueMinimo;
+
+    @Column(name = "estoque_maximo")
+    private Integer estoqueMaximo;
+
+    // Média de unidades vendidas por dia em cada janela
+    @Column(name = "media_diaria_7", nullable = false, precision = 12, scale = 3)
+    private BigDecimal mediaDiaria7;
+
+    @Column(name = "media_diaria_30", nullable = false, precision = 12, scale = 3)
+    private BigDecimal mediaDiaria30;
+
+    @Column(name = "media_diaria_90", nullable = false, precision = 12, scale = 3)
+    private BigDecimal mediaDiaria90;
+
+    // Dias que o estoque atual dura no ritmo de venda; nulo quando não há vendas
+    @Column(name = "dias_cobertura", precision = 10, scale = 1)
+    private BigDecimal diasCobertura;
+
+    @Column(name = "quantidade_sugerida", nullable = false)
+    private Integer quantidadeSugerida;
+
+    @Column(name = "data_calculo", nullable = false)
+    private Instant dataCalculo;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected SugestaoReposicao() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return produtoId;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public Integer getEstoqueAtual() {
+        return estoqueAtual;
+    }
+
+    public @Nullable Integer getEstoqueMinimo() {
+        return estoqueMinimo;
+    }
+
+    public @Nullable Integer getEstoqueMaximo() {
+        return estoqueMaximo;
+    }
+
+    public BigDecimal getMediaDiaria7() {
+        return mediaDiaria7;
+    }
+
+    public BigDecimal getMediaDiaria30() {
+        return mediaDiaria30;
+    }
+
+    public BigDecimal getMediaDiaria90() {
+        return mediaDiaria90;
+    }
+
+    public @Nullable BigDecimal getDiasCobertura() {
+        return diasCobertura;
+    }
+
+    public Integer getQuantidadeSugerida() {
+        return quantidadeSugerida;
+    }
+
+    public Instant getDataCalculo() {
+        return dataCalculo;
+    }
+}
@@ -0,0 +1,19 @@
+package com.leandrosnazareth.reposicao.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface SugestaoReposicaoRepository extends JpaRepository<SugestaoReposicao, Long> {
+
+    Slice<SugestaoReposicao> findAllBy(Pageable pageable);
+
+    Slice<SugestaoReposicao> findByQuantidadeSugeridaGreaterThan(int quantidade, Pageable pageable);
+
+    @Query("SELECT MAX(s.dataCalculo) FROM SugestaoReposicao s")
+    Optional<Instant> findUltimoCalculo();
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.reposicao;
+
+import org.jspecify.annotations.NullMarked;
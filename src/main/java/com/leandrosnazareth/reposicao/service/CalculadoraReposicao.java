@@ -0,0 +1,73 @@
+package com.leandrosnazareth.reposicao.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Regras de cálculo da sugestão de compra de um produto, a partir do que foi vendido
+ * nas janelas de 7, 30 e 90 dias.
+ * <p>
+ * O ritmo de venda é a média diária ponderada das três janelas, com mais peso para a
+ * mais recente, de modo que uma aceleração aparece logo sem que um único dia fora do
+ * comum domine o resultado. A compra sugerida leva o estoque ao suficiente para
+ * {@code diasAlvo} dias nesse ritmo, nunca abaixo do estoque mínimo nem acima do
+ * máximo, quando cadastrados.
+ * </p>
+ */
+final class CalculadoraReposicao {
+
+    static final int JANELA_CURTA = 7;
+    static final int JANELA_MEDIA = 30;
+    static final int JANELA_LONGA = 90;
+
+    private static final BigDecimal PESO_CURTA = new BigDecimal("0.5");
+    private static final BigDecimal PESO_MEDIA = new BigDecimal("0.3");
+    private static final BigDecimal PESO_LONGA = new BigDecimal("0.2");
+
+    private static final int ESCALA_MEDIA = 3;
+
+    /**
+     * Resultado do cálculo de um produto.
+     *
+     * @param diasCobertura dias que o estoque atual dura no ritmo de venda; nulo sem vendas
+     */
+    record Resultado(BigDecimal mediaDiaria7, BigDecimal mediaDiaria30, BigDecimal mediaDiaria90,
+            @Nullable BigDecimal diasCobertura, int quantidadeSugerida) {
+    }
+
+    private CalculadoraReposicao() {
+    }
+
+    /**
+     * @param vendidos7 unidades vendidas nos últimos 7 dias; as demais janelas incluem as menores
+     * @param estoqueMaximo teto do estoque; zero ou nulo quando não há teto
+     */
+    static Resultado calcular(int estoqueAtual, @Nullable Integer estoqueMinimo, @Nullable Integer estoqueMaximo,
+            long vendidos7, long vendidos30, long vendidos90, int diasAlvo) {
+        BigDecimal media7 = media(vendidos7, JANELA_CURTA);
+        BigDecimal media30 = media(vendidos30, JANELA_MEDIA);
+        BigDecimal media90 = media(vendidos90, JANELA_LONGA);
+        BigDecimal ritmo = media7.multiply(PESO_CURTA)
+                .add(media30.multiply(PESO_MEDIA))
+                .add(media90.multiply(PESO_LONGA));
+
+        BigDecimal diasCobertura = ritmo.signum() == 0 ? null
+                : BigDecimal.valueOf(Math.max(0, estoqueAtual)).divide(ritmo, 1, RoundingMode.HALF_UP);
+
+        long alvo = ritmo.multiply(BigDecimal.valueOf(diasAlvo)).setScale(0, RoundingMode.CEILING).longValue();
+        if (estoqueMinimo != null) {
+            alvo = Math.max(alvo, estoqueMinimo);
+        }
+        if (estoqueMaximo != null && estoqueMaximo > 0) {
+            alvo = Math.min(alvo, estoqueMaximo);
+        }
+        int quantidade = (int) Math.max(0, alvo - estoqueAtual);
+        return new Resultado(media7, media30, media90, diasCobertura, quantidade);
+    }
+
+    private static BigDecimal media(long vendidos, int dias) {
+        return BigDecimal.valueOf(vendidos).divide(BigDecimal.valueOf(dias), ESCALA_MEDIA, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,134 @@
+package com.leandrosnazareth.reposicao.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recalcula as sugestões de reposição de todos os produtos ativos.
+ * <p>
+ * Os produtos ativos são divididos, em ordem de ID, em faixas de {@link #TAMANHO_PARTICAO}
+ * produtos; como as faixas são contadas em linhas, buracos na sequência de IDs não geram
+ * faixas vazias nem desequilibradas. As faixas são calculadas em paralelo pelo
+ * {@link ReposicaoParticaoCalculador}, cada uma na sua transação. Roda todo dia de
+ * madrugada e pode ser disparado pela tela; se já houver um cálculo em andamento, quem
+ * pedir recebe o mesmo resultado em vez de iniciar outro.
+ * </p>
+ * <p>
+ * Roda em segundo plano, sem usuário autenticado, então acessa o banco diretamente.
+ * </p>
+ */
+@Component
+public class ReposicaoCalculoJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReposicaoCalculoJob.class);
+
+    static final int TAMANHO_PARTICAO = 5_000;
+
+    // Último ID de cada grupo de TAMANHO_PARTICAO produtos ativos, em ordem
+    private static final String SQL_PARTICOES = "SELECT MAX(produto_id) FROM (SELECT produto_id, "
+            + "(ROW_NUMBER() OVER (ORDER BY produto_id) - 1) / ? AS particao FROM produto WHERE ativo = TRUE) ativos "
+            + "GROUP BY particao ORDER BY 1";
+
+    // Limitado para deixar conexões do pool para as telas durante o cálculo
+    private static final int THREADS = 4;
+
+    private final ReposicaoParticaoCalculador calculador;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int diasAlvo;
+    private final ExecutorService executor;
+    private @Nullable CompletableFuture<ResultadoCalculoReposicao> emAndamento;
+
+    ReposicaoCalculoJob(ReposicaoParticaoCalculador calculador, JdbcTemplate jdbcTemplate, Clock clock,
+            @Value("${pdv.reposicao.dias-cobertura:30}") int diasAlvo) {
+        this.calculador = calculador;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.diasAlvo = diasAlvo;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, tarefa -> {
+            Thread thread = new Thread(tarefa, "calculo-reposicao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${pdv.reposicao.agenda:0 30 2 * * *}")
+    public void executarAgendado() {
+        executar().join();
+    }
+
+    /**
+     * Inicia o cálculo, ou retorna o que já está em andamento.
+     */
+    public synchronized CompletableFuture<ResultadoCalculoReposicao> executar() {
+        if (emAndamento == null || emAndamento.isDone()) {
+            emAndamento = iniciar();
+        }
+        return emAndamento;
+    }
+
+    private CompletableFuture<ResultadoCalculoReposicao> iniciar() {
+        long inicio = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now(clock);
+        Instant dataCalculo = clock.instant();
+
+        List<Long> ultimosIds = jdbcTemplate.queryForList(SQL_PARTICOES, Long.class, TAMANHO_PARTICAO);
+        if (ultimosIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM sugestao_reposicao");
+            return CompletableFuture.completedFuture(new ResultadoCalculoReposicao(0, 0, duracao(inicio)));
+        }
+        long maior = ultimosIds.get(ultimosIds.size() - 1);
+
+        // Cada partição começa logo após o último ID da anterior, para que as sugestões de
+        // produtos inativados entre duas partições também sejam removidas
+        List<CompletableFuture<Integer>> particoes = new ArrayList<>();
+        long de = Long.MIN_VALUE;
+        for (long ate : ultimosIds) {
+            long idInicial = de;
+            particoes.add(CompletableFuture.supplyAsync(
+                    () -> calculador.calcular(idInicial, ate, agora, dataCalculo, diasAlvo), executor));
+            de = ate + 1;
+        }
+
+        return CompletableFuture.allOf(particoes.toArray(CompletableFuture[]::new)).thenApply(concluido -> {
+            // Produtos inativados ou excluídos depois do último ativo
+            jdbcTemplate.update("DELETE FROM sugestao_reposicao WHERE produto_id > ?", maior);
+            int produtos = particoes.stream().mapToInt(CompletableFuture::join).sum();
+            Duration duracao = duracao(inicio);
+            logger.info("Reposição calculada para {} produtos em {} partições e {} ms", produtos,
+                    particoes.size(), duracao.toMillis());
+            return new ResultadoCalculoReposicao(produtos, particoes.size(), duracao);
+        }).whenComplete((resultado, erro) -> {
+            if (erro != null) {
+                logger.error("Erro no cálculo de reposição", erro);
+            }
+        });
+    }
+
+    private static Duration duracao(long inicio) {
+        return Duration.ofNanos(System.nanoTime() - inicio);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.leandrosnazareth.reposicao.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calcula e grava as sugestões de reposição de uma faixa de IDs de produto.
+ * <p>
+ * Cada faixa usa duas consultas, uma para os produtos e outra que soma as vendas das
+ * três janelas de uma vez, agrupadas por produto; não há consulta por produto. As
+ * sugestões da faixa são trocadas numa única transação, então a tela nunca vê uma
+ * faixa pela metade.
+ * </p>
+ */
+@Component
+class ReposicaoParticaoCalculador {
+
+    private static final String SQL_PRODUTOS = "SELECT produto_id, codigo, nome, estoque_atual, estoque_minimo, "
+            + "estoque_maximo FROM produto WHERE ativo = TRUE AND produto_id BETWEEN ? AND ?";
+
+    // As janelas maiores incluem as menores; o filtro de data usa a janela mais longa
+    private static final String SQL_VENDIDOS = "SELECT iv.produto_id, "
+            + "SUM(CASE WHEN v.data_venda >= ? THEN iv.quantidade ELSE 0 END), "
+            + "SUM(CASE WHEN v.data_venda >= ? THEN iv.quantidade ELSE 0 END), "
+            + "SUM(iv.quantidade) "
+            + "FROM item_venda iv JOIN venda v ON v.venda_id = iv.venda_id "
+            + "WHERE v.status = 'FINALIZADA' AND v.data_venda >= ? AND v.data_venda < ? "
+            + "AND iv.produto_id BETWEEN ? AND ? "
+            + "GROUP BY iv.produto_id";
+
+    private static final String SQL_INSERIR = "INSERT INTO sugestao_reposicao (produto_id, codigo, nome, "
+            + "estoque_atual, estoque_minimo, estoque_maximo, media_diaria_7, media_diaria_30, media_diaria_90, "
+            + "dias_cobertura, quantidade_sugerida, data_calculo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] TIPOS_INSERIR = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.INTEGER, Types.INTEGER, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.INTEGER,
+            Types.TIMESTAMP };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReposicaoParticaoCalculador(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param agora fim exclusivo das janelas de venda
+     * @param dataCalculo instante gravado em todas as sugestões da execução
+     * @param diasAlvo dias de venda que a compra sugerida deve cobrir
+     * @return número de produtos calculados na faixa
+     */
+    @Transactional
+    public int calcular(long idInicial, long idFinal, LocalDateTime agora, Instant dataCalculo, int diasAlvo) {
+        Map<Long, long[]> vendidos = new HashMap<>();
+        jdbcTemplate.query(SQL_VENDIDOS, resultado -> {
+            vendidos.put(resultado.getLong(1),
+                    new long[] { resultado.getLong(2), resultado.getLong(3), resultado.getLong(4) });
+        }, Timestamp.valueOf(agora.minusDays(CalculadoraReposicao.JANELA_CURTA)),
+                Timestamp.valueOf(agora.minusDays(CalculadoraReposicao.JANELA_MEDIA)),
+                Timestamp.valueOf(agora.minusDays(CalculadoraReposicao.JANELA_LONGA)), Timestamp.valueOf(agora),
+                idInicial, idFinal);
+
+        Timestamp calculadoEm = Timestamp.from(dataCalculo);
+        List<Object[]> linhas = new ArrayList<>();
+        jdbcTemplate.query(SQL_PRODUTOS, resultado -> {
+            long produtoId = resultado.getLong(1);
+            int estoqueAtual = resultado.getInt(4);
+            Integer estoqueMinimo = resultado.getObject(5, Integer.class);
+            Integer estoqueMaximo = resultado.getObject(6, Integer.class);
+            long[] quantidades = vendidos.getOrDefault(produtoId, new long[3]);
+            CalculadoraReposicao.Resultado sugestao = CalculadoraReposicao.calcular(estoqueAtual, estoqueMinimo,
+                    estoqueMaximo, quantidades[0], quantidades[1], quantidades[2], diasAlvo);
+            linhas.add(new Object[] { produtoId, resultado.getString(2), resultado.getString(3), estoqueAtual,
+                    estoqueMinimo, estoqueMaximo, sugestao.mediaDiaria7(), sugestao.mediaDiaria30(),
+                    sugestao.mediaDiaria90(), sugestao.diasCobertura(), sugestao.quantidadeSugerida(),
+                    calculadoEm });
+        }, idInicial, idFinal);
+
+        jdbcTemplate.update("DELETE FROM sugestao_reposicao WHERE produto_id BETWEEN ? AND ?", idInicial, idFinal);
+        if (!linhas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERIR, linhas, TIPOS_INSERIR);
+        }
+        return linhas.size();
+    }
+}
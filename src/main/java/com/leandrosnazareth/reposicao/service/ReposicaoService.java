@@ -0,0 +1,61 @@
+package com.leandrosnazareth.reposicao.service;
+
+import com.leandrosnazareth.reposicao.domain.SugestaoReposicao;
+import com.leandrosnazareth.reposicao.domain.SugestaoReposicaoRepository;
+import com.leandrosnazareth.security.AppRoles;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Consulta as sugestões de reposição já calculadas e dispara novos cálculos.
+ * <p>
+ * As consultas leem só a tabela de sugestões, gravada pelo {@link ReposicaoCalculoJob};
+ * nenhuma venda é somada durante a navegação.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ReposicaoService {
+
+    private final SugestaoReposicaoRepository sugestaoRepository;
+    private final ReposicaoCalculoJob calculoJob;
+
+    ReposicaoService(SugestaoReposicaoRepository sugestaoRepository, ReposicaoCalculoJob calculoJob) {
+        this.sugestaoRepository = sugestaoRepository;
+        this.calculoJob = calculoJob;
+    }
+
+    /**
+     * Lista as sugestões do último cálculo, sem contar o total.
+     *
+     * @param somenteComCompra se {@code true}, só os produtos com quantidade sugerida
+     */
+    @Transactional(readOnly = true)
+    public Slice<SugestaoReposicao> listarSugestoes(boolean somenteComCompra, Pageable pageable) {
+        return somenteComCompra ? sugestaoRepository.findByQuantidadeSugeridaGreaterThan(0, pageable)
+                : sugestaoRepository.findAllBy(pageable);
+    }
+
+    /**
+     * Retorna quando as sugestões foram calculadas pela última vez.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> buscarUltimoCalculo() {
+        return sugestaoRepository.findUltimoCalculo();
+    }
+
+    /**
+     * Recalcula as sugestões em segundo plano, sem esperar o cálculo agendado.
+     */
+    @PreAuthorize("hasAnyRole('" + AppRoles.ADMIN + "', '" + AppRoles.PRODUCT_MANAGER + "')")
+    public CompletableFuture<ResultadoCalculoReposicao> recalcular() {
+        return calculoJob.executar();
+    }
+}
@@ -0,0 +1,13 @@
+package com.leandrosnazareth.reposicao.service;
+
+import java.time.Duration;
+
+/**
+ * Resumo de uma execução do cálculo de reposição.
+ *
+ * @param produtos produtos ativos com sugestão gravada
+ * @param particoes faixas de produtos calculadas em paralelo
+ * @param duracao tempo total da execução
+ */
+public record ResultadoCalculoReposicao(int produtos, int particoes, Duration duracao) {
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.leandrosnazareth.reposicao.service;
+
+import org.jspecify.annotations.NullMarked;
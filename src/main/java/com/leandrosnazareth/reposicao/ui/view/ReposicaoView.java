@@ -0,0 +1,173 @@
+package com.leandrosnazareth.reposicao.ui.view;
+
+import com.leandrosnazareth.base.ui.component.ViewToolbar;
+import com.leandrosnazareth.reposicao.domain.SugestaoReposicao;
+import com.leandrosnazareth.reposicao.service.ReposicaoService;
+import com.leandrosnazareth.reposicao.service.ResultadoCalculoReposicao;
+import com.leandrosnazareth.security.AppRoles;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+import jakarta.annotation.security.RolesAllowed;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
+
+/**
+ * Sugestões de compra por produto, calculadas a partir do ritmo de vendas.
+ * <p>
+ * A tela lê a tabela de sugestões já calculada, página a página; o recálculo roda em
+ * segundo plano e a lista é atualizada quando ele termina.
+ * </p>
+ */
+@Route("reposicao")
+@PageTitle("Reposição")
+@Menu(order = 3, icon = "vaadin:truck", title = "Reposição")
+@RolesAllowed({ AppRoles.ADMIN, AppRoles.PRODUCT_MANAGER })
+public class ReposicaoView extends Main {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReposicaoView.class);
+
+    // Menor cobertura primeiro; produtos sem vendas no fim
+    private static final Sort ORDEM_PADRAO = Sort.by(Sort.Order.asc("diasCobertura").nullsLast(),
+            Sort.Order.asc("nome"));
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    private final ReposicaoService reposicaoService;
+
+    private final Grid<SugestaoReposicao> grid;
+    private final Checkbox somenteComCompra;
+    private final Span ultimoCalculo;
+    private final Button recalcularButton;
+
+    public ReposicaoView(ReposicaoService reposicaoService) {
+        this.reposicaoService = reposicaoService;
+
+        somenteComCompra = new Checkbox("Somente com compra sugerida", true);
+
+        ultimoCalculo = new Span();
+        ultimoCalculo.addClassNames(LumoUtility.FontSize.SMALL, LumoUtility.TextColor.SECONDARY);
+
+        recalcularButton = new Button("Recalcular", VaadinIcon.REFRESH.create(), e -> recalcular());
+        recalcularButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+
+        grid = criarGrid();
+        somenteComCompra.addValueChangeListener(e -> grid.getDataProvider().refreshAll());
+
+        HorizontalLayout filtros = new HorizontalLayout(somenteComCompra, ultimoCalculo);
+        filtros.setAlignItems(FlexComponent.Alignment.CENTER);
+
+        addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, LumoUtility.FlexDirection.COLUMN,
+                LumoUtility.Padding.MEDIUM, LumoUtility.Gap.SMALL);
+        setSizeFull();
+        add(new ViewToolbar("Reposição", ViewToolbar.group(filtros, recalcularButton)), grid);
+
+        atualizarUltimoCalculo();
+    }
+
+    private Grid<SugestaoReposicao> criarGrid() {
+        Grid<SugestaoReposicao> grid = new Grid<>(SugestaoReposicao.class, false);
+        grid.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES);
+        grid.setSizeFull();
+        grid.setMultiSort(true);
+
+        grid.addColumn(SugestaoReposicao::getCodigo).setHeader("Código").setSortProperty("codigo")
+                .setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(SugestaoReposicao::getNome).setHeader("Produto").setSortProperty("nome").setFlexGrow(1);
+        grid.addColumn(SugestaoReposicao::getEstoqueAtual).setHeader("Estoque").setSortProperty("estoqueAtual")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(sugestao -> texto(sugestao.getEstoqueMinimo())).setHeader("Mínimo")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(sugestao -> texto(sugestao.getEstoqueMaximo())).setHeader("Máximo")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(sugestao -> texto(sugestao.getMediaDiaria7())).setHeader("Média/dia 7d")
+                .setSortProperty("mediaDiaria7").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        grid.addColumn(sugestao -> texto(sugestao.getMediaDiaria30())).setHeader("Média/dia 30d")
+                .setSortProperty("mediaDiaria30").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        grid.addColumn(sugestao -> texto(sugestao.getMediaDiaria90())).setHeader("Média/dia 90d")
+                .setSortProperty("mediaDiaria90").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        grid.addColumn(sugestao -> sugestao.getDiasCobertura() == null ? "Sem vendas"
+                : sugestao.getDiasCobertura().toPlainString()).setHeader("Cobertura (dias)")
+                .setSortProperty("diasCobertura").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+        grid.addColumn(SugestaoReposicao::getQuantidadeSugerida).setHeader("Comprar")
+                .setSortProperty("quantidadeSugerida").setTextAlign(ColumnTextAlign.END).setAutoWidth(true)
+                .setFlexGrow(0);
+
+        grid.setItems(query -> {
+            PageRequest pagina = toSpringPageRequest(query);
+            if (pagina.getSort().isUnsorted()) {
+                pagina = pagina.withSort(ORDEM_PADRAO);
+            }
+            return reposicaoService.listarSugestoes(somenteComCompra.getValue(), pagina).stream();
+        });
+        return grid;
+    }
+
+    private void recalcular() {
+        UI ui = UI.getCurrent();
+        recalcularButton.setEnabled(false);
+        try {
+            reposicaoService.recalcular()
+                    .whenComplete((resultado, erro) -> ui.access(() -> concluir(resultado, erro)));
+        } catch (RuntimeException e) {
+            concluir(null, e);
+        }
+    }
+
+    private void concluir(@Nullable ResultadoCalculoReposicao resultado, @Nullable Throwable erro) {
+        recalcularButton.setEnabled(true);
+        if (resultado == null) {
+            logger.error("Erro ao recalcular a reposição", erro);
+            Notification.show("Erro ao recalcular a reposição", 5000, Notification.Position.MIDDLE)
+                    .addThemeVariants(NotificationVariant.LUMO_ERROR);
+            return;
+        }
+        Notification.show("Reposição calculada para %d produtos em %d s".formatted(resultado.produtos(),
+                resultado.duracao().toSeconds()), 3000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+        atualizarUltimoCalculo();
+        grid.getDataProvider().refreshAll();
+    }
+
+    private void atualizarUltimoCalculo() {
+        ultimoCalculo.setText(reposicaoService.buscarUltimoCalculo()
+                .map(instante -> "Calculado em " + FORMATO_DATA.format(instante))
+                .orElse("Ainda não calculado"));
+    }
+
+    private static String texto(@Nullable Object valor) {
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return valor == null ? "" : valor.toString();
+    }
+}
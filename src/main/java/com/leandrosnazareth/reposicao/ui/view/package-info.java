@@ -0,0 +1,10 @@
+/**
+ * Este pacote contém as views do módulo de Reposição.
+ * <p>
+ * As views leem as sugestões de compra já calculadas, sem refazer agregações de vendas.
+ * </p>
+ */
+@NullMarked
+package com.leandrosnazareth.reposicao.ui.view;
+
+import org.jspecify.annotations.NullMarked;
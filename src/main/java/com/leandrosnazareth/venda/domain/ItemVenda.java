@@ -48,6 +48,15 @@ public class ItemVenda extends AbstractEntity<Long> {
     @DecimalMin(value = "0.00", message = "Subtotal deve ser maior ou igual a zero")
     private BigDecimal subtotal;
 
+    // Preço de compra do produto na venda; nulo se o produto não tinha custo cadastrado
+    @Column(name = "custo_unitario", precision = 10, scale = 2)
+    @DecimalMin(value = "0.00", message = "Custo unitário deve ser maior ou igual a zero")
+    private @Nullable BigDecimal custoUnitario;
+
+    // Categoria do produto na venda, para que relatórios não mudem quando o produto muda
+    @Column(name = "categoria", length = Produto.CATEGORIA_MAX_LENGTH)
+    private @Nullable String categoria;
+
     public ItemVenda() {
         this.quantidade = 1;
         this.precoUnitario = BigDecimal.ZERO;
@@ -59,6 +68,8 @@ public class ItemVenda extends AbstractEntity<Long> {
         this.produto = produto;
         this.quantidade = quantidade;
         this.precoUnitario = precoUnitario;
+        this.custoUnitario = produto.getPrecoCompra();
+        this.categoria = produto.getCategoria();
         calcularSubtotal();
     }
 
@@ -101,6 +112,22 @@ public class ItemVenda extends AbstractEntity<Long> {
         calcularSubtotal();
     }
 
+    public @Nullable BigDecimal getCustoUnitario() {
+        return custoUnitario;
+    }
+
+    public void setCustoUnitario(@Nullable BigDecimal custoUnitario) {
+        this.custoUnitario = custoUnitario;
+    }
+
+    public @Nullable String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(@Nullable String categoria) {
+        this.categoria = categoria;
+    }
+
     public BigDecimal getSubtotal() {
         return subtotal;
     }
@@ -0,0 +1,12 @@
+package com.leandrosnazareth.venda.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha da exportação de itens de venda, lida por projeção para não carregar entidades.
+ */
+public record ItemVendaExportado(Long vendaId, LocalDateTime dataVenda, Venda.StatusVenda status,
+        Long itemVendaId, Long produtoId, String codigo, String nome, Integer quantidade, BigDecimal precoUnitario,
+        BigDecimal subtotal) {
+}
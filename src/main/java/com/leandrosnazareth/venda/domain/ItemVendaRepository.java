@@ -1,12 +1,16 @@
 package com.leandrosnazareth.venda.domain;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositório para operações de persistência da entidade ItemVenda.
@@ -144,4 +148,18 @@ public interface ItemVendaRepository extends JpaRepository<ItemVenda, Long> {
      */
     @Query("DELETE FROM ItemVenda iv WHERE iv.venda.id = :vendaId")
     void deleteByVendaId(@Param("vendaId") Long vendaId);
+
+    /**
+     * Itens das vendas do período para exportação, lidos por cursor; o stream deve ser
+     * fechado dentro da transação que o abriu.
+     * @param dataInicio início do período, inclusivo
+     * @param dataFim fim do período, exclusivo
+     * @return stream dos itens ordenados pela data da venda
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leandrosnazareth.venda.domain.ItemVendaExportado(v.id, v.dataVenda, v.status, " +
+           "iv.id, p.id, p.codigo, p.nome, iv.quantidade, iv.precoUnitario, iv.subtotal) " +
+           "FROM ItemVenda iv JOIN iv.venda v JOIN iv.produto p " +
+           "WHERE v.dataVenda >= :dataInicio AND v.dataVenda < :dataFim ORDER BY v.dataVenda, v.id, iv.id")
+    Stream<ItemVendaExportado> streamExportacao(@Param("dataInicio") LocalDateTime dataInicio, @Param("dataFim") LocalDateTime dataFim);
 }
@@ -0,0 +1,96 @@
+package com.leandrosnazareth.venda.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+/**
+ * Mês de vendas arquivado, com as vendas e os itens movidos para as tabelas
+ * {@code venda_arquivo_AAAAMM} e {@code item_venda_arquivo_AAAAMM}.
+ * <p>
+ * As tabelas de arquivo têm as mesmas colunas de {@code venda} e {@code item_venda} e
+ * são criadas por SQL no arquivamento; este registro diz às consultas quais meses
+ * precisam delas e guarda as contagens para que não seja preciso percorrê-las.
+ * </p>
+ */
+@Entity
+@Table(name = "venda_arquivo_mes")
+public class VendaArquivoMes extends AbstractEntity<Integer> {
+
+    // Ano e mês no formato AAAAMM, como no nome das tabelas
+    @Id
+    @Column(name = "ano_mes")
+    private Integer anoMes;
+
+    @Column(name = "vendas_finalizadas", nullable = false)
+    private long vendasFinalizadas;
+
+    @Column(name = "vendas_canceladas", nullable = false)
+    private long vendasCanceladas;
+
+    @Column(name = "itens", nullable = false)
+    private long itens;
+
+    @Column(name = "data_arquivamento", nullable = false)
+    private Instant dataArquivamento;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected VendaArquivoMes() {
+    }
+
+    public VendaArquivoMes(int anoMes) {
+        this.anoMes = anoMes;
+    }
+
+    /**
+     * Soma um lote movido para as tabelas do mês.
+     */
+    public void registrarLote(long finalizadas, long canceladas, long itensMovidos, Instant agora) {
+        vendasFinalizadas += finalizadas;
+        vendasCanceladas += canceladas;
+        itens += itensMovidos;
+        dataArquivamento = agora;
+    }
+
+    public static int anoMes(YearMonth mes) {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+
+    public static String tabelaVendas(int anoMes) {
+        return "venda_arquivo_" + anoMes;
+    }
+
+    public static String tabelaItens(int anoMes) {
+        return "item_venda_arquivo_" + anoMes;
+    }
+
+    @Override
+    public @Nullable Integer getId() {
+        return anoMes;
+    }
+
+    public Integer getAnoMes() {
+        return anoMes;
+    }
+
+    public long getVendasFinalizadas() {
+        return vendasFinalizadas;
+    }
+
+    public long getVendasCanceladas() {
+        return vendasCanceladas;
+    }
+
+    public long getItens() {
+        return itens;
+    }
+
+    public Instant getDataArquivamento() {
+        return dataArquivamento;
+    }
+}
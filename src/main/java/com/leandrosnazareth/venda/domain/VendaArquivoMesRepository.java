@@ -0,0 +1,6 @@
+package com.leandrosnazareth.venda.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface VendaArquivoMesRepository extends JpaRepository<VendaArquivoMes, Integer> {
+}
@@ -0,0 +1,12 @@
+package com.leandrosnazareth.venda.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha da exportação de vendas, lida por projeção para não carregar entidades.
+ */
+public record VendaExportada(Long vendaId, LocalDateTime dataVenda, Venda.StatusVenda status,
+        Venda.FormaPagamento formaPagamento, BigDecimal valorTotal, BigDecimal desconto, BigDecimal valorRecebido,
+        BigDecimal troco) {
+}
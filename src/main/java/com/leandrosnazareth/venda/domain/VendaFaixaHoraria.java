@@ -0,0 +1,87 @@
+package com.leandrosnazareth.venda.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Vendas de uma hora de um dia da semana numa semana: 168 faixas por semana.
+ * <p>
+ * As faixas são somadas na mesma transação que finaliza ou cancela a venda, então o
+ * mapa de movimento por dia e hora é lido daqui sem percorrer as vendas. As linhas são
+ * gravadas por SQL e nunca alteradas pela aplicação.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "venda_faixa_horaria", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_venda_faixa_horaria", columnNames = { "semana", "dia_semana", "hora" })
+})
+public class VendaFaixaHoraria extends AbstractEntity<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venda_faixa_horaria_seq")
+    @SequenceGenerator(name = "venda_faixa_horaria_seq", sequenceName = "venda_faixa_horaria_seq",
+            allocationSize = 1)
+    @Column(name = "venda_faixa_horaria_id")
+    private Long id;
+
+    // Segunda-feira da semana
+    @Column(name = "semana", nullable = false)
+    private LocalDate semana;
+
+    // 0 é segunda-feira, como em DayOfWeek
+    @Column(name = "dia_semana", nullable = false)
+    private Integer diaSemana;
+
+    @Column(name = "hora", nullable = false)
+    private Integer hora;
+
+    @Column(name = "vendas", nullable = false)
+    private Long vendas;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Column(name = "canceladas", nullable = false)
+    private Long canceladas;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected VendaFaixaHoraria() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public LocalDate getSemana() {
+        return semana;
+    }
+
+    public Integer getDiaSemana() {
+        return diaSemana;
+    }
+
+    public Integer getHora() {
+        return hora;
+    }
+
+    public Long getVendas() {
+        return vendas;
+    }
+
+    public BigDecimal getValorTotal() {
+        return valorTotal;
+    }
+
+    public Long getCanceladas() {
+        return canceladas;
+    }
+}
@@ -0,0 +1,19 @@
+package com.leandrosnazareth.venda.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaFaixaHorariaRepository extends JpaRepository<VendaFaixaHoraria, Long> {
+
+    /**
+     * Soma as semanas do período por dia da semana e hora.
+     * @return linhas com dia da semana, hora, vendas finalizadas, valor e vendas canceladas
+     */
+    @Query("SELECT f.diaSemana, f.hora, SUM(f.vendas), SUM(f.valorTotal), SUM(f.canceladas) "
+            + "FROM VendaFaixaHoraria f WHERE f.semana BETWEEN :inicio AND :fim GROUP BY f.diaSemana, f.hora")
+    List<Object[]> somarPorDiaSemanaEHora(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+}
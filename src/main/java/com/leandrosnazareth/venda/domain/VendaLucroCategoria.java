@@ -0,0 +1,57 @@
+package com.leandrosnazareth.venda.domain;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Lucro dos itens de uma categoria vendidos num dia.
+ * <p>
+ * A categoria é a do produto na finalização da venda; produtos sem categoria somam na
+ * categoria vazia. As linhas são gravadas por SQL e nunca alteradas pela aplicação.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "venda_lucro_categoria", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_venda_lucro_categoria", columnNames = { "dia", "categoria" })
+})
+public class VendaLucroCategoria extends VendaLucroSomas {
+
+    public static final String SEM_CATEGORIA = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venda_lucro_categoria_seq")
+    @SequenceGenerator(name = "venda_lucro_categoria_seq", sequenceName = "venda_lucro_categoria_seq",
+            allocationSize = 1)
+    @Column(name = "venda_lucro_categoria_id")
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "categoria", nullable = false, length = Produto.CATEGORIA_MAX_LENGTH)
+    private String categoria;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected VendaLucroCategoria() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+}
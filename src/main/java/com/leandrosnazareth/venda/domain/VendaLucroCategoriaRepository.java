@@ -0,0 +1,19 @@
+package com.leandrosnazareth.venda.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaLucroCategoriaRepository extends JpaRepository<VendaLucroCategoria, Long> {
+
+    /**
+     * Soma o lucro por categoria no período.
+     * @return linhas {@code [categoria, quantidade, receita, custo, receita sem custo]}
+     */
+    @Query("SELECT l.categoria, SUM(l.quantidade), SUM(l.receita), SUM(l.custo), SUM(l.receitaSemCusto) "
+            + "FROM VendaLucroCategoria l WHERE l.dia BETWEEN :inicio AND :fim GROUP BY l.categoria")
+    List<Object[]> somarPorCategoria(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+}
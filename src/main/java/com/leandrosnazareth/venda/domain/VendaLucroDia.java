@@ -0,0 +1,63 @@
+package com.leandrosnazareth.venda.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Lucro das vendas finalizadas num dia.
+ * <p>
+ * Somado na mesma transação que finaliza a venda, com os custos registrados nos itens,
+ * então o relatório de margem é lido daqui sem percorrer os itens. As linhas são
+ * gravadas por SQL e nunca alteradas pela aplicação.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "venda_lucro_dia", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_venda_lucro_dia", columnNames = "dia")
+})
+public class VendaLucroDia extends VendaLucroSomas {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venda_lucro_dia_seq")
+    @SequenceGenerator(name = "venda_lucro_dia_seq", sequenceName = "venda_lucro_dia_seq", allocationSize = 1)
+    @Column(name = "venda_lucro_dia_id")
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "vendas", nullable = false)
+    private Long vendas;
+
+    // Descontos da venda, que não são rateados entre os itens
+    @Column(name = "desconto", nullable = false, precision = 14, scale = 2)
+    private BigDecimal desconto;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected VendaLucroDia() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public Long getVendas() {
+        return vendas;
+    }
+
+    public BigDecimal getDesconto() {
+        return desconto;
+    }
+}
@@ -0,0 +1,11 @@
+package com.leandrosnazareth.venda.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaLucroDiaRepository extends JpaRepository<VendaLucroDia, Long> {
+
+    List<VendaLucroDia> findByDiaBetweenOrderByDia(LocalDate inicio, LocalDate fim);
+}
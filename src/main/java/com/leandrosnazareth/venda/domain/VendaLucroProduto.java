@@ -0,0 +1,51 @@
+package com.leandrosnazareth.venda.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Lucro dos itens de um produto vendidos num dia. As linhas são gravadas por SQL e
+ * nunca alteradas pela aplicação.
+ */
+@Entity
+@Immutable
+@Table(name = "venda_lucro_produto", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_venda_lucro_produto", columnNames = { "dia", "produto_id" })
+})
+public class VendaLucroProduto extends VendaLucroSomas {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venda_lucro_produto_seq")
+    @SequenceGenerator(name = "venda_lucro_produto_seq", sequenceName = "venda_lucro_produto_seq",
+            allocationSize = 1)
+    @Column(name = "venda_lucro_produto_id")
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long produtoId;
+
+    /**
+     * Construtor padrão para JPA.
+     */
+    protected VendaLucroProduto() {
+    }
+
+    @Override
+    public @Nullable Long getId() {
+        return id;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+}
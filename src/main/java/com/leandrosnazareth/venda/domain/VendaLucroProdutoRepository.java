@@ -0,0 +1,22 @@
+package com.leandrosnazareth.venda.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaLucroProdutoRepository extends JpaRepository<VendaLucroProduto, Long> {
+
+    /**
+     * Soma o lucro por produto no período, dos que mais deram lucro para os que menos deram.
+     * @return linhas {@code [código, nome, quantidade, receita, custo, receita sem custo]}
+     */
+    @Query("SELECT p.codigo, p.nome, SUM(l.quantidade), SUM(l.receita), SUM(l.custo), SUM(l.receitaSemCusto) "
+            + "FROM VendaLucroProduto l JOIN Produto p ON p.id = l.produtoId "
+            + "WHERE l.dia BETWEEN :inicio AND :fim GROUP BY l.produtoId, p.codigo, p.nome "
+            + "ORDER BY SUM(l.receita) - SUM(l.receitaSemCusto) - SUM(l.custo) DESC")
+    List<Object[]> somarPorProduto(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim, Pageable pageable);
+}
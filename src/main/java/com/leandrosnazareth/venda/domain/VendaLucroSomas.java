@@ -0,0 +1,48 @@
+package com.leandrosnazareth.venda.domain;
+
+import com.leandrosnazareth.base.domain.AbstractEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+
+import java.math.BigDecimal;
+
+/**
+ * Somas de quantidade, receita e custo dos itens vendidos, comuns aos agregados de
+ * lucro por dia, por categoria e por produto.
+ * <p>
+ * Itens vendidos sem custo cadastrado entram na receita e também em
+ * {@link #getReceitaSemCusto() receita sem custo}, para que o lucro e a margem sejam
+ * calculados só sobre a receita com custo conhecido.
+ * </p>
+ */
+@MappedSuperclass
+public abstract class VendaLucroSomas extends AbstractEntity<Long> {
+
+    @Column(name = "quantidade", nullable = false)
+    private Long quantidade;
+
+    @Column(name = "receita", nullable = false, precision = 14, scale = 2)
+    private BigDecimal receita;
+
+    @Column(name = "custo", nullable = false, precision = 14, scale = 2)
+    private BigDecimal custo;
+
+    @Column(name = "receita_sem_custo", nullable = false, precision = 14, scale = 2)
+    private BigDecimal receitaSemCusto;
+
+    public Long getQuantidade() {
+        return quantidade;
+    }
+
+    public BigDecimal getReceita() {
+        return receita;
+    }
+
+    public BigDecimal getCusto() {
+        return custo;
+    }
+
+    public BigDecimal getReceitaSemCusto() {
+        return receitaSemCusto;
+    }
+}
@@ -1,10 +1,13 @@
 package com.leandrosnazareth.venda.domain;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório para operações de persistência da entidade Venda.
@@ -185,4 +189,17 @@ public interface VendaRepository extends JpaRepository<Venda, Long> {
     @Modifying
     @Query("DELETE FROM Venda v WHERE v.status = :status")
     void deleteByStatus(@Param("status") Venda.StatusVenda status);
+
+    /**
+     * Vendas do período para exportação, lidas por cursor; o stream deve ser fechado
+     * dentro da transação que o abriu.
+     * @param dataInicio início do período, inclusivo
+     * @param dataFim fim do período, exclusivo
+     * @return stream das vendas ordenadas por data
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leandrosnazareth.venda.domain.VendaExportada(v.id, v.dataVenda, v.status, " +
+           "v.formaPagamento, v.valorTotal, v.desconto, v.valorRecebido, v.troco) FROM Venda v " +
+           "WHERE v.dataVenda >= :dataInicio AND v.dataVenda < :dataFim ORDER BY v.dataVenda, v.id")
+    Stream<VendaExportada> streamExportacao(@Param("dataInicio") LocalDateTime dataInicio, @Param("dataFim") LocalDateTime dataFim);
 }
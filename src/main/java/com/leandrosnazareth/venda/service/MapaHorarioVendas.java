@@ -0,0 +1,66 @@
+package com.leandrosnazareth.venda.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Movimento de vendas por dia da semana e hora, somado num período de semanas.
+ * <p>
+ * As faixas são indexadas por {@code dia * 24 + hora}, com o dia de 0 (segunda-feira)
+ * a 6 (domingo).
+ * </p>
+ * @param inicio segunda-feira da primeira semana
+ * @param fim domingo da última semana
+ * @param vendas vendas finalizadas por faixa
+ * @param valores valor vendido por faixa
+ * @param canceladas vendas canceladas por faixa
+ */
+public record MapaHorarioVendas(LocalDate inicio, LocalDate fim, long[] vendas, BigDecimal[] valores,
+        long[] canceladas) {
+
+    public static final int DIAS = 7;
+    public static final int HORAS = 24;
+
+    /**
+     * Monta o mapa com as linhas {@code [dia, hora, vendas, valor, canceladas]} da
+     * consulta das faixas; as faixas sem linha ficam zeradas.
+     */
+    static MapaHorarioVendas somar(LocalDate inicio, LocalDate fim, List<Object[]> linhas) {
+        long[] vendas = new long[DIAS * HORAS];
+        BigDecimal[] valores = new BigDecimal[DIAS * HORAS];
+        long[] canceladas = new long[DIAS * HORAS];
+        Arrays.fill(valores, BigDecimal.ZERO);
+        for (Object[] linha : linhas) {
+            int faixa = ((Number) linha[0]).intValue() * HORAS + ((Number) linha[1]).intValue();
+            vendas[faixa] = ((Number) linha[2]).longValue();
+            valores[faixa] = (BigDecimal) linha[3];
+            canceladas[faixa] = ((Number) linha[4]).longValue();
+        }
+        return new MapaHorarioVendas(inicio, fim, vendas, valores, canceladas);
+    }
+
+    public long vendas(int dia, int hora) {
+        return vendas[dia * HORAS + hora];
+    }
+
+    public BigDecimal valor(int dia, int hora) {
+        return valores[dia * HORAS + hora];
+    }
+
+    public long canceladas(int dia, int hora) {
+        return canceladas[dia * HORAS + hora];
+    }
+
+    /**
+     * Maior número de vendas finalizadas numa faixa, para a escala do mapa.
+     */
+    public long maximoVendas() {
+        return Arrays.stream(vendas).max().orElse(0);
+    }
+
+    public long totalVendas() {
+        return Arrays.stream(vendas).sum();
+    }
+}
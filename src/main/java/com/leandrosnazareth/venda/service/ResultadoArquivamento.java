@@ -0,0 +1,14 @@
+package com.leandrosnazareth.venda.service;
+
+import java.time.Duration;
+
+/**
+ * Resumo de uma execução do arquivamento de vendas.
+ *
+ * @param meses meses que receberam vendas nesta execução
+ * @param vendas vendas movidas para as tabelas de arquivo
+ * @param itens itens movidos com as vendas
+ * @param duracao tempo total da execução
+ */
+public record ResultadoArquivamento(int meses, long vendas, long itens, Duration duracao) {
+}
@@ -0,0 +1,194 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.venda.domain.VendaArquivoMes;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Move as vendas finalizadas e canceladas dos meses antigos para tabelas de arquivo
+ * mensais, mantendo nas tabelas em uso só os meses recentes.
+ * <p>
+ * Ficam em uso o mês atual e os {@code pdv.arquivamento.meses-em-uso} - 1 anteriores,
+ * completos. Cada mês é movido em lotes de {@code pdv.arquivamento.tamanho-lote} vendas
+ * pelo {@link VendaArquivamentoLote}, cada lote na sua transação, então o job pode ser
+ * interrompido e continua de onde parou na próxima execução. Vendas pendentes não são
+ * arquivadas.
+ * </p>
+ * <p>
+ * Roda em segundo plano, sem usuário autenticado, então acessa o banco diretamente.
+ * </p>
+ */
+@Component
+public class VendaArquivamentoJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendaArquivamentoJob.class);
+
+    // A reposição lê 90 dias de vendas só das tabelas em uso
+    static final int MESES_EM_USO_MINIMO = 4;
+
+    private final VendaArquivamentoLote lote;
+    private final VendaParticoes particoes;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int mesesEmUso;
+    private final int tamanhoLote;
+
+    VendaArquivamentoJob(VendaArquivamentoLote lote, VendaParticoes particoes, JdbcTemplate jdbcTemplate,
+            Clock clock, @Value("${pdv.arquivamento.meses-em-uso:13}") int mesesEmUso,
+            @Value("${pdv.arquivamento.tamanho-lote:1000}") int tamanhoLote) {
+        if (mesesEmUso < MESES_EM_USO_MINIMO) {
+            throw new IllegalArgumentException(
+                    "pdv.arquivamento.meses-em-uso deve ser ao menos " + MESES_EM_USO_MINIMO);
+        }
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("pdv.arquivamento.tamanho-lote deve ser positivo");
+        }
+        this.lote = lote;
+        this.particoes = particoes;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.mesesEmUso = mesesEmUso;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Scheduled(cron = "${pdv.arquivamento.agenda:0 0 3 * * *}")
+    public void executarAgendado() {
+        executar();
+    }
+
+    /**
+     * Arquiva os meses que saíram do horizonte em uso.
+     */
+    public synchronized ResultadoArquivamento executar() {
+        long inicio = System.nanoTime();
+        YearMonth primeiroEmUso = primeiroEmUso();
+        Timestamp maisAntiga = jdbcTemplate.queryForObject("SELECT MIN(data_venda) FROM venda "
+                + "WHERE data_venda < ? AND status IN ('FINALIZADA', 'CANCELADA')", Timestamp.class,
+                Timestamp.valueOf(primeiroEmUso.atDay(1).atStartOfDay()));
+        int meses = 0;
+        long vendas = 0;
+        long itens = 0;
+        if (maisAntiga != null) {
+            for (YearMonth mes = YearMonth.from(maisAntiga.toLocalDateTime()); mes.isBefore(primeiroEmUso);
+                    mes = mes.plusMonths(1)) {
+                Movido movido = arquivar(mes);
+                if (movido != null) {
+                    meses++;
+                    vendas += movido.vendas();
+                    itens += movido.itens();
+                }
+            }
+        }
+        return concluir(meses, vendas, itens, inicio);
+    }
+
+    /**
+     * Arquiva só o mês informado, que deve estar fora do horizonte em uso.
+     */
+    synchronized ResultadoArquivamento executar(YearMonth mes) {
+        if (!mes.isBefore(primeiroEmUso())) {
+            throw new IllegalArgumentException("O mês " + mes + " ainda está em uso");
+        }
+        long inicio = System.nanoTime();
+        Movido movido = arquivar(mes);
+        return movido == null ? concluir(0, 0, 0, inicio) : concluir(1, movido.vendas(), movido.itens(), inicio);
+    }
+
+    private YearMonth primeiroEmUso() {
+        return YearMonth.now(clock).minusMonths(mesesEmUso - 1);
+    }
+
+    /**
+     * Move o mês em lotes.
+     * @return vendas e itens movidos; nulo quando o mês não tinha o que arquivar
+     */
+    private @Nullable Movido arquivar(YearMonth mes) {
+        int anoMes = VendaArquivoMes.anoMes(mes);
+        LocalDateTime de = mes.atDay(1).atStartOfDay();
+        LocalDateTime ate = mes.plusMonths(1).atDay(1).atStartOfDay();
+        if (!temVendasParaArquivar(de, ate)) {
+            return null;
+        }
+        criarTabelas(anoMes);
+        long vendas = 0;
+        long itens = 0;
+        VendaArquivamentoLote.Lote movido;
+        do {
+            movido = lote.arquivar(anoMes, de, ate, tamanhoLote, clock.instant());
+            vendas += movido.vendas();
+            itens += movido.itens();
+        } while (movido.vendas() == tamanhoLote);
+        // As consultas passam a ler o mês nos arquivos
+        particoes.carregar();
+        return new Movido(vendas, itens);
+    }
+
+    private static ResultadoArquivamento concluir(int meses, long vendas, long itens, long inicio) {
+        Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+        if (meses > 0) {
+            logger.info("Arquivadas {} vendas e {} itens de {} meses em {} ms", vendas, itens, meses,
+                    duracao.toMillis());
+        }
+        return new ResultadoArquivamento(meses, vendas, itens, duracao);
+    }
+
+    private record Movido(long vendas, long itens) {
+    }
+
+    private boolean temVendasParaArquivar(LocalDateTime de, LocalDateTime ate) {
+        return !jdbcTemplate.queryForList("SELECT venda_id FROM venda WHERE data_venda >= ? AND data_venda < ? "
+                + "AND status IN ('FINALIZADA', 'CANCELADA') FETCH FIRST 1 ROWS ONLY", Long.class,
+                Timestamp.valueOf(de), Timestamp.valueOf(ate)).isEmpty();
+    }
+
+    /**
+     * Cria as tabelas do mês com as colunas das tabelas em uso, fora de transação: em
+     * alguns bancos DDL confirma a transação corrente.
+     */
+    private void criarTabelas(int anoMes) {
+        String vendas = VendaArquivoMes.tabelaVendas(anoMes);
+        String itens = VendaArquivoMes.tabelaItens(anoMes);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + vendas + " AS SELECT "
+                + VendaArquivamentoLote.COLUNAS_VENDA + " FROM venda WHERE 1 = 0");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + itens + " AS SELECT "
+                + VendaArquivamentoLote.COLUNAS_ITEM + " FROM item_venda WHERE 1 = 0");
+        completarColunas(itens);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + vendas + "_data ON " + vendas + " (data_venda)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + itens + "_venda ON " + itens + " (venda_id)");
+    }
+
+    /**
+     * Acrescenta às tabelas de itens já arquivadas as colunas criadas depois delas, para
+     * que continuem com as colunas das tabelas em uso. Roda também na inicialização,
+     * antes das cargas que leem os arquivos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 4) // Depois da carga das partições arquivadas
+    public void completarColunas() {
+        for (int anoMes : particoes.mesesArquivados()) {
+            completarColunas(VendaArquivoMes.tabelaItens(anoMes));
+        }
+    }
+
+    private void completarColunas(String itens) {
+        jdbcTemplate.execute("ALTER TABLE " + itens + " ADD COLUMN IF NOT EXISTS custo_unitario NUMERIC(10, 2)");
+        jdbcTemplate.execute("ALTER TABLE " + itens + " ADD COLUMN IF NOT EXISTS categoria VARCHAR("
+                + Produto.CATEGORIA_MAX_LENGTH + ")");
+    }
+}
@@ -0,0 +1,79 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.venda.domain.VendaArquivoMes;
+import com.leandrosnazareth.venda.domain.VendaArquivoMesRepository;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move um lote de vendas de um mês, com os itens, para as tabelas de arquivo do mês.
+ * <p>
+ * Cópia, exclusão e contagens do registro do mês ficam na mesma transação: cada venda
+ * está sempre em exatamente uma das tabelas, e as consultas que juntam as partições
+ * nunca a contam duas vezes.
+ * </p>
+ */
+@Component
+class VendaArquivamentoLote {
+
+    static final String COLUNAS_VENDA = "venda_id, data_venda, valor_total, desconto, valor_recebido, troco, "
+            + "forma_pagamento, status, observacoes";
+
+    static final String COLUNAS_ITEM = "item_venda_id, venda_id, produto_id, quantidade, preco_unitario, subtotal, "
+            + "custo_unitario, categoria";
+
+    /**
+     * Vendas e itens movidos por um lote.
+     */
+    record Lote(int vendas, int itens) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final VendaArquivoMesRepository arquivoMesRepository;
+
+    VendaArquivamentoLote(NamedParameterJdbcTemplate jdbcTemplate, VendaArquivoMesRepository arquivoMesRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.arquivoMesRepository = arquivoMesRepository;
+    }
+
+    /**
+     * Move até {@code tamanho} vendas finalizadas ou canceladas de {@code inicio} a
+     * {@code fim}, exclusivo. As tabelas do mês já devem existir.
+     * @return vendas e itens movidos; nenhuma venda quando o mês já terminou
+     */
+    @Transactional
+    public Lote arquivar(int anoMes, LocalDateTime inicio, LocalDateTime fim, int tamanho, Instant agora) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT venda_id FROM venda "
+                + "WHERE data_venda >= :inicio AND data_venda < :fim AND status IN ('FINALIZADA', 'CANCELADA') "
+                + "ORDER BY venda_id FETCH FIRST " + tamanho + " ROWS ONLY",
+                Map.of("inicio", Timestamp.valueOf(inicio), "fim", Timestamp.valueOf(fim)), Long.class);
+        if (ids.isEmpty()) {
+            return new Lote(0, 0);
+        }
+        Map<String, List<Long>> lote = Map.of("ids", ids);
+        Integer finalizadas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM venda WHERE venda_id IN (:ids) AND status = 'FINALIZADA'", lote, Integer.class);
+
+        String tabelaVendas = VendaArquivoMes.tabelaVendas(anoMes);
+        String tabelaItens = VendaArquivoMes.tabelaItens(anoMes);
+        jdbcTemplate.update("INSERT INTO " + tabelaVendas + " (" + COLUNAS_VENDA + ") SELECT " + COLUNAS_VENDA
+                + " FROM venda WHERE venda_id IN (:ids)", lote);
+        int itens = jdbcTemplate.update("INSERT INTO " + tabelaItens + " (" + COLUNAS_ITEM + ") SELECT "
+                + COLUNAS_ITEM + " FROM item_venda WHERE venda_id IN (:ids)", lote);
+        jdbcTemplate.update("DELETE FROM item_venda WHERE venda_id IN (:ids)", lote);
+        jdbcTemplate.update("DELETE FROM venda WHERE venda_id IN (:ids)", lote);
+
+        int vendasFinalizadas = finalizadas == null ? 0 : finalizadas;
+        VendaArquivoMes registro = arquivoMesRepository.findById(anoMes).orElseGet(() -> new VendaArquivoMes(anoMes));
+        registro.registrarLote(vendasFinalizadas, ids.size() - vendasFinalizadas, itens, agora);
+        arquivoMesRepository.save(registro);
+        return new Lote(ids.size(), itens);
+    }
+}
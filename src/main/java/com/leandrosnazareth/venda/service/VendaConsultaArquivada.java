@@ -0,0 +1,111 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.venda.domain.Venda;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versões das consultas de vendas que também leem as tabelas de arquivo, para os
+ * períodos que alcançam meses arquivados.
+ * <p>
+ * Cada consulta filtra dentro de cada partição, para que os índices de data de cada
+ * tabela sejam usados, e só agrupa depois de juntar as partições. Os resultados têm
+ * as mesmas colunas e tipos das consultas do repositório que substituem. O produto entra
+ * por junção externa, para que itens de produtos já excluídos continuem nos resultados.
+ * </p>
+ */
+@Component
+class VendaConsultaArquivada {
+
+    private static final int TAMANHO_LEITURA = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    VendaConsultaArquivada(DataSource dataSource) {
+        // Próprio, para ler as exportações por cursor sem mudar o JdbcTemplate compartilhado
+        JdbcTemplate leitura = new JdbcTemplate(dataSource);
+        leitura.setFetchSize(TAMANHO_LEITURA);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(leitura);
+    }
+
+    /**
+     * Como {@code VendaRepository.obterEstatisticasPorFormaPagamento}.
+     */
+    List<Object[]> obterEstatisticasPorFormaPagamento(LocalDateTime inicio, LocalDateTime fim, List<Integer> meses) {
+        String sql = "SELECT forma_pagamento, COUNT(*), SUM(valor_total) FROM ("
+                + VendaParticoes.unir(meses, particao -> "SELECT forma_pagamento, valor_total FROM "
+                        + particao.tabelaVendas() + " WHERE data_venda BETWEEN :inicio AND :fim "
+                        + "AND status = 'FINALIZADA'")
+                + ") v GROUP BY forma_pagamento";
+        return jdbcTemplate.query(sql, periodo(inicio, fim), (rs, linha) -> new Object[] {
+                Venda.FormaPagamento.valueOf(rs.getString(1)), rs.getLong(2), rs.getBigDecimal(3) });
+    }
+
+    /**
+     * Como {@code VendaRepository.obterEstatisticasPorDia}.
+     */
+    List<Object[]> obterEstatisticasPorDia(LocalDateTime inicio, LocalDateTime fim, List<Integer> meses) {
+        String sql = "SELECT dia, COUNT(*), SUM(valor_total) FROM ("
+                + VendaParticoes.unir(meses, particao -> "SELECT CAST(data_venda AS DATE) AS dia, valor_total FROM "
+                        + particao.tabelaVendas() + " WHERE data_venda BETWEEN :inicio AND :fim "
+                        + "AND status = 'FINALIZADA'")
+                + ") v GROUP BY dia ORDER BY dia";
+        return jdbcTemplate.query(sql, periodo(inicio, fim), (rs, linha) -> new Object[] {
+                rs.getObject(1, LocalDate.class), rs.getLong(2), rs.getBigDecimal(3) });
+    }
+
+    /**
+     * Como {@code ItemVendaRepository.findProdutosMaisVendidos}, já limitado.
+     */
+    List<Object[]> buscarProdutosMaisVendidos(int limite, List<Integer> meses) {
+        String sql = "SELECT u.produto_id, p.nome, SUM(u.quantidade) AS total FROM ("
+                + VendaParticoes.unir(meses, particao -> "SELECT i.produto_id, i.quantidade FROM "
+                        + particao.tabelaItens() + " i JOIN " + particao.tabelaVendas()
+                        + " v ON v.venda_id = i.venda_id WHERE v.status = 'FINALIZADA'")
+                + ") u LEFT JOIN produto p ON p.produto_id = u.produto_id GROUP BY u.produto_id, p.nome "
+                + "ORDER BY total DESC FETCH FIRST " + limite + " ROWS ONLY";
+        return jdbcTemplate.query(sql, Map.of(), (rs, linha) -> new Object[] {
+                rs.getLong(1), rs.getString(2), rs.getLong(3) });
+    }
+
+    /**
+     * Como {@code VendaRepository.streamExportacao}, entregando cada linha ao leitor.
+     * @param fim fim do período, exclusivo
+     */
+    void exportarVendas(LocalDateTime inicio, LocalDateTime fim, List<Integer> meses, RowCallbackHandler leitor) {
+        String sql = VendaParticoes.unir(meses, particao -> "SELECT venda_id, data_venda, status, "
+                + "forma_pagamento, valor_total, desconto, valor_recebido, troco FROM " + particao.tabelaVendas()
+                + " WHERE data_venda >= :inicio AND data_venda < :fim")
+                + " ORDER BY data_venda, venda_id";
+        jdbcTemplate.query(sql, periodo(inicio, fim), leitor);
+    }
+
+    /**
+     * Como {@code ItemVendaRepository.streamExportacao}, entregando cada linha ao leitor.
+     * @param fim fim do período, exclusivo
+     */
+    void exportarItens(LocalDateTime inicio, LocalDateTime fim, List<Integer> meses, RowCallbackHandler leitor) {
+        String sql = "SELECT u.venda_id, u.data_venda, u.status, u.item_venda_id, u.produto_id, p.codigo, p.nome, "
+                + "u.quantidade, u.preco_unitario, u.subtotal FROM ("
+                + VendaParticoes.unir(meses, particao -> "SELECT v.venda_id, v.data_venda, v.status, "
+                        + "i.item_venda_id, i.produto_id, i.quantidade, i.preco_unitario, i.subtotal FROM "
+                        + particao.tabelaItens() + " i JOIN " + particao.tabelaVendas()
+                        + " v ON v.venda_id = i.venda_id WHERE v.data_venda >= :inicio AND v.data_venda < :fim")
+                + ") u LEFT JOIN produto p ON p.produto_id = u.produto_id "
+                + "ORDER BY u.data_venda, u.venda_id, u.item_venda_id";
+        jdbcTemplate.query(sql, periodo(inicio, fim), leitor);
+    }
+
+    private static Map<String, Object> periodo(LocalDateTime inicio, LocalDateTime fim) {
+        return Map.of("inicio", Timestamp.valueOf(inicio), "fim", Timestamp.valueOf(fim));
+    }
+}
@@ -0,0 +1,160 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.base.service.EscritorExportacao;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.venda.domain.ItemVendaExportado;
+import com.leandrosnazareth.venda.domain.ItemVendaRepository;
+import com.leandrosnazareth.venda.domain.Venda;
+import com.leandrosnazareth.venda.domain.VendaExportada;
+import com.leandrosnazareth.venda.domain.VendaRepository;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Exporta as vendas, ou os itens vendidos, de um período em CSV ou NDJSON.
+ * <p>
+ * As linhas são lidas por cursor, sem passar pelo contexto de persistência, e escritas
+ * no destino assim que lidas, então a memória usada não depende do tamanho do período.
+ * Períodos que alcançam meses arquivados são lidos também das tabelas de arquivo.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class VendaExportacaoService {
+
+    private static final List<String> COLUNAS_VENDA = List.of("venda_id", "data_venda", "status",
+            "forma_pagamento", "valor_total", "desconto", "valor_recebido", "troco");
+
+    private static final List<String> COLUNAS_ITEM = List.of("venda_id", "data_venda", "status",
+            "item_venda_id", "produto_id", "codigo", "nome", "quantidade", "preco_unitario", "subtotal");
+
+    private final VendaRepository vendaRepository;
+    private final ItemVendaRepository itemVendaRepository;
+    private final VendaParticoes particoes;
+    private final VendaConsultaArquivada consultaArquivada;
+
+    public VendaExportacaoService(VendaRepository vendaRepository, ItemVendaRepository itemVendaRepository,
+            VendaParticoes particoes, VendaConsultaArquivada consultaArquivada) {
+        this.vendaRepository = vendaRepository;
+        this.itemVendaRepository = itemVendaRepository;
+        this.particoes = particoes;
+        this.consultaArquivada = consultaArquivada;
+    }
+
+    /**
+     * Escreve no destino, que não é fechado, as vendas de {@code inicio} a {@code fim}.
+     * @param inicio primeiro dia do período
+     * @param fim último dia do período, inclusivo
+     * @return quantidade de vendas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportarVendas(LocalDate inicio, LocalDate fim, FormatoExportacao formato, Writer destino)
+            throws IOException {
+        validarPeriodo(inicio, fim);
+        EscritorExportacao escritor = EscritorExportacao.abrir(formato, destino, COLUNAS_VENDA);
+        LocalDateTime de = inicio.atStartOfDay();
+        LocalDateTime ate = fim.plusDays(1).atStartOfDay();
+        List<Integer> meses = particoes.mesesArquivados(de, ate);
+        if (!meses.isEmpty()) {
+            long linhas = escreverArquivadas(leitor -> consultaArquivada.exportarVendas(de, ate, meses, leitor),
+                    rs -> escritor.escrever(rs.getLong(1), rs.getObject(2, LocalDateTime.class),
+                            Venda.StatusVenda.valueOf(rs.getString(3)), Venda.FormaPagamento.valueOf(rs.getString(4)),
+                            rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getBigDecimal(8)));
+            escritor.concluir();
+            return linhas;
+        }
+        long linhas = 0;
+        try (Stream<VendaExportada> vendas = vendaRepository.streamExportacao(de, ate)) {
+            for (Iterator<VendaExportada> it = vendas.iterator(); it.hasNext(); linhas++) {
+                VendaExportada v = it.next();
+                escritor.escrever(v.vendaId(), v.dataVenda(), v.status(), v.formaPagamento(), v.valorTotal(),
+                        v.desconto(), v.valorRecebido(), v.troco());
+            }
+        }
+        escritor.concluir();
+        return linhas;
+    }
+
+    /**
+     * Escreve no destino, que não é fechado, os itens das vendas de {@code inicio} a {@code fim}.
+     * @param inicio primeiro dia do período
+     * @param fim último dia do período, inclusivo
+     * @return quantidade de itens exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportarItens(LocalDate inicio, LocalDate fim, FormatoExportacao formato, Writer destino)
+            throws IOException {
+        validarPeriodo(inicio, fim);
+        EscritorExportacao escritor = EscritorExportacao.abrir(formato, destino, COLUNAS_ITEM);
+        LocalDateTime de = inicio.atStartOfDay();
+        LocalDateTime ate = fim.plusDays(1).atStartOfDay();
+        List<Integer> meses = particoes.mesesArquivados(de, ate);
+        if (!meses.isEmpty()) {
+            long linhas = escreverArquivadas(leitor -> consultaArquivada.exportarItens(de, ate, meses, leitor),
+                    rs -> escritor.escrever(rs.getLong(1), rs.getObject(2, LocalDateTime.class),
+                            Venda.StatusVenda.valueOf(rs.getString(3)), rs.getLong(4), rs.getLong(5),
+                            rs.getString(6), rs.getString(7), rs.getInt(8), rs.getBigDecimal(9),
+                            rs.getBigDecimal(10)));
+            escritor.concluir();
+            return linhas;
+        }
+        long linhas = 0;
+        try (Stream<ItemVendaExportado> itens = itemVendaRepository.streamExportacao(de, ate)) {
+            for (Iterator<ItemVendaExportado> it = itens.iterator(); it.hasNext(); linhas++) {
+                ItemVendaExportado i = it.next();
+                escritor.escrever(i.vendaId(), i.dataVenda(), i.status(), i.itemVendaId(), i.produtoId(),
+                        i.codigo(), i.nome(), i.quantidade(), i.precoUnitario(), i.subtotal());
+            }
+        }
+        escritor.concluir();
+        return linhas;
+    }
+
+    /**
+     * Escreve cada linha lida pela consulta que junta as partições. O leitor do JDBC não
+     * pode lançar {@link IOException}, então ela atravessa a consulta embrulhada.
+     * @return quantidade de linhas escritas
+     */
+    private static long escreverArquivadas(Consumer<RowCallbackHandler> consulta, LinhaExportacao linha)
+            throws IOException {
+        long[] linhas = new long[1];
+        try {
+            consulta.accept(rs -> {
+                try {
+                    linha.escrever(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                linhas[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return linhas[0];
+    }
+
+    @FunctionalInterface
+    private interface LinhaExportacao {
+        void escrever(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private static void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à inicial");
+        }
+    }
+}
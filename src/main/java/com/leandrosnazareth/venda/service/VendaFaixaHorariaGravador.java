@@ -0,0 +1,137 @@
+package com.leandrosnazareth.venda.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Grava as faixas de dia da semana e hora das vendas.
+ * <p>
+ * Finalizar ou cancelar uma venda soma um único {@code UPDATE} na faixa, na transação
+ * da venda. As 168 linhas da semana são criadas de antemão pelo
+ * {@link VendaFaixaHorariaJob}; se ainda não existirem, são criadas na hora pelo
+ * {@link VendaFaixaHorariaSemana}, em transação própria.
+ * </p>
+ */
+@Component
+class VendaFaixaHorariaGravador {
+
+    static final int HORAS_POR_SEMANA = 7 * 24;
+
+    private static final int TAMANHO_LEITURA = 10_000;
+
+    private static final String SOMAR_FINALIZADA = "UPDATE venda_faixa_horaria SET vendas = vendas + 1, "
+            + "valor_total = valor_total + :valor WHERE semana = :semana AND dia_semana = :dia AND hora = :hora";
+
+    private static final String SOMAR_CANCELADA = "UPDATE venda_faixa_horaria SET canceladas = canceladas + 1 "
+            + "WHERE semana = :semana AND dia_semana = :dia AND hora = :hora";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final VendaParticoes particoes;
+    private final VendaFaixaHorariaSemana semanas;
+
+    VendaFaixaHorariaGravador(NamedParameterJdbcTemplate jdbcTemplate, VendaParticoes particoes,
+            VendaFaixaHorariaSemana semanas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.particoes = particoes;
+        this.semanas = semanas;
+    }
+
+    /**
+     * Segunda-feira da semana do dia.
+     */
+    static LocalDate semana(LocalDate dia) {
+        return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarFinalizada(LocalDateTime dataVenda, BigDecimal valor) {
+        somar(SOMAR_FINALIZADA, faixa(dataVenda).addValue("valor", valor), dataVenda);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCancelada(LocalDateTime dataVenda) {
+        somar(SOMAR_CANCELADA, faixa(dataVenda), dataVenda);
+    }
+
+    /**
+     * Refaz todas as faixas a partir das vendas finalizadas e canceladas, inclusive as
+     * arquivadas. As vendas são lidas por cursor e somadas em memória, uma entrada por
+     * faixa com movimento.
+     * @return número de faixas gravadas
+     */
+    @Transactional
+    public int reconstruir() {
+        // Chave: dia da época da segunda-feira * 168 + faixa da semana
+        Map<Long, Soma> somas = new TreeMap<>();
+        String consulta = VendaParticoes.unir(particoes.mesesArquivados(), particao -> "SELECT data_venda, "
+                + "status, valor_total FROM " + particao.tabelaVendas()
+                + " WHERE status IN ('FINALIZADA', 'CANCELADA')");
+        jdbcTemplate.getJdbcTemplate().query(conexao -> {
+            var comando = conexao.prepareStatement(consulta);
+            comando.setFetchSize(TAMANHO_LEITURA);
+            return comando;
+        }, rs -> {
+            LocalDateTime dataVenda = rs.getObject(1, LocalDateTime.class);
+            long chave = semana(dataVenda.toLocalDate()).toEpochDay() * HORAS_POR_SEMANA + faixaDaSemana(dataVenda);
+            Soma soma = somas.computeIfAbsent(chave, nova -> new Soma());
+            if ("FINALIZADA".equals(rs.getString(2))) {
+                soma.vendas++;
+                soma.valor = soma.valor.add(rs.getBigDecimal(3));
+            } else {
+                soma.canceladas++;
+            }
+        });
+
+        jdbcTemplate.update("DELETE FROM venda_faixa_horaria", Map.of());
+        List<SqlParameterSource> linhas = new ArrayList<>(somas.size());
+        somas.forEach((chave, soma) -> linhas.add(VendaFaixaHorariaSemana.linha(
+                LocalDate.ofEpochDay(Math.floorDiv(chave, HORAS_POR_SEMANA)),
+                (int) Math.floorMod(chave, HORAS_POR_SEMANA), soma.vendas, soma.valor, soma.canceladas)));
+        semanas.inserir(linhas);
+        return linhas.size();
+    }
+
+    private void somar(String sql, MapSqlParameterSource parametros, LocalDateTime dataVenda) {
+        if (jdbcTemplate.update(sql, parametros) == 0) {
+            try {
+                semanas.criar(semana(dataVenda.toLocalDate()));
+            } catch (DataIntegrityViolationException e) {
+                // Outra venda criou as linhas da semana ao mesmo tempo
+            }
+            jdbcTemplate.update(sql, parametros);
+        }
+    }
+
+    private static MapSqlParameterSource faixa(LocalDateTime dataVenda) {
+        return new MapSqlParameterSource()
+                .addValue("semana", Date.valueOf(semana(dataVenda.toLocalDate())))
+                .addValue("dia", dataVenda.getDayOfWeek().getValue() - 1)
+                .addValue("hora", dataVenda.getHour());
+    }
+
+    private static int faixaDaSemana(LocalDateTime dataVenda) {
+        return (dataVenda.getDayOfWeek().getValue() - 1) * 24 + dataVenda.getHour();
+    }
+
+    private static final class Soma {
+        long vendas;
+        BigDecimal valor = BigDecimal.ZERO;
+        long canceladas;
+    }
+}
@@ -0,0 +1,84 @@
+package com.leandrosnazareth.venda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Mantém as faixas de dia da semana e hora do mapa de movimento.
+ * <p>
+ * Ao iniciar, se a tabela estiver vazia, as faixas são reconstruídas a partir das
+ * vendas existentes, inclusive as arquivadas. Depois, e a cada dia pela agenda
+ * {@code pdv.faixa-horaria.agenda}, as linhas da semana atual e da próxima são
+ * criadas de antemão, para que finalizar uma venda só precise somar na faixa.
+ * </p>
+ * <p>
+ * Roda em segundo plano, sem usuário autenticado, então acessa o banco diretamente.
+ * </p>
+ */
+@Component
+public class VendaFaixaHorariaJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendaFaixaHorariaJob.class);
+
+    private final VendaFaixaHorariaGravador gravador;
+    private final VendaFaixaHorariaSemana semanas;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    VendaFaixaHorariaJob(VendaFaixaHorariaGravador gravador, VendaFaixaHorariaSemana semanas,
+            JdbcTemplate jdbcTemplate, Clock clock) {
+        this.gravador = gravador;
+        this.semanas = semanas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 4) // Depois da carga das partições arquivadas
+    public void preparar() {
+        Integer faixas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM venda_faixa_horaria", Integer.class);
+        if (faixas == null || faixas == 0) {
+            reconstruir();
+        }
+        criarSemanas();
+    }
+
+    @Scheduled(cron = "${pdv.faixa-horaria.agenda:0 0 1 * * *}")
+    public void criarSemanas() {
+        LocalDate semana = VendaFaixaHorariaGravador.semana(LocalDate.now(clock));
+        criarSemana(semana);
+        criarSemana(semana.plusWeeks(1));
+    }
+
+    private void criarSemana(LocalDate semana) {
+        try {
+            semanas.criar(semana);
+        } catch (DataIntegrityViolationException e) {
+            // Uma venda criou as linhas da semana ao mesmo tempo
+            logger.debug("Faixas da semana {} criadas por outra transação", semana);
+        }
+    }
+
+    /**
+     * Refaz todas as faixas a partir das vendas.
+     * @return número de faixas com movimento
+     */
+    public synchronized int reconstruir() {
+        long inicio = System.nanoTime();
+        int faixas = gravador.reconstruir();
+        logger.info("Faixas de movimento por hora reconstruídas: {} em {} ms", faixas,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return faixas;
+    }
+}
@@ -0,0 +1,86 @@
+package com.leandrosnazareth.venda.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cria as linhas das faixas de uma semana, usado pelo {@link VendaFaixaHorariaGravador}
+ * e pelo {@link VendaFaixaHorariaJob}.
+ * <p>
+ * Fica separado do gravador para que a criação tenha sua própria transação: quando duas
+ * vendas da mesma semana nova são finalizadas ao mesmo tempo, a segunda recebe a violação
+ * da chave única sem comprometer a transação da venda, que só volta a somar nas linhas
+ * criadas pela primeira.
+ * </p>
+ */
+@Component
+class VendaFaixaHorariaSemana {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String inserir;
+
+    VendaFaixaHorariaSemana(NamedParameterJdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inserir = "INSERT INTO venda_faixa_horaria (venda_faixa_horaria_id, semana, dia_semana, hora, vendas, "
+                + "valor_total, canceladas) VALUES (" + entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSelectSequenceNextValString("venda_faixa_horaria_seq")
+                + ", :semana, :dia, :hora, :vendas, :valor, :canceladas)";
+    }
+
+    /**
+     * Cria as linhas que faltam das 168 faixas da semana.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException se outra transação
+     *         criou alguma das linhas ao mesmo tempo
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void criar(LocalDate semana) {
+        Set<Integer> existentes = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT dia_semana * 24 + hora FROM venda_faixa_horaria WHERE semana = :semana",
+                Map.of("semana", Date.valueOf(semana)), Integer.class));
+        List<SqlParameterSource> faltantes = new ArrayList<>();
+        for (int faixa = 0; faixa < VendaFaixaHorariaGravador.HORAS_POR_SEMANA; faixa++) {
+            if (!existentes.contains(faixa)) {
+                faltantes.add(linha(semana, faixa, 0, BigDecimal.ZERO, 0));
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            jdbcTemplate.batchUpdate(inserir, faltantes.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * Insere as linhas na transação de quem chama.
+     */
+    void inserir(List<SqlParameterSource> linhas) {
+        if (!linhas.isEmpty()) {
+            jdbcTemplate.batchUpdate(inserir, linhas.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    static SqlParameterSource linha(LocalDate semana, int faixa, long vendas, BigDecimal valor, long canceladas) {
+        return new MapSqlParameterSource()
+                .addValue("semana", Date.valueOf(semana))
+                .addValue("dia", faixa / 24)
+                .addValue("hora", faixa % 24)
+                .addValue("vendas", vendas)
+                .addValue("valor", valor)
+                .addValue("canceladas", canceladas);
+    }
+}
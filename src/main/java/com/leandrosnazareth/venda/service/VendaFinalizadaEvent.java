@@ -0,0 +1,32 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento publicado pelo {@link VendaService} quando uma venda é finalizada, com os
+ * dados dos itens já copiados, para que os ouvintes não precisem carregar a venda.
+ *
+ * @param vendaId venda finalizada
+ * @param dataVenda data e hora da venda
+ * @param formaPagamento forma de pagamento
+ * @param itens itens vendidos
+ */
+public record VendaFinalizadaEvent(Long vendaId, LocalDateTime dataVenda, FormaPagamento formaPagamento,
+        List<Item> itens) {
+
+    /**
+     * Item da venda.
+     *
+     * @param produtoId produto vendido
+     * @param categoria categoria do produto no momento da venda
+     * @param quantidade unidades vendidas
+     * @param subtotal valor do item, antes do desconto da venda
+     */
+    public record Item(Long produtoId, @Nullable String categoria, int quantidade, BigDecimal subtotal) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.venda.domain.ItemVenda;
+import com.leandrosnazareth.venda.domain.Venda;
+import com.leandrosnazareth.venda.domain.VendaLucroCategoria;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Grava os agregados de lucro por dia, por categoria e por produto.
+ * <p>
+ * Finalizar uma venda soma os itens nos agregados do dia, na transação da venda: um
+ * {@code UPDATE} por linha afetada, em ordem de produto e de categoria, para que vendas
+ * simultâneas travem as linhas na mesma ordem. A primeira venda do dia, da categoria ou
+ * do produto cria antes a linha zerada pelo {@link VendaLucroLinha}, em transação
+ * própria. A reconstrução refaz tudo a partir dos itens das vendas finalizadas,
+ * inclusive as arquivadas.
+ * </p>
+ */
+@Component
+class VendaLucroGravador {
+
+    private static final String MEDIDAS = "quantidade = quantidade + :quantidade, receita = receita + :receita, "
+            + "custo = custo + :custo, receita_sem_custo = receita_sem_custo + :receitaSemCusto";
+
+    private static final String SOMAR_DIA = "UPDATE venda_lucro_dia SET vendas = vendas + 1, "
+            + "desconto = desconto + :desconto, " + MEDIDAS + " WHERE dia = :dia";
+
+    private static final String SOMAR_CATEGORIA = "UPDATE venda_lucro_categoria SET " + MEDIDAS
+            + " WHERE dia = :dia AND categoria = :categoria";
+
+    private static final String SOMAR_PRODUTO = "UPDATE venda_lucro_produto SET " + MEDIDAS
+            + " WHERE dia = :dia AND produto_id = :produtoId";
+
+    // Itens de cada venda finalizada de uma partição, com o custo gravado no item ou, sem ele,
+    // o preço de compra vigente na venda segundo o histórico de preços
+    private static final String ITENS = "SELECT dia, produto_id, categoria, quantidade, receita, "
+            + "COALESCE(custo_unitario * quantidade, 0) AS custo, "
+            + "CASE WHEN custo_unitario IS NULL THEN receita ELSE 0 END AS receita_sem_custo FROM ("
+            + "SELECT CAST(v.data_venda AS DATE) AS dia, i.produto_id, "
+            + "COALESCE(i.categoria, p.categoria, '" + VendaLucroCategoria.SEM_CATEGORIA + "') AS categoria, "
+            + "i.quantidade, i.subtotal AS receita, COALESCE(i.custo_unitario, "
+            + "(SELECT MAX(h.preco_compra) FROM produto_preco_historico h WHERE h.produto_id = i.produto_id "
+            + "AND h.valido_de <= v.data_venda AND (h.valido_ate IS NULL OR h.valido_ate > v.data_venda))) "
+            + "AS custo_unitario FROM %s i JOIN %s v ON v.venda_id = i.venda_id "
+            + "LEFT JOIN produto p ON p.produto_id = i.produto_id WHERE v.status = 'FINALIZADA') c";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final VendaParticoes particoes;
+    private final VendaLucroLinha linhas;
+    private final String proximoIdDia;
+    private final String proximoIdCategoria;
+    private final String proximoIdProduto;
+
+    VendaLucroGravador(NamedParameterJdbcTemplate jdbcTemplate, VendaParticoes particoes, VendaLucroLinha linhas,
+            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.particoes = particoes;
+        this.linhas = linhas;
+        var sequencias = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport();
+        this.proximoIdDia = sequencias.getSelectSequenceNextValString("venda_lucro_dia_seq");
+        this.proximoIdCategoria = sequencias.getSelectSequenceNextValString("venda_lucro_categoria_seq");
+        this.proximoIdProduto = sequencias.getSelectSequenceNextValString("venda_lucro_produto_seq");
+    }
+
+    /**
+     * Soma a venda finalizada nos agregados do dia, com o custo e a categoria registrados
+     * em cada item.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Venda venda) {
+        Date dia = Date.valueOf(venda.getDataVenda().toLocalDate());
+        Somas total = new Somas();
+        Map<Long, Somas> porProduto = new TreeMap<>();
+        Map<String, Somas> porCategoria = new TreeMap<>();
+        for (ItemVenda item : venda.getItens()) {
+            Somas somas = Somas.doItem(item);
+            total.somar(somas);
+            porProduto.computeIfAbsent(item.getProduto().getId(), novo -> new Somas()).somar(somas);
+            porCategoria.computeIfAbsent(categoria(item), nova -> new Somas()).somar(somas);
+        }
+        porProduto.forEach((produtoId, somas) -> somar(SOMAR_PRODUTO,
+                somas.parametros(dia).addValue("produtoId", produtoId), () -> linhas.criarProduto(dia, produtoId)));
+        porCategoria.forEach((categoria, somas) -> somar(SOMAR_CATEGORIA,
+                somas.parametros(dia).addValue("categoria", categoria), () -> linhas.criarCategoria(dia, categoria)));
+        BigDecimal desconto = venda.getDesconto() == null ? BigDecimal.ZERO : venda.getDesconto();
+        somar(SOMAR_DIA, total.parametros(dia).addValue("desconto", desconto), () -> linhas.criarDia(dia));
+    }
+
+    private static String categoria(ItemVenda item) {
+        if (item.getCategoria() != null) {
+            return item.getCategoria();
+        }
+        String categoria = item.getProduto().getCategoria();
+        return categoria == null ? VendaLucroCategoria.SEM_CATEGORIA : categoria;
+    }
+
+    /**
+     * Refaz os agregados a partir dos itens das vendas finalizadas, em três comandos
+     * {@code INSERT ... SELECT} agrupados pelo banco. Os itens sem custo registrado usam
+     * o preço de compra vigente na venda segundo o histórico de preços, quando houver,
+     * sem alterar os itens. As tabelas de itens arquivadas já devem ter as colunas de
+     * custo e de categoria.
+     */
+    @Transactional
+    public void reconstruir() {
+        List<Integer> meses = particoes.mesesArquivados();
+        String itens = VendaParticoes.unir(meses,
+                particao -> ITENS.formatted(particao.tabelaItens(), particao.tabelaVendas()));
+        String somas = "SUM(quantidade), SUM(receita), SUM(custo), SUM(receita_sem_custo)";
+        jdbcTemplate.update("DELETE FROM venda_lucro_produto", Map.of());
+        jdbcTemplate.update("DELETE FROM venda_lucro_categoria", Map.of());
+        jdbcTemplate.update("DELETE FROM venda_lucro_dia", Map.of());
+        jdbcTemplate.update("INSERT INTO venda_lucro_produto (venda_lucro_produto_id, dia, produto_id, "
+                + "quantidade, receita, custo, receita_sem_custo) SELECT " + proximoIdProduto + ", t.* FROM ("
+                + "SELECT dia, produto_id, " + somas + " FROM (" + itens + ") i GROUP BY dia, produto_id) t",
+                Map.of());
+        jdbcTemplate.update("INSERT INTO venda_lucro_categoria (venda_lucro_categoria_id, dia, categoria, "
+                + "quantidade, receita, custo, receita_sem_custo) SELECT " + proximoIdCategoria + ", t.* FROM ("
+                + "SELECT dia, categoria, " + somas + " FROM (" + itens + ") i GROUP BY dia, categoria) t",
+                Map.of());
+
+        String vendas = VendaParticoes.unir(meses, particao -> "SELECT CAST(data_venda AS DATE) AS dia, "
+                + "COALESCE(desconto, 0) AS desconto FROM " + particao.tabelaVendas() + " WHERE status = 'FINALIZADA'");
+        jdbcTemplate.update("INSERT INTO venda_lucro_dia (venda_lucro_dia_id, dia, vendas, desconto, "
+                + "quantidade, receita, custo, receita_sem_custo) SELECT " + proximoIdDia + ", t.dia, t.vendas, "
+                + "t.desconto, COALESCE(p.quantidade, 0), COALESCE(p.receita, 0), COALESCE(p.custo, 0), "
+                + "COALESCE(p.receita_sem_custo, 0) FROM ("
+                + "SELECT dia, COUNT(*) AS vendas, SUM(desconto) AS desconto FROM (" + vendas + ") v GROUP BY dia) t "
+                + "LEFT JOIN (SELECT dia, SUM(quantidade) AS quantidade, SUM(receita) AS receita, SUM(custo) AS custo, "
+                + "SUM(receita_sem_custo) AS receita_sem_custo FROM venda_lucro_produto GROUP BY dia) p "
+                + "ON p.dia = t.dia", Map.of());
+    }
+
+    /**
+     * Soma na linha existente; se for a primeira, cria a linha zerada e soma nela.
+     */
+    private void somar(String somar, MapSqlParameterSource parametros, Runnable criar) {
+        if (jdbcTemplate.update(somar, parametros) == 0) {
+            try {
+                criar.run();
+            } catch (DataIntegrityViolationException e) {
+                // Outra venda criou a linha ao mesmo tempo
+            }
+            jdbcTemplate.update(somar, parametros);
+        }
+    }
+
+    private static final class Somas {
+        long quantidade;
+        BigDecimal receita = BigDecimal.ZERO;
+        BigDecimal custo = BigDecimal.ZERO;
+        BigDecimal receitaSemCusto = BigDecimal.ZERO;
+
+        static Somas doItem(ItemVenda item) {
+            Somas somas = new Somas();
+            somas.quantidade = item.getQuantidade();
+            somas.receita = item.getSubtotal();
+            if (item.getCustoUnitario() == null) {
+                somas.receitaSemCusto = item.getSubtotal();
+            } else {
+                somas.custo = item.getCustoUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()));
+            }
+            return somas;
+        }
+
+        void somar(Somas outras) {
+            quantidade += outras.quantidade;
+            receita = receita.add(outras.receita);
+            custo = custo.add(outras.custo);
+            receitaSemCusto = receitaSemCusto.add(outras.receitaSemCusto);
+        }
+
+        MapSqlParameterSource parametros(Date dia) {
+            return new MapSqlParameterSource()
+                    .addValue("dia", dia)
+                    .addValue("quantidade", quantidade)
+                    .addValue("receita", receita)
+                    .addValue("custo", custo)
+                    .addValue("receitaSemCusto", receitaSemCusto);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.leandrosnazareth.venda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preenche os agregados de lucro na primeira inicialização depois que foram criados.
+ * <p>
+ * Se ainda não houver agregados, eles são reconstruídos a partir de todas as vendas
+ * finalizadas, inclusive as arquivadas; os itens sem custo registrado entram com o
+ * preço de compra do histórico de preços. Depois disso, os agregados são mantidos a
+ * cada venda finalizada.
+ * </p>
+ * <p>
+ * Roda em segundo plano, sem usuário autenticado, então acessa o banco diretamente.
+ * </p>
+ */
+@Component
+public class VendaLucroJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendaLucroJob.class);
+
+    private final VendaLucroGravador gravador;
+    private final VendaArquivamentoJob arquivamentoJob;
+    private final JdbcTemplate jdbcTemplate;
+
+    VendaLucroJob(VendaLucroGravador gravador, VendaArquivamentoJob arquivamentoJob, JdbcTemplate jdbcTemplate) {
+        this.gravador = gravador;
+        this.arquivamentoJob = arquivamentoJob;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5) // Depois do histórico de preços e da carga das partições arquivadas
+    public void preparar() {
+        Integer dias = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM venda_lucro_dia", Integer.class);
+        if (dias == null || dias == 0) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Refaz todos os agregados de lucro a partir das vendas finalizadas.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        // Fora de transação: em alguns bancos DDL confirma a transação corrente
+        arquivamentoJob.completarColunas();
+        gravador.reconstruir();
+        logger.info("Agregados de lucro reconstruídos em {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
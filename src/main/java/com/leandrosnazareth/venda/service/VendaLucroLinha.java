@@ -0,0 +1,70 @@
+package com.leandrosnazareth.venda.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.Map;
+
+/**
+ * Cria as linhas zeradas dos agregados de lucro, usado pelo {@link VendaLucroGravador}.
+ * <p>
+ * Fica separado do gravador para que a criação tenha sua própria transação: quando a
+ * primeira venda de um dia, categoria ou produto é finalizada ao mesmo tempo em duas
+ * sessões, a segunda recebe a violação da chave única sem comprometer a transação da
+ * venda, que só volta a somar na linha criada pela primeira.
+ * </p>
+ */
+@Component
+class VendaLucroLinha {
+
+    private static final String ZEROS = "0, 0, 0, 0)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String inserirDia;
+    private final String inserirCategoria;
+    private final String inserirProduto;
+
+    VendaLucroLinha(NamedParameterJdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        var sequencias = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport();
+        String colunas = "quantidade, receita, custo, receita_sem_custo) VALUES (";
+        this.inserirDia = "INSERT INTO venda_lucro_dia (venda_lucro_dia_id, dia, vendas, desconto, " + colunas
+                + sequencias.getSelectSequenceNextValString("venda_lucro_dia_seq") + ", :dia, 0, 0, " + ZEROS;
+        this.inserirCategoria = "INSERT INTO venda_lucro_categoria (venda_lucro_categoria_id, dia, categoria, "
+                + colunas + sequencias.getSelectSequenceNextValString("venda_lucro_categoria_seq")
+                + ", :dia, :categoria, " + ZEROS;
+        this.inserirProduto = "INSERT INTO venda_lucro_produto (venda_lucro_produto_id, dia, produto_id, "
+                + colunas + sequencias.getSelectSequenceNextValString("venda_lucro_produto_seq")
+                + ", :dia, :produtoId, " + ZEROS;
+    }
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException se a linha do dia já existe
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void criarDia(Date dia) {
+        jdbcTemplate.update(inserirDia, Map.of("dia", dia));
+    }
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException se a linha da categoria já existe
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void criarCategoria(Date dia, String categoria) {
+        jdbcTemplate.update(inserirCategoria, Map.of("dia", dia, "categoria", categoria));
+    }
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException se a linha do produto já existe
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void criarProduto(Date dia, Long produtoId) {
+        jdbcTemplate.update(inserirProduto, Map.of("dia", dia, "produtoId", produtoId));
+    }
+}
@@ -0,0 +1,124 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.venda.domain.Venda;
+import com.leandrosnazareth.venda.domain.VendaArquivoMes;
+import com.leandrosnazareth.venda.domain.VendaArquivoMesRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Meses de vendas arquivados, mantidos em memória para que as consultas decidam sem
+ * ir ao banco se um período precisa das tabelas de arquivo.
+ * <p>
+ * Quando o período não alcança nenhum mês arquivado, as consultas continuam só na
+ * tabela de vendas em uso; caso contrário, {@link #unir} junta a consulta de cada
+ * tabela com {@code UNION ALL}.
+ * </p>
+ */
+@Component
+public class VendaParticoes {
+
+    /**
+     * Tabelas de vendas e itens de uma partição.
+     */
+    public record Particao(String tabelaVendas, String tabelaItens) {
+
+        public static final Particao EM_USO = new Particao("venda", "item_venda");
+
+        static Particao arquivo(int anoMes) {
+            return new Particao(VendaArquivoMes.tabelaVendas(anoMes), VendaArquivoMes.tabelaItens(anoMes));
+        }
+    }
+
+    private record Estado(NavigableSet<Integer> meses, long finalizadas, long canceladas) {
+    }
+
+    private final VendaArquivoMesRepository arquivoMesRepository;
+
+    private volatile Estado estado = new Estado(Collections.emptyNavigableSet(), 0, 0);
+
+    VendaParticoes(VendaArquivoMesRepository arquivoMesRepository) {
+        this.arquivoMesRepository = arquivoMesRepository;
+    }
+
+    /**
+     * Lê o registro dos meses arquivados. Roda antes das cargas em memória, como a do
+     * cubo de vendas, que também leem os arquivos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 3)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        NavigableSet<Integer> meses = new TreeSet<>();
+        long finalizadas = 0;
+        long canceladas = 0;
+        for (VendaArquivoMes mes : arquivoMesRepository.findAll()) {
+            meses.add(mes.getAnoMes());
+            finalizadas += mes.getVendasFinalizadas();
+            canceladas += mes.getVendasCanceladas();
+        }
+        estado = new Estado(Collections.unmodifiableNavigableSet(meses), finalizadas, canceladas);
+    }
+
+    /**
+     * Todos os meses arquivados, do mais antigo ao mais recente.
+     */
+    public List<Integer> mesesArquivados() {
+        return List.copyOf(estado.meses());
+    }
+
+    /**
+     * Meses arquivados que têm vendas entre {@code inicio} e {@code fim}.
+     */
+    public List<Integer> mesesArquivados(LocalDateTime inicio, LocalDateTime fim) {
+        int primeiro = VendaArquivoMes.anoMes(YearMonth.from(inicio));
+        int ultimo = VendaArquivoMes.anoMes(YearMonth.from(fim));
+        if (ultimo < primeiro) {
+            return List.of();
+        }
+        return List.copyOf(estado.meses().subSet(primeiro, true, ultimo, true));
+    }
+
+    /**
+     * Vendas arquivadas com o status; vendas pendentes nunca são arquivadas.
+     */
+    public long contarArquivadas(Venda.StatusVenda status) {
+        Estado atual = estado;
+        return switch (status) {
+            case FINALIZADA -> atual.finalizadas();
+            case CANCELADA -> atual.canceladas();
+            case PENDENTE -> 0;
+        };
+    }
+
+    /**
+     * Junta com {@code UNION ALL} a consulta das tabelas em uso e das tabelas dos meses.
+     * As consultas de cada partição devem ter as mesmas colunas.
+     */
+    public static String unir(List<Integer> meses, Function<Particao, String> consulta) {
+        return particoes(meses).stream()
+                .map(consulta)
+                .collect(Collectors.joining(" UNION ALL "));
+    }
+
+    /**
+     * Tabelas em uso seguidas das tabelas dos meses.
+     */
+    public static List<Particao> particoes(List<Integer> meses) {
+        return Stream.concat(Stream.of(Particao.EM_USO), meses.stream().map(Particao::arquivo)).toList();
+    }
+}
@@ -5,7 +5,9 @@ import com.leandrosnazareth.produto.service.ProdutoService;
 import com.leandrosnazareth.venda.domain.ItemVenda;
 import com.leandrosnazareth.venda.domain.ItemVendaRepository;
 import com.leandrosnazareth.venda.domain.Venda;
+import com.leandrosnazareth.venda.domain.VendaFaixaHorariaRepository;
 import com.leandrosnazareth.venda.domain.VendaRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -33,13 +36,34 @@ public class VendaService {
     private final VendaRepository vendaRepository;
     private final ItemVendaRepository itemVendaRepository;
     private final ProdutoService produtoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VendaParticoes particoes;
+    private final VendaConsultaArquivada consultaArquivada;
+    private final VendaFaixaHorariaGravador faixaHorariaGravador;
+    private final VendaFaixaHorariaRepository faixaHorariaRepository;
+    private final VendaLucroGravador lucroGravador;
+    private final Clock clock;
 
     public VendaService(VendaRepository vendaRepository, 
                        ItemVendaRepository itemVendaRepository,
-                       ProdutoService produtoService) {
+                       ProdutoService produtoService,
+                       ApplicationEventPublisher eventPublisher,
+                       VendaParticoes particoes,
+                       VendaConsultaArquivada consultaArquivada,
+                       VendaFaixaHorariaGravador faixaHorariaGravador,
+                       VendaFaixaHorariaRepository faixaHorariaRepository,
+                       VendaLucroGravador lucroGravador,
+                       Clock clock) {
         this.vendaRepository = vendaRepository;
         this.itemVendaRepository = itemVendaRepository;
         this.produtoService = produtoService;
+        this.eventPublisher = eventPublisher;
+        this.particoes = particoes;
+        this.consultaArquivada = consultaArquivada;
+        this.faixaHorariaGravador = faixaHorariaGravador;
+        this.faixaHorariaRepository = faixaHorariaRepository;
+        this.lucroGravador = lucroGravador;
+        this.clock = clock;
     }
 
     /**
@@ -84,6 +108,7 @@ public class VendaService {
         List<Venda> vendasPendentes = vendaRepository.findByStatus(Venda.StatusVenda.PENDENTE);
         for (Venda venda : vendasPendentes) {
             venda.cancelar();
+            faixaHorariaGravador.registrarCancelada(venda.getDataVenda());
         }
         vendaRepository.saveAll(vendasPendentes);
     }
@@ -138,6 +163,7 @@ public class VendaService {
             }
             
             item.setQuantidade(novaQuantidade);
+            item.setCustoUnitario(produto.getPrecoCompra());
             itemVendaRepository.save(item);
         } else {
             // Cria novo item
@@ -252,12 +278,22 @@ public class VendaService {
         venda.setValorRecebido(valorRecebido);
         venda.finalizar();
 
-        // Atualiza estoque dos produtos
+        // Atualiza estoque dos produtos e registra o custo e a categoria vigentes na finalização
         for (ItemVenda item : venda.getItens()) {
-            produtoService.atualizarEstoque(item.getProduto().getId(), -item.getQuantidade());
+            Produto produto = produtoService.atualizarEstoque(item.getProduto().getId(), -item.getQuantidade());
+            item.setCustoUnitario(produto.getPrecoCompra());
+            item.setCategoria(produto.getCategoria());
         }
 
-        return vendaRepository.save(venda);
+        Venda finalizada = vendaRepository.save(venda);
+        lucroGravador.registrar(finalizada);
+        faixaHorariaGravador.registrarFinalizada(finalizada.getDataVenda(), finalizada.getValorTotal());
+        eventPublisher.publishEvent(new VendaFinalizadaEvent(finalizada.getId(), finalizada.getDataVenda(),
+                finalizada.getFormaPagamento(), finalizada.getItens().stream()
+                        .map(item -> new VendaFinalizadaEvent.Item(item.getProduto().getId(),
+                                item.getCategoria(), item.getQuantidade(), item.getSubtotal()))
+                        .toList()));
+        return finalizada;
     }
 
     /**
@@ -274,6 +310,10 @@ public class VendaService {
             throw new IllegalArgumentException("Não é possível cancelar uma venda já finalizada");
         }
 
+        // Cancelar de novo não conta outra vez no mapa de movimento
+        if (venda.getStatus() == Venda.StatusVenda.PENDENTE) {
+            faixaHorariaGravador.registrarCancelada(venda.getDataVenda());
+        }
         venda.cancelar();
         return vendaRepository.save(venda);
     }
@@ -355,23 +395,27 @@ public class VendaService {
     }
 
     /**
-     * Conta vendas por status.
+     * Conta vendas por status, incluindo as arquivadas.
      * @param status status da venda
      * @return número de vendas com o status especificado
      */
     @Transactional(readOnly = true)
     public long contarVendasPorStatus(Venda.StatusVenda status) {
-        return vendaRepository.countByStatus(status);
+        return vendaRepository.countByStatus(status) + particoes.contarArquivadas(status);
     }
 
     /**
-     * Busca produtos mais vendidos.
+     * Busca produtos mais vendidos, incluindo as vendas arquivadas.
      * @param limite número máximo de produtos
      * @return lista de produtos mais vendidos
      */
     @Transactional(readOnly = true)
     public List<Object[]> buscarProdutosMaisVendidos(int limite) {
-        return itemVendaRepository.findProdutosMaisVendidos(limite);
+        List<Integer> meses = particoes.mesesArquivados();
+        if (meses.isEmpty()) {
+            return itemVendaRepository.findProdutosMaisVendidos(limite);
+        }
+        return consultaArquivada.buscarProdutosMaisVendidos(limite, meses);
     }
 
     /**
@@ -382,7 +426,12 @@ public class VendaService {
      */
     @Transactional(readOnly = true)
     public List<Object[]> obterEstatisticasPorFormaPagamento(LocalDateTime dataInicio, LocalDateTime dataFim) {
-        return vendaRepository.obterEstatisticasPorFormaPagamento(dataInicio, dataFim);
+        // Só lê os arquivos quando o período alcança algum mês arquivado
+        List<Integer> meses = particoes.mesesArquivados(dataInicio, dataFim);
+        if (meses.isEmpty()) {
+            return vendaRepository.obterEstatisticasPorFormaPagamento(dataInicio, dataFim);
+        }
+        return consultaArquivada.obterEstatisticasPorFormaPagamento(dataInicio, dataFim, meses);
     }
 
     /**
@@ -393,6 +442,27 @@ public class VendaService {
      */
     @Transactional(readOnly = true)
     public List<Object[]> obterEstatisticasPorDia(LocalDateTime dataInicio, LocalDateTime dataFim) {
-        return vendaRepository.obterEstatisticasPorDia(dataInicio, dataFim);
+        List<Integer> meses = particoes.mesesArquivados(dataInicio, dataFim);
+        if (meses.isEmpty()) {
+            return vendaRepository.obterEstatisticasPorDia(dataInicio, dataFim);
+        }
+        return consultaArquivada.obterEstatisticasPorDia(dataInicio, dataFim, meses);
+    }
+
+    /**
+     * Monta o mapa de movimento por dia da semana e hora das últimas semanas, a partir
+     * das faixas pré-agregadas, inclusive das vendas arquivadas.
+     * @param semanas número de semanas, contando a atual
+     * @return mapa com as 168 faixas da semana somadas no período
+     */
+    @Transactional(readOnly = true)
+    public MapaHorarioVendas obterMapaHorario(int semanas) {
+        if (semanas <= 0) {
+            throw new IllegalArgumentException("O número de semanas deve ser positivo");
+        }
+        LocalDate fim = VendaFaixaHorariaGravador.semana(LocalDate.now(clock));
+        LocalDate inicio = fim.minusWeeks(semanas - 1);
+        return MapaHorarioVendas.somar(inicio, fim.plusDays(6),
+                faixaHorariaRepository.somarPorDiaSemanaEHora(inicio, fim));
     }
 }
@@ -1,16 +1,22 @@
 package com.leandrosnazareth.venda.ui.component;
 
 import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
 import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.produto.service.SugestaoProduto;
+import com.leandrosnazareth.produto.ui.component.ProdutoFotos;
+import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H4;
 import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.listbox.ListBox;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.IntegerField;
@@ -23,6 +29,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.text.NumberFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.function.BiConsumer;
 
@@ -35,8 +42,13 @@ import java.util.function.BiConsumer;
  */
 public class BuscarProdutoComponent extends VerticalLayout {
 
+    private static final int LIMITE_SUGESTOES = 8;
+    private static final int LIMITE_BUSCA = 50;
+
     private final ProdutoService produtoService;
     private TextField buscaField;
+    private ListBox<SugestaoProduto> sugestoesListBox;
+    private Span avisoAproximado;
     private ComboBox<String> categoriaComboBox;
     private final Grid<Produto> gridProdutos;
     private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
@@ -77,6 +89,15 @@ public class BuscarProdutoComponent extends VerticalLayout {
         buscaField.addValueChangeListener(e -> atualizarGridProdutos());
         buscaField.setWidthFull();
         
+        // Sugestões de autocompletar, atualizadas a cada digitação
+        buscaField.getElement().addEventListener("input",
+                e -> atualizarSugestoes(e.getEventData().getString("element.value")))
+            .addEventData("element.value")
+            .debounce(150);
+        buscaField.addKeyDownListener(Key.ESCAPE, e -> esconderSugestoes());
+        
+        Div campoBusca = criarCampoBuscaComSugestoes();
+        
         // ComboBox de categoria
         categoriaComboBox = new ComboBox<>("Categoria");
         categoriaComboBox.setPlaceholder("Todas as categorias");
@@ -84,12 +105,17 @@ public class BuscarProdutoComponent extends VerticalLayout {
         categoriaComboBox.addValueChangeListener(e -> atualizarGridProdutos());
         categoriaComboBox.setWidth("200px");
         
-        HorizontalLayout filtros = new HorizontalLayout(buscaField, categoriaComboBox);
+        HorizontalLayout filtros = new HorizontalLayout(campoBusca, categoriaComboBox);
         filtros.setWidthFull();
-        filtros.setFlexGrow(1, buscaField);
+        filtros.setFlexGrow(1, campoBusca);
         filtros.setAlignItems(Alignment.END);
         
-        VerticalLayout header = new VerticalLayout(titulo, filtros);
+        // Aviso exibido quando a busca exata não encontra nada e os resultados são aproximados
+        avisoAproximado = new Span("Nenhum produto encontrado com esse termo. Mostrando produtos com nomes parecidos.");
+        avisoAproximado.addClassNames(LumoUtility.TextColor.SECONDARY, LumoUtility.FontSize.SMALL);
+        avisoAproximado.setVisible(false);
+        
+        VerticalLayout header = new VerticalLayout(titulo, filtros, avisoAproximado);
         header.setPadding(true);
         header.setSpacing(true);
         header.addClassName(LumoUtility.Background.CONTRAST_5);
@@ -97,6 +123,47 @@ public class BuscarProdutoComponent extends VerticalLayout {
         return header;
     }
 
+    private Div criarCampoBuscaComSugestoes() {
+        sugestoesListBox = new ListBox<>();
+        sugestoesListBox.setRenderer(new ComponentRenderer<>(sugestao -> {
+            Span codigo = new Span(sugestao.codigo());
+            codigo.addClassNames(LumoUtility.TextColor.SECONDARY, LumoUtility.FontSize.SMALL,
+                    LumoUtility.Margin.Left.SMALL);
+            return new Span(new Span(sugestao.nome()), codigo);
+        }));
+        sugestoesListBox.addValueChangeListener(e -> {
+            if (e.isFromClient() && e.getValue() != null) {
+                esconderSugestoes();
+                buscaField.setValue(e.getValue().nome());
+            }
+        });
+        sugestoesListBox.addClassNames(LumoUtility.Background.BASE, LumoUtility.BoxShadow.MEDIUM,
+                LumoUtility.BorderRadius.MEDIUM);
+        sugestoesListBox.getStyle().set("position", "absolute");
+        sugestoesListBox.getStyle().set("top", "100%");
+        sugestoesListBox.getStyle().set("left", "0");
+        sugestoesListBox.getStyle().set("right", "0");
+        sugestoesListBox.getStyle().set("z-index", "10");
+        sugestoesListBox.setVisible(false);
+        
+        Div campoBusca = new Div(buscaField, sugestoesListBox);
+        campoBusca.getStyle().set("position", "relative");
+        campoBusca.setWidthFull();
+        
+        return campoBusca;
+    }
+
+    private void atualizarSugestoes(String texto) {
+        List<SugestaoProduto> sugestoes = produtoService.sugerirProdutos(texto, LIMITE_SUGESTOES);
+        sugestoesListBox.setItems(sugestoes);
+        sugestoesListBox.setVisible(!sugestoes.isEmpty());
+    }
+
+    private void esconderSugestoes() {
+        sugestoesListBox.setVisible(false);
+        sugestoesListBox.setItems(List.of());
+    }
+
     private Grid<Produto> criarGridProdutos() {
         Grid<Produto> grid = new Grid<>(Produto.class, false);
         grid.setWidthFull();
@@ -148,18 +215,12 @@ public class BuscarProdutoComponent extends VerticalLayout {
     }
 
     private Image criarFotoProduto(Produto produto) {
-        Image foto = new Image();
+        // Miniatura servida por URL, em cache no navegador
+        Image foto = ProdutoFotos.criarImagem(produto, ProdutoImagemVariante.Tamanho.MINIATURA)
+            .orElseGet(() -> new Image("images/no-image.png", produto.getNome()));
         foto.setWidth("60px");
         foto.setHeight("60px");
         
-        if (produto.getFoto() != null && produto.getFoto().length > 0) {
-            // Usando data URL para evitar API depreciada
-            String dataUrl = "data:image/jpeg;base64," + java.util.Base64.getEncoder().encodeToString(produto.getFoto());
-            foto.setSrc(dataUrl);
-        } else {
-            foto.setSrc("images/no-image.png");
-        }
-        
         foto.getStyle().set("object-fit", "cover");
         foto.getStyle().set("border-radius", "4px");
         
@@ -209,13 +270,20 @@ public class BuscarProdutoComponent extends VerticalLayout {
     }
 
     private void atualizarGridProdutos() {
-        Pageable pageable = PageRequest.of(0, 50);
+        Pageable pageable = PageRequest.of(0, LIMITE_BUSCA);
         
         String busca = buscaField.getValue();
         String categoria = categoriaComboBox.getValue();
+        avisoAproximado.setVisible(false);
         
         if (busca != null && !busca.trim().isEmpty()) {
-            gridProdutos.setItems(produtoService.buscarPorTermo(busca.trim(), pageable).getContent());
+            List<Produto> produtos = produtoService.buscarPorRelevancia(busca.trim(), pageable).getContent();
+            if (produtos.isEmpty()) {
+                // Tolera erros de digitação, como "tecaldo" para "teclado"
+                produtos = produtoService.buscarAproximado(busca.trim(), LIMITE_BUSCA);
+                avisoAproximado.setVisible(!produtos.isEmpty());
+            }
+            gridProdutos.setItems(produtos);
         } else if (categoria != null && !categoria.trim().isEmpty()) {
             gridProdutos.setItems(produtoService.buscarPorCategoria(categoria, pageable).getContent());
         } else {
@@ -243,6 +311,7 @@ public class BuscarProdutoComponent extends VerticalLayout {
     }
 
     public void limparBusca() {
+        esconderSugestoes();
         buscaField.clear();
         categoriaComboBox.clear();
         atualizarGridProdutos();
@@ -0,0 +1,88 @@
+package com.leandrosnazareth.venda.web;
+
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.venda.service.VendaExportacaoService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Exporta as vendas e os itens vendidos de um período como download.
+ * <p>
+ * As datas são ISO-8601 ({@code 2025-01-31}) e o período inclui o último dia. As linhas
+ * saem do cursor do banco direto para a resposta, por um buffer de tamanho fixo, então
+ * nenhum período é grande demais para a memória do servidor.
+ * </p>
+ */
+@RestController
+@RequestMapping("/exportacao")
+public class VendaExportacaoController {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final VendaExportacaoService exportacaoService;
+
+    public VendaExportacaoController(VendaExportacaoService exportacaoService) {
+        this.exportacaoService = exportacaoService;
+    }
+
+    @FunctionalInterface
+    private interface Exportacao {
+        long exportar(LocalDate inicio, LocalDate fim, FormatoExportacao formato, Writer destino) throws IOException;
+    }
+
+    @GetMapping("/vendas")
+    public void exportarVendas(@RequestParam String inicio, @RequestParam String fim,
+            @RequestParam(defaultValue = "csv") String formato, HttpServletResponse response) throws IOException {
+        exportar("vendas", inicio, fim, formato, response, exportacaoService::exportarVendas);
+    }
+
+    @GetMapping("/itens-venda")
+    public void exportarItens(@RequestParam String inicio, @RequestParam String fim,
+            @RequestParam(defaultValue = "csv") String formato, HttpServletResponse response) throws IOException {
+        exportar("itens-venda", inicio, fim, formato, response, exportacaoService::exportarItens);
+    }
+
+    private static void exportar(String nome, String inicio, String fim, String formato,
+            HttpServletResponse response, Exportacao exportacao) throws IOException {
+        LocalDate dataInicio;
+        LocalDate dataFim;
+        FormatoExportacao tipo;
+        try {
+            dataInicio = LocalDate.parse(inicio);
+            dataFim = LocalDate.parse(fim);
+            tipo = FormatoExportacao.doNome(formato);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (dataFim.isBefore(dataInicio)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "A data final não pode ser anterior à inicial");
+            return;
+        }
+
+        response.setContentType(tipo.getTipoConteudo());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(nome + "-" + dataInicio + "-" + dataFim + "." + tipo.getExtensao())
+                .build()
+                .toString());
+        Writer destino = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8),
+                TAMANHO_BUFFER);
+        exportacao.exportar(dataInicio, dataFim, tipo, destino);
+        destino.flush();
+    }
+}
@@ -0,0 +1,144 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import com.leandrosnazareth.venda.service.VendaFinalizadaEvent;
+import com.leandrosnazareth.venda.service.VendaParticoes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compara a varredura paralela do cubo com uma soma simples dos mesmos itens, com
+ * registros suficientes para dividir a varredura em várias tarefas, e confere as vendas
+ * finalizadas durante uma carga.
+ */
+class CuboVendasTest {
+
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2025, 1, 1);
+    private static final List<String> CATEGORIAS = Arrays.asList("Bebidas", "Mercearia", "Limpeza", null);
+
+    private final List<VendaFinalizadaEvent> vendas = new ArrayList<>();
+    private CuboVendas cubo;
+
+    @BeforeEach
+    void preencher() {
+        cubo = new CuboVendas(mock(JdbcTemplate.class), mock(VendaParticoes.class));
+        Random random = new Random(7);
+        int itens = 0;
+        for (long vendaId = 1; itens < CuboVendas.LIMIAR_DIVISAO * 3; vendaId++) {
+            List<VendaFinalizadaEvent.Item> itensVenda = new ArrayList<>();
+            int quantidadeItens = 1 + random.nextInt(5);
+            for (int i = 0; i < quantidadeItens; i++) {
+                itensVenda.add(new VendaFinalizadaEvent.Item((long) random.nextInt(500) + 1,
+                        CATEGORIAS.get(random.nextInt(CATEGORIAS.size())), 1 + random.nextInt(3),
+                        BigDecimal.valueOf(100 + random.nextInt(10_000), 2)));
+            }
+            VendaFinalizadaEvent venda = new VendaFinalizadaEvent(vendaId,
+                    PRIMEIRO_DIA.plusDays(random.nextInt(120)).atTime(10, 0),
+                    FormaPagamento.values()[random.nextInt(4)], itensVenda);
+            vendas.add(venda);
+            cubo.onVendaFinalizada(venda);
+            itens += itensVenda.size();
+        }
+    }
+
+    @Test
+    void varredura_paralela_soma_como_a_soma_simples() {
+        LocalDate inicio = PRIMEIRO_DIA.plusDays(10);
+        LocalDate fim = PRIMEIRO_DIA.plusDays(70);
+        ConsultaPivo consulta = new ConsultaPivo(DimensaoAnalise.MES, DimensaoAnalise.FORMA_PAGAMENTO,
+                MedidaAnalise.VALOR, inicio, fim, Set.of(), Set.of(FormaPagamento.PIX, FormaPagamento.DINHEIRO));
+
+        Map<Long, Long> esperado = new HashMap<>();
+        for (VendaFinalizadaEvent venda : vendas) {
+            LocalDate dia = venda.dataVenda().toLocalDate();
+            if (dia.isBefore(inicio) || dia.isAfter(fim)
+                    || !consulta.formasPagamento().contains(venda.formaPagamento())) {
+                continue;
+            }
+            long chave = CuboVendas.chave(CuboVendas.mes(dia), venda.formaPagamento().ordinal());
+            for (VendaFinalizadaEvent.Item item : venda.itens()) {
+                esperado.merge(chave, item.subtotal().movePointRight(2).longValueExact(), Long::sum);
+            }
+        }
+
+        Map<Long, Long> obtido = new HashMap<>();
+        cubo.agregar(consulta).somas().visitar((chave, quantidade, centavos, itens) -> obtido.put(chave, centavos));
+
+        assertThat(esperado).hasSize(3 * 2);
+        assertThat(obtido).isEqualTo(esperado);
+    }
+
+    @Test
+    void filtro_de_categoria_separa_os_itens_de_uma_mesma_venda() {
+        ConsultaPivo consulta = new ConsultaPivo(DimensaoAnalise.CATEGORIA, null, MedidaAnalise.QUANTIDADE,
+                PRIMEIRO_DIA, PRIMEIRO_DIA.plusDays(365), Set.of("Bebidas"), Set.of());
+
+        long esperado = vendas.stream().flatMap(venda -> venda.itens().stream())
+                .filter(item -> "Bebidas".equals(item.categoria()))
+                .mapToLong(VendaFinalizadaEvent.Item::quantidade)
+                .sum();
+
+        CuboVendas.Agregacao agregacao = cubo.agregar(consulta);
+        assertThat(agregacao.somas().tamanho()).isEqualTo(1);
+        long[] quantidade = new long[1];
+        agregacao.somas().visitar((chave, soma, centavos, itens) -> {
+            assertThat(agregacao.dicionario()[CuboVendas.linhaDaChave(chave)]).isEqualTo("Bebidas");
+            quantidade[0] = soma;
+        });
+        assertThat(quantidade[0]).isEqualTo(esperado);
+        assertThat(cubo.listarCategorias()).containsExactly("Bebidas", "Limpeza", "Mercearia");
+        assertThat(cubo.buscarPrimeiroDia()).isEqualTo(PRIMEIRO_DIA);
+    }
+
+    @Test
+    void carga_nao_conta_duas_vezes_venda_finalizada_durante_a_leitura() throws Exception {
+        LocalDate dia = PRIMEIRO_DIA.plusDays(400);
+        VendaFinalizadaEvent lida = new VendaFinalizadaEvent(1L, dia.atTime(9, 0), FormaPagamento.PIX,
+                List.of(new VendaFinalizadaEvent.Item(1L, "Bebidas", 2, new BigDecimal("10.00"))));
+        VendaFinalizadaEvent posterior = new VendaFinalizadaEvent(2L, dia.atTime(10, 0), FormaPagamento.PIX,
+                List.of(new VendaFinalizadaEvent.Item(1L, "Bebidas", 3, new BigDecimal("15.00"))));
+        ResultSet linha = mock(ResultSet.class, invocacao -> switch (invocacao.getMethod().getName()) {
+            case "getObject" -> dia;
+            case "getString" -> (int) invocacao.getArgument(0) == 2 ? "PIX" : "Bebidas";
+            case "getInt" -> 2;
+            case "getLong" -> switch ((int) invocacao.getArgument(0)) {
+                case 6 -> 1000L;
+                default -> 1L;
+            };
+            default -> null;
+        });
+        CuboVendas[] recarregado = new CuboVendas[1];
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocacao -> {
+            // As duas vendas são confirmadas enquanto a carga lê o banco, que já tem a primeira
+            recarregado[0].onVendaFinalizada(lida);
+            recarregado[0].onVendaFinalizada(posterior);
+            invocacao.<RowCallbackHandler>getArgument(1).processRow(linha);
+            return null;
+        });
+        recarregado[0] = new CuboVendas(jdbcTemplate, mock(VendaParticoes.class));
+
+        recarregado[0].carregar();
+
+        ConsultaPivo consulta = new ConsultaPivo(DimensaoAnalise.CATEGORIA, null, MedidaAnalise.QUANTIDADE,
+                dia, dia, Set.of(), Set.of());
+        long[] quantidade = new long[1];
+        recarregado[0].agregar(consulta).somas().visitar((chave, soma, centavos, itens) -> quantidade[0] += soma);
+        assertThat(quantidade[0]).isEqualTo(2 + 3);
+    }
+}
@@ -0,0 +1,76 @@
+package com.leandrosnazareth.analise.service;
+
+import com.leandrosnazareth.venda.domain.Venda.FormaPagamento;
+import com.leandrosnazareth.venda.service.VendaFinalizadaEvent;
+import com.leandrosnazareth.venda.service.VendaParticoes;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifica os limites das classes da curva ABC e a atualização do cache com as vendas
+ * novas do cubo.
+ */
+class CurvaAbcTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 6, 10);
+
+    @Test
+    void produto_que_cruza_o_limite_fica_na_classe_que_o_limite_fecha() {
+        MapaSomas somas = new MapaSomas();
+        long[] faturamentos = { 30, 500, 20, 100, 300, 50 };
+        for (int produto = 0; produto < faturamentos.length; produto++) {
+            somas.somar(CuboVendas.chave(produto + 1, 0), 1, faturamentos[produto]);
+        }
+
+        CurvaAbc curva = CurvaAbc.classificar(DIA, DIA, somas);
+
+        assertThat(curva.tamanho()).isEqualTo(6);
+        assertThat(curva.getTotalCentavos()).isEqualTo(1000);
+        assertThat(curva.produtoId(0)).isEqualTo(2);
+        assertThat(curva.produtoId(5)).isEqualTo(3);
+        // 500 + 300 chega a 80%: os dois primeiros são A
+        assertThat(curva.fim(ClasseAbc.A)).isEqualTo(2);
+        assertThat(curva.fim(ClasseAbc.B)).isEqualTo(4);
+        assertThat(curva.somarCentavos(ClasseAbc.A)).isEqualTo(800);
+        assertThat(curva.somarCentavos(ClasseAbc.B)).isEqualTo(150);
+        assertThat(curva.somarCentavos(ClasseAbc.C)).isEqualTo(50);
+        assertThat(curva.classe(3)).isEqualTo(ClasseAbc.B);
+        assertThat(curva.acumuladoCentavos(3)).isEqualTo(950);
+    }
+
+    @Test
+    void vendas_novas_atualizam_a_curva_em_cache() {
+        CuboVendas cubo = new CuboVendas(mock(JdbcTemplate.class), mock(VendaParticoes.class));
+        CurvaAbcService service = new CurvaAbcService(cubo, mock(NamedParameterJdbcTemplate.class));
+        vender(cubo, 1, DIA, 1, "90.00");
+        vender(cubo, 2, DIA, 2, "10.00");
+
+        CurvaAbc antes = service.calcular(DIA, DIA);
+        assertThat(antes.produtoId(0)).isEqualTo(1);
+        assertThat(service.calcular(DIA, DIA)).isSameAs(antes);
+
+        // Fora do período: a curva em cache continua valendo
+        vender(cubo, 3, DIA.plusDays(1), 1, "500.00");
+        assertThat(service.calcular(DIA, DIA)).isSameAs(antes);
+
+        vender(cubo, 4, DIA, 2, "200.00");
+        CurvaAbc depois = service.calcular(DIA, DIA);
+        assertThat(depois.produtoId(0)).isEqualTo(2);
+        assertThat(depois.centavos(0)).isEqualTo(21_000);
+        assertThat(depois.getTotalCentavos()).isEqualTo(30_000);
+        assertThat(antes.getTotalCentavos()).isEqualTo(10_000);
+    }
+
+    private static void vender(CuboVendas cubo, long vendaId, LocalDate dia, long produtoId, String valor) {
+        cubo.onVendaFinalizada(new VendaFinalizadaEvent(vendaId, dia.atTime(12, 0), FormaPagamento.PIX,
+                List.of(new VendaFinalizadaEvent.Item(produtoId, null, 1, new BigDecimal(valor)))));
+    }
+}
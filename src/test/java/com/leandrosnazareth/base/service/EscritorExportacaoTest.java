@@ -0,0 +1,60 @@
+package com.leandrosnazareth.base.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EscritorExportacaoTest {
+
+    private static final List<String> COLUNAS = List.of("codigo", "nome", "preco", "data", "ativo");
+
+    @Test
+    void csv_tem_bom_cabecalho_e_aspas_so_quando_necessario() throws IOException {
+        StringWriter destino = new StringWriter();
+        EscritorExportacao escritor = EscritorExportacao.abrir(FormatoExportacao.CSV, destino, COLUNAS);
+        escritor.escrever("A1", "Arroz; tipo \"1\"", new BigDecimal("1E+1"),
+                LocalDateTime.of(2025, 1, 31, 8, 30), true);
+        escritor.escrever("A2", "Linha 1\nLinha 2", null, null, false);
+        escritor.concluir();
+
+        assertThat(destino.toString()).isEqualTo("\uFEFFcodigo;nome;preco;data;ativo\r\n"
+                + "A1;\"Arroz; tipo \"\"1\"\"\";10;2025-01-31T08:30;true\r\n"
+                + "A2;\"Linha 1\nLinha 2\";;;false\r\n");
+    }
+
+    @Test
+    void ndjson_tem_um_objeto_por_linha_com_tipos_json() throws IOException {
+        StringWriter destino = new StringWriter();
+        EscritorExportacao escritor = EscritorExportacao.abrir(FormatoExportacao.NDJSON, destino, COLUNAS);
+        escritor.escrever("A1", "Feijão \"carioca\"", new BigDecimal("1E+1"),
+                LocalDateTime.of(2025, 1, 31, 8, 30), true);
+        escritor.escrever("A2", "Sal", null, null, false);
+        escritor.concluir();
+
+        assertThat(destino.toString()).isEqualTo(
+                "{\"codigo\":\"A1\",\"nome\":\"Feijão \\\"carioca\\\"\",\"preco\":10,"
+                        + "\"data\":\"2025-01-31T08:30\",\"ativo\":true}\n"
+                        + "{\"codigo\":\"A2\",\"nome\":\"Sal\",\"preco\":null,\"data\":null,\"ativo\":false}\n");
+    }
+
+    @Test
+    void numero_de_valores_deve_ser_o_de_colunas() throws IOException {
+        EscritorExportacao escritor = EscritorExportacao.abrir(FormatoExportacao.CSV, new StringWriter(), COLUNAS);
+
+        assertThatThrownBy(() -> escritor.escrever("A1", "Arroz"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void formato_e_identificado_sem_diferenciar_maiusculas() {
+        assertThat(FormatoExportacao.doNome(" ndjson ")).isEqualTo(FormatoExportacao.NDJSON);
+        assertThatThrownBy(() -> FormatoExportacao.doNome("xlsx")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
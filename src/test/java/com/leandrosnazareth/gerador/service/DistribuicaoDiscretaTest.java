@@ -0,0 +1,67 @@
+package com.leandrosnazareth.gerador.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DistribuicaoDiscretaTest {
+
+    private static final int SORTEIOS = 200_000;
+
+    @Test
+    void zipf_concentra_os_sorteios_nos_primeiros_indices() {
+        DistribuicaoDiscreta zipf = DistribuicaoDiscreta.zipf(1_000, 1.0);
+        int[] contagem = contar(zipf, 1_000);
+
+        // Com expoente 1, o primeiro índice sai duas vezes mais que o segundo
+        assertThat((double) contagem[0] / contagem[1]).isCloseTo(2.0, within(0.1));
+        // H(10) / H(1000) ≈ 0,39: os 1% primeiros índices ficam com perto de 40% dos sorteios
+        int primeiros = 0;
+        for (int i = 0; i < 10; i++) {
+            primeiros += contagem[i];
+        }
+        assertThat((double) primeiros / SORTEIOS).isCloseTo(0.39, within(0.01));
+    }
+
+    @Test
+    void pesos_zerados_nunca_sao_sorteados() {
+        int[] contagem = contar(DistribuicaoDiscreta.porPesos(1, 0, 3), 3);
+
+        assertThat(contagem[1]).isZero();
+        assertThat((double) contagem[2] / contagem[0]).isCloseTo(3.0, within(0.1));
+    }
+
+    @Test
+    void pesos_invalidos_sao_rejeitados() {
+        assertThatThrownBy(() -> DistribuicaoDiscreta.porPesos()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DistribuicaoDiscreta.porPesos(1, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DistribuicaoDiscreta.porPesos(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void passo_da_permutacao_percorre_todos_os_produtos() {
+        for (int total : new int[] { 1, 7_919, 15_838, 100_000 }) {
+            long passo = GeradorDadosSinteticos.passoPermutacao(total);
+            Set<Long> indices = new HashSet<>();
+            for (long rank = 0; rank < total; rank++) {
+                indices.add(rank * passo % total);
+            }
+            assertThat(indices).hasSize(total);
+        }
+    }
+
+    private static int[] contar(DistribuicaoDiscreta distribuicao, int tamanho) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] contagem = new int[tamanho];
+        for (int i = 0; i < SORTEIOS; i++) {
+            contagem[distribuicao.sortear(random)]++;
+        }
+        return contagem;
+    }
+}
@@ -0,0 +1,65 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArmazenamentoImagensDiscoTest {
+
+    private static final String HASH = "ab12".repeat(16);
+
+    @TempDir
+    Path raiz;
+
+    ArmazenamentoImagensDisco disco;
+
+    @BeforeEach
+    void setUp() {
+        disco = new ArmazenamentoImagensDisco(raiz);
+    }
+
+    @Test
+    void arquivos_ficam_em_diretorios_pelo_prefixo_do_hash() {
+        assertThat(disco.caminho(HASH, null)).isEqualTo(raiz.resolve("ab").resolve("12").resolve(HASH));
+        assertThat(disco.caminho(HASH, ProdutoImagemVariante.Tamanho.MINIATURA).getFileName())
+                .hasToString(HASH + ".miniatura");
+    }
+
+    @Test
+    void gravar_o_mesmo_hash_de_novo_mantem_o_primeiro_conteudo() {
+        disco.gravar(HASH, null, new byte[] { 1, 2, 3 });
+        disco.gravar(HASH, null, new byte[] { 9 });
+
+        assertThat(disco.ler(HASH, null)).hasValueSatisfying(dados -> assertThat(dados).containsExactly(1, 2, 3));
+        assertThat(disco.ler(HASH, ProdutoImagemVariante.Tamanho.CARTAO)).isEmpty();
+    }
+
+    @Test
+    void remover_apaga_a_original_e_as_variantes() {
+        disco.gravar(HASH, null, new byte[] { 1 });
+        disco.gravar(HASH, ProdutoImagemVariante.Tamanho.MINIATURA, new byte[] { 2 });
+
+        disco.remover(HASH);
+
+        assertThat(disco.existe(HASH, null)).isFalse();
+        assertThat(disco.existe(HASH, ProdutoImagemVariante.Tamanho.MINIATURA)).isFalse();
+    }
+
+    @Test
+    void listagem_traz_so_as_originais_e_limpa_temporarios_antigos() throws Exception {
+        disco.gravar(HASH, null, new byte[] { 1 });
+        disco.gravar(HASH, ProdutoImagemVariante.Tamanho.MINIATURA, new byte[] { 2 });
+        Path temporario = Files.write(disco.caminho(HASH, null).resolveSibling("interrompido.tmp"), new byte[] { 3 });
+
+        assertThat(disco.listarHashes(Instant.now().minusSeconds(60))).isEmpty();
+        assertThat(disco.listarHashes(Instant.now().plusSeconds(60))).containsExactly(HASH);
+        assertThat(temporario).doesNotExist();
+    }
+}
@@ -0,0 +1,87 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.math.BigDecimal;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que o monitor acompanha as baixas e reposições de estoque e avisa os ouvintes
+ * apenas quando o produto cruza o mínimo.
+ * <p>
+ * Sem {@code @Transactional}: o monitor só é atualizado depois do commit. O produto
+ * criado é excluído ao final.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class EstoqueBaixoMonitorIT {
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    EstoqueBaixoMonitor monitor;
+
+    ProdutosDeTeste produtos;
+
+    @BeforeEach
+    void setUp() {
+        produtos = new ProdutosDeTeste(produtoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        produtos.excluir();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void cruzar_o_minimo_avisa_os_ouvintes() throws Exception {
+        Produto produto = new Produto("MON001", "Monitorado", BigDecimal.TEN);
+        produto.setEstoqueAtual(10);
+        produto.setEstoqueMinimo(5);
+        Long id = produtos.criar(produto).getId();
+
+        BlockingQueue<AlertaEstoqueBaixo> alertas = new LinkedBlockingQueue<>();
+        try (EstoqueBaixoMonitor.Inscricao inscricao = monitor.registrar(alerta -> {
+            if (alerta.produto().produtoId().equals(id)) {
+                alertas.add(alerta);
+            }
+        })) {
+            int antes = monitor.contar();
+            produtoService.atualizarEstoque(id, -5);
+            AlertaEstoqueBaixo entrada = alertas.poll(5, TimeUnit.SECONDS);
+            assertThat(entrada).isNotNull();
+            assertThat(entrada.entrou()).isTrue();
+            assertThat(entrada.produto().estoqueAtual()).isEqualTo(5);
+            assertThat(monitor.contar()).isEqualTo(antes + 1);
+
+            // Continua abaixo do mínimo: o conjunto é atualizado, mas não há novo aviso
+            produtoService.atualizarEstoque(id, -5);
+            assertThat(monitor.listar()).filteredOn(item -> item.produtoId().equals(id))
+                    .singleElement().satisfies(item -> assertThat(item.isSemEstoque()).isTrue());
+            assertThat(monitor.listar().get(0).estoqueAtual()).isLessThanOrEqualTo(0);
+
+            produtoService.atualizarEstoque(id, 20);
+            AlertaEstoqueBaixo saida = alertas.poll(5, TimeUnit.SECONDS);
+            assertThat(saida).isNotNull();
+            assertThat(saida.entrou()).isFalse();
+            assertThat(alertas).isEmpty();
+            assertThat(monitor.listar()).noneMatch(item -> item.produtoId().equals(id));
+        }
+    }
+}
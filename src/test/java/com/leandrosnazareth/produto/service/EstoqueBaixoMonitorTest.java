@@ -0,0 +1,60 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EstoqueBaixoMonitorTest {
+
+    // Respostas da consulta de estoque baixo, uma por carga
+    Deque<Supplier<List<Object[]>>> consultas = new ArrayDeque<>();
+
+    EstoqueBaixoMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new EstoqueBaixoMonitor(mock(ProdutoRepository.class, invocacao -> consultas.remove().get()));
+    }
+
+    @Test
+    void recarga_nao_desfaz_exclusao_recebida_durante_a_consulta() {
+        consultas.add(() -> {
+            // A exclusão é confirmada depois que a consulta já leu o produto
+            monitor.onProdutoExcluido(new ProdutoExcluidoEvent(1L));
+            return resumos(resumo(1L, "A001"), resumo(2L, "B001"));
+        });
+
+        monitor.carregar();
+
+        assertThat(monitor.listar()).extracting(ProdutoEstoqueBaixo::produtoId).containsExactly(2L);
+    }
+
+    @Test
+    void recarga_aplica_o_banco_aos_produtos_sem_alteracao_posterior() {
+        consultas.add(() -> resumos(resumo(1L, "A001")));
+        consultas.add(() -> resumos(resumo(2L, "B001")));
+        monitor.carregar();
+        monitor.onProdutoExcluido(new ProdutoExcluidoEvent(3L));
+
+        monitor.carregar();
+
+        assertThat(monitor.listar()).extracting(ProdutoEstoqueBaixo::produtoId).containsExactly(2L);
+    }
+
+    private static Object[] resumo(Long id, String codigo) {
+        return new Object[] { id, codigo, "Produto " + codigo, 1, 5 };
+    }
+
+    private static List<Object[]> resumos(Object[]... resumos) {
+        return new ArrayList<>(List.of(resumos));
+    }
+}
@@ -0,0 +1,26 @@
+package com.leandrosnazareth.produto.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroProdutosTest {
+
+    @Test
+    void faixa_de_preco_invertida_e_rejeitada() {
+        assertThatThrownBy(() -> new FiltroProdutos(null, null, null, null, BigDecimal.TEN, BigDecimal.ONE, null,
+                null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void textos_em_branco_nao_filtram() {
+        FiltroProdutos filtro = new FiltroProdutos("  ", " Bebidas ", "", null, null, null, null, null);
+
+        assertThat(filtro.termo()).isNull();
+        assertThat(filtro.categoria()).isEqualTo("Bebidas");
+        assertThat(filtro.marca()).isNull();
+    }
+}
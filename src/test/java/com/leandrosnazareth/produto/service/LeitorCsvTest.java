@@ -0,0 +1,50 @@
+package com.leandrosnazareth.produto.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeitorCsvTest {
+
+    @Test
+    void separador_e_o_mais_frequente_no_cabecalho() throws IOException {
+        LeitorCsv pontoEVirgula = leitor("codigo;nome;preco_venda\nA1;Arroz, tipo 1;10,50\n");
+        assertThat(pontoEVirgula.proximo()).containsExactly("codigo", "nome", "preco_venda");
+        assertThat(pontoEVirgula.proximo()).containsExactly("A1", "Arroz, tipo 1", "10,50");
+
+        LeitorCsv virgula = leitor("codigo,nome,preco_venda\nA1,Arroz; tipo 1,10.50\n");
+        virgula.proximo();
+        assertThat(virgula.proximo()).containsExactly("A1", "Arroz; tipo 1", "10.50");
+    }
+
+    @Test
+    void campos_entre_aspas_aceitam_separador_aspas_e_quebra_de_linha() throws IOException {
+        LeitorCsv leitor = leitor("codigo;descricao;nome\n"
+                + "A1;\"Linha 1\nLinha 2; com \"\"aspas\"\"\";Feijão\n"
+                + "A2;;\n");
+
+        leitor.proximo();
+        assertThat(leitor.proximo()).containsExactly("A1", "Linha 1\nLinha 2; com \"aspas\"", "Feijão");
+        assertThat(leitor.linha()).isEqualTo(2);
+        assertThat(leitor.proximo()).containsExactly("A2", "", "");
+        assertThat(leitor.linha()).isEqualTo(4);
+        assertThat(leitor.proximo()).isNull();
+    }
+
+    @Test
+    void bom_e_linhas_em_branco_sao_ignorados() throws IOException {
+        LeitorCsv leitor = leitor("\uFEFFcodigo;nome\n\n  \nA1;Sal\n");
+
+        assertThat(leitor.proximo()).containsExactly("codigo", "nome");
+        assertThat(leitor.proximo()).containsExactly("A1", "Sal");
+        assertThat(leitor.linha()).isEqualTo(4);
+    }
+
+    private static LeitorCsv leitor(String conteudo) {
+        return new LeitorCsv(new BufferedReader(new StringReader(conteudo)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoAuditoria;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sem {@code @Transactional}: a alteração em lote faz o próprio commit, e as leituras
+ * seguintes passam pelos caches que ela deve ter descartado. Os produtos criados são
+ * excluídos ao final.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class ProdutoAlteracaoLoteIT {
+
+    @Autowired
+    ProdutoAlteracaoLoteService alteracaoLoteService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    ProdutosDeTeste produtos;
+
+    @BeforeEach
+    void setUp() {
+        produtos = new ProdutosDeTeste(produtoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        produtos.excluir();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void reajuste_percentual_altera_a_categoria_e_audita_cada_produto() {
+        String categoria = "Reajuste em lote";
+        Produto a = criar("LTA001", categoria, "10.00");
+        Produto b = criar("LTB001", categoria, "3.99");
+        Produto outro = criar("LTC001", "Outra categoria de reajuste", "10.00");
+        // Lidos antes, para que estejam nos caches
+        produtoService.buscarPorId(a.getId());
+        produtoService.buscarPorId(outro.getId());
+
+        ResultadoAlteracaoLote resultado = alteracaoLoteService.reajustarPrecos(
+                new FiltroLote(FiltroLote.Campo.CATEGORIA, categoria),
+                ProdutoAlteracaoLoteService.TipoReajuste.PERCENTUAL, new BigDecimal("7"));
+
+        assertThat(resultado.alterados()).isEqualTo(2);
+        assertThat(produtoService.buscarPorId(a.getId()).orElseThrow().getPrecoVenda()).isEqualByComparingTo("10.70");
+        assertThat(produtoService.buscarPorId(b.getId()).orElseThrow().getPrecoVenda()).isEqualByComparingTo("4.27");
+        assertThat(produtoService.buscarPorId(outro.getId()).orElseThrow().getPrecoVenda())
+                .isEqualByComparingTo("10.00");
+
+        List<ProdutoAuditoria> auditoria = alteracaoLoteService.listarAuditoria(resultado.lote());
+        assertThat(auditoria).extracting(ProdutoAuditoria::getProdutoId).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(auditoria).allSatisfy(linha -> {
+            assertThat(linha.getCampo()).isEqualTo(ProdutoAlteracaoLoteService.CAMPO_PRECO_VENDA);
+            assertThat(linha.getUsuario()).isEqualTo(SampleUsers.ADMIN_USERNAME);
+        });
+        ProdutoAuditoria linhaA = auditoria.stream().filter(linha -> linha.getProdutoId().equals(a.getId()))
+                .findFirst().orElseThrow();
+        assertThat(new BigDecimal(linhaA.getValorAnterior())).isEqualByComparingTo("10.00");
+        assertThat(new BigDecimal(linhaA.getValorNovo())).isEqualByComparingTo("10.70");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void desconto_que_zera_o_preco_e_rejeitado_sem_alterar_nada() {
+        String categoria = "Desconto em lote";
+        Produto produto = criar("LTD001", categoria, "1.00");
+
+        assertThatThrownBy(() -> alteracaoLoteService.reajustarPrecos(
+                new FiltroLote(FiltroLote.Campo.CATEGORIA, categoria), ProdutoAlteracaoLoteService.TipoReajuste.VALOR,
+                new BigDecimal("-1.00")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(produtoService.buscarPorId(produto.getId()).orElseThrow().getPrecoVenda())
+                .isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void inativacao_por_marca_tira_os_produtos_das_sugestoes() {
+        String marca = "Marca inativada em lote";
+        Produto produto = new Produto("LTE001", "Refrigerante lote inativado", BigDecimal.TEN);
+        produto.setMarca(marca);
+        produto = produtos.criar(produto);
+        String codigo = produto.getCodigo();
+
+        ResultadoAlteracaoLote resultado = alteracaoLoteService.alterarAtivo(
+                new FiltroLote(FiltroLote.Campo.MARCA, marca), false);
+
+        assertThat(resultado.alterados()).isEqualTo(1);
+        assertThat(produtoService.buscarPorId(produto.getId()).orElseThrow().getAtivo()).isFalse();
+        assertThat(produtoService.sugerirProdutos("refrigerante lote inativado", 5))
+                .noneMatch(sugestao -> sugestao.codigo().equals(codigo));
+        assertThat(alteracaoLoteService.listarAuditoria(resultado.lote()))
+                .singleElement()
+                .satisfies(linha -> assertThat(linha.getValorNovo()).isEqualTo("false"));
+        // Repetir não altera nem audita de novo
+        assertThat(alteracaoLoteService.alterarAtivo(new FiltroLote(FiltroLote.Campo.MARCA, marca), false)
+                .alterados()).isZero();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void somente_administradores_alteram_em_lote() {
+        assertThatThrownBy(() -> alteracaoLoteService.alterarAtivo(
+                new FiltroLote(FiltroLote.Campo.CATEGORIA, "Bebidas"), false))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private Produto criar(String codigo, String categoria, String preco) {
+        Produto produto = new Produto(codigo, "Produto " + codigo, new BigDecimal(preco));
+        produto.setCategoria(categoria);
+        return produtos.criar(produto);
+    }
+}
@@ -0,0 +1,96 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProdutoBuscaIndexTest {
+
+    ProdutoBuscaIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProdutoBuscaIndex(mock(ProdutoRepository.class));
+        index.indexar(new SugestaoProduto(1L, "ACUCAR001", "Açúcar Cristal 1kg"));
+        index.indexar(new SugestaoProduto(2L, "CAFE001", "Café Torrado e Moído 500g"));
+        index.indexar(new SugestaoProduto(3L, "MOUSE001", "Mouse Óptico USB"));
+        index.indexar(new SugestaoProduto(4L, "CABO001", "Cabo USB-C 1m"));
+    }
+
+    @Test
+    void sugestoes_ignoram_acentos_e_maiusculas() {
+        assertThat(index.sugerir("acu", 10)).extracting(SugestaoProduto::id).containsExactly(1L);
+        assertThat(index.sugerir("CAFÉ", 10)).extracting(SugestaoProduto::id).containsExactly(2L);
+    }
+
+    @Test
+    void nomes_que_comecam_com_o_prefixo_vem_antes_das_palavras_internas() {
+        index.indexar(new SugestaoProduto(5L, "USBHUB001", "USB Hub 4 portas"));
+
+        assertThat(index.sugerir("usb", 10)).extracting(SugestaoProduto::id).containsExactly(5L, 3L, 4L);
+    }
+
+    @Test
+    void limite_e_respeitado_sem_repetir_produtos() {
+        assertThat(index.sugerir("c", 2)).extracting(SugestaoProduto::id).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void alteracao_e_remocao_atualizam_o_indice() {
+        index.indexar(new SugestaoProduto(3L, "MOUSE001", "Mouse Gamer"));
+        index.remover(4L);
+
+        assertThat(index.sugerir("usb", 10)).isEmpty();
+        assertThat(index.sugerir("mouse g", 10)).extracting(SugestaoProduto::nome).containsExactly("Mouse Gamer");
+        assertThat(index.tamanho()).isEqualTo(3);
+    }
+
+    @Test
+    void busca_aproximada_tolera_erros_de_digitacao() {
+        index.indexar(new SugestaoProduto(5L, "TECLADO001", "Teclado Mecânico RGB"));
+
+        assertThat(index.buscarAproximado("tecaldo", 10)).containsExactly(5L);
+        assertThat(index.buscarAproximado("mosue otpico", 10)).containsExactly(3L);
+        assertThat(index.buscarAproximado("cafe torado", 10)).containsExactly(2L);
+        assertThat(index.buscarAproximado("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void busca_aproximada_ordena_por_similaridade_e_acompanha_remocao() {
+        index.indexar(new SugestaoProduto(5L, "TECLADO001", "Teclado Mecânico RGB"));
+        index.indexar(new SugestaoProduto(6L, "TECLADO002", "Teclados Sem Fio"));
+
+        assertThat(index.buscarAproximado("teclado", 10)).containsExactly(5L, 6L);
+        assertThat(index.sugerirAproximado("tecaldo", 10)).extracting(SugestaoProduto::codigo)
+                .containsExactly("TECLADO001", "TECLADO002");
+
+        index.remover(5L);
+        assertThat(index.buscarAproximado("tecaldo", 10)).containsExactly(6L);
+    }
+
+    @Test
+    void busca_por_relevancia_ordena_por_codigo_nome_palavra_e_conteudo() {
+        index.indexar(new SugestaoProduto(5L, "789USB", "Hub USB 4 portas"), "hub usb 4 portas 789usb");
+        index.indexar(new SugestaoProduto(6L, "USB", "Adaptador"), "adaptador usb");
+        index.indexar(new SugestaoProduto(7L, "CARR001", "Carregador Portátil"),
+                "carregador portatil carr001 bateria com saida usb");
+        index.indexar(new SugestaoProduto(8L, "USB002", "Pendrive 32GB"), "pendrive 32gb usb002");
+        index.indexar(new SugestaoProduto(9L, "PEN001", "USB Pendrive 64GB"), "usb pendrive 64gb pen001");
+
+        assertThat(index.buscarPorRelevancia("usb", 0, 10))
+                .containsExactly(6L, 8L, 9L, 4L, 5L, 3L, 7L);
+    }
+
+    @Test
+    void busca_por_relevancia_pagina_sem_repetir_nem_pular_produtos() {
+        index.indexar(new SugestaoProduto(5L, "789USB", "Hub USB 4 portas"), "hub usb 4 portas 789usb");
+        index.indexar(new SugestaoProduto(6L, "USB", "Adaptador"), "adaptador usb");
+
+        assertThat(index.buscarPorRelevancia("usb", 0, 2)).containsExactly(6L, 4L);
+        assertThat(index.buscarPorRelevancia("usb", 2, 2)).containsExactly(5L, 3L);
+        assertThat(index.buscarPorRelevancia("usb", 4, 2)).isEmpty();
+    }
+}
@@ -0,0 +1,67 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProdutoCatalogoCacheTest {
+
+    ProdutoCatalogoCache cache = new ProdutoCatalogoCache();
+
+    @Test
+    void leitura_recebe_copia_que_nao_altera_o_cache() {
+        cache.guardar(produto(1L, "CAFE001", "Café"), cache.geracao());
+
+        Produto lido = cache.produto(1L);
+        lido.setNome("Alterado");
+
+        assertThat(cache.produto(1L).getNome()).isEqualTo("Café");
+        assertThat(cache.produtoPorCodigo("CAFE001").getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void invalidacao_remove_o_produto_e_o_codigo_antigo() {
+        cache.guardar(produto(1L, "CAFE001", "Café"), cache.geracao());
+        cache.guardar(produto(2L, "CHA001", "Chá"), cache.geracao());
+
+        cache.invalidar(1L);
+
+        assertThat(cache.produto(1L)).isNull();
+        assertThat(cache.produtoPorCodigo("CAFE001")).isNull();
+        assertThat(cache.produto(2L).getNome()).isEqualTo("Chá");
+    }
+
+    @Test
+    void codigo_alterado_deixa_de_achar_o_produto() {
+        cache.guardar(produto(1L, "CAFE001", "Café"), cache.geracao());
+        cache.guardar(produto(1L, "CAFE002", "Café"), cache.geracao());
+
+        assertThat(cache.produtoPorCodigo("CAFE001")).isNull();
+        assertThat(cache.produtoPorCodigo("CAFE002").getId()).isEqualTo(1L);
+
+        cache.invalidar(1L);
+        assertThat(cache.produtoPorCodigo("CAFE002")).isNull();
+    }
+
+    @Test
+    void valor_lido_antes_de_uma_invalidacao_nao_fica_no_cache() {
+        long geracao = cache.geracao();
+        Produto lidoDoBanco = produto(1L, "CAFE001", "Café");
+
+        cache.invalidar(1L);
+        cache.guardar(lidoDoBanco, geracao);
+
+        assertThat(cache.produto(1L)).isNull();
+        assertThat(cache.produtoPorCodigo("CAFE001")).isNull();
+    }
+
+    private static Produto produto(Long id, String codigo, String nome) {
+        Produto produto = new Produto(codigo, nome, BigDecimal.TEN);
+        ReflectionTestUtils.setField(produto, "id", id);
+        return produto;
+    }
+}
@@ -0,0 +1,68 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que a coluna {@code estoque_baixo} acompanha as mudanças de estoque e que as
+ * listas paginadas de estoque baixo e sem estoque a usam.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class ProdutoEstoqueBaixoIT {
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void baixa_de_estoque_coloca_e_tira_o_produto_das_listas() {
+        Produto produto = new Produto("EBX001", "Estoque baixo", BigDecimal.TEN);
+        produto.setEstoqueAtual(10);
+        produto.setEstoqueMinimo(5);
+        Long id = produtoService.criarProduto(produto).getId();
+
+        assertThat(contem(produtoService::listarProdutosComEstoqueBaixo, id)).isFalse();
+
+        produtoService.atualizarEstoque(id, -5);
+        assertThat(contem(produtoService::listarProdutosComEstoqueBaixo, id)).isTrue();
+        assertThat(contem(produtoService::listarProdutosSemEstoque, id)).isFalse();
+
+        produtoService.atualizarEstoque(id, -5);
+        assertThat(contem(produtoService::listarProdutosSemEstoque, id)).isTrue();
+
+        produtoService.atualizarEstoque(id, 20);
+        assertThat(contem(produtoService::listarProdutosComEstoqueBaixo, id)).isFalse();
+        assertThat(contem(produtoService::listarProdutosSemEstoque, id)).isFalse();
+    }
+
+    private static boolean contem(Function<Pageable, Slice<Produto>> lista, Long id) {
+        Pageable pagina = PageRequest.of(0, 100);
+        while (true) {
+            Slice<Produto> slice = lista.apply(pagina);
+            if (slice.stream().anyMatch(produto -> produto.getId().equals(id))) {
+                return true;
+            }
+            if (!slice.hasNext()) {
+                return false;
+            }
+            pagina = slice.nextPageable();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class ProdutoFiltroIT {
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void filtros_sao_combinados_na_mesma_consulta() {
+        String categoria = "Sucos do filtro";
+        criar("FLA001", "Suco de uva", categoria, "Marca A", "5.00", 10, true);
+        criar("FLB001", "Suco de laranja", categoria, "Marca A", "12.00", 10, true);
+        criar("FLC001", "Suco de maçã", categoria, "Marca B", "6.00", 0, true);
+        criar("FLD001", "Suco de caju", categoria, "Marca A", "7.00", 10, false);
+
+        assertThat(codigos(new FiltroProdutos("suco", categoria, "Marca A", null, null, new BigDecimal("10"), null,
+                true))).containsExactly("FLA001");
+        assertThat(codigos(new FiltroProdutos(null, categoria, null, null, null, null,
+                FiltroProdutos.SituacaoEstoque.SEM_ESTOQUE, null))).containsExactly("FLC001");
+        assertThat(codigos(new FiltroProdutos(null, categoria, null, null, null, null, null, false)))
+                .containsExactly("FLD001");
+        assertThat(codigos(new FiltroProdutos("  ", categoria, "", null, null, null, null, null))).hasSize(4);
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void pagina_indica_se_ha_mais_resultados() {
+        String categoria = "Sucos paginados";
+        criar("FLE001", "Suco de uva", categoria, "Marca A", "5.00", 10, true);
+        criar("FLE002", "Suco de pera", categoria, "Marca A", "5.00", 10, true);
+        criar("FLE003", "Suco de limão", categoria, "Marca A", "5.00", 10, true);
+        FiltroProdutos filtro = new FiltroProdutos(null, categoria, null, null, null, null, null, null);
+
+        Slice<Produto> primeira = produtoService.filtrar(filtro, PageRequest.of(0, 2, Sort.by("codigo")));
+        assertThat(primeira.getContent()).extracting(Produto::getCodigo).containsExactly("FLE001", "FLE002");
+        assertThat(primeira.hasNext()).isTrue();
+
+        Slice<Produto> segunda = produtoService.filtrar(filtro, primeira.nextPageable());
+        assertThat(segunda.getContent()).extracting(Produto::getCodigo).containsExactly("FLE003");
+        assertThat(segunda.hasNext()).isFalse();
+    }
+
+    private List<String> codigos(FiltroProdutos filtro) {
+        return produtoService.filtrar(filtro, PageRequest.of(0, 50, Sort.by("codigo"))).map(Produto::getCodigo)
+                .getContent();
+    }
+
+    private void criar(String codigo, String nome, String categoria, String marca, String preco, int estoque,
+            boolean ativo) {
+        Produto produto = new Produto(codigo, nome, new BigDecimal(preco));
+        produto.setCategoria(categoria);
+        produto.setMarca(marca);
+        produto.setEstoqueAtual(estoque);
+        produto.setAtivo(ativo);
+        produtoService.criarProduto(produto);
+    }
+}
@@ -0,0 +1,117 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemRepository;
+import com.leandrosnazareth.produto.domain.ProdutoImagemVarianteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ProdutoImagemServiceTest {
+
+    private static final byte[] ASSINATURA_PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    @TempDir
+    Path raiz;
+
+    ProdutoImagemService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProdutoImagemService(mock(ProdutoImagemRepository.class),
+                mock(ProdutoImagemVarianteRepository.class), mock(ProdutoImagemRegistro.class),
+                new ArmazenamentoImagensDisco(raiz),
+                mock(ApplicationEventPublisher.class), Clock.systemUTC());
+    }
+
+    @Test
+    void imagem_recebida_vai_para_arquivo_temporario_com_o_tipo_pelo_conteudo() throws IOException {
+        byte[] png = png(1000);
+
+        FotoRecebida foto = service.receber(new ByteArrayInputStream(png), -1);
+
+        assertThat(foto.tipo()).isEqualTo("image/png");
+        assertThat(foto.tamanho()).isEqualTo(png.length);
+        assertThat(Files.readAllBytes(foto.arquivo())).isEqualTo(png);
+        assertThat(ProdutoImagemService.calcularHash(foto.arquivo())).isEqualTo(ProdutoImagemService.calcularHash(png));
+    }
+
+    @Test
+    void conteudo_que_nao_e_imagem_e_rejeitado_sem_sobrar_temporario() throws IOException {
+        byte[] texto = "<html>não é imagem</html>".getBytes();
+
+        assertThatThrownBy(() -> service.receber(new ByteArrayInputStream(texto), texto.length))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(temporarios()).isZero();
+    }
+
+    @Test
+    void envio_grande_demais_e_interrompido_durante_a_leitura() throws IOException {
+        ContadorDeLeitura entrada = new ContadorDeLeitura(png(ProdutoImagemService.TAMANHO_MAXIMO * 2));
+
+        assertThatThrownBy(() -> service.receber(entrada, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(entrada.lidos).isLessThan(ProdutoImagemService.TAMANHO_MAXIMO + 16 * 1024);
+        assertThat(temporarios()).isZero();
+    }
+
+    @Test
+    void tamanho_informado_acima_do_limite_e_rejeitado_antes_de_ler() {
+        ContadorDeLeitura entrada = new ContadorDeLeitura(png(100));
+
+        assertThatThrownBy(() -> service.receber(entrada, ProdutoImagemService.TAMANHO_MAXIMO + 1L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(entrada.lidos).isZero();
+    }
+
+    private static byte[] png(int tamanho) {
+        byte[] dados = new byte[tamanho];
+        System.arraycopy(ASSINATURA_PNG, 0, dados, 0, ASSINATURA_PNG.length);
+        return dados;
+    }
+
+    private long temporarios() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(raiz)) {
+            return arquivos.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static class ContadorDeLeitura extends InputStream {
+
+        private final InputStream origem;
+        long lidos;
+
+        ContadorDeLeitura(byte[] dados) {
+            this.origem = new ByteArrayInputStream(dados);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int lido = origem.read();
+            if (lido != -1) {
+                lidos++;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int quantidade = origem.read(b, off, len);
+            if (quantidade > 0) {
+                lidos += quantidade;
+            }
+            return quantidade;
+        }
+    }
+}
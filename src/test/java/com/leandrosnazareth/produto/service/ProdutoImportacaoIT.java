@@ -0,0 +1,129 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.io.BufferedWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Importa um arquivo com mais de dois lotes, códigos repetidos, linhas inválidas e um
+ * produto já cadastrado.
+ * <p>
+ * A importação grava em transações próprias, em outra thread, então o teste não pode
+ * ser {@code @Transactional}; os produtos importados são apagados ao final, e os índices
+ * em memória recarregados, como a própria importação faz.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class ProdutoImportacaoIT {
+
+    private static final int PRODUTOS = ProdutoImportacaoService.TAMANHO_LOTE * 2 + 500;
+
+    @TempDir
+    Path diretorio;
+
+    @Autowired
+    ProdutoImportacaoService importacaoService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    ProdutoBuscaIndex buscaIndex;
+
+    @Autowired
+    EstoqueBaixoMonitor estoqueBaixoMonitor;
+
+    @Autowired
+    ProdutoPrecoIndex precoIndex;
+
+    @Autowired
+    ProdutoCatalogoCache catalogoCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void apagarImportados() {
+        jdbcTemplate.update("DELETE FROM produto_preco_historico WHERE produto_id IN "
+                + "(SELECT produto_id FROM produto WHERE codigo LIKE 'IMP%')");
+        jdbcTemplate.update("DELETE FROM produto WHERE codigo LIKE 'IMP%'");
+        catalogoCache.invalidarTudo();
+        entityManagerFactory.getCache().evict(Produto.class);
+        buscaIndex.carregar();
+        estoqueBaixoMonitor.carregar();
+        precoIndex.carregar();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void arquivo_e_importado_em_lotes_com_atualizacao_pelo_codigo() throws Exception {
+        Produto existente = new Produto("IMP00001", "Nome antigo", BigDecimal.ONE);
+        existente.setDescricao("Descrição mantida");
+        existente.setEstoqueAtual(7);
+        produtoService.criarProduto(existente);
+
+        Path arquivo = diretorio.resolve("catalogo.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.write("Código;Nome;Preço Venda;Categoria;Estoque Atual;Coluna Desconhecida\n");
+            for (int i = 0; i < PRODUTOS; i++) {
+                // O estoque em branco do produto já cadastrado não deve zerá-lo
+                String estoque = i == 1 ? "" : String.valueOf(i);
+                writer.write("IMP%05d;\"Produto importado %d; lote\";1.234,56;Importados;%s;x\n"
+                        .formatted(i, i, estoque));
+            }
+            writer.write("IMP00005;Produto repetido;9,90;Importados;1;x\n");
+            writer.write("IMP99998;Preço inválido;abc;Importados;1;x\n");
+            writer.write("IMP99999;;9,90;Importados;1;x\n");
+        }
+
+        List<ProgressoImportacao> progressos = new CopyOnWriteArrayList<>();
+        ResultadoImportacao resultado = importacaoService.importar(arquivo, progressos::add).get();
+
+        assertThat(resultado.linhas()).isEqualTo(PRODUTOS + 3);
+        assertThat(resultado.inseridos()).isEqualTo(PRODUTOS - 1);
+        // O produto já cadastrado e a repetição, que cai em outro lote
+        assertThat(resultado.atualizados()).isEqualTo(2);
+        assertThat(resultado.rejeitados()).isEqualTo(2);
+        assertThat(resultado.erros()).hasSize(2).allMatch(erro -> erro.startsWith("Linha "));
+        assertThat(progressos).hasSizeGreaterThanOrEqualTo(3).last()
+                .satisfies(progresso -> assertThat(progresso.fracao()).isEqualTo(1.0));
+        assertThat(arquivo).doesNotExist();
+
+        Produto atualizado = produtoService.buscarPorCodigo("IMP00001").orElseThrow();
+        assertThat(atualizado.getNome()).isEqualTo("Produto importado 1; lote");
+        assertThat(atualizado.getPrecoVenda()).isEqualByComparingTo("1234.56");
+        assertThat(atualizado.getDescricao()).isEqualTo("Descrição mantida");
+        assertThat(atualizado.getEstoqueAtual()).isEqualTo(7);
+        assertThat(produtoService.buscarPorCodigo("IMP00002").orElseThrow().getEstoqueAtual()).isEqualTo(2);
+        assertThat(atualizado.getTextoBusca()).contains("descricao mantida", "importados");
+
+        assertThat(produtoService.buscarPorCodigo("IMP00005").orElseThrow().getNome()).isEqualTo("Produto repetido");
+        assertThat(produtoService.buscarPorCodigo("IMP99998")).isEmpty();
+        assertThat(produtoService.listarCategorias()).contains("Importados");
+        assertThat(produtoService.sugerirProdutos("produto importado 2499", 5))
+                .anyMatch(sugestao -> sugestao.codigo().equals("IMP02499"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Altera os preços de um produto e consulta os preços vigentes antes e depois.
+ * <p>
+ * Sem {@code @Transactional}: o índice só é atualizado depois do commit. O relógio da
+ * aplicação é trocado por um que só anda quando o teste manda, então os intervalos não
+ * dependem de pausas; o produto e seu histórico são excluídos ao final.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class ProdutoPrecoHistoricoIT {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class RelogioConfiguration {
+
+        @Bean
+        @Primary
+        Relogio relogio() {
+            return new Relogio(Clock.systemUTC().instant().truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Relógio parado, avançado pelo teste.
+     */
+    static class Relogio extends Clock {
+
+        private volatile Instant agora;
+
+        Relogio(Instant agora) {
+            this.agora = agora;
+        }
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(agora, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    ProdutoPrecoHistoricoService precoHistoricoService;
+
+    @Autowired
+    Relogio relogio;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    ProdutosDeTeste produtos;
+
+    Long produtoId;
+
+    @BeforeEach
+    void setUp() {
+        produtos = new ProdutosDeTeste(produtoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        produtos.excluir();
+        if (produtoId != null) {
+            jdbcTemplate.update("DELETE FROM produto_preco_historico WHERE produto_id = ?", produtoId);
+        }
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void alteracao_de_preco_abre_novo_intervalo() {
+        Instant antesDoCadastro = relogio.instant();
+        relogio.avancar(Duration.ofMinutes(1));
+        Produto produto = new Produto("HPR001", "Histórico de preço", BigDecimal.TEN);
+        produto.setPrecoCompra(new BigDecimal("6.00"));
+        produto.setEstoqueAtual(10);
+        produto = produtos.criar(produto);
+        Long id = produto.getId();
+        produtoId = id;
+        relogio.avancar(Duration.ofMinutes(1));
+        Instant comPrecoInicial = relogio.instant();
+        relogio.avancar(Duration.ofMinutes(1));
+
+        produto.setPrecoVenda(new BigDecimal("12.50"));
+        produtoService.atualizarProduto(produto);
+        // Estoque não muda preço e não abre intervalo
+        produtoService.atualizarEstoque(id, -1);
+
+        assertThat(precoHistoricoService.buscarPreco(id, antesDoCadastro)).isEmpty();
+        assertThat(precoHistoricoService.buscarPreco(id, comPrecoInicial)).hasValueSatisfying(preco -> {
+            assertThat(preco.precoVenda()).isEqualByComparingTo("10");
+            assertThat(preco.precoCompra()).isEqualByComparingTo("6");
+        });
+        assertThat(precoHistoricoService.buscarPreco(id, relogio.instant())).hasValueSatisfying(preco -> {
+            assertThat(preco.precoVenda()).isEqualByComparingTo("12.50");
+            assertThat(preco.validoAte()).isNull();
+        });
+        assertThat(precoHistoricoService.listarHistorico(id)).hasSize(2)
+                .first().satisfies(preco -> assertThat(preco.validoAte()).isNotNull());
+    }
+}
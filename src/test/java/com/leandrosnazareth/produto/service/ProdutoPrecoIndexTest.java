@@ -0,0 +1,58 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoPrecoHistoricoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProdutoPrecoIndexTest {
+
+    private static final Instant AGORA = Instant.parse("2026-06-01T12:00:00Z");
+
+    // Linhas devolvidas pela consulta de carga e o limite que ela recebeu
+    List<Object[]> linhas = new ArrayList<>();
+    List<Object> limites = new ArrayList<>();
+
+    ProdutoPrecoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProdutoPrecoHistoricoRepository historicoRepository = mock(ProdutoPrecoHistoricoRepository.class,
+                invocacao -> {
+                    limites.add(invocacao.getArgument(0));
+                    return linhas;
+                });
+        index = new ProdutoPrecoIndex(historicoRepository, Clock.fixed(AGORA, ZoneOffset.UTC), 30);
+    }
+
+    @Test
+    void antes_da_carga_nenhum_instante_esta_em_memoria() {
+        assertThat(index.cobre(AGORA)).isFalse();
+    }
+
+    @Test
+    void carga_mantem_so_o_periodo_configurado() {
+        Instant limite = AGORA.minus(Duration.ofDays(30));
+        Instant reajuste = AGORA.minus(Duration.ofDays(10));
+        linhas.add(new Object[] { 1L, BigDecimal.ONE, null, AGORA.minus(Duration.ofDays(90)), reajuste });
+        linhas.add(new Object[] { 1L, BigDecimal.TEN, null, reajuste, null });
+
+        index.carregar();
+
+        assertThat(limites).containsExactly(limite);
+        assertThat(index.cobre(limite)).isTrue();
+        assertThat(index.cobre(limite.minusSeconds(1))).isFalse();
+        assertThat(index.buscar(1L, limite).precoVenda()).isEqualByComparingTo("1");
+        assertThat(index.buscar(1L, AGORA).precoVenda()).isEqualByComparingTo("10");
+    }
+}
@@ -0,0 +1,120 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o cache de segundo nível de {@link Produto} e o cache de consultas das listas
+ * distintas.
+ * <p>
+ * Sem {@code @Transactional}: cada chamada ao serviço faz o próprio commit, como no
+ * caixa, e as leituras usam um {@link EntityManager} novo para não reaproveitar o
+ * contexto de persistência no lugar do cache. Os produtos criados são excluídos ao final.
+ * Roda no perfil dev, que liga as estatísticas do Hibernate.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles("dev")
+class ProdutoSegundoNivelCacheIT {
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void atualizacao_de_estoque_atualiza_o_produto_em_cache() {
+        Produto produto = produtoService.criarProduto(novoProduto("L2EST", "Cache L2"));
+        Long id = produto.getId();
+        try {
+            assertThat(ler(id).getEstoqueAtual()).isEqualTo(10);
+            assertThat(entityManagerFactory.getCache().contains(Produto.class, id)).isTrue();
+
+            produtoService.atualizarEstoque(id, -3);
+
+            estatisticas.clear();
+            Produto relido = ler(id);
+            assertThat(relido.getEstoqueAtual()).isEqualTo(7);
+            assertThat(estatisticas.getDomainDataRegionStatistics(Produto.REGIAO_CACHE).getHitCount()).isEqualTo(1);
+            assertThat(estatisticas.getPrepareStatementCount()).isZero();
+        } finally {
+            produtoService.excluirProdutoFisicamente(id);
+        }
+        assertThat(entityManagerFactory.getCache().contains(Produto.class, id)).isFalse();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void escrita_em_produto_invalida_o_cache_de_consultas() {
+        Produto produto = produtoService.criarProduto(novoProduto("L2CAT", "Cache de consulta"));
+        Long id = produto.getId();
+        try {
+            assertThat(produtoService.listarCategorias()).contains("Categoria L2CAT");
+            estatisticas.clear();
+            assertThat(produtoService.listarCategorias()).contains("Categoria L2CAT");
+            assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(1);
+            assertThat(estatisticas.getPrepareStatementCount()).isZero();
+
+            produtoService.atualizarEstoque(id, 5);
+
+            estatisticas.clear();
+            assertThat(produtoService.listarCategorias()).contains("Categoria L2CAT");
+            assertThat(estatisticas.getQueryCacheHitCount()).isZero();
+            assertThat(estatisticas.getQueryCacheMissCount()).isEqualTo(1);
+
+            Produto alterado = produtoService.buscarPorId(id).orElseThrow();
+            alterado.setCategoria("Categoria L2CAT alterada");
+            produtoService.atualizarProduto(alterado);
+
+            assertThat(produtoService.listarCategorias()).contains("Categoria L2CAT alterada")
+                    .doesNotContain("Categoria L2CAT");
+        } finally {
+            produtoService.excluirProdutoFisicamente(id);
+        }
+    }
+
+    private Produto ler(Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Produto.class, id);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static Produto novoProduto(String codigo, String nome) {
+        Produto produto = new Produto();
+        produto.setCodigo(codigo);
+        produto.setNome(nome);
+        produto.setCategoria("Categoria " + codigo);
+        produto.setPrecoVenda(BigDecimal.TEN);
+        produto.setEstoqueAtual(10);
+        return produto;
+    }
+}
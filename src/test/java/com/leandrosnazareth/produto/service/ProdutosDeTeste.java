@@ -0,0 +1,40 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.Produto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produtos criados por um teste que não pode ser {@code @Transactional}, por depender
+ * do commit (caches, índices em memória, eventos após o commit).
+ * <p>
+ * Os produtos são excluídos pelo próprio serviço, para que os caches e os índices em
+ * memória também os descartem. {@link #excluir()} deve ser chamado no {@code @AfterEach},
+ * que roda com o usuário do teste; exige um administrador.
+ * </p>
+ */
+public final class ProdutosDeTeste {
+
+    private final ProdutoService produtoService;
+    private final List<Long> ids = new ArrayList<>();
+
+    public ProdutosDeTeste(ProdutoService produtoService) {
+        this.produtoService = produtoService;
+    }
+
+    public Produto criar(Produto produto) {
+        Produto criado = produtoService.criarProduto(produto);
+        ids.add(criado.getId());
+        return criado;
+    }
+
+    public void excluir() {
+        for (Long id : ids) {
+            if (produtoService.buscarPorId(id).isPresent()) {
+                produtoService.excluirProdutoFisicamente(id);
+            }
+        }
+        ids.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package com.leandrosnazareth.produto.service;
+
+import com.leandrosnazareth.produto.domain.ProdutoImagemVariante.Tamanho;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedimensionadorImagemTest {
+
+    @Test
+    void gera_todos_os_tamanhos_mantendo_a_proporcao() throws IOException {
+        Map<Tamanho, RedimensionadorImagem.Variante> variantes =
+                RedimensionadorImagem.gerarVariantes(png(3000, 2000)).orElseThrow();
+
+        assertThat(variantes).containsOnlyKeys(Tamanho.values());
+        assertThat(variantes.get(Tamanho.MINIATURA)).extracting("largura", "altura").containsExactly(120, 80);
+        assertThat(variantes.get(Tamanho.CARTAO)).extracting("largura", "altura").containsExactly(400, 267);
+        assertThat(variantes.get(Tamanho.COMPLETA)).extracting("largura", "altura").containsExactly(1200, 800);
+
+        BufferedImage miniatura = ImageIO.read(new ByteArrayInputStream(variantes.get(Tamanho.MINIATURA).dados()));
+        assertThat(miniatura.getWidth()).isEqualTo(120);
+    }
+
+    @Test
+    void imagens_pequenas_nao_sao_ampliadas() throws IOException {
+        Map<Tamanho, RedimensionadorImagem.Variante> variantes =
+                RedimensionadorImagem.gerarVariantes(png(50, 30)).orElseThrow();
+
+        assertThat(variantes.values()).allSatisfy(variante -> {
+            assertThat(variante.largura()).isEqualTo(50);
+            assertThat(variante.altura()).isEqualTo(30);
+        });
+    }
+
+    @Test
+    void formato_nao_suportado_nao_gera_variantes() {
+        assertThat(RedimensionadorImagem.gerarVariantes(new byte[] { 1, 2, 3 })).isEmpty();
+    }
+
+    @Test
+    void imagem_com_dimensoes_acima_do_limite_nao_e_decodificada(@TempDir Path pasta) throws IOException {
+        byte[] bomba = cabecalhoPng(100_000, 100_000);
+        Path arquivo = Files.write(pasta.resolve("bomba.png"), bomba);
+
+        assertThat(RedimensionadorImagem.gerarVariantes(bomba)).isEmpty();
+        assertThat(RedimensionadorImagem.excedeDimensoes(arquivo)).isTrue();
+        assertThat(RedimensionadorImagem.excedeDimensoes(Files.write(pasta.resolve("foto.png"), png(300, 200))))
+                .isFalse();
+    }
+
+    /**
+     * PNG com apenas o cabeçalho, declarando as dimensões sem trazer os pixels.
+     */
+    private static byte[] cabecalhoPng(int largura, int altura) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        DataOutputStream dados = new DataOutputStream(saida);
+        dados.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream();
+        DataOutputStream campos = new DataOutputStream(ihdr);
+        campos.write("IHDR".getBytes(StandardCharsets.US_ASCII));
+        campos.writeInt(largura);
+        campos.writeInt(altura);
+        campos.write(new byte[] { 8, 2, 0, 0, 0 });
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.toByteArray());
+
+        dados.writeInt(13);
+        dados.write(ihdr.toByteArray());
+        dados.writeInt((int) crc.getValue());
+        return saida.toByteArray();
+    }
+
+    private static byte[] png(int largura, int altura) throws IOException {
+        BufferedImage imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "png", saida);
+        return saida.toByteArray();
+    }
+}
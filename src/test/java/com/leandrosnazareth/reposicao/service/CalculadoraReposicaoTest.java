@@ -0,0 +1,50 @@
+package com.leandrosnazareth.reposicao.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculadoraReposicaoTest {
+
+    @Test
+    void ritmo_pondera_as_janelas_e_define_a_cobertura() {
+        // 2/dia em 7 dias, 1/dia em 30 e 0,5/dia em 90: ritmo = 1,0 + 0,3 + 0,1 = 1,4
+        var resultado = CalculadoraReposicao.calcular(14, null, null, 14, 30, 45, 30);
+
+        assertThat(resultado.mediaDiaria7()).isEqualByComparingTo("2");
+        assertThat(resultado.mediaDiaria30()).isEqualByComparingTo("1");
+        assertThat(resultado.mediaDiaria90()).isEqualByComparingTo("0.5");
+        assertThat(resultado.diasCobertura()).isEqualByComparingTo("10.0");
+        // 1,4 * 30 = 42 unidades para 30 dias
+        assertThat(resultado.quantidadeSugerida()).isEqualTo(28);
+    }
+
+    @Test
+    void compra_respeita_o_estoque_maximo() {
+        var resultado = CalculadoraReposicao.calcular(14, null, 20, 14, 30, 45, 30);
+
+        assertThat(resultado.quantidadeSugerida()).isEqualTo(6);
+    }
+
+    @Test
+    void estoque_maximo_zero_nao_limita() {
+        var resultado = CalculadoraReposicao.calcular(14, null, 0, 14, 30, 45, 30);
+
+        assertThat(resultado.quantidadeSugerida()).isEqualTo(28);
+    }
+
+    @Test
+    void sem_vendas_repoe_ate_o_minimo_e_nao_tem_cobertura() {
+        var resultado = CalculadoraReposicao.calcular(2, 5, 100, 0, 0, 0, 30);
+
+        assertThat(resultado.diasCobertura()).isNull();
+        assertThat(resultado.quantidadeSugerida()).isEqualTo(3);
+    }
+
+    @Test
+    void estoque_acima_do_alvo_nao_gera_compra() {
+        var resultado = CalculadoraReposicao.calcular(500, 5, null, 7, 30, 90, 30);
+
+        assertThat(resultado.quantidadeSugerida()).isZero();
+    }
+}
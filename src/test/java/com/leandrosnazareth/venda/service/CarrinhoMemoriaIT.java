@@ -0,0 +1,209 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.domain.ProdutoImagem;
+import com.leandrosnazareth.produto.service.ArmazenamentoImagensDisco;
+import com.leandrosnazareth.produto.service.ProdutoImagemService;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.ItemVenda;
+import com.leandrosnazareth.venda.domain.Venda;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara os bytes de imagem retidos por um carrinho de 50 itens com produtos que têm
+ * foto de 512 KB.
+ * <p>
+ * "Antes" reproduz o mapeamento antigo, em que cada produto carregado trazia os bytes
+ * da foto; "depois" carrega apenas os produtos, como o carrinho faz hoje. Em vez de
+ * medir o heap, o teste soma os {@code byte[]} guardados nas entidades do carrinho e no
+ * contexto de persistência, e confere nas estatísticas do Hibernate que nenhuma imagem
+ * foi carregada. Roda no perfil dev, que liga as estatísticas.
+ * </p>
+ * <p>
+ * As linhas das imagens são gravadas em transação própria e os arquivos no disco, então
+ * são excluídos depois da transação do teste, que desfaz os produtos.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles("dev")
+@Transactional
+class CarrinhoMemoriaIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarrinhoMemoriaIT.class);
+
+    private static final int ITENS = 50;
+    private static final int TAMANHO_FOTO = 512 * 1024;
+
+    private record Carrinho(Venda venda, List<byte[]> fotos) {
+    }
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    ProdutoImagemService imagemService;
+
+    @Autowired
+    ArmazenamentoImagensDisco disco;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    List<String> hashes = new ArrayList<>();
+
+    @AfterTransaction
+    void excluirImagens() {
+        for (String hash : hashes) {
+            jdbcTemplate.update("DELETE FROM produto_imagem_variante WHERE imagem_hash = ?", hash);
+            jdbcTemplate.update("DELETE FROM produto_imagem WHERE hash = ?", hash);
+            disco.remover(hash);
+        }
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void carrinho_nao_retem_os_bytes_das_fotos() {
+        List<Long> ids = criarProdutosComFoto();
+        entityManager.flush();
+        Statistics estatisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+
+        entityManager.clear();
+        Carrinho antes = montarCarrinho(ids, true);
+        long bytesAntes = bytesRetidos(antes);
+        assertThat(antes.venda().getItens()).hasSize(ITENS);
+        assertThat(bytesAntes).isEqualTo((long) ITENS * TAMANHO_FOTO);
+
+        entityManager.clear();
+        estatisticas.clear();
+        Carrinho depois = montarCarrinho(ids, false);
+        long bytesDepois = bytesRetidos(depois);
+        assertThat(depois.venda().getItens()).hasSize(ITENS);
+
+        logger.info("Carrinho com {} itens: antes {} KB de imagem, depois {} KB", ITENS, bytesAntes / 1024,
+                bytesDepois / 1024);
+        assertThat(bytesDepois).isZero();
+        assertThat(bytesNoContextoDePersistencia()).isZero();
+        assertThat(estatisticas.getEntityStatistics(ProdutoImagem.class.getName()).getLoadCount()).isZero();
+    }
+
+    private List<Long> criarProdutosComFoto() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ITENS; i++) {
+            byte[] foto = new byte[TAMANHO_FOTO];
+            random.nextBytes(foto);
+            foto[0] = (byte) 0xFF;
+            foto[1] = (byte) 0xD8;
+            foto[2] = (byte) 0xFF;
+
+            Produto produto = new Produto();
+            produto.setCodigo("MEM%03d".formatted(i));
+            produto.setNome("Produto de teste de memória " + i);
+            produto.setPrecoVenda(BigDecimal.TEN);
+            produto.setEstoqueAtual(100);
+            String hash = imagemService.armazenar(foto);
+            hashes.add(hash);
+            produto.setFotoHash(hash);
+            ids.add(produtoService.criarProduto(produto).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Monta o carrinho; com {@code comFotos}, também carrega a foto de cada produto.
+     */
+    private Carrinho montarCarrinho(List<Long> ids, boolean comFotos) {
+        Venda venda = new Venda();
+        List<byte[]> fotos = new ArrayList<>();
+        for (Long id : ids) {
+            Produto produto = produtoService.buscarPorId(id).orElseThrow();
+            if (comFotos) {
+                fotos.add(imagemService.lerDados(produto.getFotoHash()).orElseThrow());
+            }
+            venda.adicionarItem(new ItemVenda(produto, 1, produto.getPrecoVenda()));
+        }
+        return new Carrinho(venda, fotos);
+    }
+
+    /**
+     * Bytes das fotos carregadas junto do carrinho e dos {@code byte[]} da venda, dos
+     * itens e dos produtos.
+     */
+    private static long bytesRetidos(Carrinho carrinho) {
+        long bytes = carrinho.fotos().stream().mapToLong(foto -> foto.length).sum();
+        bytes += bytesDosCampos(carrinho.venda());
+        for (ItemVenda item : carrinho.venda().getItens()) {
+            bytes += bytesDosCampos(item) + bytesDosCampos(item.getProduto());
+        }
+        return bytes;
+    }
+
+    private static long bytesDosCampos(Object entidade) {
+        long bytes = 0;
+        for (Class<?> classe = entidade.getClass(); classe != Object.class; classe = classe.getSuperclass()) {
+            for (Field campo : classe.getDeclaredFields()) {
+                if (campo.getType() == byte[].class) {
+                    campo.setAccessible(true);
+                    try {
+                        byte[] valor = (byte[]) campo.get(entidade);
+                        bytes += valor == null ? 0 : valor.length;
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Bytes guardados no estado carregado das entidades gerenciadas.
+     */
+    private long bytesNoContextoDePersistencia() {
+        long bytes = 0;
+        var contexto = entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+        for (Map.Entry<Object, EntityEntry> entrada : contexto.reentrantSafeEntityEntries()) {
+            Object[] estado = entrada.getValue().getLoadedState();
+            if (estado == null) {
+                continue;
+            }
+            for (Object valor : estado) {
+                if (valor instanceof byte[] dados) {
+                    bytes += dados.length;
+                }
+            }
+        }
+        return bytes;
+    }
+}
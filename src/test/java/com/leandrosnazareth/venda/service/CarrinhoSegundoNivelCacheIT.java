@@ -0,0 +1,154 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.service.ProdutoCatalogoCache;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.produto.service.ProdutosDeTeste;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.Venda;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara {@link VendaService#adicionarItem} com e sem o cache de segundo nível de
+ * {@link Produto}.
+ * <p>
+ * As duas rodadas esvaziam o cache do catálogo antes de cada operação, para que o
+ * produto seja lido pelo Hibernate; "sem cache" também esvazia a região do produto. A
+ * comparação é feita pelas estatísticas do Hibernate (comandos enviados ao banco e
+ * acertos na região do produto), que não variam com a máquina. Roda no perfil dev,
+ * que liga as estatísticas.
+ * </p>
+ * <p>
+ * Sem {@code @Transactional}: o cache de segundo nível só recebe o produto depois do
+ * commit. As vendas ficam pendentes e são excluídas ao final, antes dos produtos.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles("dev")
+class CarrinhoSegundoNivelCacheIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarrinhoSegundoNivelCacheIT.class);
+
+    private static final int PRODUTOS = 20;
+    private static final int RODADAS = 5;
+
+    private record Medicao(long comandos, long acertos) {
+    }
+
+    @Autowired
+    VendaService vendaService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    ProdutoCatalogoCache catalogoCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    ProdutosDeTeste produtos;
+
+    List<Long> vendas = new ArrayList<>();
+
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        produtos = new ProdutosDeTeste(produtoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long vendaId : vendas) {
+            jdbcTemplate.update("DELETE FROM item_venda WHERE venda_id = ?", vendaId);
+            jdbcTemplate.update("DELETE FROM venda WHERE venda_id = ?", vendaId);
+        }
+        produtos.excluir();
+        for (Long produtoId : ids) {
+            jdbcTemplate.update("DELETE FROM produto_preco_historico WHERE produto_id = ?", produtoId);
+        }
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void cache_de_segundo_nivel_reduz_consultas_do_carrinho() {
+        criarProdutos();
+
+        Medicao semCache = medir(false);
+        Medicao comCache = medir(true);
+
+        int operacoes = PRODUTOS * RODADAS * 2;
+        logger.info("{} operações de carrinho: sem cache {} comandos, com cache {} comandos ({} acertos)",
+                operacoes, semCache.comandos(), comCache.comandos(), comCache.acertos());
+        assertThat(semCache.acertos()).isZero();
+        assertThat(comCache.acertos()).isGreaterThanOrEqualTo(operacoes);
+        // Cada operação sem cache faz ao menos a consulta do produto que o cache evita
+        assertThat(comCache.comandos()).isLessThanOrEqualTo(semCache.comandos() - operacoes);
+    }
+
+    /**
+     * Adiciona cada produto duas vezes a uma venda nova (inclusão e soma de quantidade),
+     * {@link #RODADAS} vezes.
+     */
+    private Medicao medir(boolean comCache) {
+        // Carrega a região antes de medir: os produtos só entram nela ao serem lidos
+        entityManagerFactory.getCache().evict(Produto.class);
+        if (comCache) {
+            catalogoCache.invalidarTudo();
+            ids.forEach(produtoService::buscarPorId);
+        }
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            Venda venda = vendaService.criarVenda(Venda.FormaPagamento.DINHEIRO);
+            vendas.add(venda.getId());
+            for (int vez = 0; vez < 2; vez++) {
+                for (Long id : ids) {
+                    catalogoCache.invalidarTudo();
+                    if (!comCache) {
+                        entityManagerFactory.getCache().evict(Produto.class);
+                    }
+                    vendaService.adicionarItem(venda.getId(), id, 1);
+                }
+            }
+        }
+        return new Medicao(estatisticas.getPrepareStatementCount(),
+                estatisticas.getDomainDataRegionStatistics(Produto.REGIAO_CACHE).getHitCount());
+    }
+
+    private void criarProdutos() {
+        for (int i = 0; i < PRODUTOS; i++) {
+            Produto produto = new Produto();
+            produto.setCodigo("L2CAR%03d".formatted(i));
+            produto.setNome("Produto de teste do carrinho " + i);
+            produto.setPrecoVenda(BigDecimal.TEN);
+            produto.setEstoqueAtual(1000);
+            ids.add(produtos.criar(produto).getId());
+        }
+    }
+}
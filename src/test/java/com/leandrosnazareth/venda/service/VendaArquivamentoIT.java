@@ -0,0 +1,138 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.produto.service.ProdutosDeTeste;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.Venda;
+import com.leandrosnazareth.venda.domain.VendaArquivoMes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que vendas antigas saem das tabelas em uso e continuam nas estatísticas,
+ * nas contagens e na exportação.
+ * <p>
+ * Sem {@code @Transactional}: cada lote é arquivado na sua transação. Só o mês das
+ * vendas do teste é arquivado; ao final as tabelas desse mês, as vendas e o produto
+ * são excluídos.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class VendaArquivamentoIT {
+
+    private static final LocalDate DIA_ANTIGO = LocalDate.of(2001, 3, 14);
+    private static final int ANO_MES = VendaArquivoMes.anoMes(YearMonth.from(DIA_ANTIGO));
+
+    @Autowired
+    VendaService vendaService;
+
+    @Autowired
+    VendaExportacaoService exportacaoService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    VendaArquivamentoJob job;
+
+    @Autowired
+    VendaParticoes particoes;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    ProdutosDeTeste produtos;
+
+    List<Long> vendas = new ArrayList<>();
+
+    Long produtoId;
+
+    @BeforeEach
+    void setUp() {
+        produtos = new ProdutosDeTeste(produtoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + VendaArquivoMes.tabelaItens(ANO_MES));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + VendaArquivoMes.tabelaVendas(ANO_MES));
+        jdbcTemplate.update("DELETE FROM venda_arquivo_mes WHERE ano_mes = ?", ANO_MES);
+        particoes.carregar();
+        for (Long vendaId : vendas) {
+            jdbcTemplate.update("DELETE FROM item_venda WHERE venda_id = ?", vendaId);
+            jdbcTemplate.update("DELETE FROM venda WHERE venda_id = ?", vendaId);
+        }
+        produtos.excluir();
+        if (produtoId != null) {
+            jdbcTemplate.update("DELETE FROM produto_preco_historico WHERE produto_id = ?", produtoId);
+        }
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void vendas_arquivadas_continuam_nas_consultas() throws Exception {
+        Produto produto = new Produto("ARQ001", "Arquivado", BigDecimal.TEN);
+        produto.setEstoqueAtual(100);
+        produtoId = produtos.criar(produto).getId();
+
+        List<Long> antigas = List.of(vender(produtoId, 2), vender(produtoId, 3));
+        Long recente = vender(produtoId, 1);
+        for (Long vendaId : antigas) {
+            jdbcTemplate.update("UPDATE venda SET data_venda = ? WHERE venda_id = ?",
+                    Timestamp.valueOf(DIA_ANTIGO.atTime(10, 0)), vendaId);
+        }
+        long finalizadasAntes = vendaService.contarVendasPorStatus(Venda.StatusVenda.FINALIZADA);
+
+        ResultadoArquivamento resultado = job.executar(YearMonth.from(DIA_ANTIGO));
+
+        assertThat(resultado.vendas()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM venda WHERE venda_id IN (?, ?, ?)",
+                Long.class, antigas.get(0), antigas.get(1), recente)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + VendaArquivoMes.tabelaItens(ANO_MES)
+                + " WHERE venda_id IN (?, ?)", Long.class, antigas.get(0), antigas.get(1))).isEqualTo(2);
+
+        assertThat(vendaService.contarVendasPorStatus(Venda.StatusVenda.FINALIZADA)).isEqualTo(finalizadasAntes);
+        List<Object[]> porDia = vendaService.obterEstatisticasPorDia(DIA_ANTIGO.atStartOfDay(),
+                DIA_ANTIGO.atTime(23, 59));
+        assertThat(porDia).singleElement().satisfies(linha -> {
+            assertThat(linha[0]).isEqualTo(DIA_ANTIGO);
+            assertThat(linha[1]).isEqualTo(2L);
+            assertThat((BigDecimal) linha[2]).isEqualByComparingTo("50.00");
+        });
+
+        StringWriter csv = new StringWriter();
+        long itens = exportacaoService.exportarItens(DIA_ANTIGO, DIA_ANTIGO, FormatoExportacao.CSV, csv);
+        assertThat(itens).isEqualTo(2);
+        assertThat(csv.toString()).contains(produto.getCodigo());
+
+        // Nada mais a arquivar: a segunda execução não move nada
+        assertThat(job.executar(YearMonth.from(DIA_ANTIGO)).vendas()).isZero();
+    }
+
+    private Long vender(Long produtoId, int quantidade) {
+        Venda venda = vendaService.criarVenda(Venda.FormaPagamento.DINHEIRO);
+        vendaService.adicionarItem(venda.getId(), produtoId, quantidade);
+        vendas.add(venda.getId());
+        return vendaService.finalizarVenda(venda.getId(), BigDecimal.valueOf(100)).getId();
+    }
+}
@@ -0,0 +1,149 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.base.service.FormatoExportacao;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exporta um volume grande de itens gerados pelo {@code GeradorDadosSinteticos} e
+ * verifica que a memória usada não cresce com o número de linhas.
+ * <p>
+ * O perfil do gerador preenche o banco do contêiner na inicialização; um mês antigo é
+ * arquivado, então a exportação do período inteiro passa pela leitura das tabelas de
+ * arquivo por JDBC ({@code RowCallbackHandler}), e a dos meses recentes pelo
+ * {@code Stream} do repositório. O driver do PostgreSQL só lê por cursor com a conexão
+ * fora do autocommit e com tamanho de leitura definido; sem isso ele carrega o resultado
+ * inteiro, e a memória retida cresceria com as linhas.
+ * </p>
+ * <p>
+ * A memória é medida depois de uma coleta, a cada {@link #AMOSTRA_CARACTERES} caracteres
+ * escritos, e comparada com a medida antes da exportação. O volume padrão é de cerca de
+ * 1 milhão de itens; o critério de 10 milhões de itens em 512 MB de heap é verificado com
+ * {@code mvn -Pintegration-test verify -Dit.test=VendaExportacaoVolumeIT
+ * -Dpdv.teste.exportacao.vendas=3900000 -DargLine=-Xmx512m} (2,6 itens por venda, em média).
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles("gerador")
+@TestPropertySource(properties = {
+        "pdv.gerador.produtos=10000",
+        "pdv.gerador.vendas=${pdv.teste.exportacao.vendas:400000}",
+        "pdv.gerador.meses=24" })
+class VendaExportacaoVolumeIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendaExportacaoVolumeIT.class);
+
+    private static final long AMOSTRA_CARACTERES = 8L * 1024 * 1024;
+
+    // Bem abaixo do que o resultado ocupa quando carregado inteiro (centenas de MB)
+    private static final long CRESCIMENTO_MAXIMO = 64L * 1024 * 1024;
+
+    @Autowired
+    VendaExportacaoService exportacaoService;
+
+    @Autowired
+    VendaArquivamentoJob job;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    Clock clock;
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void exportacao_de_itens_usa_memoria_constante() throws IOException {
+        LocalDate hoje = LocalDate.now(clock);
+        LocalDate inicio = hoje.minusMonths(24);
+        LocalDate inicioRecentes = hoje.minusMonths(3);
+        long todos = contarItens(inicio, hoje);
+        long recentes = contarItens(inicioRecentes, hoje);
+
+        ResultadoArquivamento arquivamento = job.executar(YearMonth.from(hoje.minusMonths(18)));
+        assertThat(arquivamento.itens()).isPositive();
+
+        exportar(inicio, hoje, todos, "período com mês arquivado");
+        exportar(inicioRecentes, hoje, recentes, "meses em uso");
+    }
+
+    private void exportar(LocalDate inicio, LocalDate fim, long esperados, String descricao) throws IOException {
+        DestinoMedido destino = new DestinoMedido();
+        long inicioNanos = System.nanoTime();
+        long linhas = exportacaoService.exportarItens(inicio, fim, FormatoExportacao.NDJSON, destino);
+        long segundos = (System.nanoTime() - inicioNanos) / 1_000_000_000;
+
+        logger.info("Exportação ({}): {} itens, {} MB escritos em {} s; memória após coleta: {} MB antes, "
+                + "{} MB no pico", descricao, linhas, destino.caracteres / (1024 * 1024), segundos,
+                destino.base / (1024 * 1024), destino.pico / (1024 * 1024));
+        assertThat(linhas).isEqualTo(esperados);
+        assertThat(destino.amostras).isPositive();
+        assertThat(destino.pico - destino.base).isLessThan(CRESCIMENTO_MAXIMO);
+    }
+
+    private long contarItens(LocalDate inicio, LocalDate fim) {
+        Long itens = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_venda i "
+                + "JOIN venda v ON v.venda_id = i.venda_id WHERE v.data_venda >= ? AND v.data_venda < ?",
+                Long.class, Timestamp.valueOf(inicio.atStartOfDay()),
+                Timestamp.valueOf(fim.plusDays(1).atStartOfDay()));
+        return itens == null ? 0 : itens;
+    }
+
+    /**
+     * Heap ocupada depois de uma coleta completa: o que continua referenciado.
+     */
+    private static long memoriaRetida() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Descarta o que recebe, medindo a memória retida a cada amostra.
+     */
+    private static final class DestinoMedido extends Writer {
+
+        final long base = memoriaRetida();
+        long pico = base;
+        long caracteres;
+        int amostras;
+        private long proximaAmostra = AMOSTRA_CARACTERES;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            caracteres += len;
+            if (caracteres >= proximaAmostra) {
+                pico = Math.max(pico, memoriaRetida());
+                amostras++;
+                proximaAmostra += AMOSTRA_CARACTERES;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
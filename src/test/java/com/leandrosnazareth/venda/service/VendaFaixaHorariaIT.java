@@ -0,0 +1,81 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.Venda;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que finalizar e cancelar vendas soma nas faixas do mapa de movimento, e que
+ * a reconstrução a partir das vendas chega às mesmas somas.
+ * <p>
+ * As somas são gravadas na transação da venda, então o teste roda numa transação
+ * desfeita ao final, com a reconstrução. As vendas são enviadas ao banco antes da
+ * reconstrução, que as lê por JDBC.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class VendaFaixaHorariaIT {
+
+    @Autowired
+    VendaService vendaService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    VendaFaixaHorariaJob job;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void vendas_somam_na_faixa_do_dia_e_hora() {
+        Produto produto = new Produto("FXH001", "Faixa horária", BigDecimal.TEN);
+        produto.setEstoqueAtual(100);
+        Long produtoId = produtoService.criarProduto(produto).getId();
+        MapaHorarioVendas antes = vendaService.obterMapaHorario(1);
+
+        Venda venda = vendaService.criarVenda(Venda.FormaPagamento.PIX);
+        vendaService.adicionarItem(venda.getId(), produtoId, 2);
+        LocalDateTime dataVenda = vendaService.finalizarVenda(venda.getId(), BigDecimal.valueOf(50)).getDataVenda();
+        Venda cancelada = vendaService.criarVenda(Venda.FormaPagamento.PIX);
+        vendaService.cancelarVenda(cancelada.getId());
+        // Cancelar de novo não conta outra vez
+        vendaService.cancelarVenda(cancelada.getId());
+
+        int dia = dataVenda.getDayOfWeek().getValue() - 1;
+        int hora = dataVenda.getHour();
+        MapaHorarioVendas depois = vendaService.obterMapaHorario(1);
+        assertThat(depois.vendas(dia, hora)).isEqualTo(antes.vendas(dia, hora) + 1);
+        assertThat(depois.valor(dia, hora)).isEqualByComparingTo(antes.valor(dia, hora).add(new BigDecimal("20.00")));
+        assertThat(depois.totalVendas()).isEqualTo(antes.totalVendas() + 1);
+        int diaCancelada = cancelada.getDataVenda().getDayOfWeek().getValue() - 1;
+        int horaCancelada = cancelada.getDataVenda().getHour();
+        assertThat(depois.canceladas(diaCancelada, horaCancelada))
+                .isEqualTo(antes.canceladas(diaCancelada, horaCancelada) + 1);
+
+        entityManager.flush();
+        job.reconstruir();
+
+        MapaHorarioVendas reconstruido = vendaService.obterMapaHorario(1);
+        assertThat(reconstruido.vendas()).isEqualTo(depois.vendas());
+        assertThat(reconstruido.canceladas()).isEqualTo(depois.canceladas());
+    }
+}
@@ -0,0 +1,168 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.Venda;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede as consultas do painel e das estatísticas sobre um histórico grande gerado pelo
+ * {@code GeradorDadosSinteticos}, antes e depois do arquivamento.
+ * <p>
+ * O perfil do gerador preenche o banco do contêiner com 24 meses de vendas, todas nas
+ * tabelas em uso; o {@link VendaArquivamentoJob} então move os meses fora do horizonte
+ * em uso. Cada consulta roda uma vez para aquecer e {@link #REPETICOES} vezes medidas,
+ * e a mediana de cada fase é registrada no log. O tempo depende da máquina e não é
+ * verificado; o teste verifica que os totais e as estatísticas dão o mesmo resultado
+ * nas duas fases e que as linhas arquivadas saíram das tabelas em uso.
+ * </p>
+ * <p>
+ * O volume padrão é de 400 mil vendas (cerca de 1 milhão de itens). O cenário de 50
+ * milhões de linhas históricas é medido com {@code mvn -Pintegration-test verify
+ * -Dit.test=VendaHistoricoVolumeIT -Dpdv.teste.historico.vendas=19200000} (2,6 itens
+ * por venda, em média).
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles("gerador")
+@TestPropertySource(properties = {
+        "pdv.gerador.produtos=10000",
+        "pdv.gerador.vendas=${pdv.teste.historico.vendas:400000}",
+        "pdv.gerador.meses=24",
+        "pdv.arquivamento.tamanho-lote=10000" })
+class VendaHistoricoVolumeIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendaHistoricoVolumeIT.class);
+
+    private static final int REPETICOES = 5;
+
+    // Ordenadas por um total ou por data com empates, então a ordem pode mudar com o plano
+    private static final String PRODUTOS_MAIS_VENDIDOS = "Produtos mais vendidos";
+    private static final String ULTIMAS_VENDAS = "Últimas vendas";
+
+    private record Medicao(Object resultado, long milissegundos) {
+    }
+
+    @Autowired
+    VendaService vendaService;
+
+    @Autowired
+    VendaArquivamentoJob job;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    Clock clock;
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void consultas_do_painel_antes_e_depois_do_arquivamento() {
+        LocalDate hoje = LocalDate.now(clock);
+        Map<String, Supplier<Object>> consultas = consultas(hoje);
+        long vendasEmUsoAntes = contar("venda");
+        long itensEmUsoAntes = contar("item_venda");
+
+        Map<String, Medicao> antes = medir(consultas);
+
+        ResultadoArquivamento arquivamento = job.executar();
+        assertThat(arquivamento.vendas()).isPositive();
+        long vendasEmUsoDepois = contar("venda");
+        long itensEmUsoDepois = contar("item_venda");
+
+        Map<String, Medicao> depois = medir(consultas);
+
+        logger.info("Tabelas em uso: {} vendas e {} itens antes, {} vendas e {} itens depois de arquivar {} vendas "
+                + "em {} s", vendasEmUsoAntes, itensEmUsoAntes, vendasEmUsoDepois, itensEmUsoDepois,
+                arquivamento.vendas(), arquivamento.duracao().toSeconds());
+        consultas.keySet().forEach(consulta -> logger.info("{}: {} ms antes, {} ms depois", consulta,
+                antes.get(consulta).milissegundos(), depois.get(consulta).milissegundos()));
+
+        assertThat(vendasEmUsoDepois).isEqualTo(vendasEmUsoAntes - arquivamento.vendas());
+        assertThat(itensEmUsoDepois).isEqualTo(itensEmUsoAntes - arquivamento.itens());
+        for (String consulta : consultas.keySet()) {
+            if (consulta.equals(PRODUTOS_MAIS_VENDIDOS) || consulta.equals(ULTIMAS_VENDAS)) {
+                continue;
+            }
+            assertThat(depois.get(consulta).resultado()).as(consulta).isEqualTo(antes.get(consulta).resultado());
+        }
+    }
+
+    /**
+     * As consultas do painel ({@code MainView}), com os mesmos períodos.
+     */
+    private Map<String, Supplier<Object>> consultas(LocalDate hoje) {
+        LocalDateTime fim = hoje.atTime(23, 59, 59);
+        Map<String, Supplier<Object>> consultas = new LinkedHashMap<>();
+        consultas.put("Total do dia", vendaService::calcularTotalVendasHoje);
+        consultas.put("Vendas do dia", vendaService::contarVendasHoje);
+        consultas.put("Total do mês", vendaService::calcularTotalVendasMes);
+        consultas.put("Vendas finalizadas", () -> vendaService.contarVendasPorStatus(Venda.StatusVenda.FINALIZADA));
+        consultas.put("Vendas por dia (30 dias)", () -> linhas(
+                vendaService.obterEstatisticasPorDia(hoje.minusDays(30).atStartOfDay(), fim)));
+        consultas.put("Formas de pagamento (mês)", () -> linhas(
+                vendaService.obterEstatisticasPorFormaPagamento(hoje.withDayOfMonth(1).atStartOfDay(), fim)));
+        consultas.put(PRODUTOS_MAIS_VENDIDOS, () -> linhas(vendaService.buscarProdutosMaisVendidos(10)));
+        consultas.put(ULTIMAS_VENDAS, () -> vendaService.listarVendasPorStatus(Venda.StatusVenda.FINALIZADA,
+                PageRequest.of(0, 10)).map(Venda::getId).getContent());
+        return consultas;
+    }
+
+    private Map<String, Medicao> medir(Map<String, Supplier<Object>> consultas) {
+        jdbcTemplate.execute("ANALYZE venda");
+        jdbcTemplate.execute("ANALYZE item_venda");
+        Map<String, Medicao> medicoes = new LinkedHashMap<>();
+        consultas.forEach((consulta, execucao) -> {
+            Object resultado = execucao.get();
+            long[] tempos = new long[REPETICOES];
+            for (int i = 0; i < REPETICOES; i++) {
+                long inicio = System.nanoTime();
+                execucao.get();
+                tempos[i] = (System.nanoTime() - inicio) / 1_000_000;
+            }
+            Arrays.sort(tempos);
+            medicoes.put(consulta, new Medicao(resultado, tempos[REPETICOES / 2]));
+        });
+        return medicoes;
+    }
+
+    private long contar(String tabela) {
+        Long linhas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabela, Long.class);
+        return linhas == null ? 0 : linhas;
+    }
+
+    /**
+     * Linhas das estatísticas como listas, comparáveis por valor, ordenadas pela primeira
+     * coluna: as formas de pagamento vêm agrupadas sem ordem definida.
+     */
+    private static List<List<Object>> linhas(List<Object[]> resultado) {
+        List<List<Object>> linhas = new ArrayList<>(resultado.size());
+        resultado.forEach(linha -> linhas.add(Arrays.asList(linha)));
+        linhas.sort(Comparator.comparing(linha -> String.valueOf(linha.get(0))));
+        return linhas;
+    }
+}
@@ -0,0 +1,105 @@
+package com.leandrosnazareth.venda.service;
+
+import com.leandrosnazareth.TestcontainersConfiguration;
+import com.leandrosnazareth.produto.domain.Produto;
+import com.leandrosnazareth.produto.service.ProdutoService;
+import com.leandrosnazareth.security.dev.SampleUsers;
+import com.leandrosnazareth.venda.domain.Venda;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que a venda registra o custo dos itens e soma nos agregados de lucro, e que
+ * a reconstrução chega às mesmas somas.
+ * <p>
+ * As somas são gravadas na transação da venda, então o teste roda numa transação
+ * desfeita ao final, com a reconstrução. Só as linhas zeradas dos agregados, criadas em
+ * transação própria, são excluídas depois.
+ * </p>
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class VendaLucroIT {
+
+    private static final String CATEGORIA = "Lucro IT";
+
+
+    @Autowired
+    VendaService vendaService;
+
+    @Autowired
+    ProdutoService produtoService;
+
+    @Autowired
+    VendaLucroJob job;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Long produtoId;
+
+    Date dia;
+
+    @AfterTransaction
+    void excluirLinhasZeradas() {
+        if (dia != null) {
+            jdbcTemplate.update("DELETE FROM venda_lucro_produto WHERE dia = ? AND produto_id = ?", dia, produtoId);
+            jdbcTemplate.update("DELETE FROM venda_lucro_categoria WHERE dia = ? AND categoria = ? AND quantidade = 0",
+                    dia, CATEGORIA);
+            jdbcTemplate.update("DELETE FROM venda_lucro_dia WHERE dia = ? AND vendas = 0", dia);
+        }
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void venda_soma_custo_e_receita_nos_agregados() {
+        Produto produto = new Produto("LUC001", "Lucro", BigDecimal.TEN);
+        produto.setCategoria(CATEGORIA);
+        produto.setPrecoCompra(new BigDecimal("6.00"));
+        produto.setEstoqueAtual(100);
+        produtoId = produtoService.criarProduto(produto).getId();
+
+        Venda venda = vendaService.criarVenda(Venda.FormaPagamento.DINHEIRO);
+        vendaService.adicionarItem(venda.getId(), produtoId, 3);
+        Venda finalizada = vendaService.finalizarVenda(venda.getId(), BigDecimal.valueOf(50));
+        dia = Date.valueOf(finalizada.getDataVenda().toLocalDate());
+        // A reconstrução lê os itens por JDBC
+        entityManager.flush();
+
+        Map<String, Object> item = jdbcTemplate.queryForMap("SELECT custo_unitario, categoria FROM item_venda "
+                + "WHERE venda_id = ?", finalizada.getId());
+        assertThat((BigDecimal) item.get("custo_unitario")).isEqualByComparingTo("6.00");
+        assertThat(item.get("categoria")).isEqualTo(CATEGORIA);
+        Map<String, Object> somas = somasDoProduto(produtoId);
+        assertThat(((Number) somas.get("quantidade")).longValue()).isEqualTo(3);
+        assertThat((BigDecimal) somas.get("receita")).isEqualByComparingTo("30.00");
+        assertThat((BigDecimal) somas.get("custo")).isEqualByComparingTo("18.00");
+        assertThat((BigDecimal) somas.get("receita_sem_custo")).isEqualByComparingTo("0");
+
+        job.reconstruir();
+
+        assertThat(somasDoProduto(produtoId)).isEqualTo(somas);
+    }
+
+    private Map<String, Object> somasDoProduto(Long produtoId) {
+        return jdbcTemplate.queryForMap("SELECT quantidade, receita, custo, receita_sem_custo "
+                + "FROM venda_lucro_produto WHERE produto_id = ?", produtoId);
+    }
+}